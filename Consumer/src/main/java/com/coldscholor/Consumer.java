@@ -1,5 +1,6 @@
 package com.coldscholor;
 
+import com.coldscholor.annotation.RpcReference;
 import com.coldscholor.proxy.ProxyFactory;
 
 /**
@@ -9,8 +10,13 @@ import com.coldscholor.proxy.ProxyFactory;
  * @date 2025/09/13 13:30
  **/
 public class Consumer {
+    /** 编译期为引用的接口生成调用桩，ProxyFactory.getProxy返回调用桩而不是JDK动态代理 */
+    @RpcReference
+    private static HelloService helloService;
+
     public static void main(String[] args) {
-        HelloService service = ProxyFactory.getProxy(HelloService.class);
+        helloService = ProxyFactory.getProxy(HelloService.class);
+        HelloService service = helloService;
         String result = service.sayHello("coldscholor");
         System.out.println(result);
     }
@@ -1,9 +1,12 @@
 package com.coldscholor;
 
+import com.coldscholor.annotation.RpcService;
+
 /**
  * @author 寒士obj
  * @date 2025/09/13 13:29
  **/
+@RpcService(version = "2.0")
 public class HelloServiceImpl2 implements HelloService{
     @Override
     public String sayHello(String name) {
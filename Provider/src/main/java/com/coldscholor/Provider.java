@@ -2,8 +2,8 @@ package com.coldscholor;
 
 import com.coldscholor.common.URL;
 import com.coldscholor.protocol.HttpServer;
-import com.coldscholor.register.LocalRegister;
 import com.coldscholor.register.MapRemoteRegister;
+import com.coldscholor.register.RpcModules;
 
 /**
  * @author 寒士obj
@@ -11,13 +11,12 @@ import com.coldscholor.register.MapRemoteRegister;
  **/
 public class Provider {
     public static void main(String[] args) {
-        // 本地注册
-        LocalRegister.register(HelloService.class.getName(), "1.0", HelloServiceImpl.class);
-        LocalRegister.register(HelloService.class.getName(), "2.0", HelloServiceImpl2.class);
-
-        // 注册中心注册，服务注册
+        // 本地注册：导出编译期生成的@RpcService服务，不扫描类路径
         URL url = new URL("127.0.0.1", 8080);
-        MapRemoteRegister.register(HelloService.class.getName(), url);
+        for (String interfaceName : RpcModules.exportServices()) {
+            // 注册中心注册，服务注册
+            MapRemoteRegister.register(interfaceName, url);
+        }
 
         // Netty/Tomcat来接收网络请求
         HttpServer server = new HttpServer();
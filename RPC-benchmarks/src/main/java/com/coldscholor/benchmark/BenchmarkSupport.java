@@ -0,0 +1,73 @@
+package com.coldscholor.benchmark;
+
+import com.coldscholor.annotation.RpcService;
+import com.coldscholor.protocol.HttpServer;
+import com.coldscholor.register.LocalRegister;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基准测试共用的回显服务和本地服务端
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+final class BenchmarkSupport {
+
+    public interface EchoService {
+        String echo(String message);
+    }
+
+    @RpcService
+    public static class EchoServiceImpl implements EchoService {
+        @Override
+        public String echo(String message) {
+            return message;
+        }
+    }
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 注册回显服务并在空闲端口上启动Tomcat，返回端口
+     */
+    static int startEchoServer() throws Exception {
+        int port = freePort();
+        LocalRegister.register(EchoService.class.getName(), "1.0", EchoServiceImpl.class);
+        Thread server = new Thread(() -> new HttpServer().start("127.0.0.1", port), "benchmark-server");
+        server.setDaemon(true);
+        server.start();
+        awaitPort(port);
+        return port;
+    }
+
+    static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    static void awaitPort(int port) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("127.0.0.1", port), 200);
+                return;
+            } catch (Exception e) {
+                Thread.sleep(100);
+            }
+        }
+        throw new IllegalStateException("Server did not start on port " + port);
+    }
+
+    static String text(int length) {
+        char[] chars = new char[length];
+        Arrays.fill(chars, 'x');
+        return new String(chars);
+    }
+}
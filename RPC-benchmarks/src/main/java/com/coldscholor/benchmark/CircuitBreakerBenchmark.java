@@ -0,0 +1,52 @@
+package com.coldscholor.benchmark;
+
+import com.coldscholor.circuitbreaker.CircuitBreakerManager;
+import com.coldscholor.common.URL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 熔断器保护一次成功调用的开销：查找(端点, 方法)熔断器、申请许可、记录成功和异常端点统计
+ * 多线程版本测量同一熔断器上计数窗口的争用
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CircuitBreakerBenchmark {
+
+    private final CircuitBreakerManager manager = CircuitBreakerManager.getInstance();
+
+    private final URL url = new URL("127.0.0.1", 8080);
+
+    private final String serviceName = "com.coldscholor.HelloService.sayHello";
+
+    private final Supplier<String> call = () -> "ok";
+
+    @Benchmark
+    public String executeWithCircuitBreaker() {
+        return manager.executeWithCircuitBreaker(url, serviceName, call);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String executeWithCircuitBreakerContended() {
+        return manager.executeWithCircuitBreaker(url, serviceName, call);
+    }
+}
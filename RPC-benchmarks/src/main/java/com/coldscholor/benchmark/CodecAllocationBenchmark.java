@@ -0,0 +1,60 @@
+package com.coldscholor.benchmark;
+
+import com.coldscholor.common.Invocation;
+import com.coldscholor.protocol.ImprovedHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地Tomcat回显的完整调用：客户端编码、HTTP传输、服务端解码分发和响应编解码
+ * 配合GC分析器的gc.alloc.rate.norm观察每次调用的分配字节数
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class CodecAllocationBenchmark {
+
+    @Param({"128", "16384"})
+    public int payloadSize;
+
+    private String url;
+
+    private Invocation invocation;
+
+    private ImprovedHttpClient client;
+
+    @Setup
+    public void setUp() throws Exception {
+        url = "http://127.0.0.1:" + BenchmarkSupport.startEchoServer();
+        invocation = new Invocation(BenchmarkSupport.EchoService.class.getName(), "echo",
+            new Class[]{String.class}, new Object[]{BenchmarkSupport.text(payloadSize)});
+        client = ImprovedHttpClient.getInstance();
+    }
+
+    @Benchmark
+    public String asyncCall() throws Exception {
+        return client.sendRequestAsync(url, invocation).get();
+    }
+
+    @Benchmark
+    public String blockingCall() throws Exception {
+        return client.sendRequest(url, invocation);
+    }
+}
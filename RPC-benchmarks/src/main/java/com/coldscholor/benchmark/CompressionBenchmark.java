@@ -0,0 +1,103 @@
+package com.coldscholor.benchmark;
+
+import com.coldscholor.buffer.PooledByteArrayOutputStream;
+import com.coldscholor.compress.CompressionCodec;
+import com.coldscholor.compress.DeflateCodec;
+import com.coldscholor.compress.GzipCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * 压缩的CPU与字节数权衡：对不同大小的重复性文本负载（JSON记录）测量各编码的压缩和解压耗时，
+ * 压缩后大小在准备阶段打印一次
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"deflate-1", "deflate-6", "gzip-1", "gzip-6"})
+    public String codecName;
+
+    @Param({"1024", "16384", "262144"})
+    public int payloadSize;
+
+    private CompressionCodec codec;
+
+    private byte[] payload;
+
+    private PooledByteArrayOutputStream compressed;
+
+    @Setup
+    public void setUp() throws IOException {
+        int level = codecName.endsWith("-1") ? Deflater.BEST_SPEED : Deflater.DEFAULT_COMPRESSION;
+        codec = codecName.startsWith("gzip") ? new GzipCodec(level) : new DeflateCodec(level);
+        payload = payload(payloadSize);
+        compressed = new PooledByteArrayOutputStream(payload.length);
+        codec.compress(payload, 0, payload.length, compressed);
+        System.out.printf("%n%s %dB -> %dB (%.1fx)%n", codecName, payload.length, compressed.size(),
+            payload.length / (double) compressed.size());
+    }
+
+    @TearDown
+    public void tearDown() {
+        compressed.release();
+    }
+
+    @Benchmark
+    public int compress() throws IOException {
+        PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(payload.length / 2);
+        codec.compress(payload, 0, payload.length, out);
+        int size = out.size();
+        out.release();
+        return size;
+    }
+
+    @Benchmark
+    public int decompress() throws IOException {
+        PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(payload.length);
+        codec.decompress(compressed.array(), 0, compressed.size(), out);
+        int size = out.size();
+        out.release();
+        return size;
+    }
+
+    /**
+     * 生成接近线上响应的重复性文本：字段名固定，取值随机
+     */
+    private static byte[] payload(int size) {
+        Random random = new Random(42);
+        String[] statuses = {"ACTIVE", "SUSPENDED", "PENDING", "CLOSED"};
+        StringBuilder json = new StringBuilder("[");
+        while (json.length() < size) {
+            json.append("{\"id\":").append(random.nextInt(1000000))
+                .append(",\"name\":\"user").append(random.nextInt(10000))
+                .append("\",\"status\":\"").append(statuses[random.nextInt(statuses.length)])
+                .append("\",\"balance\":").append(random.nextInt(100000) / 100.0).append("},");
+        }
+        json.setLength(size);
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,113 @@
+package com.coldscholor.benchmark;
+
+import com.coldscholor.buffer.PooledByteArrayOutputStream;
+import com.coldscholor.common.Invocation;
+import com.coldscholor.common.MethodDescriptor;
+import com.coldscholor.common.MethodRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invocation的JDK序列化编码和解码，按客户端写入租用缓冲区、服务端从字节流读取的方式测量
+ * 负载形态：短字符串、长字符串、多个基本类型参数、字节数组，以及带追踪附件的短字符串；
+ * 调用形式：带接口名、方法名和参数类型的完整形式，以及方法ID握手后只带方法ID的紧凑形式
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvocationCodecBenchmark {
+
+    @Param({"smallString", "largeString", "primitives", "bytes", "attachments"})
+    public String shape;
+
+    @Param({"full", "compact"})
+    public String form;
+
+    private Invocation invocation;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        invocation = create(shape);
+        if ("compact".equals(form)) {
+            invocation = invocation.compact(new MethodRef(MethodDescriptor.stableHash(invocation.getInterfaceName() + ":1.0"),
+                MethodDescriptor.stableHash(invocation.getMethodName()), 1));
+        }
+        PooledByteArrayOutputStream body = encode();
+        encoded = new byte[body.size()];
+        System.arraycopy(body.array(), 0, encoded, 0, body.size());
+        body.release();
+    }
+
+    private static Invocation create(String shape) {
+        switch (shape) {
+            case "smallString":
+                return new Invocation("com.coldscholor.HelloService", "sayHello",
+                    new Class[]{String.class}, new Object[]{"coldscholor"});
+            case "largeString":
+                return new Invocation("com.coldscholor.HelloService", "sayHello",
+                    new Class[]{String.class}, new Object[]{BenchmarkSupport.text(16 * 1024)});
+            case "primitives":
+                return new Invocation("com.coldscholor.OrderService", "query",
+                    new Class[]{long.class, int.class, int.class, boolean.class, String.class},
+                    new Object[]{123456789L, 0, 50, true, "CREATED"});
+            case "bytes":
+                return new Invocation("com.coldscholor.FileService", "upload",
+                    new Class[]{String.class, byte[].class}, new Object[]{"avatar.png", new byte[64 * 1024]});
+            case "attachments":
+                Invocation invocation = new Invocation("com.coldscholor.HelloService", "sayHello",
+                    new Class[]{String.class}, new Object[]{"coldscholor"});
+                invocation.setAttachment("rpc.trace.id", "0af7651916cd43dd8448eb211c80319c");
+                invocation.setAttachment("rpc.span.id", "b7ad6b7169203331");
+                invocation.setAttachment("rpc.sampled", "1");
+                return invocation;
+            default:
+                throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+    }
+
+    private PooledByteArrayOutputStream encode() throws IOException {
+        PooledByteArrayOutputStream body = new PooledByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(body)) {
+            oos.writeObject(invocation);
+        }
+        return body;
+    }
+
+    @Benchmark
+    public int serialize() throws IOException {
+        PooledByteArrayOutputStream body = encode();
+        int size = body.size();
+        body.release();
+        return size;
+    }
+
+    @Benchmark
+    public Invocation deserialize() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(encoded))) {
+            return (Invocation) ois.readObject();
+        }
+    }
+}
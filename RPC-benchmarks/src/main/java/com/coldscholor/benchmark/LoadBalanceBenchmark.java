@@ -0,0 +1,60 @@
+package com.coldscholor.benchmark;
+
+import com.coldscholor.common.URL;
+import com.coldscholor.limit.ConcurrencyLimiterManager;
+import com.coldscholor.loadbalance.LoadBalance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各负载均衡策略在不同集群规模下的单次选择耗时
+ * 端点权重1~10不等；自适应策略的并发限制器在预热时创建，测量的是常驻状态下的两次查找
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBalanceBenchmark {
+
+    @Param({"RANDOM", "ROUND_ROBIN", "WEIGHTED_RANDOM", "ADAPTIVE"})
+    public LoadBalance.Strategy strategy;
+
+    @Param({"3", "16", "128"})
+    public int clusterSize;
+
+    private List<URL> urls;
+
+    @Setup
+    public void setUp() {
+        urls = new ArrayList<>(clusterSize);
+        for (int i = 0; i < clusterSize; i++) {
+            urls.add(new URL("10.0." + (i / 256) + "." + (i % 256), 8080, 1 + i % 10));
+        }
+        for (URL url : urls) {
+            ConcurrencyLimiterManager.getInstance().getLimiter(url);
+        }
+    }
+
+    @Benchmark
+    public URL select() {
+        return LoadBalance.select(urls, strategy);
+    }
+}
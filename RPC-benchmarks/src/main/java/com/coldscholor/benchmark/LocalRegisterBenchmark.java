@@ -0,0 +1,50 @@
+package com.coldscholor.benchmark;
+
+import com.coldscholor.register.LocalRegister;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地注册中心按接口名和版本查找实现类，服务端每个请求查找一次
+ * 接口名来自反序列化，每次都是新字符串，拼接键时需要重新计算哈希
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalRegisterBenchmark {
+
+    @Param({"10", "1000"})
+    public int serviceCount;
+
+    private char[] interfaceName;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < serviceCount; i++) {
+            LocalRegister.register("com.coldscholor.service.Service" + i, "1.0", BenchmarkSupport.EchoServiceImpl.class);
+        }
+        interfaceName = ("com.coldscholor.service.Service" + (serviceCount / 2)).toCharArray();
+    }
+
+    @Benchmark
+    public Class lookup() {
+        return LocalRegister.get(new String(interfaceName), "1.0");
+    }
+}
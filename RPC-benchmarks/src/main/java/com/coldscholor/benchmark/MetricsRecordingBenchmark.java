@@ -0,0 +1,62 @@
+package com.coldscholor.benchmark;
+
+import com.coldscholor.common.URL;
+import com.coldscholor.metrics.CallMetrics;
+import com.coldscholor.metrics.LatencyHistogram;
+import com.coldscholor.metrics.MetricsRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 调用指标的记录开销：直方图记录、按(端点, 服务名)查找指标再记录，以及作为参照的System.nanoTime()
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsRecordingBenchmark {
+
+    private final URL url = new URL("127.0.0.1", 8080);
+
+    private final String serviceName = "com.coldscholor.HelloService.sayHello";
+
+    private final MetricsRegistry registry = MetricsRegistry.getInstance();
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Benchmark
+    public long baselineNanoTime() {
+        return System.nanoTime();
+    }
+
+    @Benchmark
+    public void histogramRecord() {
+        histogram.record(123_456L);
+    }
+
+    @Benchmark
+    public void lookupAndRecord() {
+        registry.getConsumerMetrics(url, serviceName).recordSuccess(123_456L);
+    }
+
+    @Benchmark
+    public void lookupAndRecordTimed() {
+        long start = System.nanoTime();
+        CallMetrics metrics = registry.getConsumerMetrics(url, serviceName);
+        metrics.recordSuccess(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,105 @@
+package com.coldscholor.benchmark;
+
+import com.coldscholor.schedule.FairScheduler;
+import com.coldscholor.schedule.PriorityClass;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 混合流量下提供端执行名额的排队延迟：2个名额，每次调用占用名额约serviceMicros微秒（park模拟等待下游）
+ * mixed组：1个交互调用方和6个批处理调用方同时持续调用；
+ * callers组：同一等级下5个线程的重调用方和1个线程的轻调用方。
+ * FAIR为FairScheduler，FIFO为公平信号量（先到先得，不区分等级和调用方），对比交互请求和轻调用方的延迟分位数
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MixedTrafficBenchmark {
+
+    @Param({"FAIR", "FIFO"})
+    public String scheduler;
+
+    @Param({"50"})
+    public long serviceMicros;
+
+    private FairScheduler fairScheduler;
+
+    private Semaphore fifo;
+
+    @Setup
+    public void setUp() {
+        if ("FAIR".equals(scheduler)) {
+            fairScheduler = new FairScheduler(2, TimeUnit.MILLISECONDS.toNanos(50), Collections.emptyMap());
+        } else {
+            fifo = new Semaphore(2, true);
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void interactive() {
+        call(PriorityClass.INTERACTIVE, "web");
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public void batch() {
+        call(PriorityClass.BATCH, "backfill");
+    }
+
+    @Benchmark
+    @Group("callers")
+    @GroupThreads(5)
+    public void heavyCaller() {
+        call(PriorityClass.NORMAL, "heavy");
+    }
+
+    @Benchmark
+    @Group("callers")
+    @GroupThreads(1)
+    public void lightCaller() {
+        call(PriorityClass.NORMAL, "light");
+    }
+
+    private void call(PriorityClass priorityClass, String caller) {
+        if (fairScheduler != null) {
+            fairScheduler.acquire(priorityClass, caller, 0L);
+            try {
+                LockSupport.parkNanos(serviceMicros * 1000);
+            } finally {
+                fairScheduler.release(priorityClass);
+            }
+        } else {
+            fifo.acquireUninterruptibly();
+            try {
+                LockSupport.parkNanos(serviceMicros * 1000);
+            } finally {
+                fifo.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.coldscholor.benchmark;
+
+import com.coldscholor.annotation.RpcReference;
+import com.coldscholor.proxy.ProxyFactory;
+import com.coldscholor.register.LocalRegister;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JDK动态代理的调用开销，从直接调用到经过ProxyFactory的进程内调用逐层对比：
+ * 直接调用、空代理转发(Method.invoke)、ProxyFactory代理（熔断器、指标和追踪，服务在本JVM中导出），
+ * 以及同样经过ProxyFactory、但由编译期生成的调用桩代替JDK动态代理
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProxyDispatchBenchmark {
+
+    private BenchmarkSupport.EchoService direct;
+
+    private BenchmarkSupport.EchoService jdkProxy;
+
+    private BenchmarkSupport.EchoService rpcProxy;
+
+    /** 编译期为这个字段的接口生成调用桩 */
+    @RpcReference
+    private BenchmarkSupport.EchoService rpcStub;
+
+    private final String message = "ping";
+
+    @Setup
+    public void setUp() {
+        direct = new BenchmarkSupport.EchoServiceImpl();
+        BenchmarkSupport.EchoService target = direct;
+        jdkProxy = (BenchmarkSupport.EchoService) Proxy.newProxyInstance(
+            BenchmarkSupport.EchoService.class.getClassLoader(),
+            new Class[]{BenchmarkSupport.EchoService.class},
+            (proxy, method, args) -> method.invoke(target, args));
+        LocalRegister.register(BenchmarkSupport.EchoService.class.getName(), "1.0", BenchmarkSupport.EchoServiceImpl.class);
+        rpcProxy = ProxyFactory.getDynamicProxy(BenchmarkSupport.EchoService.class);
+        rpcStub = ProxyFactory.getProxy(BenchmarkSupport.EchoService.class);
+    }
+
+    @Benchmark
+    public String directCall() {
+        return direct.echo(message);
+    }
+
+    @Benchmark
+    public String jdkProxyCall() {
+        return jdkProxy.echo(message);
+    }
+
+    @Benchmark
+    public String rpcProxyLocalCall() {
+        return rpcProxy.echo(message);
+    }
+
+    @Benchmark
+    public String rpcStubLocalCall() {
+        return rpcStub.echo(message);
+    }
+}
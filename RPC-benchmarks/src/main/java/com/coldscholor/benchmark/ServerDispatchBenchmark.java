@@ -0,0 +1,84 @@
+package com.coldscholor.benchmark;
+
+import com.coldscholor.common.Invocation;
+import com.coldscholor.common.MethodDescriptor;
+import com.coldscholor.register.ExportedService;
+import com.coldscholor.register.LocalRegister;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务端解码之后的分发：按HttpServerHandler的方式查找实现类、getMethod查找方法、创建实例并反射调用，
+ * 对比缓存Method后只剩反射调用的开销，以及现在按方法编号经过反射分发器和编译期生成的switch分发器的开销。
+ * 网络和编解码部分见CodecAllocationBenchmark
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServerDispatchBenchmark {
+
+    private Invocation invocation;
+
+    private Method cachedMethod;
+
+    private Object cachedInstance;
+
+    /** 手动注册的服务，使用反射分发器 */
+    private ExportedService reflectiveService;
+
+    /** 生成的分发器导出的服务 */
+    private ExportedService generatedService;
+
+    @Setup
+    public void setUp() throws Exception {
+        LocalRegister.register(BenchmarkSupport.EchoService.class.getName(), "1.0", BenchmarkSupport.EchoServiceImpl.class);
+        invocation = new Invocation(BenchmarkSupport.EchoService.class.getName(), "echo",
+            new Class[]{String.class}, new Object[]{"ping"});
+        cachedMethod = BenchmarkSupport.EchoServiceImpl.class.getMethod("echo", String.class);
+        cachedInstance = new BenchmarkSupport.EchoServiceImpl();
+        reflectiveService = LocalRegister.getService(invocation.getInterfaceName(), "1.0");
+        LocalRegister.register(invocation.getInterfaceName(), "generated", new BenchmarkSupport_EchoServiceImpl$$RpcDispatcher());
+        generatedService = LocalRegister.getService(invocation.getInterfaceName(), "generated");
+    }
+
+    @Benchmark
+    public Object reflectiveDispatch() throws Exception {
+        Class implClass = LocalRegister.get(invocation.getInterfaceName(), "1.0");
+        Method method = implClass.getMethod(invocation.getMethodName(), invocation.getParameterTypes());
+        return method.invoke(implClass.newInstance(), invocation.getArguments());
+    }
+
+    @Benchmark
+    public Object cachedMethodDispatch() throws Exception {
+        return cachedMethod.invoke(cachedInstance, invocation.getArguments());
+    }
+
+    @Benchmark
+    public Object reflectiveDispatcher() throws Exception {
+        MethodDescriptor method = reflectiveService.findMethod(invocation.getMethodName(), invocation.getParameterTypes());
+        return reflectiveService.invoke(method, invocation.getArguments());
+    }
+
+    @Benchmark
+    public Object generatedDispatcher() throws Exception {
+        MethodDescriptor method = generatedService.findMethod(invocation.getMethodName(), invocation.getParameterTypes());
+        return generatedService.invoke(method, invocation.getArguments());
+    }
+}
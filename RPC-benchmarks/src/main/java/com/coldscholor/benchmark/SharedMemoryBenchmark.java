@@ -0,0 +1,101 @@
+package com.coldscholor.benchmark;
+
+import com.coldscholor.common.Invocation;
+import com.coldscholor.common.URL;
+import com.coldscholor.protocol.HttpServer;
+import com.coldscholor.protocol.ImprovedHttpClient;
+import com.coldscholor.register.LocalRegister;
+import com.coldscholor.shm.SharedMemoryClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本机调用延迟对比：共享内存传输 vs 回环HTTP（阻塞/NIO）
+ * 提供者在单独的JVM中启动（同时开启Tomcat和共享内存服务端），消费者单线程顺序调用，
+ * 采样模式输出各传输的延迟分位数
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SharedMemoryBenchmark {
+
+    @Param({"128"})
+    public int payloadSize;
+
+    /** 提供者共享内存服务端的等待策略 */
+    @Param({"PARK", "SPIN"})
+    public String waitStrategy;
+
+    private Process provider;
+
+    private URL url;
+
+    private String httpUrl;
+
+    private Invocation invocation;
+
+    /**
+     * 提供者进程入口
+     */
+    public static void main(String[] args) {
+        LocalRegister.register(BenchmarkSupport.EchoService.class.getName(), "1.0", BenchmarkSupport.EchoServiceImpl.class);
+        new HttpServer().start("127.0.0.1", Integer.parseInt(args[0]));
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        int port = BenchmarkSupport.freePort();
+        provider = new ProcessBuilder(
+            new File(System.getProperty("java.home"), "bin/java").getPath(),
+            "-Drpc.shm.enabled=true", "-Drpc.shm.waitStrategy=" + waitStrategy,
+            "-cp", System.getProperty("java.class.path"),
+            SharedMemoryBenchmark.class.getName(), String.valueOf(port))
+            .inheritIO().start();
+        BenchmarkSupport.awaitPort(port);
+        url = new URL("127.0.0.1", port);
+        httpUrl = "http://" + url.getAddress();
+        invocation = new Invocation(BenchmarkSupport.EchoService.class.getName(), "echo",
+            new Class[]{String.class}, new Object[]{BenchmarkSupport.text(payloadSize)});
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        SharedMemoryClient.getInstance().shutdown();
+        provider.destroy();
+        provider.waitFor(5, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public String httpBlocking() throws Exception {
+        return ImprovedHttpClient.getInstance().sendRequest(httpUrl, invocation);
+    }
+
+    @Benchmark
+    public String httpAsync() throws Exception {
+        return ImprovedHttpClient.getInstance().sendRequestAsync(httpUrl, invocation).get();
+    }
+
+    @Benchmark
+    public String sharedMemory() throws Exception {
+        return SharedMemoryClient.getInstance().sendRequest(url, invocation, 5000);
+    }
+}
@@ -0,0 +1,47 @@
+package com.coldscholor.benchmark.loadgen;
+
+import com.coldscholor.common.Invocation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 默认负载：固定大小的请求和响应，服务端等待时间和CPU耗时可配置
+ * 参数：--payload=请求字节数(128) --response=响应字节数(128) --think=等待时间(0us) --cpu=CPU耗时(0us)
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class EchoWorkload implements Workload {
+
+    private String payload;
+
+    private int responseSize;
+
+    private long thinkMicros;
+
+    private long cpuMicros;
+
+    @Override
+    public void configure(Map<String, String> options) {
+        char[] chars = new char[Integer.parseInt(options.getOrDefault("payload", "128"))];
+        Arrays.fill(chars, 'x');
+        payload = new String(chars);
+        responseSize = Integer.parseInt(options.getOrDefault("response", "128"));
+        thinkMicros = LoadGenerator.parseDuration(options.getOrDefault("think", "0us")) / 1000;
+        cpuMicros = LoadGenerator.parseDuration(options.getOrDefault("cpu", "0us")) / 1000;
+    }
+
+    @Override
+    public Map<Class<?>, Class<?>> services() {
+        return Collections.singletonMap(LoadTestService.class, LoadTestServiceImpl.class);
+    }
+
+    @Override
+    public Invocation next() {
+        return new Invocation(LoadTestService.class.getName(), "handle",
+            new Class[]{String.class, int.class, long.class, long.class},
+            new Object[]{payload, responseSize, thinkMicros, cpuMicros});
+    }
+}
@@ -0,0 +1,294 @@
+package com.coldscholor.benchmark.loadgen;
+
+import com.coldscholor.async.AsyncRpcManager;
+import com.coldscholor.common.Invocation;
+import com.coldscholor.common.URL;
+import com.coldscholor.loadbalance.LoadBalance;
+import com.coldscholor.protocol.HttpServer;
+import com.coldscholor.register.LocalRegister;
+import com.coldscholor.register.MapRemoteRegister;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 开环压测工具
+ * 在本机启动N个提供者进程（各自一个Tomcat）并注册到注册中心，按阶段以固定速率发出异步调用：
+ * 第i次调用的计划时间为阶段开始时间 + i/速率，与之前的调用是否返回无关，提供者变慢时请求照样按计划到达。
+ * 延迟从计划时间算起（协调遗漏校正），按阶段输出吞吐量、错误率和p50/p99/p999
+ *
+ * 运行方式（先mvn -q install -DskipTests）：
+ * java -cp RPC-benchmarks/target/benchmarks.jar com.coldscholor.benchmark.loadgen.LoadGenerator \
+ *     --providers=2 --phases=warmup:10s@200,steady:30s@1000,overload:10s@3000 --think=2ms
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class LoadGenerator {
+
+    private static final String DEFAULT_PHASES = "warmup:5s@200,steady:20s@500";
+
+    private final Map<String, String> options;
+
+    private final Workload workload;
+
+    private final List<Phase> phases;
+
+    private final LoadBalance.Strategy strategy;
+
+    private final long timeoutMillis;
+
+    private final LongAdder outstanding = new LongAdder();
+
+    private LoadGenerator(Map<String, String> options) throws Exception {
+        this.options = options;
+        this.workload = createWorkload(options);
+        this.phases = Phase.parse(options.getOrDefault("phases", DEFAULT_PHASES));
+        this.strategy = LoadBalance.Strategy.valueOf(options.getOrDefault("lb", "ROUND_ROBIN"));
+        this.timeoutMillis = TimeUnit.NANOSECONDS.toMillis(parseDuration(options.getOrDefault("timeout", "5s")));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        if (options.containsKey("provider")) {
+            runProvider(options);
+            return;
+        }
+        new LoadGenerator(options).run();
+        System.exit(0);
+    }
+
+    /**
+     * 提供者进程：导出负载声明的服务并启动Tomcat
+     */
+    private static void runProvider(Map<String, String> options) throws Exception {
+        Workload workload = createWorkload(options);
+        for (Map.Entry<Class<?>, Class<?>> service : workload.services().entrySet()) {
+            LocalRegister.register(service.getKey().getName(), "1.0", service.getValue());
+        }
+        new HttpServer().start("127.0.0.1", Integer.parseInt(options.get("port")));
+    }
+
+    private void run() throws Exception {
+        int providerCount = Integer.parseInt(options.getOrDefault("providers", "2"));
+        List<Process> providers = new ArrayList<>();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> providers.forEach(Process::destroy)));
+        try {
+            List<URL> urls = startProviders(providerCount, providers);
+            System.out.printf("providers=%d phases=%s lb=%s timeout=%dms cpus=%d%n", providerCount,
+                options.getOrDefault("phases", DEFAULT_PHASES), strategy, timeoutMillis,
+                Runtime.getRuntime().availableProcessors());
+            drive(urls);
+            awaitOutstanding();
+            report();
+        } finally {
+            for (Process provider : providers) {
+                provider.destroy();
+                provider.waitFor(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    /**
+     * 启动提供者进程并注册到注册中心，压测端和Consumer一样从注册中心取得地址列表（只取一次）
+     */
+    private List<URL> startProviders(int count, List<Process> providers) throws Exception {
+        String interfaceName = null;
+        for (int i = 0; i < count; i++) {
+            int port = freePort();
+            List<String> command = new ArrayList<>();
+            command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+            // 透传框架配置，提供者和压测端使用同样的rpc.*参数
+            for (String name : System.getProperties().stringPropertyNames()) {
+                if (name.startsWith("rpc.")) {
+                    command.add("-D" + name + "=" + System.getProperty(name));
+                }
+            }
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(LoadGenerator.class.getName());
+            command.add("--provider");
+            command.add("--port=" + port);
+            for (Map.Entry<String, String> option : options.entrySet()) {
+                command.add("--" + option.getKey() + "=" + option.getValue());
+            }
+            providers.add(new ProcessBuilder(command).inheritIO().start());
+            awaitPort(port);
+            for (Class<?> service : workload.services().keySet()) {
+                interfaceName = service.getName();
+                MapRemoteRegister.register(interfaceName, new URL("127.0.0.1", port));
+            }
+        }
+        return MapRemoteRegister.get(interfaceName);
+    }
+
+    /**
+     * 单个调度线程按计划时间发出调用；落后于计划时立即发出，计划时间不变
+     */
+    private void drive(List<URL> urls) {
+        AsyncRpcManager manager = AsyncRpcManager.getInstance();
+        long phaseStart = System.nanoTime();
+        for (Phase phase : phases) {
+            double intervalNanos = TimeUnit.SECONDS.toNanos(1) / phase.rps;
+            long phaseEnd = phaseStart + phase.durationNanos;
+            PhaseStats stats = phase.stats;
+            for (long i = 0; ; i++) {
+                long intendedNanos = phaseStart + (long) (i * intervalNanos);
+                if (intendedNanos >= phaseEnd) {
+                    break;
+                }
+                long now;
+                while ((now = System.nanoTime()) < intendedNanos) {
+                    LockSupport.parkNanos(intendedNanos - now);
+                }
+                stats.recordSend(now - intendedNanos);
+                Invocation invocation = workload.next();
+                URL url = LoadBalance.select(urls, strategy);
+                outstanding.increment();
+                CompletableFuture<String> future;
+                try {
+                    future = manager.callAsyncWithTimeout(url, invocation, timeoutMillis, TimeUnit.MILLISECONDS);
+                } catch (RuntimeException e) {
+                    future = new CompletableFuture<>();
+                    future.completeExceptionally(e);
+                }
+                long sentNanos = now;
+                future.whenComplete((result, throwable) -> {
+                    stats.recordCompletion(intendedNanos, sentNanos, throwable);
+                    outstanding.decrement();
+                });
+            }
+            phaseStart = phaseEnd;
+        }
+    }
+
+    private void awaitOutstanding() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis * 2);
+        while (outstanding.sum() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        if (outstanding.sum() > 0) {
+            System.err.println(outstanding.sum() + " calls still outstanding, excluded from the report");
+        }
+    }
+
+    private void report() throws IOException {
+        System.out.printf("%n%-10s %7s %8s %8s %7s %7s %7s %10s %9s %9s %9s %9s %10s %9s%n",
+            "phase", "target", "sent", "ok", "err", "timeout", "reject", "tput/s",
+            "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)", "raw-p99", "lag(ms)");
+        List<String[]> rows = new ArrayList<>();
+        for (Phase phase : phases) {
+            PhaseStats stats = phase.stats;
+            long max = stats.maxCorrectedNanos.get();
+            long[] corrected = stats.corrected.quantilesNanos(0.5, 0.99, 0.999);
+            // 直方图返回桶上界，不超过实际最大值
+            for (int i = 0; i < corrected.length; i++) {
+                corrected[i] = Math.min(corrected[i], max);
+            }
+            long rawP99 = stats.uncorrected.quantileNanos(0.99);
+            double seconds = phase.durationNanos / 1e9;
+            String[] row = {
+                phase.name, format(phase.rps), String.valueOf(stats.sent.sum()), String.valueOf(stats.success.sum()),
+                String.valueOf(stats.errors.sum()), String.valueOf(stats.timeouts.sum()), String.valueOf(stats.rejected.sum()),
+                format(stats.success.sum() / seconds), millis(corrected[0]), millis(corrected[1]), millis(corrected[2]),
+                millis(max), millis(rawP99), millis(stats.maxSendLagNanos.get())
+            };
+            rows.add(row);
+            System.out.printf("%-10s %7s %8s %8s %7s %7s %7s %10s %9s %9s %9s %9s %10s %9s%n", (Object[]) row);
+        }
+        System.out.println("Latencies are measured from the scheduled send time (coordinated-omission corrected);"
+            + " raw-p99 is measured from the actual send time, lag is how far the sender fell behind schedule.");
+        String out = options.get("out");
+        if (out != null) {
+            try (PrintWriter writer = new PrintWriter(out, "UTF-8")) {
+                writer.println("phase,target_rps,sent,success,errors,timeouts,rejected,throughput,"
+                    + "p50_ms,p99_ms,p999_ms,max_ms,raw_p99_ms,max_send_lag_ms");
+                for (String[] row : rows) {
+                    writer.println(String.join(",", row));
+                }
+            }
+            System.out.println("Results written to " + out);
+        }
+    }
+
+    private static Workload createWorkload(Map<String, String> options) throws Exception {
+        String className = options.getOrDefault("workload", EchoWorkload.class.getName());
+        Workload workload = (Workload) Class.forName(className).getDeclaredConstructor().newInstance();
+        workload.configure(options);
+        return workload;
+    }
+
+    /**
+     * 解析--key=value参数，只有--key时值为"true"
+     */
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument '" + arg + "', expected --key=value");
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+
+    /**
+     * 解析带单位的时长(ns/us/ms/s/m)，返回纳秒；没有单位按毫秒
+     */
+    static long parseDuration(String value) {
+        // 两个字符的单位放在前面，避免"ms"被当成"s"
+        String[] units = {"ns", "us", "ms", "s", "m"};
+        long[] nanos = {1L, 1_000L, 1_000_000L, 1_000_000_000L, 60_000_000_000L};
+        for (int i = 0; i < units.length; i++) {
+            if (value.endsWith(units[i])) {
+                String number = value.substring(0, value.length() - units[i].length());
+                return (long) (Double.parseDouble(number) * nanos[i]);
+            }
+        }
+        return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(value));
+    }
+
+    private static String format(double value) {
+        return String.format("%.0f", value);
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1e6);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void awaitPort(int port) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("127.0.0.1", port), 200);
+                return;
+            } catch (Exception e) {
+                Thread.sleep(100);
+            }
+        }
+        throw new IllegalStateException("Provider did not start on port " + port);
+    }
+}
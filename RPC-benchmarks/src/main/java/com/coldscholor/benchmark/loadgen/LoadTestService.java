@@ -0,0 +1,18 @@
+package com.coldscholor.benchmark.loadgen;
+
+/**
+ * 压测用服务：按参数模拟服务端的等待时间、CPU耗时和响应大小
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public interface LoadTestService {
+
+    /**
+     * @param payload 请求负载
+     * @param responseSize 响应字符数
+     * @param thinkMicros 阻塞等待时间(微秒)，模拟下游I/O
+     * @param cpuMicros 忙等时间(微秒)，模拟计算
+     */
+    String handle(String payload, int responseSize, long thinkMicros, long cpuMicros);
+}
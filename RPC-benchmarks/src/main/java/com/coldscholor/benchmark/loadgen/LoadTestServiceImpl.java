@@ -0,0 +1,30 @@
+package com.coldscholor.benchmark.loadgen;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 压测用服务实现
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class LoadTestServiceImpl implements LoadTestService {
+
+    @Override
+    public String handle(String payload, int responseSize, long thinkMicros, long cpuMicros) {
+        if (cpuMicros > 0) {
+            long end = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(cpuMicros);
+            while (System.nanoTime() < end) {
+                // 忙等
+            }
+        }
+        if (thinkMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(thinkMicros));
+        }
+        char[] response = new char[responseSize];
+        Arrays.fill(response, 'r');
+        return new String(response);
+    }
+}
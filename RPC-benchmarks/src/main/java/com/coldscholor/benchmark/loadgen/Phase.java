@@ -0,0 +1,49 @@
+package com.coldscholor.benchmark.loadgen;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 压测阶段：名称、持续时间和目标速率
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+class Phase {
+
+    final String name;
+
+    final long durationNanos;
+
+    final double rps;
+
+    final PhaseStats stats;
+
+    Phase(String name, long durationNanos, double rps) {
+        if (durationNanos <= 0 || rps <= 0) {
+            throw new IllegalArgumentException("Phase " + name + " needs a positive duration and rate");
+        }
+        this.name = name;
+        this.durationNanos = durationNanos;
+        this.rps = rps;
+        this.stats = new PhaseStats();
+    }
+
+    /**
+     * 解析"名称:时长@速率"的逗号分隔列表，如 warmup:10s@200,steady:30s@500
+     */
+    static List<Phase> parse(String spec) {
+        List<Phase> phases = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            int colon = part.indexOf(':');
+            int at = part.indexOf('@');
+            if (colon <= 0 || at <= colon) {
+                throw new IllegalArgumentException("Invalid phase '" + part + "', expected name:duration@rps");
+            }
+            phases.add(new Phase(part.substring(0, colon).trim(),
+                LoadGenerator.parseDuration(part.substring(colon + 1, at).trim()),
+                Double.parseDouble(part.substring(at + 1).trim())));
+        }
+        return phases;
+    }
+}
@@ -0,0 +1,79 @@
+package com.coldscholor.benchmark.loadgen;
+
+import com.coldscholor.circuitbreaker.CircuitBreakerOpenException;
+import com.coldscholor.limit.BudgetExhaustedException;
+import com.coldscholor.limit.ConcurrencyLimitExceededException;
+import com.coldscholor.limit.ProviderOverloadedException;
+import com.coldscholor.metrics.LatencyHistogram;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个阶段的统计，调用计入发出时所在的阶段
+ * 校正延迟从计划发出时间算起，发送端落后于计划时排队的时间也计入，避免协调遗漏（coordinated omission）；
+ * 未校正延迟从实际发出时间算起，只用于对比
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+class PhaseStats {
+
+    final LatencyHistogram corrected = new LatencyHistogram();
+
+    final LatencyHistogram uncorrected = new LatencyHistogram();
+
+    final LongAccumulator maxCorrectedNanos = new LongAccumulator(Long::max, 0L);
+
+    /** 发送线程相对计划的最大落后时间 */
+    final LongAccumulator maxSendLagNanos = new LongAccumulator(Long::max, 0L);
+
+    final LongAdder sent = new LongAdder();
+
+    final LongAdder success = new LongAdder();
+
+    final LongAdder errors = new LongAdder();
+
+    final LongAdder timeouts = new LongAdder();
+
+    final LongAdder rejected = new LongAdder();
+
+    void recordSend(long lagNanos) {
+        sent.increment();
+        maxSendLagNanos.accumulate(lagNanos);
+    }
+
+    void recordCompletion(long intendedNanos, long sentNanos, Throwable throwable) {
+        long now = System.nanoTime();
+        long correctedNanos = now - intendedNanos;
+        corrected.record(correctedNanos);
+        uncorrected.record(now - sentNanos);
+        maxCorrectedNanos.accumulate(correctedNanos);
+        if (throwable == null) {
+            success.increment();
+            return;
+        }
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause.getClass() == RuntimeException.class)
+               && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof CircuitBreakerOpenException || cause instanceof ConcurrencyLimitExceededException
+            || cause instanceof BudgetExhaustedException || cause instanceof RejectedExecutionException
+            || cause instanceof ProviderOverloadedException) {
+            rejected.increment();
+        } else if (cause instanceof TimeoutException || cause instanceof InterruptedIOException) {
+            timeouts.increment();
+        } else {
+            errors.increment();
+        }
+    }
+
+    long completed() {
+        return success.sum() + errors.sum() + timeouts.sum() + rejected.sum();
+    }
+}
@@ -0,0 +1,31 @@
+package com.coldscholor.benchmark.loadgen;
+
+import com.coldscholor.common.Invocation;
+
+import java.util.Map;
+
+/**
+ * 压测负载扩展点：决定提供者导出哪些服务、每次发出什么调用
+ * 实现类需要有无参构造函数，通过--workload=类名指定；提供者进程和压测进程各创建一个实例，
+ * 两边都用同一组命令行参数调用configure
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public interface Workload {
+
+    /**
+     * 读取命令行参数（--key=value，不含前缀）
+     */
+    void configure(Map<String, String> options);
+
+    /**
+     * 提供者需要导出的服务：接口 -> 实现类
+     */
+    Map<Class<?>, Class<?>> services();
+
+    /**
+     * 下一次调用，只在调度线程上调用
+     */
+    Invocation next();
+}
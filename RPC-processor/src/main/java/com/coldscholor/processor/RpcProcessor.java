@@ -0,0 +1,336 @@
+package com.coldscholor.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * RPC注解处理器
+ * 编译期为@RpcService标注的实现类生成按方法编号switch分发的分发器，为@RpcReference字段引用的接口生成调用桩，
+ * 最后生成一个模块注册类并写入META-INF/services/com.coldscholor.register.RpcModule，
+ * 运行时RpcModules通过ServiceLoader加载，导出服务和注册调用桩都不需要扫描classpath和反射。
+ * 处理器按名称识别注解，不依赖RPC运行时
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@SupportedAnnotationTypes({RpcProcessor.RPC_SERVICE, RpcProcessor.RPC_REFERENCE})
+public class RpcProcessor extends AbstractProcessor {
+
+    static final String RPC_SERVICE = "com.coldscholor.annotation.RpcService";
+    static final String RPC_REFERENCE = "com.coldscholor.annotation.RpcReference";
+    static final String ONE_WAY = "com.coldscholor.annotation.OneWay";
+    static final String RPC_PRIORITY = "com.coldscholor.annotation.RpcPriority";
+
+    /** 生成的模块注册类实现的接口，同时是META-INF/services中的文件名 */
+    static final String MODULE_INTERFACE = "com.coldscholor.register.RpcModule";
+
+    /** 生成的类名后缀 */
+    static final String DISPATCHER_SUFFIX = "$$RpcDispatcher";
+    static final String STUB_SUFFIX = "$$RpcStub";
+
+    private Elements elements;
+
+    private Types types;
+
+    private Filer filer;
+
+    private Messager messager;
+
+    private SourceGenerator generator;
+
+    /** 导出的服务，key为实现类的全名 */
+    private final Map<String, SourceGenerator.Service> services = new TreeMap<>();
+
+    /** 调用桩，key为接口的全名，value为调用桩的全名 */
+    private final Map<String, String> stubs = new TreeMap<>();
+
+    /** 调用桩对应的接口全名到接口的引用方式（类字面量） */
+    private final Map<String, String> stubInterfaces = new TreeMap<>();
+
+    private boolean moduleWritten;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.filer = processingEnv.getFiler();
+        this.messager = processingEnv.getMessager();
+        this.generator = new SourceGenerator(elements, types);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (moduleWritten) {
+            return false;
+        }
+        boolean found = false;
+        TypeElement serviceAnnotation = elements.getTypeElement(RPC_SERVICE);
+        if (serviceAnnotation != null) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(serviceAnnotation)) {
+                found = true;
+                processService(element);
+            }
+        }
+        TypeElement referenceAnnotation = elements.getTypeElement(RPC_REFERENCE);
+        if (referenceAnnotation != null) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(referenceAnnotation)) {
+                found = true;
+                processReference(element);
+            }
+        }
+        // 生成的分发器和调用桩在下一轮编译，之后没有新的标注时再生成模块注册类
+        if ((!found || roundEnv.processingOver()) && (!services.isEmpty() || !stubs.isEmpty())) {
+            writeModule();
+        }
+        return false;
+    }
+
+    private void processService(Element element) {
+        if (element.getKind() != ElementKind.CLASS) {
+            error(element, "@RpcService must be placed on a class");
+            return;
+        }
+        TypeElement implClass = (TypeElement) element;
+        if (services.containsKey(implClass.getQualifiedName().toString())) {
+            return;
+        }
+        if (implClass.getModifiers().contains(Modifier.ABSTRACT) || implClass.getModifiers().contains(Modifier.PRIVATE)
+            || implClass.getNestingKind().isNested() && !implClass.getModifiers().contains(Modifier.STATIC)) {
+            error(element, "@RpcService class must be a non-private, non-abstract top-level or static nested class");
+            return;
+        }
+        if (!hasAccessibleNoArgConstructor(implClass)) {
+            error(element, "@RpcService class must have a non-private no-arg constructor");
+            return;
+        }
+        AnnotationMirror annotation = annotation(implClass, RPC_SERVICE);
+        TypeElement serviceInterface = serviceInterface(implClass, annotationValue(annotation, "value"));
+        if (serviceInterface == null) {
+            return;
+        }
+        Object version = annotationValue(annotation, "version");
+        SourceGenerator.Service service = new SourceGenerator.Service(implClass, serviceInterface,
+            version == null ? "1.0" : version.toString(), generatedName(implClass, DISPATCHER_SUFFIX),
+            elements.getBinaryName(serviceInterface).toString());
+        write(service.dispatcherName, generator.dispatcher(service, remoteMethods(serviceInterface)), implClass);
+        services.put(implClass.getQualifiedName().toString(), service);
+    }
+
+    private void processReference(Element element) {
+        TypeMirror type = element.asType();
+        Element typeElement = type.getKind() == TypeKind.DECLARED ? ((DeclaredType) type).asElement() : null;
+        if (typeElement == null || typeElement.getKind() != ElementKind.INTERFACE) {
+            error(element, "@RpcReference field must be of an interface type");
+            return;
+        }
+        TypeElement serviceInterface = (TypeElement) typeElement;
+        String interfaceName = serviceInterface.getQualifiedName().toString();
+        if (stubs.containsKey(interfaceName)) {
+            return;
+        }
+        if (!serviceInterface.getModifiers().contains(Modifier.PUBLIC)) {
+            error(element, "@RpcReference interface must be public: " + interfaceName);
+            return;
+        }
+        List<ExecutableElement> methods = remoteMethods(serviceInterface);
+        for (ExecutableElement method : methods) {
+            if (annotation(method, ONE_WAY) != null && method.getReturnType().getKind() != TypeKind.VOID) {
+                error(element, "@OneWay method must return void: " + interfaceName + "." + method);
+                return;
+            }
+        }
+        String stubName = generatedName(serviceInterface, STUB_SUFFIX);
+        // 接口所在的模块或依赖中已经有调用桩时直接使用
+        if (elements.getTypeElement(stubName) == null) {
+            write(stubName, generator.stub(serviceInterface, stubName, methods), element);
+        }
+        stubs.put(interfaceName, stubName);
+        stubInterfaces.put(interfaceName, types.erasure(serviceInterface.asType()).toString());
+    }
+
+    /**
+     * 导出的接口：注解指定的接口，或实现类唯一实现的接口
+     */
+    private TypeElement serviceInterface(TypeElement implClass, Object value) {
+        // 默认值void.class不是DeclaredType
+        if (value instanceof DeclaredType) {
+            Element declared = ((DeclaredType) value).asElement();
+            if (declared.getKind() != ElementKind.INTERFACE) {
+                error(implClass, "@RpcService value must be an interface: " + declared);
+                return null;
+            }
+            if (!types.isAssignable(types.erasure(implClass.asType()), types.erasure(declared.asType()))) {
+                error(implClass, implClass.getQualifiedName() + " does not implement " + declared);
+                return null;
+            }
+            return (TypeElement) declared;
+        }
+        List<? extends TypeMirror> interfaces = implClass.getInterfaces();
+        if (interfaces.size() != 1) {
+            error(implClass, "@RpcService class implements " + interfaces.size()
+                + " interfaces, specify the exported one with @RpcService(value = ...)");
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) interfaces.get(0)).asElement();
+    }
+
+    /**
+     * 接口上需要远程调用的方法（含继承的），不含默认方法、静态方法和Object的方法，按签名排序，下标即方法编号
+     */
+    List<ExecutableElement> remoteMethods(TypeElement serviceInterface) {
+        Map<String, ExecutableElement> bySignature = new TreeMap<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(serviceInterface))) {
+            if (!method.getModifiers().contains(Modifier.ABSTRACT) || isObjectMethod(method)) {
+                continue;
+            }
+            bySignature.putIfAbsent(generator.signature(method), method);
+        }
+        return new ArrayList<>(bySignature.values());
+    }
+
+    private boolean isObjectMethod(ExecutableElement method) {
+        TypeElement object = elements.getTypeElement(Object.class.getName());
+        String signature = generator.signature(method);
+        for (ExecutableElement objectMethod : ElementFilter.methodsIn(object.getEnclosedElements())) {
+            if (generator.signature(objectMethod).equals(signature)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasAccessibleNoArgConstructor(TypeElement type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 生成类的全名：与原类型同包，嵌套类型的名称用下划线连接
+     */
+    private String generatedName(TypeElement type, String suffix) {
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String qualifiedName = type.getQualifiedName().toString();
+        String simpleName = packageName.isEmpty() ? qualifiedName : qualifiedName.substring(packageName.length() + 1);
+        return SourceGenerator.qualify(packageName, simpleName.replace('.', '_') + suffix);
+    }
+
+    /**
+     * 生成模块注册类和META-INF/services条目，每次编译一个
+     */
+    private void writeModule() {
+        moduleWritten = true;
+        StringBuilder key = new StringBuilder();
+        Element origin = null;
+        String packageName = null;
+        for (SourceGenerator.Service service : services.values()) {
+            key.append(service.dispatcherName).append(';');
+            if (packageName == null) {
+                origin = service.implClass;
+                packageName = elements.getPackageOf(service.implClass).getQualifiedName().toString();
+            }
+        }
+        for (String stubName : stubs.values()) {
+            key.append(stubName).append(';');
+            if (packageName == null) {
+                packageName = SourceGenerator.packageOf(stubName);
+            }
+        }
+        String moduleName = SourceGenerator.qualify(packageName,
+            "RpcModule$$" + String.format("%08x", key.toString().hashCode()));
+        write(moduleName, generator.module(moduleName, services.values(), stubInterfaces, stubs), origin);
+        try {
+            FileObject resource = filer.createResource(StandardLocation.CLASS_OUTPUT, "",
+                "META-INF/services/" + MODULE_INTERFACE);
+            try (Writer writer = resource.openWriter()) {
+                writer.write(moduleName);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write RpcModule service file: " + e.getMessage());
+        }
+    }
+
+    private void write(String qualifiedName, String source, Element origin) {
+        try {
+            JavaFileObject file = origin == null ? filer.createSourceFile(qualifiedName)
+                : filer.createSourceFile(qualifiedName, origin);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source);
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write " + qualifiedName + ": " + e.getMessage(), origin);
+        }
+    }
+
+    /**
+     * 元素上指定名称的注解，没有时返回null
+     */
+    static AnnotationMirror annotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 注解上显式设置的值，没有设置时返回null
+     */
+    static Object annotationValue(AnnotationMirror annotation, String name) {
+        if (annotation == null) {
+            return null;
+        }
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : annotation.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private void error(Element element, String message) {
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
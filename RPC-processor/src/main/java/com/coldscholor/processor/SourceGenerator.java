@@ -0,0 +1,364 @@
+package com.coldscholor.processor;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 生成分发器、调用桩和模块注册类的源码
+ * 方法表中的参数类型取接口声明的擦除类型，与调用方Method.getParameterTypes()一致，
+ * 服务端按调用中的参数类型查找方法时两边能对上
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+class SourceGenerator {
+
+    /** 生成的源码只含ASCII字符，不依赖编译时的-encoding */
+    private static final String HEADER = "// Generated by RPC-processor. Do not edit.\n";
+
+    private final Elements elements;
+
+    private final Types types;
+
+    SourceGenerator(Elements elements, Types types) {
+        this.elements = elements;
+        this.types = types;
+    }
+
+    /**
+     * 一个导出的服务
+     */
+    static final class Service {
+        final TypeElement implClass;
+        final TypeElement serviceInterface;
+        final String version;
+        final String dispatcherName;
+        /** 接口的二进制名称，即运行时的Class.getName() */
+        final String interfaceName;
+
+        Service(TypeElement implClass, TypeElement serviceInterface, String version, String dispatcherName,
+                String interfaceName) {
+            this.implClass = implClass;
+            this.serviceInterface = serviceInterface;
+            this.version = version;
+            this.dispatcherName = dispatcherName;
+            this.interfaceName = interfaceName;
+        }
+    }
+
+    /**
+     * 服务分发器：invoke按方法编号switch，直接调用实现类的方法
+     */
+    String dispatcher(Service service, List<ExecutableElement> methods) {
+        String implName = types.erasure(service.implClass.asType()).toString();
+        DeclaredType implType = (DeclaredType) service.implClass.asType();
+        StringBuilder source = new StringBuilder(HEADER);
+        packageDeclaration(source, service.dispatcherName);
+        source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+            .append("public final class ").append(simpleNameOf(service.dispatcherName))
+            .append(" implements com.coldscholor.register.ServiceDispatcher {\n\n")
+            .append("    private static final com.coldscholor.common.MethodDescriptor[] METHODS = {\n");
+        for (int i = 0; i < methods.size(); i++) {
+            ExecutableElement method = methods.get(i);
+            source.append("        new com.coldscholor.common.MethodDescriptor(").append(i).append(", \"")
+                .append(method.getSimpleName()).append("\", ").append(parameterClasses(method)).append(", ")
+                .append(classLiteral(method.getReturnType())).append("),\n");
+        }
+        source.append("    };\n\n")
+            .append("    @Override\n")
+            .append("    public Class<?> getImplementationClass() {\n")
+            .append("        return ").append(implName).append(".class;\n")
+            .append("    }\n\n")
+            .append("    @Override\n")
+            .append("    public com.coldscholor.common.MethodDescriptor[] getMethods() {\n")
+            .append("        return METHODS;\n")
+            .append("    }\n\n")
+            .append("    @Override\n")
+            .append("    public Object newInstance() {\n")
+            .append("        return new ").append(implName).append("();\n")
+            .append("    }\n\n")
+            .append("    @Override\n")
+            .append("    public Object invoke(Object instance, int methodIndex, Object[] arguments) throws Throwable {\n")
+            .append("        ").append(implName).append(" target = (").append(implName).append(") instance;\n")
+            .append("        switch (methodIndex) {\n");
+        for (int i = 0; i < methods.size(); i++) {
+            ExecutableElement method = methods.get(i);
+            // 按实现类看到的参数类型转换，泛型接口的类型参数已替换为实现类指定的类型
+            ExecutableType member = (ExecutableType) types.asMemberOf(implType, method);
+            StringBuilder call = new StringBuilder("target.").append(method.getSimpleName()).append('(');
+            List<? extends TypeMirror> parameterTypes = member.getParameterTypes();
+            for (int p = 0; p < parameterTypes.size(); p++) {
+                if (p > 0) {
+                    call.append(", ");
+                }
+                call.append('(').append(castType(types.erasure(parameterTypes.get(p)))).append(") arguments[")
+                    .append(p).append(']');
+            }
+            call.append(')');
+            source.append("            case ").append(i).append(":\n");
+            if (method.getReturnType().getKind() == TypeKind.VOID) {
+                source.append("                ").append(call).append(";\n")
+                    .append("                return null;\n");
+            } else {
+                source.append("                return ").append(call).append(";\n");
+            }
+        }
+        source.append("            default:\n")
+            .append("                throw new IllegalArgumentException(\"Unknown method index: \" + methodIndex);\n")
+            .append("        }\n")
+            .append("    }\n")
+            .append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * 调用桩：实现服务接口，每个方法按方法编号调用ServiceStub.call
+     */
+    String stub(TypeElement serviceInterface, String stubName, List<ExecutableElement> methods) {
+        DeclaredType interfaceType = (DeclaredType) serviceInterface.asType();
+        String interfaceName = types.erasure(interfaceType).toString();
+        String typeParameters = typeParameters(serviceInterface.getTypeParameters());
+        StringBuilder typeArguments = new StringBuilder();
+        if (!serviceInterface.getTypeParameters().isEmpty()) {
+            typeArguments.append('<');
+            for (int i = 0; i < serviceInterface.getTypeParameters().size(); i++) {
+                if (i > 0) {
+                    typeArguments.append(", ");
+                }
+                typeArguments.append(serviceInterface.getTypeParameters().get(i).getSimpleName());
+            }
+            typeArguments.append('>');
+        }
+        StringBuilder source = new StringBuilder(HEADER);
+        packageDeclaration(source, stubName);
+        source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+            .append("public final class ").append(simpleNameOf(stubName)).append(typeParameters)
+            .append(" extends com.coldscholor.proxy.ServiceStub implements ")
+            .append(interfaceName).append(typeArguments).append(" {\n\n")
+            .append("    private static final com.coldscholor.common.MethodDescriptor[] METHODS = {\n");
+        for (int i = 0; i < methods.size(); i++) {
+            ExecutableElement method = methods.get(i);
+            Object priority = RpcProcessor.annotationValue(
+                RpcProcessor.annotation(method, RpcProcessor.RPC_PRIORITY), "value");
+            source.append("        new com.coldscholor.common.MethodDescriptor(").append(i).append(", \"")
+                .append(method.getSimpleName()).append("\", ").append(parameterClasses(method)).append(", ")
+                .append(classLiteral(method.getReturnType())).append(", ").append(thrownClasses(method)).append(", ")
+                .append(RpcProcessor.annotation(method, RpcProcessor.ONE_WAY) != null).append(", ")
+                .append(priority == null ? "null" : priority.toString()).append("),\n");
+        }
+        Object typePriority = RpcProcessor.annotationValue(
+            RpcProcessor.annotation(serviceInterface, RpcProcessor.RPC_PRIORITY), "value");
+        source.append("    };\n\n")
+            .append("    public ").append(simpleNameOf(stubName)).append("(Integer priority) {\n")
+            .append("        super(").append(interfaceName).append(".class, METHODS, ")
+            .append(typePriority == null ? "null" : typePriority.toString()).append(", priority);\n")
+            .append("    }\n");
+        for (int i = 0; i < methods.size(); i++) {
+            ExecutableElement method = methods.get(i);
+            ExecutableType member = (ExecutableType) types.asMemberOf(interfaceType, method);
+            source.append('\n')
+                .append("    @Override\n")
+                .append("    public ").append(typeParameters(method.getTypeParameters()));
+            if (!method.getTypeParameters().isEmpty()) {
+                source.append(' ');
+            }
+            source.append(member.getReturnType()).append(' ').append(method.getSimpleName()).append('(');
+            List<? extends VariableElement> parameters = method.getParameters();
+            List<? extends TypeMirror> parameterTypes = member.getParameterTypes();
+            StringBuilder arguments = new StringBuilder();
+            for (int p = 0; p < parameters.size(); p++) {
+                if (p > 0) {
+                    source.append(", ");
+                    arguments.append(", ");
+                }
+                TypeMirror parameterType = parameterTypes.get(p);
+                if (method.isVarArgs() && p == parameters.size() - 1) {
+                    source.append(((ArrayType) parameterType).getComponentType()).append("...");
+                } else {
+                    source.append(parameterType);
+                }
+                source.append(' ').append(parameters.get(p).getSimpleName());
+                arguments.append(parameters.get(p).getSimpleName());
+            }
+            source.append(')');
+            List<? extends TypeMirror> thrownTypes = member.getThrownTypes();
+            for (int t = 0; t < thrownTypes.size(); t++) {
+                source.append(t == 0 ? " throws " : ", ").append(thrownTypes.get(t));
+            }
+            // 和JDK动态代理一样，没有参数时传null
+            String call = "call(" + i + ", " + (parameters.isEmpty() ? "null" : "new Object[]{" + arguments + "}") + ")";
+            source.append(" {\n");
+            TypeMirror returnType = member.getReturnType();
+            if (returnType.getKind() == TypeKind.VOID) {
+                source.append("        ").append(call).append(";\n");
+            } else {
+                source.append("        return (").append(castType(returnType)).append(") ").append(call).append(";\n");
+            }
+            source.append("    }\n");
+        }
+        source.append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * 模块注册类：导出服务、注册调用桩
+     */
+    String module(String moduleName, Collection<Service> services, Map<String, String> stubInterfaces,
+                  Map<String, String> stubs) {
+        StringBuilder source = new StringBuilder(HEADER);
+        packageDeclaration(source, moduleName);
+        Set<String> interfaceNames = new LinkedHashSet<>();
+        source.append("public final class ").append(simpleNameOf(moduleName))
+            .append(" implements ").append(RpcProcessor.MODULE_INTERFACE).append(" {\n\n")
+            .append("    @Override\n")
+            .append("    public String[] exportServices() {\n");
+        for (Service service : services) {
+            source.append("        com.coldscholor.register.LocalRegister.register(")
+                .append(stringLiteral(service.interfaceName)).append(", ").append(stringLiteral(service.version))
+                .append(", new ").append(service.dispatcherName).append("());\n");
+            interfaceNames.add(service.interfaceName);
+        }
+        source.append("        return new String[]{");
+        boolean first = true;
+        for (String interfaceName : interfaceNames) {
+            source.append(first ? "" : ", ").append(stringLiteral(interfaceName));
+            first = false;
+        }
+        source.append("};\n")
+            .append("    }\n\n")
+            .append("    @Override\n")
+            .append("    public void registerStubs() {\n");
+        for (Map.Entry<String, String> stub : stubs.entrySet()) {
+            source.append("        com.coldscholor.proxy.ProxyFactory.registerStub(")
+                .append(stubInterfaces.get(stub.getKey())).append(".class, ").append(stub.getValue())
+                .append("::new);\n");
+        }
+        source.append("    }\n")
+            .append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * 方法签名：方法名和参数的擦除类型，用于去重和排序
+     */
+    String signature(ExecutableElement method) {
+        StringBuilder signature = new StringBuilder(method.getSimpleName()).append('(');
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                signature.append(',');
+            }
+            signature.append(types.erasure(parameters.get(i).asType()));
+        }
+        return signature.append(')').toString();
+    }
+
+    private String parameterClasses(ExecutableElement method) {
+        StringBuilder classes = new StringBuilder("new Class<?>[]{");
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                classes.append(", ");
+            }
+            classes.append(classLiteral(parameters.get(i).asType()));
+        }
+        return classes.append('}').toString();
+    }
+
+    private String thrownClasses(ExecutableElement method) {
+        StringBuilder classes = new StringBuilder("new Class<?>[]{");
+        List<? extends TypeMirror> thrownTypes = method.getThrownTypes();
+        for (int i = 0; i < thrownTypes.size(); i++) {
+            if (i > 0) {
+                classes.append(", ");
+            }
+            classes.append(classLiteral(thrownTypes.get(i)));
+        }
+        return classes.append('}').toString();
+    }
+
+    private String classLiteral(TypeMirror type) {
+        return types.erasure(type) + ".class";
+    }
+
+    /**
+     * 从Object转换时使用的类型，基本类型使用包装类型后自动拆箱
+     */
+    private String castType(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return types.boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    private static String typeParameters(List<? extends TypeParameterElement> parameters) {
+        if (parameters.isEmpty()) {
+            return "";
+        }
+        StringBuilder declaration = new StringBuilder("<");
+        for (int i = 0; i < parameters.size(); i++) {
+            TypeParameterElement parameter = parameters.get(i);
+            if (i > 0) {
+                declaration.append(", ");
+            }
+            declaration.append(parameter.getSimpleName());
+            List<? extends TypeMirror> bounds = parameter.getBounds();
+            if (!(bounds.size() == 1 && bounds.get(0).toString().equals(Object.class.getName()))) {
+                for (int b = 0; b < bounds.size(); b++) {
+                    declaration.append(b == 0 ? " extends " : " & ").append(bounds.get(b));
+                }
+            }
+        }
+        return declaration.append('>').toString();
+    }
+
+    private static void packageDeclaration(StringBuilder source, String qualifiedName) {
+        String packageName = packageOf(qualifiedName);
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+    }
+
+    private static String stringLiteral(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                literal.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                literal.append(String.format("\\u%04x", (int) c));
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    static String qualify(String packageName, String simpleName) {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    static String packageOf(String qualifiedName) {
+        int separator = qualifiedName.lastIndexOf('.');
+        return separator < 0 ? "" : qualifiedName.substring(0, separator);
+    }
+
+    static String simpleNameOf(String qualifiedName) {
+        return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+    }
+}
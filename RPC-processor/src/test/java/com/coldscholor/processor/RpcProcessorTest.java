@@ -0,0 +1,186 @@
+package com.coldscholor.processor;
+
+import com.coldscholor.common.MethodDescriptor;
+import com.coldscholor.proxy.ProxyFactory;
+import com.coldscholor.proxy.ServiceStub;
+import com.coldscholor.register.ExportedService;
+import com.coldscholor.register.LocalRegister;
+import com.coldscholor.register.RpcModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 注解处理器测试：编译示例服务，加载生成的分发器、调用桩和模块注册类
+ */
+public class RpcProcessorTest {
+
+    private static final String CALCULATOR =
+        "package sample;\n"
+        + "public interface Calculator {\n"
+        + "    int add(int a, int b);\n"
+        + "    String add(String a, String b);\n"
+        + "    String join(String separator, String... parts) throws java.io.IOException;\n"
+        + "    <T extends Comparable<T>> T max(T a, T b);\n"
+        + "    void reset();\n"
+        + "}\n";
+
+    private static final String CALCULATOR_IMPL =
+        "package sample;\n"
+        + "@com.coldscholor.annotation.RpcService\n"
+        + "public class CalculatorImpl implements Calculator {\n"
+        + "    public int add(int a, int b) { return a + b; }\n"
+        + "    public String add(String a, String b) { return a + b; }\n"
+        + "    public String join(String separator, String... parts) { return String.join(separator, parts); }\n"
+        + "    public <T extends Comparable<T>> T max(T a, T b) { return a.compareTo(b) >= 0 ? a : b; }\n"
+        + "    public void reset() { }\n"
+        + "    public int helper() { return 0; }\n"
+        + "}\n";
+
+    private static final String CALCULATOR_CLIENT =
+        "package sample;\n"
+        + "public class CalculatorClient {\n"
+        + "    @com.coldscholor.annotation.RpcReference\n"
+        + "    Calculator calculator;\n"
+        + "}\n";
+
+    @TempDir
+    Path output;
+
+    @Test
+    public void testGeneratedDispatcherIsRegisteredAndInvokedBySwitch() throws Exception {
+        assertTrue(compile(source("sample.Calculator", CALCULATOR), source("sample.CalculatorImpl", CALCULATOR_IMPL),
+            source("sample.CalculatorClient", CALCULATOR_CLIENT)).isEmpty());
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader())) {
+            RpcModule module = loadModule(loader);
+            assertArrayEquals(new String[]{"sample.Calculator"}, module.exportServices());
+
+            ExportedService service = LocalRegister.getService("sample.Calculator", "1.0");
+            assertTrue(service.isGenerated());
+            assertEquals("sample.CalculatorImpl", service.getImplementationClass().getName());
+
+            // 方法表按签名排序，实现类额外的公共方法不导出
+            MethodDescriptor intAdd = service.findMethod("add", new Class<?>[]{int.class, int.class});
+            MethodDescriptor stringAdd = service.findMethod("add", new Class<?>[]{String.class, String.class});
+            assertNotNull(intAdd);
+            assertNotNull(stringAdd);
+            assertEquals(null, service.findMethod("helper", null));
+            assertEquals(3, service.invoke(intAdd, new Object[]{1, 2}));
+            assertEquals("ab", service.invoke(stringAdd, new Object[]{"a", "b"}));
+            assertEquals("a-b", service.invoke(service.findMethod("join",
+                new Class<?>[]{String.class, String[].class}), new Object[]{"-", new String[]{"a", "b"}}));
+            assertEquals("b", service.invoke(service.findMethod("max",
+                new Class<?>[]{Comparable.class, Comparable.class}), new Object[]{"a", "b"}));
+            assertEquals(null, service.invoke(service.findMethod("reset", null), null));
+        }
+    }
+
+    @Test
+    public void testGeneratedStubIsReturnedByProxyFactory() throws Exception {
+        assertTrue(compile(source("sample.Calculator", CALCULATOR), source("sample.CalculatorImpl", CALCULATOR_IMPL),
+            source("sample.CalculatorClient", CALCULATOR_CLIENT)).isEmpty());
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader())) {
+            RpcModule module = loadModule(loader);
+            module.exportServices();
+            module.registerStubs();
+
+            Class<?> calculator = loader.loadClass("sample.Calculator");
+            Object stub = ProxyFactory.getProxy(calculator);
+            assertTrue(stub instanceof ServiceStub);
+            assertEquals("sample.Calculator$$RpcStub", stub.getClass().getName());
+            assertFalse(ProxyFactory.getDynamicProxy(calculator) instanceof ServiceStub);
+
+            // 服务在当前JVM中导出，调用桩按方法编号走进程内调用
+            assertEquals(5, calculator.getMethod("add", int.class, int.class).invoke(stub, 2, 3));
+            assertEquals("x,y", calculator.getMethod("join", String.class, String[].class)
+                .invoke(stub, ",", new String[]{"x", "y"}));
+        }
+    }
+
+    @Test
+    public void testInvalidDeclarationsAreCompileErrors() throws Exception {
+        List<String> errors = compile(
+            source("sample.Notifier",
+                "package sample;\n"
+                + "public interface Notifier {\n"
+                + "    @com.coldscholor.annotation.OneWay String send(String message);\n"
+                + "}\n"),
+            source("sample.NotifierClient",
+                "package sample;\n"
+                + "public class NotifierClient {\n"
+                + "    @com.coldscholor.annotation.RpcReference Notifier notifier;\n"
+                + "}\n"),
+            source("sample.Ambiguous",
+                "package sample;\n"
+                + "@com.coldscholor.annotation.RpcService\n"
+                + "public class Ambiguous implements Runnable, Comparable<Ambiguous> {\n"
+                + "    public void run() { }\n"
+                + "    public int compareTo(Ambiguous other) { return 0; }\n"
+                + "}\n"));
+        assertEquals(2, errors.size(), errors.toString());
+        assertTrue(errors.stream().anyMatch(error -> error.contains("@OneWay method must return void")), errors.toString());
+        assertTrue(errors.stream().anyMatch(error -> error.contains("implements 2 interfaces")), errors.toString());
+    }
+
+    /**
+     * 用注解处理器编译源码，返回错误信息
+     */
+    private List<String> compile(JavaFileObject... sources) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            List<String> options = Arrays.asList("-d", output.toString(),
+                "-classpath", System.getProperty("java.class.path"));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+                Arrays.asList(sources));
+            task.setProcessors(Arrays.asList(new RpcProcessor()));
+            task.call();
+        }
+        List<String> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic.getMessage(null));
+            }
+        }
+        return errors;
+    }
+
+    private RpcModule loadModule(ClassLoader loader) throws Exception {
+        Path services = output.resolve("META-INF/services/" + RpcModule.class.getName());
+        String moduleName = new String(Files.readAllBytes(services), StandardCharsets.UTF_8).trim();
+        assertTrue(moduleName.startsWith("sample.RpcModule$$"), moduleName);
+        return (RpcModule) loader.loadClass(moduleName).getDeclaredConstructor().newInstance();
+    }
+
+    private static JavaFileObject source(String className, String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/')
+            + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.coldscholor.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 单向调用（发出即返回），只能标注在返回值为void的接口方法上
+ * 客户端发出请求后立即释放调用线程，不等待结果；服务端解码请求后立即确认，
+ * 方法在单向调用线程池中异步执行，队列已满时丢弃并计数
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface OneWay {
+}
@@ -0,0 +1,36 @@
+package com.coldscholor.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 提供端的隔离舱和限流配置
+ * 标注在方法上限制该方法，标注在类型上限制整个服务的全部方法之和，两者同时存在时都要满足；
+ * 可以标注在服务接口或实现类上，实现类上的优先。超过限制的调用不执行，直接返回限流拒绝
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RpcBulkhead {
+
+    /**
+     * 最大并发执行数，0表示不限制
+     */
+    int maxConcurrent() default 0;
+
+    /**
+     * 每秒允许的调用数，0表示不限速
+     */
+    double permitsPerSecond() default 0;
+
+    /**
+     * 允许的突发调用数（令牌桶容量），0表示取每秒调用数（至少为1）
+     */
+    int burst() default 0;
+}
@@ -0,0 +1,26 @@
+package com.coldscholor.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 指定RPC调用的优先级，数值越大越重要
+ * 标注在接口方法上只影响该方法，标注在接口上作用于全部方法；
+ * 客户端在途预算耗尽且溢出策略为SHED_LOWEST_PRIORITY时，优先级低的请求先被淘汰
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RpcPriority {
+
+    /**
+     * 优先级
+     */
+    int value();
+}
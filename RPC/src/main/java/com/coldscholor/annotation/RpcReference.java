@@ -0,0 +1,22 @@
+package com.coldscholor.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 引用远程服务，标注在类型为服务接口的字段上
+ * 引入RPC-processor后编译期为字段的接口生成调用桩，ProxyFactory.getProxy对有调用桩的接口直接返回调用桩，
+ * 调用时按方法编号取预先解析好的调用信息，不经过JDK动态代理和Method查找；
+ * 方法上的@OneWay、@RpcPriority在编译期读取并校验
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface RpcReference {
+}
@@ -0,0 +1,32 @@
+package com.coldscholor.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 导出服务，标注在服务实现类上
+ * 引入RPC-processor后编译期为实现类生成按方法编号switch分发的分发器和注册代码，
+ * 启动时调用RpcModules.exportServices()导出全部标注的服务，不扫描classpath，也不反射查找和调用方法；
+ * 实现类需要有无参构造函数，且不能是private的
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface RpcService {
+
+    /**
+     * 导出的服务接口，实现类只实现了一个接口时可以省略
+     */
+    Class<?> value() default void.class;
+
+    /**
+     * 服务版本
+     */
+    String version() default "1.0";
+}
@@ -1,12 +1,41 @@
 package com.coldscholor.async;
 
 import com.coldscholor.circuitbreaker.CircuitBreakerManager;
+import com.coldscholor.circuitbreaker.CircuitBreakerOpenException;
+import com.coldscholor.circuitbreaker.EndpointCircuitBreaker;
 import com.coldscholor.common.Invocation;
+import com.coldscholor.common.URL;
+import com.coldscholor.config.RpcConfig;
+import com.coldscholor.deadline.Deadline;
+import com.coldscholor.jfr.ClientCallEvent;
+import com.coldscholor.limit.AdaptiveConcurrencyLimiter;
+import com.coldscholor.limit.BudgetExhaustedException;
+import com.coldscholor.limit.ClientBudgetManager;
+import com.coldscholor.limit.ConcurrencyLimitExceededException;
+import com.coldscholor.limit.ConcurrencyLimiterManager;
+import com.coldscholor.limit.ProviderOverloadedException;
+import com.coldscholor.metrics.CallMetrics;
+import com.coldscholor.metrics.MetricsRegistry;
 import com.coldscholor.protocol.ImprovedHttpClient;
+import com.coldscholor.protocol.RpcStreamIterator;
+import com.coldscholor.protocol.StreamArgument;
+import com.coldscholor.schedule.FairScheduler;
+import com.coldscholor.schedule.PriorityClass;
+import com.coldscholor.shm.SharedMemoryClient;
 import com.coldscholor.threadpool.ThreadPoolManager;
+import com.coldscholor.trace.Span;
+import com.coldscholor.trace.TraceContext;
+import com.coldscholor.trace.Tracer;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 /**
@@ -30,12 +59,39 @@ public class AsyncRpcManager {
     /** 熔断器管理器 */
     private final CircuitBreakerManager circuitBreakerManager;
     
+    /** 自适应并发限制器管理器 */
+    private final ConcurrencyLimiterManager limiterManager;
+    
+    /** 客户端在途预算管理器 */
+    private final ClientBudgetManager budgetManager;
+    
+    /** 调用指标注册表 */
+    private final MetricsRegistry metricsRegistry;
+    
+    /** 分布式追踪 */
+    private final Tracer tracer;
+    
+    /** 是否使用事件驱动的异步传输 */
+    private final boolean asyncTransport;
+    
+    /** 共享内存传输客户端，未开启时为null */
+    private final SharedMemoryClient sharedMemoryClient;
+    
     /** 请求ID生成器 */
     private final AtomicLong requestIdGenerator;
     
     /** 待处理的异步请求 */
     private final ConcurrentHashMap<Long, AsyncRequest> pendingRequests;
     
+    /** 服务端已确认的单向调用数 */
+    private final LongAdder oneWayDeliveredCount;
+    
+    /** 未送达（被限流、熔断、超时或服务端队列已满）的单向调用数 */
+    private final LongAdder oneWayDroppedCount;
+    
+    /** 各调度等级的调用附件（调度等级和本应用的调用方身份），预先构建，调用时不再复制 */
+    private final Map<PriorityClass, Map<String, String>> schedulingAttachments;
+    
     /**
      * 私有构造函数
      */
@@ -43,8 +99,23 @@ public class AsyncRpcManager {
         this.httpClient = ImprovedHttpClient.getInstance();
         this.threadPoolManager = ThreadPoolManager.getInstance();
         this.circuitBreakerManager = CircuitBreakerManager.getInstance();
+        this.limiterManager = ConcurrencyLimiterManager.getInstance();
+        this.budgetManager = ClientBudgetManager.getInstance();
+        this.metricsRegistry = MetricsRegistry.getInstance();
+        this.tracer = Tracer.getInstance();
+        this.asyncTransport = "ASYNC".equalsIgnoreCase(RpcConfig.getTransportMode());
+        this.sharedMemoryClient = RpcConfig.isShmTransportEnabled() ? SharedMemoryClient.getInstance() : null;
         this.requestIdGenerator = new AtomicLong(0);
         this.pendingRequests = new ConcurrentHashMap<>();
+        this.oneWayDeliveredCount = new LongAdder();
+        this.oneWayDroppedCount = new LongAdder();
+        this.schedulingAttachments = new EnumMap<>(PriorityClass.class);
+        for (PriorityClass priorityClass : PriorityClass.all()) {
+            Map<String, String> attachments = new HashMap<>();
+            attachments.put(PriorityClass.ATTACHMENT, priorityClass.name());
+            attachments.put(FairScheduler.CALLER_ATTACHMENT, RpcConfig.getApplicationName());
+            schedulingAttachments.put(priorityClass, Collections.unmodifiableMap(attachments));
+        }
     }
     
     /**
@@ -64,66 +135,69 @@ public class AsyncRpcManager {
     /**
      * 异步调用RPC服务（CompletableFuture模式）
      * 
-     * @param url 服务URL
+     * @param url 服务端点
      * @param invocation 调用信息
      * @return CompletableFuture包装的结果
      */
-    public CompletableFuture<String> callAsync(String url, Invocation invocation) {
-        return callAsync(url, invocation, null, null);
+    public CompletableFuture<String> callAsync(URL url, Invocation invocation) {
+        return callAsync(url, invocation, RpcConfig.getDefaultPriority(), null, null);
+    }
+    
+    /**
+     * 异步调用RPC服务（指定优先级）
+     * 
+     * @param url 服务端点
+     * @param invocation 调用信息
+     * @param priority 请求优先级，预算耗尽时优先级低的请求先被淘汰
+     * @return CompletableFuture包装的结果
+     */
+    public CompletableFuture<String> callAsync(URL url, Invocation invocation, int priority) {
+        return callAsync(url, invocation, priority, null, null);
     }
     
     /**
      * 异步调用RPC服务（回调模式）
      * 
-     * @param url 服务URL
+     * @param url 服务端点
      * @param invocation 调用信息
      * @param onSuccess 成功回调
      * @param onError 错误回调
      * @return CompletableFuture包装的结果
      */
-    public CompletableFuture<String> callAsync(String url, Invocation invocation, 
+    public CompletableFuture<String> callAsync(URL url, Invocation invocation, 
                                                Consumer<String> onSuccess, Consumer<Throwable> onError) {
+        return callAsync(url, invocation, RpcConfig.getDefaultPriority(), onSuccess, onError);
+    }
+    
+    /**
+     * 异步调用RPC服务
+     * 先异步获取客户端在途预算（服务级 + 全局），预算耗尽时按溢出策略快速失败或限时排队，
+     * 调用线程不会被阻塞，也不会被拉去执行阻塞IO
+     * 
+     * @param url 服务端点
+     * @param invocation 调用信息
+     * @param priority 请求优先级
+     * @param onSuccess 成功回调
+     * @param onError 错误回调
+     * @return CompletableFuture包装的结果
+     */
+    public CompletableFuture<String> callAsync(URL url, Invocation invocation, int priority,
+                                               Consumer<String> onSuccess, Consumer<Throwable> onError) {
+        CompletableFuture<String> future = call(url, invocation, priority, 0L);
         
-        long requestId = requestIdGenerator.incrementAndGet();
-        String serviceName = invocation.getInterfaceName() + "." + invocation.getMethodName();
-        
-        // 创建异步请求对象
-        AsyncRequest asyncRequest = new AsyncRequest(requestId, url, invocation, onSuccess, onError);
-        pendingRequests.put(requestId, asyncRequest);
-        
-        // 创建CompletableFuture - 这里是异步的关键！
-        CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> {
-            try {
-                // 使用熔断器保护的异步调用
-                return circuitBreakerManager.executeWithCircuitBreaker(
-                    serviceName,
-                    () -> {
-                        try {
-                            return httpClient.sendRequest(url, invocation);
-                        } catch (Exception e) {
-                            throw new RuntimeException("HTTP request failed", e);
-                        }
-                    },
-                    () -> CircuitBreakerManager.createFallbackResponse(serviceName)
-                );
-            } catch (Exception e) {
-                throw new RuntimeException("Async RPC call failed", e);
-            } finally {
-                // 清理待处理请求
-                pendingRequests.remove(requestId);
-            }
-        }, threadPoolManager.getClientExecutor());
-        
-        // 添加回调处理
+        // 添加回调处理：完成通知可能来自I/O线程，回调在发起调用时的追踪上下文中执行
         if (onSuccess != null || onError != null) {
+            TraceContext traceContext = TraceContext.current();
             future.whenComplete((result, throwable) -> {
                 if (throwable != null) {
                     if (onError != null) {
-                        threadPoolManager.getCallbackExecutor().execute(() -> onError.accept(throwable));
+                        threadPoolManager.getCallbackExecutor().execute(
+                            TraceContext.wrap(traceContext, () -> onError.accept(throwable)));
                     }
                 } else {
                     if (onSuccess != null) {
-                        threadPoolManager.getCallbackExecutor().execute(() -> onSuccess.accept(result));
+                        threadPoolManager.getCallbackExecutor().execute(
+                            TraceContext.wrap(traceContext, () -> onSuccess.accept(result)));
                     }
                 }
             });
@@ -132,65 +206,440 @@ public class AsyncRpcManager {
         return future;
     }
     
+    /**
+     * 单向调用：发出后立即返回，不等待结果，只统计是否送达
+     * 仍然经过在途预算、并发限制和熔断器，截止时间为全局的调用超时
+     * 
+     * @param url 服务端点
+     * @param invocation 调用信息，会被标记为单向调用
+     * @param priority 请求优先级
+     */
+    public void sendOneWay(URL url, Invocation invocation, int priority) {
+        invocation.setOneWay(true);
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RpcConfig.getCallTimeout());
+        call(url, invocation, priority, deadlineNanos).whenComplete((result, throwable) -> {
+            if (throwable == null) {
+                oneWayDeliveredCount.increment();
+            } else {
+                oneWayDroppedCount.increment();
+            }
+        });
+    }
+    
+    /**
+     * 获取预算许可后发起调用，调用完成时归还许可
+     * 调用指标在这里按(服务, 方法, 端点)统一记录，延迟包含排队等待预算和并发余量的时间；
+     * 追踪上下文在这里写入调用附件，之后的线程切换不影响传递；
+     * 在服务方法中发起的下游调用继承上游剩余的时间预算，取与本次超时中较早的一个
+     * 
+     * @param deadlineNanos 调用截止时间(System.nanoTime)，0表示不限制
+     */
+    private CompletableFuture<String> call(URL url, Invocation invocation, int priority, long deadlineNanos) {
+        Deadline inherited = Deadline.current();
+        long effectiveDeadlineNanos = inherited == null ? deadlineNanos : inherited.earlierThan(deadlineNanos);
+        String serviceName = invocation.getInterfaceName() + "." + invocation.getMethodName();
+        CallMetrics metrics = metricsRegistry.getConsumerMetrics(url, serviceName);
+        // 提供端按调度等级和调用方身份排队
+        invocation.putAttachments(schedulingAttachments.get(PriorityClass.of(priority)));
+        Span span = tracer.startClientSpan(invocation, serviceName, url);
+        ClientCallEvent event = ClientCallEvent.start();
+        long startNanos = System.nanoTime();
+        CompletableFuture<String> future = budgetManager.acquire(invocation.getInterfaceName(), priority)
+            .thenCompose(permit -> {
+                CompletableFuture<String> call;
+                try {
+                    call = invoke(url, invocation, serviceName, effectiveDeadlineNanos);
+                } catch (RuntimeException | Error e) {
+                    // 调用没有发起就同步失败，许可不会再有完成回调归还
+                    permit.release();
+                    return failedFuture(e);
+                }
+                call.whenComplete((result, throwable) -> permit.release());
+                return call;
+            });
+        future.whenComplete((result, throwable) -> {
+            recordMetrics(metrics, startNanos, throwable);
+            span.end(throwable);
+            if (event != null) {
+                event.finish(serviceName, url.getAddress(), span.getTraceId(), throwable);
+            }
+        });
+        return future;
+    }
+    
+    /**
+     * 在持有预算许可的前提下发起调用
+     * 超过端点自适应并发上限时异步排队等待余量，排队超时或队列已满则快速失败，
+     * 不会堆积到客户端线程池，也不阻塞调用线程
+     */
+    private CompletableFuture<String> invoke(URL url, Invocation invocation, String serviceName, long deadlineNanos) {
+        if (!RpcConfig.isLimiterEnabled()) {
+            return send(url, invocation, serviceName, null, deadlineNanos);
+        }
+        AdaptiveConcurrencyLimiter limiter = limiterManager.getLimiter(url);
+        return limiter.acquireAsync(RpcConfig.getLimiterMaxWait(), RpcConfig.getLimiterMaxWaiters(),
+                threadPoolManager.getTimeoutScheduler())
+            .thenCompose(acquired -> acquired
+                ? send(url, invocation, serviceName, limiter, deadlineNanos)
+                : failedFuture(new ConcurrencyLimitExceededException(url.getAddress(), limiter.getLimit())));
+    }
+    
+    /**
+     * 在持有并发许可的前提下发送请求
+     * 熔断器只在这里按(端点, 方法)应用一次，调用方不应再重复包装
+     */
+    private CompletableFuture<String> send(URL url, Invocation invocation, String serviceName,
+                                           AdaptiveConcurrencyLimiter limiter, long deadlineNanos) {
+        long requestId = requestIdGenerator.incrementAndGet();
+        EndpointCircuitBreaker circuitBreaker = circuitBreakerManager.getOrCreateCircuitBreaker(url, serviceName);
+        
+        if (!circuitBreaker.tryAcquirePermission()) {
+            // 熔断器打开，直接失败，不占用客户端线程
+            if (limiter != null) {
+                limiter.onIgnore();
+            }
+            return failedFuture(new CircuitBreakerOpenException(circuitBreaker.getName()));
+        }
+        
+        // 排队等待预算和并发余量期间已经超时的请求不再发出
+        long remainingMillis = deadlineNanos == 0L ? 0L
+            : TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        if (deadlineNanos != 0L && remainingMillis <= 0L) {
+            circuitBreaker.onIgnore();
+            if (limiter != null) {
+                limiter.onIgnore();
+            }
+            return failedFuture(new TimeoutException("RPC call to " + url.getAddress() + " timed out before being sent"));
+        }
+        
+        // 随请求发出截止时间；没有设置时客户端最多等待读取超时，按读取超时传递
+        if (RpcConfig.isDeadlinePropagationEnabled()) {
+            Deadline deadline = deadlineNanos == 0L
+                ? Deadline.after(RpcConfig.getReadTimeout(), TimeUnit.MILLISECONDS)
+                : Deadline.atNanoTime(deadlineNanos);
+            invocation.setAttachment(Deadline.ATTACHMENT, deadline.toWireValue());
+        }
+        
+        // 创建异步请求对象
+        AsyncRequest asyncRequest = new AsyncRequest(requestId, url, invocation, null, null);
+        pendingRequests.put(requestId, asyncRequest);
+        String requestUrl = "http://" + url.getHostName() + ":" + url.getPort();
+        long startNanos = System.nanoTime();
+        
+        // 流式参数需要在发送线程上边读边写，这类调用走阻塞传输；本机提供者开启共享内存时不经过网络
+        boolean streamArguments = StreamArgument.hasStreamArguments(invocation.getArguments());
+        boolean sharedMemory = sharedMemoryClient != null && !streamArguments && sharedMemoryClient.supports(url);
+        if (asyncTransport && !streamArguments && !sharedMemory) {
+            // 事件驱动模式：请求发出后不占用线程，由I/O回调完成
+            CompletableFuture<String> exchange = httpClient.sendRequestAsync(requestUrl, invocation, (int) remainingMillis);
+            // 到达截止时间时取消HTTP交换，立即归还连接、预算许可和并发许可，而不是等到读取超时
+            ScheduledFuture<?> deadlineTask = deadlineNanos == 0L ? null : threadPoolManager.getTimeoutScheduler()
+                .schedule(() -> exchange.cancel(false), remainingMillis, TimeUnit.MILLISECONDS);
+            
+            // 结果统计和Future完成切换到回调线程池，I/O线程只负责读写网络；
+            // 回调线程池饱和时按CallerRunsPolicy退回当前线程执行，不会丢失完成通知
+            CompletableFuture<String> future = new CompletableFuture<>();
+            exchange.whenCompleteAsync((result, throwable) -> {
+                if (deadlineTask != null) {
+                    deadlineTask.cancel(false);
+                }
+                pendingRequests.remove(requestId);
+                Throwable error = throwable instanceof CancellationException
+                    ? new TimeoutException("RPC call to " + url.getAddress() + " timed out after " + remainingMillis + " ms")
+                    : throwable;
+                recordOutcome(url, circuitBreaker, limiter, startNanos, error);
+                if (error instanceof TimeoutException) {
+                    future.completeExceptionally(error);
+                } else if (error != null) {
+                    future.completeExceptionally(new RuntimeException("Async RPC call failed", error));
+                } else {
+                    future.complete(result);
+                }
+            }, threadPoolManager.getCallbackExecutor());
+            return future;
+        }
+        
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    String result = sharedMemory
+                        ? sharedMemoryClient.sendRequest(url, invocation, (int) remainingMillis)
+                        : httpClient.sendRequest(requestUrl, invocation, (int) remainingMillis);
+                    recordOutcome(url, circuitBreaker, limiter, startNanos, null);
+                    return result;
+                } catch (Exception e) {
+                    recordOutcome(url, circuitBreaker, limiter, startNanos, e);
+                    throw new RuntimeException("Async RPC call failed", e);
+                } finally {
+                    // 清理待处理请求
+                    pendingRequests.remove(requestId);
+                }
+            }, threadPoolManager.getClientExecutor());
+        } catch (RejectedExecutionException e) {
+            // 客户端线程池已满：请求没有发出，不计入熔断统计
+            pendingRequests.remove(requestId);
+            circuitBreaker.onIgnore();
+            if (limiter != null) {
+                limiter.onIgnore();
+            }
+            return failedFuture(e);
+        }
+    }
+    
+    /**
+     * 打开流式调用：和普通调用一样先获取在途预算和端点并发许可，流打开期间一直占用，
+     * 读完、出错或被调用方关闭时才归还；打开流即视为调用成功，延迟和追踪span按收到响应头计算。
+     * 调用线程等待许可的时间受预算和并发限制器各自的排队上限约束；
+     * 截止时间和普通调用一样继承上游剩余的时间预算，随请求发给服务端；提供端同样按调度等级和调用方身份排队
+     *
+     * @param url 服务端点
+     * @param invocation 调用信息
+     * @param priority 请求优先级
+     * @param deadlineNanos 调用截止时间(System.nanoTime)，0表示不限制
+     * @return 流迭代器，使用完毕必须关闭
+     */
+    public RpcStreamIterator<Object> openStream(URL url, Invocation invocation, int priority, long deadlineNanos)
+            throws IOException {
+        Deadline inherited = Deadline.current();
+        long effectiveDeadlineNanos = inherited == null ? deadlineNanos : inherited.earlierThan(deadlineNanos);
+        String serviceName = invocation.getInterfaceName() + "." + invocation.getMethodName();
+        CallMetrics metrics = metricsRegistry.getConsumerMetrics(url, serviceName);
+        invocation.putAttachments(schedulingAttachments.get(PriorityClass.of(priority)));
+        Span span = tracer.startClientSpan(invocation, serviceName, url);
+        ClientCallEvent event = ClientCallEvent.start();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return openStream(url, invocation, serviceName, priority, effectiveDeadlineNanos);
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            recordMetrics(metrics, startNanos, failure);
+            span.end(failure);
+            if (event != null) {
+                event.finish(serviceName, url.getAddress(), span.getTraceId(), failure);
+            }
+        }
+    }
+    
+    private RpcStreamIterator<Object> openStream(URL url, Invocation invocation, String serviceName, int priority,
+                                                 long deadlineNanos) throws IOException {
+        ClientBudgetManager.BudgetPermit permit = await(budgetManager.acquire(invocation.getInterfaceName(), priority));
+        try {
+            AdaptiveConcurrencyLimiter limiter = null;
+            if (RpcConfig.isLimiterEnabled()) {
+                limiter = limiterManager.getLimiter(url);
+                if (!await(limiter.acquireAsync(RpcConfig.getLimiterMaxWait(), RpcConfig.getLimiterMaxWaiters(),
+                        threadPoolManager.getTimeoutScheduler()))) {
+                    throw new ConcurrencyLimitExceededException(url.getAddress(), limiter.getLimit());
+                }
+            }
+            EndpointCircuitBreaker circuitBreaker = circuitBreakerManager.getOrCreateCircuitBreaker(url, serviceName);
+            if (!circuitBreaker.tryAcquirePermission()) {
+                if (limiter != null) {
+                    limiter.onIgnore();
+                }
+                throw new CircuitBreakerOpenException(circuitBreaker.getName());
+            }
+            if (deadlineNanos != 0L && RpcConfig.isDeadlinePropagationEnabled()) {
+                invocation.setAttachment(Deadline.ATTACHMENT, Deadline.atNanoTime(deadlineNanos).toWireValue());
+            }
+            long startNanos = System.nanoTime();
+            RpcStreamIterator<Object> iterator;
+            try {
+                iterator = httpClient.openStream("http://" + url.getHostName() + ":" + url.getPort(), invocation);
+            } catch (IOException | RuntimeException e) {
+                recordOutcome(url, circuitBreaker, limiter, startNanos, e);
+                throw e;
+            }
+            circuitBreakerManager.onSuccess(url, circuitBreaker);
+            // 流的持续时间取决于调用方读取的快慢，限制器只采样打开流的往返时间
+            long openNanos = System.nanoTime() - startNanos;
+            AdaptiveConcurrencyLimiter heldLimiter = limiter;
+            iterator.onRelease(() -> {
+                if (heldLimiter != null) {
+                    heldLimiter.onSuccess(openNanos);
+                }
+                permit.release();
+            });
+            return iterator;
+        } catch (IOException | RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+    }
+    
+    /**
+     * 在调用线程上等待许可，排队失败时抛出原始异常
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * 记录调用结果到熔断器和并发限制器
+     * 服务端过载拒绝不算端点故障，不计入熔断统计和异常端点摘除，但作为过载信号收缩并发上限
+     */
+    private void recordOutcome(URL url, EndpointCircuitBreaker circuitBreaker, AdaptiveConcurrencyLimiter limiter,
+                               long startNanos, Throwable throwable) {
+        if (isOverloaded(throwable)) {
+            circuitBreaker.onIgnore();
+            if (limiter != null) {
+                limiter.onDropped();
+            }
+            return;
+        }
+        if (throwable == null) {
+            circuitBreakerManager.onSuccess(url, circuitBreaker);
+            if (limiter != null) {
+                limiter.onSuccess(System.nanoTime() - startNanos);
+            }
+            return;
+        }
+        circuitBreakerManager.onError(url, circuitBreaker);
+        if (limiter != null) {
+            // 只有超时类错误代表服务端过载，其他错误不参与上限调整
+            if (throwable instanceof InterruptedIOException || throwable instanceof TimeoutException) {
+                limiter.onDropped();
+            } else {
+                limiter.onIgnore();
+            }
+        }
+    }
+    
+    /**
+     * 按调用结果分类记录指标：请求没有发出的拒绝不计入延迟直方图
+     */
+    private static void recordMetrics(CallMetrics metrics, long startNanos, Throwable throwable) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        if (throwable == null) {
+            metrics.recordSuccess(elapsedNanos);
+            return;
+        }
+        // 剥掉CompletableFuture和传输层包装的异常，按根因分类
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause.getClass() == RuntimeException.class)
+               && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof CircuitBreakerOpenException || cause instanceof ConcurrencyLimitExceededException
+            || cause instanceof BudgetExhaustedException || cause instanceof RejectedExecutionException
+            || isOverloaded(cause)) {
+            metrics.recordRejected();
+        } else if (cause instanceof TimeoutException || cause instanceof InterruptedIOException) {
+            metrics.recordTimeout(elapsedNanos);
+        } else {
+            metrics.recordError(elapsedNanos);
+        }
+    }
+    
     /**
      * 异步调用RPC服务（带超时）
      * 
-     * @param url 服务URL
+     * @param url 服务端点
      * @param invocation 调用信息
      * @param timeout 超时时间
      * @param timeUnit 时间单位
      * @return CompletableFuture包装的结果
      */
-    public CompletableFuture<String> callAsyncWithTimeout(String url, Invocation invocation, 
+    public CompletableFuture<String> callAsyncWithTimeout(URL url, Invocation invocation, 
                                                           long timeout, TimeUnit timeUnit) {
-        CompletableFuture<String> future = callAsync(url, invocation);
+        return callAsyncWithTimeout(url, invocation, RpcConfig.getDefaultPriority(), timeout, timeUnit);
+    }
+    
+    /**
+     * 异步调用RPC服务（指定优先级，带超时）
+     * 截止时间会传递到传输层：超时后取消进行中的HTTP交换并按超时计入并发限制器
+     * 
+     * @param url 服务端点
+     * @param invocation 调用信息
+     * @param priority 请求优先级
+     * @param timeout 超时时间
+     * @param timeUnit 时间单位
+     * @return CompletableFuture包装的结果
+     */
+    public CompletableFuture<String> callAsyncWithTimeout(URL url, Invocation invocation, int priority,
+                                                          long timeout, TimeUnit timeUnit) {
+        long deadlineNanos = System.nanoTime() + timeUnit.toNanos(timeout);
+        CompletableFuture<String> future = call(url, invocation, priority, deadlineNanos);
+        if (future.isDone()) {
+            return future;
+        }
         
-        // 创建超时处理
+        // 排队等待预算期间也受超时约束：共享超时调度器到点直接失败，调用完成后取消超时任务
         CompletableFuture<String> timeoutFuture = new CompletableFuture<>();
+        ScheduledFuture<?> timeoutTask = threadPoolManager.getTimeoutScheduler().schedule(() -> {
+            timeoutFuture.completeExceptionally(
+                new TimeoutException("Async RPC call timeout after " + timeout + " " + timeUnit)
+            );
+        }, timeout, timeUnit);
         
-        // 设置超时任务
-        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-        scheduler.schedule(() -> {
-             if (!future.isDone()) {
-                 timeoutFuture.completeExceptionally(
-                     new RuntimeException("Async RPC call timeout after " + timeout + " " + timeUnit)
-                 );
-             }
-             scheduler.shutdown();
-         }, timeout, timeUnit);
-        
-        // 返回第一个完成的Future
-        return CompletableFuture.anyOf(future, timeoutFuture)
-            .thenCompose(result -> {
-                if (result instanceof String) {
-                    return CompletableFuture.completedFuture((String) result);
-                } else {
-                    CompletableFuture<String> failedFuture = new CompletableFuture<>();
-                    failedFuture.completeExceptionally(
-                        new RuntimeException("Unexpected result type: " + result.getClass())
-                    );
-                    return failedFuture;
-                }
-            });
+        future.whenComplete((result, throwable) -> {
+            timeoutTask.cancel(false);
+            if (throwable != null) {
+                timeoutFuture.completeExceptionally(throwable);
+            } else {
+                timeoutFuture.complete(result);
+            }
+        });
+        return timeoutFuture;
     }
     
-
-
+    /**
+     * 是否为服务端过载拒绝，异常可能被CompletableFuture或传输层包装
+     */
+    public static boolean isOverloaded(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ProviderOverloadedException) {
+                return true;
+            }
+        }
+        return false;
+    }
     
-
+    /**
+     * 创建异常完成的Future
+     */
+    private static <T> CompletableFuture<T> failedFuture(Throwable throwable) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+    
+    /**
+     * 服务端已确认的单向调用数
+     */
+    public long getOneWayDeliveredCount() {
+        return oneWayDeliveredCount.sum();
+    }
+    
+    /**
+     * 未送达的单向调用数
+     */
+    public long getOneWayDroppedCount() {
+        return oneWayDroppedCount.sum();
+    }
     
     /**
      * 异步请求内部类
      */
     private static class AsyncRequest {
         private final long requestId;
-        private final String url;
+        private final URL url;
         private final Invocation invocation;
         private final Consumer<String> onSuccess;
         private final Consumer<Throwable> onError;
         private final long createTime;
         
-        public AsyncRequest(long requestId, String url, Invocation invocation, 
+        public AsyncRequest(long requestId, URL url, Invocation invocation, 
                            Consumer<String> onSuccess, Consumer<Throwable> onError) {
             this.requestId = requestId;
             this.url = url;
@@ -202,7 +651,7 @@ public class AsyncRpcManager {
         
         // Getters
         public long getRequestId() { return requestId; }
-        public String getUrl() { return url; }
+        public URL getUrl() { return url; }
         public Invocation getInvocation() { return invocation; }
         public Consumer<String> getOnSuccess() { return onSuccess; }
         public Consumer<Throwable> getOnError() { return onError; }
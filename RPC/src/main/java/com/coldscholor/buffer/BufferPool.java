@@ -0,0 +1,205 @@
+package com.coldscholor.buffer;
+
+import com.coldscholor.config.RpcConfig;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 编解码缓冲池
+ * 按1K/4K/16K/64K/256K五个尺寸档位缓存字节数组：先取线程本地缓存，再取共享队列，都没有时才新建；
+ * 归还时先放回当前线程的缓存，满了再放回共享队列，再满就交给GC。
+ * 超过最大档位的缓冲区不缓存，避免大消息长期占用内存。
+ *
+ * 开启泄漏检测（-Drpc.buffer.leakDetection=true，测试时开启）后，
+ * 每个租出的缓冲区记录租用时的调用栈，未归还就被GC回收时打印该调用栈并计数
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class BufferPool {
+
+    /** 单例实例 */
+    private static volatile BufferPool instance;
+
+    /** 尺寸档位 */
+    private static final int[] SIZE_CLASSES = {1024, 4 * 1024, 16 * 1024, 64 * 1024, 256 * 1024};
+
+    /** 每个线程每个档位缓存的缓冲区数 */
+    private static final int THREAD_CACHE_SIZE = 4;
+
+    /** 各档位的共享队列 */
+    private final ArrayBlockingQueue<byte[]>[] sharedQueues;
+
+    /** 线程本地缓存 */
+    private final ThreadLocal<ArrayDeque<byte[]>[]> threadCaches;
+
+    /** 是否开启泄漏检测 */
+    private final boolean leakDetection;
+
+    /** 泄漏检测：仍在租用中的缓冲区 */
+    private final Set<LeakTracker> trackers = ConcurrentHashMap.newKeySet();
+
+    /** 泄漏检测：被GC回收的缓冲区 */
+    private final ReferenceQueue<PooledBuffer> collected = new ReferenceQueue<>();
+
+    /** 租用次数 */
+    private final LongAdder acquiredCount = new LongAdder();
+
+    /** 新建数组次数（缓存未命中） */
+    private final LongAdder allocatedCount = new LongAdder();
+
+    /** 归还次数 */
+    private final LongAdder releasedCount = new LongAdder();
+
+    /** 检测到的泄漏次数 */
+    private final LongAdder leakCount = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    BufferPool(int sharedCapacity, boolean leakDetection) {
+        this.sharedQueues = new ArrayBlockingQueue[SIZE_CLASSES.length];
+        for (int i = 0; i < SIZE_CLASSES.length; i++) {
+            sharedQueues[i] = new ArrayBlockingQueue<>(sharedCapacity);
+        }
+        this.threadCaches = ThreadLocal.withInitial(() -> {
+            ArrayDeque<byte[]>[] caches = new ArrayDeque[SIZE_CLASSES.length];
+            for (int i = 0; i < caches.length; i++) {
+                caches[i] = new ArrayDeque<>(THREAD_CACHE_SIZE);
+            }
+            return caches;
+        });
+        this.leakDetection = leakDetection;
+    }
+
+    /**
+     * 获取单例实例
+     */
+    public static BufferPool getInstance() {
+        if (instance == null) {
+            synchronized (BufferPool.class) {
+                if (instance == null) {
+                    instance = new BufferPool(RpcConfig.getBufferPoolSharedCapacity(),
+                        RpcConfig.isBufferLeakDetection());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 租用至少能容纳minCapacity字节的缓冲区
+     */
+    public PooledBuffer acquire(int minCapacity) {
+        acquiredCount.increment();
+        int sizeClass = sizeClassOf(minCapacity);
+        byte[] array = null;
+        if (sizeClass >= 0) {
+            array = threadCaches.get()[sizeClass].pollFirst();
+            if (array == null) {
+                array = sharedQueues[sizeClass].poll();
+            }
+        }
+        if (array == null) {
+            allocatedCount.increment();
+            array = new byte[sizeClass >= 0 ? SIZE_CLASSES[sizeClass] : minCapacity];
+        }
+        PooledBuffer buffer = new PooledBuffer(this, array, sizeClass);
+        if (leakDetection) {
+            reportLeaks();
+            LeakTracker tracker = new LeakTracker(buffer, collected);
+            trackers.add(tracker);
+            buffer.tracker = tracker;
+        }
+        return buffer;
+    }
+
+    void release(PooledBuffer buffer) {
+        releasedCount.increment();
+        if (buffer.tracker != null) {
+            trackers.remove(buffer.tracker);
+            buffer.tracker.clear();
+        }
+        int sizeClass = buffer.sizeClass();
+        if (sizeClass < 0) {
+            return;
+        }
+        ArrayDeque<byte[]> cache = threadCaches.get()[sizeClass];
+        if (cache.size() < THREAD_CACHE_SIZE) {
+            cache.offerFirst(buffer.array());
+        } else {
+            sharedQueues[sizeClass].offer(buffer.array());
+        }
+    }
+
+    /**
+     * 检查已被GC回收但未归还的缓冲区
+     *
+     * @return 本次发现的泄漏数
+     */
+    public int reportLeaks() {
+        int leaks = 0;
+        LeakTracker tracker;
+        while ((tracker = (LeakTracker) collected.poll()) != null) {
+            if (trackers.remove(tracker)) {
+                leaks++;
+                leakCount.increment();
+                System.err.println("LEAK: pooled buffer was garbage collected without release");
+                tracker.allocationSite.printStackTrace();
+            }
+        }
+        return leaks;
+    }
+
+    private static int sizeClassOf(int capacity) {
+        for (int i = 0; i < SIZE_CLASSES.length; i++) {
+            if (capacity <= SIZE_CLASSES[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean isLeakDetection() {
+        return leakDetection;
+    }
+
+    public long getAcquiredCount() {
+        return acquiredCount.sum();
+    }
+
+    public long getAllocatedCount() {
+        return allocatedCount.sum();
+    }
+
+    public long getReleasedCount() {
+        return releasedCount.sum();
+    }
+
+    /**
+     * 当前未归还的缓冲区数
+     */
+    public long getOutstandingCount() {
+        return acquiredCount.sum() - releasedCount.sum();
+    }
+
+    public long getLeakCount() {
+        return leakCount.sum();
+    }
+
+    /**
+     * 泄漏跟踪引用，记录租用时的调用栈
+     */
+    static final class LeakTracker extends PhantomReference<PooledBuffer> {
+        private final Throwable allocationSite;
+
+        private LeakTracker(PooledBuffer buffer, ReferenceQueue<PooledBuffer> queue) {
+            super(buffer, queue);
+            this.allocationSite = new Throwable("Buffer acquired here");
+        }
+    }
+}
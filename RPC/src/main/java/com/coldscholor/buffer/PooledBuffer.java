@@ -0,0 +1,58 @@
+package com.coldscholor.buffer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 从BufferPool租用的字节数组
+ * 用完必须调用release归还，重复归还会被忽略；开启泄漏检测时未归还就被回收的缓冲区会被报告
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public final class PooledBuffer {
+
+    /** 所属缓冲池 */
+    private final BufferPool pool;
+
+    /** 底层数组 */
+    private final byte[] array;
+
+    /** 尺寸档位，超出最大档位的缓冲区为-1，不回收 */
+    private final int sizeClass;
+
+    /** 是否已归还 */
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    /** 泄漏检测的跟踪引用，未开启时为null */
+    volatile BufferPool.LeakTracker tracker;
+
+    PooledBuffer(BufferPool pool, byte[] array, int sizeClass) {
+        this.pool = pool;
+        this.array = array;
+        this.sizeClass = sizeClass;
+    }
+
+    /**
+     * 底层数组，长度可能大于租用时请求的容量
+     */
+    public byte[] array() {
+        return array;
+    }
+
+    public int capacity() {
+        return array.length;
+    }
+
+    int sizeClass() {
+        return sizeClass;
+    }
+
+    /**
+     * 归还到缓冲池，之后不能再访问底层数组
+     */
+    public void release() {
+        if (released.compareAndSet(false, true)) {
+            pool.release(this);
+        }
+    }
+}
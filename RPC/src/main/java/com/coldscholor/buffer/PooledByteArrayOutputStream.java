@@ -0,0 +1,161 @@
+package com.coldscholor.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * 基于缓冲池的字节输出流
+ * 编码时直接写入租用的缓冲区，容量不足时换一个更大档位的缓冲区；
+ * 写出时直接从缓冲区写到目标流，不再像ByteArrayOutputStream.toByteArray那样拷贝一份。
+ * close()不归还缓冲区（包装它的ObjectOutputStream关闭时会调用close），用完必须调用release()
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class PooledByteArrayOutputStream extends OutputStream {
+
+    /** 缓冲池 */
+    private final BufferPool pool;
+
+    /** 当前缓冲区 */
+    private PooledBuffer buffer;
+
+    /** 已写入的字节数 */
+    private int count;
+
+    public PooledByteArrayOutputStream() {
+        this(1024);
+    }
+
+    public PooledByteArrayOutputStream(int initialCapacity) {
+        this.pool = BufferPool.getInstance();
+        this.buffer = pool.acquire(initialCapacity);
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(count + 1);
+        buffer.array()[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buffer.array(), count, len);
+        count += len;
+    }
+
+    /**
+     * 以UTF-8编码写入字符串，直接编码到缓冲区，不生成中间的byte[]
+     */
+    public void writeUtf8(String value) {
+        int length = value.length();
+        // 先按全部为ASCII预留，遇到多字节字符时再扩容
+        ensureCapacity(count + length);
+        byte[] array = buffer.array();
+        int pos = count;
+        for (int i = 0; i < length; i++) {
+            if (array.length - pos < 4) {
+                count = pos;
+                ensureCapacity(pos + 4 + (length - i));
+                array = buffer.array();
+            }
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                array[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                array[pos++] = (byte) (0xc0 | (c >> 6));
+                array[pos++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                array[pos++] = (byte) (0xf0 | (codePoint >> 18));
+                array[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                array[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                array[pos++] = (byte) (0x80 | (codePoint & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                // 不成对的代理字符按String.getBytes的做法替换为'?'
+                array[pos++] = '?';
+            } else {
+                array[pos++] = (byte) (0xe0 | (c >> 12));
+                array[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                array[pos++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        count = pos;
+    }
+
+    /**
+     * 读入输入流的全部内容
+     */
+    public void readFrom(InputStream in) throws IOException {
+        int read;
+        do {
+            ensureCapacity(count + 1);
+            read = in.read(buffer.array(), count, buffer.capacity() - count);
+            if (read > 0) {
+                count += read;
+            }
+        } while (read != -1);
+    }
+
+    /**
+     * 返回缓冲区尾部至少minRemaining字节的可写视图，供NIO直接读入；写入后调用advance
+     */
+    public ByteBuffer writableBuffer(int minRemaining) {
+        ensureCapacity(count + minRemaining);
+        return ByteBuffer.wrap(buffer.array(), count, buffer.capacity() - count);
+    }
+
+    /**
+     * 已通过writableBuffer写入n个字节
+     */
+    public void advance(int n) {
+        count += n;
+    }
+
+    /**
+     * 底层数组，有效数据为[0, size())
+     */
+    public byte[] array() {
+        return buffer.array();
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public void reset() {
+        count = 0;
+    }
+
+    /**
+     * 把内容直接写到目标流
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer.array(), 0, count);
+    }
+
+    public String toString(Charset charset) {
+        return new String(buffer.array(), 0, count, charset);
+    }
+
+    /**
+     * 归还缓冲区，之后不能再使用该流
+     */
+    public void release() {
+        buffer.release();
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity <= buffer.capacity()) {
+            return;
+        }
+        PooledBuffer larger = pool.acquire(Math.max(minCapacity, buffer.capacity() * 2));
+        System.arraycopy(buffer.array(), 0, larger.array(), 0, count);
+        buffer.release();
+        buffer = larger;
+    }
+}
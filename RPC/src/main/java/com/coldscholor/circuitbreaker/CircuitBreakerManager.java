@@ -1,53 +1,52 @@
 package com.coldscholor.circuitbreaker;
 
+import com.coldscholor.common.URL;
+import com.coldscholor.config.MethodConfig;
 import com.coldscholor.config.RpcConfig;
-import io.github.resilience4j.circuitbreaker.CircuitBreaker;
-import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import com.coldscholor.metrics.MetricsRegistry;
 
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 /**
  * 熔断器管理器
- * 使用Resilience4j实现熔断器模式，提供服务降级和故障隔离
- * 
+ * 按(端点, 方法)维度创建熔断器，单个异常端点只会熔断自身，不影响同一方法的其他端点
+ * 配合OutlierDetector完成异常端点摘除，服务降级次数与真实成功次数分开统计
+ *
  * @author 寒士obj
  * @date 2025/01/15
  */
 public class CircuitBreakerManager {
-    
+
     /** 单例实例 */
     private static volatile CircuitBreakerManager instance;
-    
-    /** 熔断器注册表 */
-    private final CircuitBreakerRegistry circuitBreakerRegistry;
-    
-    /** 熔断器缓存 */
-    private final ConcurrentHashMap<String, CircuitBreaker> circuitBreakerCache;
-    
+
+    /** 熔断器缓存，key为host:port#接口.方法 */
+    private final ConcurrentHashMap<String, EndpointCircuitBreaker> circuitBreakerCache;
+
+    /** 服务级降级次数，key为接口.方法，包含没有可用端点时的降级 */
+    private final ConcurrentHashMap<String, LongAdder> fallbackCounts;
+
+    /** 异常端点检测器 */
+    private final OutlierDetector outlierDetector;
+
     /**
      * 私有构造函数
      */
     private CircuitBreakerManager() {
-        // 创建默认熔断器配置
-        CircuitBreakerConfig defaultConfig = CircuitBreakerConfig.custom()
-            .failureRateThreshold(RpcConfig.getFailureRateThreshold())
-            .waitDurationInOpenState(Duration.ofSeconds(RpcConfig.getWaitDurationInOpenState()))
-            .permittedNumberOfCallsInHalfOpenState(RpcConfig.getPermittedCallsInHalfOpenState())
-            .slidingWindowSize(RpcConfig.getSlidingWindowSize())
-            .minimumNumberOfCalls(RpcConfig.getMinimumNumberOfCalls())
-            .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
-            .build();
-        
-        // 创建熔断器注册表
-        this.circuitBreakerRegistry = CircuitBreakerRegistry.of(defaultConfig);
-        
-        // 初始化缓存
         this.circuitBreakerCache = new ConcurrentHashMap<>();
+        this.fallbackCounts = new ConcurrentHashMap<>();
+        this.outlierDetector = OutlierDetector.getInstance();
+        RpcConfig.addListener(this::applyConfig);
     }
-    
+
     /**
      * 获取单例实例
      */
@@ -61,65 +60,184 @@ public class CircuitBreakerManager {
         }
         return instance;
     }
-    
+
     /**
      * 获取或创建熔断器
-     * 
-     * @param serviceName 服务名称
+     *
+     * @param url 服务端点
+     * @param serviceName 服务名称(接口.方法)
      * @return 熔断器实例
      */
-    public CircuitBreaker getOrCreateCircuitBreaker(String serviceName) {
-        return circuitBreakerCache.computeIfAbsent(serviceName, name -> 
-            circuitBreakerRegistry.circuitBreaker(name)
-        );
+    public EndpointCircuitBreaker getOrCreateCircuitBreaker(URL url, String serviceName) {
+        String key = url.getAddress() + "#" + serviceName;
+        EndpointCircuitBreaker circuitBreaker = circuitBreakerCache.get(key);
+        if (circuitBreaker != null) {
+            return circuitBreaker;
+        }
+        // 阈值取方法的调用配置，可按服务和方法覆盖
+        MethodConfig config = RpcConfig.getMethodConfig(serviceName);
+        return circuitBreakerCache.computeIfAbsent(key, name -> new EndpointCircuitBreaker(
+            name,
+            config.getFailureRateThreshold(),
+            config.getWaitDurationInOpenState(),
+            config.getPermittedCallsInHalfOpenState(),
+            RpcConfig.getSlidingWindowSize(),
+            config.getMinimumNumberOfCalls()
+        ));
     }
-    
+
+    /**
+     * 配置重新加载后按各方法的调用配置调整已创建的熔断器，熔断器的状态和统计保留
+     */
+    private void applyConfig() {
+        for (Map.Entry<String, EndpointCircuitBreaker> entry : circuitBreakerCache.entrySet()) {
+            String key = entry.getKey();
+            MethodConfig config = RpcConfig.getMethodConfig(key.substring(key.indexOf('#') + 1));
+            entry.getValue().reconfigure(config.getFailureRateThreshold(), config.getWaitDurationInOpenState(),
+                config.getPermittedCallsInHalfOpenState(), config.getMinimumNumberOfCalls());
+        }
+    }
+
+    /**
+     * 筛选可调用的端点：跳过被摘除的端点以及该方法熔断器处于打开状态的端点
+     * 全部端点都不可用时返回空列表，由调用方执行降级
+     *
+     * @param urls 服务端点列表
+     * @param serviceName 服务名称(接口.方法)
+     * @return 可调用端点列表
+     */
+    public List<URL> selectAvailable(List<URL> urls, String serviceName) {
+        List<URL> healthy = outlierDetector.filterHealthy(urls);
+        List<URL> available = new ArrayList<>(healthy.size());
+        for (URL url : healthy) {
+            if (getOrCreateCircuitBreaker(url, serviceName).isCallPermitted()) {
+                available.add(url);
+            }
+        }
+        return available;
+    }
+
     /**
      * 执行带熔断器保护的操作
-     * 
-     * @param serviceName 服务名称
+     * 调用结果只记录一次：真实成功计入成功，异常计入失败，降级单独计数
+     *
+     * @param url 服务端点
+     * @param serviceName 服务名称(接口.方法)
      * @param supplier 要执行的操作
      * @param fallback 降级操作
      * @return 执行结果
      */
-    public <T> T executeWithCircuitBreaker(String serviceName, Supplier<T> supplier, Supplier<T> fallback) {
-        CircuitBreaker circuitBreaker = getOrCreateCircuitBreaker(serviceName);
-        
-        // 装饰supplier
-        Supplier<T> decoratedSupplier = CircuitBreaker.decorateSupplier(circuitBreaker, supplier);
-        
+    public <T> T executeWithCircuitBreaker(URL url, String serviceName, Supplier<T> supplier, Supplier<T> fallback) {
+        EndpointCircuitBreaker circuitBreaker = getOrCreateCircuitBreaker(url, serviceName);
+
         try {
-            return decoratedSupplier.get();
+            if (!circuitBreaker.tryAcquirePermission()) {
+                throw new CircuitBreakerOpenException(circuitBreaker.getName());
+            }
+            T result;
+            try {
+                result = supplier.get();
+            } catch (RuntimeException e) {
+                onError(url, circuitBreaker);
+                throw e;
+            }
+            onSuccess(url, circuitBreaker);
+            return result;
         } catch (Exception e) {
             // 执行降级逻辑
             if (fallback != null) {
+                onFallback(url, serviceName);
                 return fallback.get();
             }
-            
+
             throw new RuntimeException("Service call failed and no fallback provided", e);
         }
     }
-    
+
     /**
      * 执行带熔断器保护的操作（无降级）
-     * 
-     * @param serviceName 服务名称
+     *
+     * @param url 服务端点
+     * @param serviceName 服务名称(接口.方法)
      * @param supplier 要执行的操作
      * @return 执行结果
      */
-    public <T> T executeWithCircuitBreaker(String serviceName, Supplier<T> supplier) {
-        return executeWithCircuitBreaker(serviceName, supplier, null);
+    public <T> T executeWithCircuitBreaker(URL url, String serviceName, Supplier<T> supplier) {
+        return executeWithCircuitBreaker(url, serviceName, supplier, null);
+    }
+
+    /**
+     * 记录一次真实调用成功（异步调用在完成回调中使用）
+     */
+    public void onSuccess(URL url, EndpointCircuitBreaker circuitBreaker) {
+        circuitBreaker.onSuccess();
+        outlierDetector.recordSuccess(url);
+    }
+
+    /**
+     * 记录一次真实调用失败（异步调用在完成回调中使用）
+     */
+    public void onError(URL url, EndpointCircuitBreaker circuitBreaker) {
+        circuitBreaker.onError();
+        outlierDetector.recordFailure(url);
+    }
+
+    /**
+     * 记录一次调用某个端点失败后的降级
+     */
+    public void onFallback(URL url, String serviceName) {
+        getOrCreateCircuitBreaker(url, serviceName).onFallback();
+        MetricsRegistry.getInstance().getConsumerMetrics(url, serviceName).recordFallback();
+        onFallback(serviceName);
+    }
+
+    /**
+     * 记录一次服务级降级（如全部端点被摘除或熔断，没有端点可调用）
+     */
+    public void onFallback(String serviceName) {
+        LongAdder counter = fallbackCounts.get(serviceName);
+        if (counter == null) {
+            counter = fallbackCounts.computeIfAbsent(serviceName, name -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * 获取服务的降级总次数
+     *
+     * @param serviceName 服务名称(接口.方法)
+     * @return 降级次数
+     */
+    public long getFallbackCount(String serviceName) {
+        LongAdder counter = fallbackCounts.get(serviceName);
+        return counter == null ? 0L : counter.sum();
+    }
+
+    /**
+     * 获取全部服务的降级次数，用于监控
+     *
+     * @return 服务名称(接口.方法) -> 降级次数
+     */
+    public Map<String, Long> getFallbackCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        fallbackCounts.forEach((serviceName, counter) -> counts.put(serviceName, counter.sum()));
+        return counts;
+    }
+
+    /**
+     * 获取全部熔断器，用于监控
+     */
+    public Collection<EndpointCircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableCollection(circuitBreakerCache.values());
     }
-    
 
-    
     /**
      * 创建默认降级响应
-     * 
+     *
      * @param serviceName 服务名称
      * @return 降级响应
      */
     public static String createFallbackResponse(String serviceName) {
         return String.format("Service '%s' is currently unavailable. Please try again later.", serviceName);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,14 @@
+package com.coldscholor.circuitbreaker;
+
+/**
+ * 熔断器打开时拒绝调用抛出的异常
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    public CircuitBreakerOpenException(String circuitBreakerName) {
+        super("CircuitBreaker '" + circuitBreakerName + "' is OPEN and does not permit further calls");
+    }
+}
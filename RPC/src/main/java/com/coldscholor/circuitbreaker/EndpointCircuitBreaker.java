@@ -0,0 +1,253 @@
+package com.coldscholor.circuitbreaker;
+
+import com.coldscholor.jfr.CircuitBreakerTransitionEvent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 端点级熔断器
+ * 按(端点, 方法)维度隔离，状态机使用CAS切换，失败率统计基于无锁分段计数窗口
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class EndpointCircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED,      // 关闭，正常放行
+        OPEN,        // 打开，拒绝调用
+        HALF_OPEN    // 半开，放行少量探测调用
+    }
+
+    /** 熔断器名称(端点#方法) */
+    private final String name;
+
+    /** 失败率阈值(%)，可在线调整 */
+    private volatile float failureRateThreshold;
+
+    /** 打开状态持续时间(纳秒)，可在线调整 */
+    private volatile long waitDurationInOpenNanos;
+
+    /** 半开状态允许的探测调用数，可在线调整 */
+    private volatile int permittedCallsInHalfOpen;
+
+    /** 最小调用次数，可在线调整 */
+    private volatile int minimumNumberOfCalls;
+
+    /** 当前状态 */
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+
+    /** 进入打开状态的时间 */
+    private volatile long openedAtNanos;
+
+    /** 关闭状态的失败率窗口 */
+    private final SlidingWindowCounter window;
+
+    /** 半开状态剩余可放行的调用数 */
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+
+    /** 半开状态已完成的调用数 */
+    private final AtomicInteger halfOpenCompleted = new AtomicInteger();
+
+    /** 半开状态失败的调用数 */
+    private final AtomicInteger halfOpenFailures = new AtomicInteger();
+
+    /** 本轮半开状态放行的探测调用数，半开期间调整配置不影响本轮 */
+    private volatile int halfOpenProbes;
+
+    /** 真实调用成功次数 */
+    private final LongAdder successCount = new LongAdder();
+
+    /** 真实调用失败次数 */
+    private final LongAdder failureCount = new LongAdder();
+
+    /** 因熔断被拒绝的次数 */
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /** 降级次数（不计入成功） */
+    private final LongAdder fallbackCount = new LongAdder();
+
+    public EndpointCircuitBreaker(String name, float failureRateThreshold, int waitDurationInOpenSeconds,
+                                  int permittedCallsInHalfOpen, int slidingWindowSeconds, int minimumNumberOfCalls) {
+        this.name = name;
+        this.failureRateThreshold = failureRateThreshold;
+        this.waitDurationInOpenNanos = TimeUnit.SECONDS.toNanos(waitDurationInOpenSeconds);
+        this.permittedCallsInHalfOpen = permittedCallsInHalfOpen;
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        this.window = new SlidingWindowCounter(slidingWindowSeconds);
+    }
+
+    /**
+     * 尝试获取调用许可
+     *
+     * @return 是否允许调用
+     */
+    public boolean tryAcquirePermission() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < waitDurationInOpenNanos) {
+                rejectedCount.increment();
+                return false;
+            }
+            // 等待时间已过，由CAS成功的线程切换到半开状态
+            transitionToHalfOpen();
+            if (state.get() == State.CLOSED) {
+                return true;
+            }
+        }
+        // 半开状态：只放行有限的探测调用
+        if (halfOpenPermits.getAndDecrement() > 0) {
+            return true;
+        }
+        rejectedCount.increment();
+        return false;
+    }
+
+    /**
+     * 判断当前是否可以放行（不消耗半开许可），供负载均衡过滤使用
+     */
+    public boolean isCallPermitted() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            return System.nanoTime() - openedAtNanos >= waitDurationInOpenNanos;
+        }
+        return halfOpenPermits.get() > 0;
+    }
+
+    /**
+     * 记录一次成功调用
+     */
+    public void onSuccess() {
+        successCount.increment();
+        if (state.get() == State.HALF_OPEN) {
+            onHalfOpenResult(false);
+        } else {
+            window.recordSuccess();
+        }
+    }
+
+    /**
+     * 记录一次失败调用
+     */
+    public void onError() {
+        failureCount.increment();
+        State current = state.get();
+        if (current == State.HALF_OPEN) {
+            onHalfOpenResult(true);
+        } else if (current == State.CLOSED) {
+            window.recordFailure();
+            float failureRate = window.getFailureRate(minimumNumberOfCalls);
+            if (failureRate >= failureRateThreshold) {
+                transitionToOpen(State.CLOSED);
+            }
+        }
+    }
+
+    /**
+     * 已获取许可但调用未实际发出（如本地线程池拒绝），归还半开状态的探测许可
+     */
+    public void onIgnore() {
+        if (state.get() == State.HALF_OPEN) {
+            halfOpenPermits.incrementAndGet();
+        }
+    }
+
+    /**
+     * 记录一次降级，降级结果不会被当作成功调用统计
+     */
+    public void onFallback() {
+        fallbackCount.increment();
+    }
+
+    private void onHalfOpenResult(boolean failed) {
+        if (failed) {
+            halfOpenFailures.incrementAndGet();
+        }
+        int completed = halfOpenCompleted.incrementAndGet();
+        if (completed < halfOpenProbes) {
+            return;
+        }
+        float failureRate = halfOpenFailures.get() * 100.0f / completed;
+        if (failureRate >= failureRateThreshold) {
+            transitionToOpen(State.HALF_OPEN);
+        } else if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            window.reset();
+            CircuitBreakerTransitionEvent.emit(name, State.HALF_OPEN, State.CLOSED);
+        }
+    }
+
+    private void transitionToOpen(State from) {
+        // 先写入打开时间，保证其他线程读到OPEN时时间戳已是最新
+        openedAtNanos = System.nanoTime();
+        if (state.compareAndSet(from, State.OPEN)) {
+            // 清空半开状态残留的探测许可，避免重新打开后仍有线程凭旧许可放行
+            halfOpenPermits.set(0);
+            CircuitBreakerTransitionEvent.emit(name, from, State.OPEN);
+        }
+    }
+
+    private void transitionToHalfOpen() {
+        if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            halfOpenCompleted.set(0);
+            halfOpenFailures.set(0);
+            int probes = permittedCallsInHalfOpen;
+            halfOpenProbes = probes;
+            halfOpenPermits.set(probes);
+            CircuitBreakerTransitionEvent.emit(name, State.OPEN, State.HALF_OPEN);
+        }
+    }
+
+    /**
+     * 在线调整阈值，下一次判断时生效；已经开始的打开等待和半开探测按新的等待时间、原来的探测数完成
+     */
+    public void reconfigure(float failureRateThreshold, int waitDurationInOpenSeconds,
+                            int permittedCallsInHalfOpen, int minimumNumberOfCalls) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.waitDurationInOpenNanos = TimeUnit.SECONDS.toNanos(waitDurationInOpenSeconds);
+        this.permittedCallsInHalfOpen = permittedCallsInHalfOpen;
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public long getSuccessCount() {
+        return successCount.sum();
+    }
+
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getFallbackCount() {
+        return fallbackCount.sum();
+    }
+
+    /**
+     * 当前窗口内的失败率(%)，样本不足时返回-1
+     */
+    public float getFailureRate() {
+        return window.getFailureRate(minimumNumberOfCalls);
+    }
+}
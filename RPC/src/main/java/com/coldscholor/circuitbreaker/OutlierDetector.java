@@ -0,0 +1,206 @@
+package com.coldscholor.circuitbreaker;
+
+import com.coldscholor.common.URL;
+import com.coldscholor.config.RpcConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异常端点检测器
+ * 按端点统计连续失败次数，超过阈值后将端点临时摘除，摘除比例受上限约束，避免全部端点被摘除
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class OutlierDetector {
+
+    /** 单例实例 */
+    private static volatile OutlierDetector instance;
+
+    /** 摘除时间倍数上限 */
+    private static final int MAX_EJECTION_MULTIPLIER = 10;
+
+    /** 连续失败多少次后摘除 */
+    private final int consecutiveFailures;
+
+    /** 基础摘除时间(纳秒) */
+    private final long baseEjectionNanos;
+
+    /** 最多允许摘除的端点比例(%) */
+    private final int maxEjectionPercent;
+
+    /** 端点状态，key为host:port */
+    private final ConcurrentHashMap<String, EndpointState> endpointStates;
+
+    /**
+     * 私有构造函数
+     */
+    private OutlierDetector() {
+        this(RpcConfig.getOutlierConsecutiveFailures(),
+            TimeUnit.SECONDS.toNanos(RpcConfig.getOutlierBaseEjectionTime()),
+            RpcConfig.getOutlierMaxEjectionPercent());
+    }
+
+    OutlierDetector(int consecutiveFailures, long baseEjectionNanos, int maxEjectionPercent) {
+        this.consecutiveFailures = consecutiveFailures;
+        this.baseEjectionNanos = baseEjectionNanos;
+        this.maxEjectionPercent = maxEjectionPercent;
+        this.endpointStates = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * 获取单例实例
+     */
+    public static OutlierDetector getInstance() {
+        if (instance == null) {
+            synchronized (OutlierDetector.class) {
+                if (instance == null) {
+                    instance = new OutlierDetector();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 记录端点调用成功
+     */
+    public void recordSuccess(URL url) {
+        EndpointState endpointState = endpointStates.get(url.getAddress());
+        // 先读后写，正常情况下成功路径只有一次读，不会在缓存行上产生竞争
+        if (endpointState != null && endpointState.consecutiveFailures.get() != 0) {
+            endpointState.consecutiveFailures.set(0);
+        }
+    }
+
+    /**
+     * 记录端点调用失败，连续失败达到阈值时摘除端点
+     */
+    public void recordFailure(URL url) {
+        EndpointState endpointState = getOrCreateState(url);
+        int failures = endpointState.consecutiveFailures.incrementAndGet();
+        if (failures >= consecutiveFailures) {
+            endpointState.eject(System.nanoTime(), baseEjectionNanos);
+        }
+    }
+
+    /**
+     * 判断端点当前是否被摘除
+     */
+    public boolean isEjected(URL url) {
+        EndpointState endpointState = endpointStates.get(url.getAddress());
+        return endpointState != null && endpointState.isEjected(System.nanoTime());
+    }
+
+    /**
+     * 端点当前的摘除次数（决定下次摘除时长的倍数），未记录过的端点返回0
+     */
+    public int getEjectionCount(URL url) {
+        EndpointState endpointState = endpointStates.get(url.getAddress());
+        return endpointState == null ? 0 : endpointState.ejectionCount.get();
+    }
+
+    /**
+     * 全部已记录端点当前是否被摘除，用于监控，key为host:port
+     */
+    public Map<String, Boolean> getEjectedStates() {
+        long now = System.nanoTime();
+        Map<String, Boolean> states = new TreeMap<>();
+        endpointStates.forEach((address, endpointState) -> states.put(address, endpointState.isEjected(now)));
+        return states;
+    }
+
+    /**
+     * 全部已记录端点的摘除次数，用于监控，key为host:port
+     */
+    public Map<String, Integer> getEjectionCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        endpointStates.forEach((address, endpointState) -> counts.put(address, endpointState.ejectionCount.get()));
+        return counts;
+    }
+
+    /**
+     * 过滤掉被摘除的端点
+     * 被摘除端点超过比例上限时，按恢复时间由近到远放回部分端点
+     *
+     * @param urls 全部端点
+     * @return 可用端点
+     */
+    public List<URL> filterHealthy(List<URL> urls) {
+        long now = System.nanoTime();
+        List<URL> healthy = new ArrayList<>(urls.size());
+        List<URL> ejected = null;
+        for (URL url : urls) {
+            EndpointState endpointState = endpointStates.get(url.getAddress());
+            if (endpointState != null && endpointState.isEjected(now)) {
+                if (ejected == null) {
+                    ejected = new ArrayList<>();
+                }
+                ejected.add(url);
+            } else {
+                healthy.add(url);
+            }
+        }
+        if (ejected == null) {
+            return healthy;
+        }
+
+        int maxEjected = urls.size() * maxEjectionPercent / 100;
+        if (ejected.size() > maxEjected) {
+            ejected.sort((a, b) -> Long.compare(
+                endpointStates.get(a.getAddress()).ejectedUntilNanos.get() - now,
+                endpointStates.get(b.getAddress()).ejectedUntilNanos.get() - now));
+            healthy.addAll(ejected.subList(0, ejected.size() - maxEjected));
+        }
+        return healthy;
+    }
+
+    private EndpointState getOrCreateState(URL url) {
+        return endpointStates.computeIfAbsent(url.getAddress(), address -> new EndpointState(System.nanoTime()));
+    }
+
+    /**
+     * 单个端点的摘除状态
+     */
+    private static class EndpointState {
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicInteger ejectionCount = new AtomicInteger();
+
+        /** 摘除截止时间，初始为创建时刻即未摘除 */
+        private final AtomicLong ejectedUntilNanos;
+
+        private EndpointState(long now) {
+            this.ejectedUntilNanos = new AtomicLong(now);
+        }
+
+        private boolean isEjected(long now) {
+            return now - ejectedUntilNanos.get() < 0;
+        }
+
+        /**
+         * 摘除时间随摘除次数线性增长，恢复后再次失败会被摘除更久；
+         * 恢复后每健康一个基础摘除时间，倍数减一，偶发故障不会永久拉长摘除时间。
+         * 通过CAS更新截止时间，并发失败时只有一个线程完成摘除
+         */
+        private void eject(long now, long baseEjectionNanos) {
+            long until = ejectedUntilNanos.get();
+            if (now - until < 0) {
+                return;
+            }
+            int previous = ejectionCount.get();
+            long decay = baseEjectionNanos > 0 ? (now - until) / baseEjectionNanos : previous;
+            int count = (int) Math.min(MAX_EJECTION_MULTIPLIER, Math.max(0, previous - decay) + 1);
+            if (ejectedUntilNanos.compareAndSet(until, now + baseEjectionNanos * count)) {
+                ejectionCount.set(count);
+                consecutiveFailures.set(0);
+            }
+        }
+    }
+}
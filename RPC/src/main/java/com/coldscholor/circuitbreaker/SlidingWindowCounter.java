@@ -0,0 +1,123 @@
+package com.coldscholor.circuitbreaker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于时间分桶的滑动窗口计数器
+ * 每秒一个桶，桶内使用LongAdder分段计数，记录路径无锁，高QPS下不产生竞争
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class SlidingWindowCounter {
+
+    /** 空桶标记 */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    /** 统计桶 */
+    private final Bucket[] buckets;
+
+    public SlidingWindowCounter(int windowSeconds) {
+        this.buckets = new Bucket[Math.max(1, windowSeconds)];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    /**
+     * 记录一次成功调用
+     */
+    public void recordSuccess() {
+        currentBucket().successes.increment();
+    }
+
+    /**
+     * 记录一次失败调用
+     */
+    public void recordFailure() {
+        currentBucket().failures.increment();
+    }
+
+    /**
+     * 窗口内总调用次数
+     */
+    public long getTotalCalls() {
+        long now = currentSecond();
+        long total = 0;
+        for (Bucket bucket : buckets) {
+            if (isLive(bucket, now)) {
+                total += bucket.successes.sum() + bucket.failures.sum();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 计算窗口内失败率(%)
+     *
+     * @param minimumCalls 最小调用次数，不足时返回-1
+     * @return 失败率，样本不足时返回-1
+     */
+    public float getFailureRate(int minimumCalls) {
+        long now = currentSecond();
+        long successes = 0;
+        long failures = 0;
+        for (Bucket bucket : buckets) {
+            if (isLive(bucket, now)) {
+                successes += bucket.successes.sum();
+                failures += bucket.failures.sum();
+            }
+        }
+        long total = successes + failures;
+        if (total == 0 || total < minimumCalls) {
+            return -1f;
+        }
+        return failures * 100.0f / total;
+    }
+
+    /**
+     * 清空窗口
+     */
+    public void reset() {
+        for (Bucket bucket : buckets) {
+            bucket.epochSecond.set(EMPTY);
+            bucket.successes.reset();
+            bucket.failures.reset();
+        }
+    }
+
+    private boolean isLive(Bucket bucket, long now) {
+        long epoch = bucket.epochSecond.get();
+        return epoch != EMPTY && now - epoch < buckets.length;
+    }
+
+    /**
+     * 定位当前秒对应的桶，桶过期时由一个线程通过CAS负责清零
+     */
+    private Bucket currentBucket() {
+        long now = currentSecond();
+        Bucket bucket = buckets[(int) Math.floorMod(now, (long) buckets.length)];
+        long epoch = bucket.epochSecond.get();
+        if (epoch != now && bucket.epochSecond.compareAndSet(epoch, now)) {
+            // 清零与并发写入之间存在极小的误差窗口，统计场景下可以接受
+            bucket.successes.reset();
+            bucket.failures.reset();
+        }
+        return bucket;
+    }
+
+    private static long currentSecond() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+    }
+
+    /**
+     * 单个统计桶
+     */
+    private static class Bucket {
+        private final AtomicLong epochSecond = new AtomicLong(EMPTY);
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+    }
+}
@@ -6,9 +6,14 @@ package com.coldscholor.common;
  **/
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * 将需要调用的方法封装成对象传递到服务提供者
+ * 完成方法ID握手后使用紧凑形式：不带接口名、方法名和参数类型，只带服务ID、方法ID和方法表版本，
+ * 服务端按ID找到方法后调用resolve补全，之后的处理和完整形式相同
  */
 public class Invocation implements Serializable {
     // 接口名
@@ -19,6 +24,16 @@ public class Invocation implements Serializable {
     private Class[] parameterTypes;
     // 参数
     private Object[] arguments;
+    // 是否单向调用，服务端收到后立即确认，不返回结果
+    private boolean oneWay;
+    // 附件：随调用传递到服务端的键值对（如追踪上下文），没有附件时为null
+    private Map<String, String> attachments;
+    // 紧凑形式的服务ID、方法ID和方法表版本，完整形式时不使用
+    private int serviceId;
+    private int methodId;
+    private int tableVersion;
+    // 消费者端的方法描述，用于查找该方法在各端点的方法ID，不序列化
+    private transient MethodDescriptor methodDescriptor;
 
     public Invocation() {
     }
@@ -94,6 +109,123 @@ public class Invocation implements Serializable {
         this.arguments = arguments;
     }
 
+    /**
+     * 获取
+     * @return oneWay
+     */
+    public boolean isOneWay() {
+        return oneWay;
+    }
+
+    /**
+     * 设置
+     * @param oneWay
+     */
+    public void setOneWay(boolean oneWay) {
+        this.oneWay = oneWay;
+    }
+
+    /**
+     * 获取全部附件，没有附件时返回空Map
+     * @return attachments
+     */
+    public Map<String, String> getAttachments() {
+        return attachments == null ? Collections.emptyMap() : Collections.unmodifiableMap(attachments);
+    }
+
+    /**
+     * 获取单个附件
+     * @param key
+     * @return 附件值，不存在时为null
+     */
+    public String getAttachment(String key) {
+        return attachments == null ? null : attachments.get(key);
+    }
+
+    /**
+     * 设置单个附件
+     * @param key
+     * @param value
+     */
+    public void setAttachment(String key, String value) {
+        Map<String, String> newAttachments = attachments == null ? new HashMap<>() : new HashMap<>(attachments);
+        newAttachments.put(key, value);
+        this.attachments = newAttachments;
+    }
+
+    /**
+     * 合并一组附件，已有的同名附件被覆盖
+     * 没有其他附件时直接引用传入的Map，调用方不应再修改它
+     * @param values
+     */
+    public void putAttachments(Map<String, String> values) {
+        if (attachments == null || attachments.isEmpty()) {
+            this.attachments = values;
+            return;
+        }
+        Map<String, String> newAttachments = new HashMap<>(attachments);
+        newAttachments.putAll(values);
+        this.attachments = newAttachments;
+    }
+
+    /**
+     * 获取
+     * @return methodDescriptor，服务端和没有设置时为null
+     */
+    public MethodDescriptor getMethodDescriptor() {
+        return methodDescriptor;
+    }
+
+    /**
+     * 设置
+     * @param methodDescriptor
+     */
+    public void setMethodDescriptor(MethodDescriptor methodDescriptor) {
+        this.methodDescriptor = methodDescriptor;
+    }
+
+    /**
+     * 是否为只带方法ID的紧凑形式
+     */
+    public boolean isCompact() {
+        return interfaceName == null;
+    }
+
+    public int getServiceId() {
+        return serviceId;
+    }
+
+    public int getMethodId() {
+        return methodId;
+    }
+
+    public int getTableVersion() {
+        return tableVersion;
+    }
+
+    /**
+     * 创建紧凑形式的调用，参数、单向调用标记和附件与当前调用共用
+     * @param methodRef 握手得到的方法ID
+     */
+    public Invocation compact(MethodRef methodRef) {
+        Invocation compact = new Invocation(null, null, null, arguments);
+        compact.oneWay = oneWay;
+        compact.attachments = attachments;
+        compact.serviceId = methodRef.getServiceId();
+        compact.methodId = methodRef.getMethodId();
+        compact.tableVersion = methodRef.getTableVersion();
+        return compact;
+    }
+
+    /**
+     * 服务端按ID找到方法后补全接口名、方法名和参数类型
+     */
+    public void resolve(String interfaceName, MethodDescriptor method) {
+        this.interfaceName = interfaceName;
+        this.methodName = method.getName();
+        this.parameterTypes = method.getParameterTypes();
+    }
+
     public String toString() {
         return "Invocation{interfaceName = " + interfaceName + ", methodName = " + methodName + ", parameterTypes = " + parameterTypes + ", arguments = " + arguments + "}";
     }
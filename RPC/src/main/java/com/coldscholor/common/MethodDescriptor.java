@@ -0,0 +1,145 @@
+package com.coldscholor.common;
+
+import com.coldscholor.annotation.OneWay;
+import com.coldscholor.annotation.RpcPriority;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 服务方法的描述：方法编号、名称、参数和返回值类型，以及客户端需要的单向调用标记和方法优先级。
+ * 编译期生成的分发器和调用桩直接用类字面量创建，不需要反射；手工注册的服务和动态代理由Method转换。
+ * 方法ID是签名的哈希，只取决于方法名和参数类型，提供者和消费者各自计算的结果相同，重启后也不变
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public final class MethodDescriptor {
+
+    private static final Class<?>[] NO_TYPES = new Class<?>[0];
+
+    /** 方法编号，即在所属服务方法表中的下标 */
+    private final int index;
+
+    private final String name;
+
+    private final Class<?>[] parameterTypes;
+
+    private final Class<?> returnType;
+
+    /** 方法声明的受检异常 */
+    private final Class<?>[] exceptionTypes;
+
+    /** 是否单向调用 */
+    private final boolean oneWay;
+
+    /** 方法上@RpcPriority的值，没有标注时为null */
+    private final Integer priority;
+
+    /** 方法ID，签名的稳定哈希 */
+    private final int methodId;
+
+    public MethodDescriptor(int index, String name, Class<?>[] parameterTypes, Class<?> returnType) {
+        this(index, name, parameterTypes, returnType, NO_TYPES, false, null);
+    }
+
+    public MethodDescriptor(int index, String name, Class<?>[] parameterTypes, Class<?> returnType,
+                            Class<?>[] exceptionTypes, boolean oneWay, Integer priority) {
+        this.index = index;
+        this.name = name;
+        this.parameterTypes = parameterTypes;
+        this.returnType = returnType;
+        this.exceptionTypes = exceptionTypes;
+        this.oneWay = oneWay;
+        this.priority = priority;
+        this.methodId = stableHash(toString());
+    }
+
+    /**
+     * 字符串的32位FNV-1a哈希，不依赖JVM实现和运行次数，用于方法ID、服务ID和方法表版本
+     */
+    public static int stableHash(CharSequence value) {
+        int hash = 0x811c9dc5;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+
+    /**
+     * 由反射得到的方法创建描述，读取方法上的@OneWay和@RpcPriority
+     *
+     * @throws IllegalStateException 标注了@OneWay但返回值不是void
+     */
+    public static MethodDescriptor of(int index, Method method) {
+        boolean oneWay = method.isAnnotationPresent(OneWay.class);
+        if (oneWay && method.getReturnType() != void.class) {
+            throw new IllegalStateException("@OneWay method must return void: " + method);
+        }
+        RpcPriority priority = method.getAnnotation(RpcPriority.class);
+        return new MethodDescriptor(index, method.getName(), method.getParameterTypes(), method.getReturnType(),
+            method.getExceptionTypes(), oneWay, priority == null ? null : priority.value());
+    }
+
+    /**
+     * 名称和参数类型是否相同
+     */
+    public boolean matches(String name, Class<?>[] parameterTypes) {
+        return this.name.equals(name) && Arrays.equals(this.parameterTypes,
+            parameterTypes == null ? NO_TYPES : parameterTypes);
+    }
+
+    /**
+     * 是否按元素流式返回结果
+     */
+    public boolean isStreaming() {
+        return returnType == Iterator.class || returnType == Stream.class;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<?>[] getParameterTypes() {
+        return parameterTypes;
+    }
+
+    public Class<?> getReturnType() {
+        return returnType;
+    }
+
+    public Class<?>[] getExceptionTypes() {
+        return exceptionTypes;
+    }
+
+    public boolean isOneWay() {
+        return oneWay;
+    }
+
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public int getMethodId() {
+        return methodId;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder signature = new StringBuilder(name).append('(');
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                signature.append(',');
+            }
+            signature.append(parameterTypes[i].getTypeName());
+        }
+        return signature.append(')').toString();
+    }
+}
@@ -0,0 +1,75 @@
+package com.coldscholor.common;
+
+/**
+ * 方法ID握手的结果：提供者在按完整描述调用的响应头中发布方法的服务ID、方法ID和方法表版本，
+ * 消费者之后对该端点只发送这三个整数和参数。提供者升级后方法表版本改变，
+ * 收到旧版本的请求时返回不匹配，消费者改回完整描述重发，滚动升级期间两种请求都能处理
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public final class MethodRef {
+
+    /** 提供者发布方法ID的响应头 */
+    public static final String HEADER = "X-RPC-Method-Ref";
+
+    /** 提供者无法按ID找到方法时的响应头，请求没有执行 */
+    public static final String MISMATCH_HEADER = "X-RPC-Method-Ref-Mismatch";
+
+    private final int serviceId;
+
+    private final int methodId;
+
+    private final int tableVersion;
+
+    public MethodRef(int serviceId, int methodId, int tableVersion) {
+        this.serviceId = serviceId;
+        this.methodId = methodId;
+        this.tableVersion = tableVersion;
+    }
+
+    public int getServiceId() {
+        return serviceId;
+    }
+
+    public int getMethodId() {
+        return methodId;
+    }
+
+    public int getTableVersion() {
+        return tableVersion;
+    }
+
+    /**
+     * 编码为响应头的值：三个十六进制整数，以点分隔
+     */
+    public String toWireValue() {
+        return Integer.toHexString(serviceId) + "." + Integer.toHexString(methodId) + "." + Integer.toHexString(tableVersion);
+    }
+
+    /**
+     * 从响应头解码
+     *
+     * @return 方法ID，值为空或格式不对时返回null
+     */
+    public static MethodRef fromWireValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        String[] parts = value.split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            return new MethodRef(Integer.parseUnsignedInt(parts[0], 16), Integer.parseUnsignedInt(parts[1], 16),
+                Integer.parseUnsignedInt(parts[2], 16));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toWireValue();
+    }
+}
@@ -1,6 +1,7 @@
 package com.coldscholor.common;
 
 import java.io.Serializable;
+import java.util.Objects;
 
 /**
  * URL类 - 服务地址封装
@@ -77,6 +78,32 @@ public class URL implements Serializable {
         this.weight = Math.max(1, weight); // 权重最小为1
     }
 
+    /**
+     * 获取端点地址（host:port），用于按端点隔离熔断、统计等状态
+     * @return address
+     */
+    public String getAddress() {
+        return hostName + ":" + port;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof URL)) {
+            return false;
+        }
+        URL other = (URL) o;
+        return port == other.port && Objects.equals(hostName, other.hostName);
+    }
+
+    @Override
+    public int hashCode() {
+        // 指标和熔断器按端点查找，避免Objects.hash的可变参数数组和装箱
+        return 31 * Objects.hashCode(hostName) + port;
+    }
+
     public String toString() {
         return "URL{hostName = " + hostName + ", port = " + port + ", weight = " + weight + "}";
     }
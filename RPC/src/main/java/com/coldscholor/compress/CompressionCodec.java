@@ -0,0 +1,38 @@
+package com.coldscholor.compress;
+
+import com.coldscholor.buffer.PooledByteArrayOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 消息压缩编解码器
+ * 内置deflate和gzip，其他实现（如LZ4、Snappy等快速压缩）通过ServiceLoader注册：
+ * 在META-INF/services/com.coldscholor.compress.CompressionCodec中声明实现类，
+ * 再把RpcConfig的压缩编码设为该实现的name()
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public interface CompressionCodec {
+
+    /**
+     * 编码名称，用于Content-Encoding和Accept-Encoding头
+     */
+    String name();
+
+    /**
+     * 压缩src[off, off+len)，结果追加到out
+     */
+    void compress(byte[] src, int off, int len, PooledByteArrayOutputStream out) throws IOException;
+
+    /**
+     * 解压src[off, off+len)，结果追加到out
+     */
+    void decompress(byte[] src, int off, int len, PooledByteArrayOutputStream out) throws IOException;
+
+    /**
+     * 包装输入流，边读边解压，供服务端直接从请求体反序列化
+     */
+    InputStream decompressingStream(InputStream in) throws IOException;
+}
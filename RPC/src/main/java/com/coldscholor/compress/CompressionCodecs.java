@@ -0,0 +1,204 @@
+package com.coldscholor.compress;
+
+import com.coldscholor.buffer.PooledByteArrayOutputStream;
+import com.coldscholor.config.RpcConfig;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 压缩编码注册表与协商
+ * 请求方在Accept-Encoding中按偏好顺序列出支持的编码，响应方选第一个自己也支持的编码压缩响应；
+ * 响应方同样在响应的Accept-Encoding中列出自己支持的编码，请求方据此决定后续请求是否压缩。
+ * 只有不小于阈值、且压缩后确实变小的消息才会压缩
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class CompressionCodecs {
+
+    /** 单例实例 */
+    private static volatile CompressionCodecs instance;
+
+    /** 已注册的编码，按偏好顺序 */
+    private final Map<String, CompressionCodec> codecs;
+
+    /** 首选编码，关闭压缩时为null */
+    private final CompressionCodec preferred;
+
+    /** Accept-Encoding头的值 */
+    private final String acceptEncoding;
+
+    /** 压缩阈值(字节) */
+    private final int threshold;
+
+    /** 压缩的消息数 */
+    private final LongAdder compressedCount = new LongAdder();
+
+    /** 压缩消息的原始字节数 */
+    private final LongAdder uncompressedBytes = new LongAdder();
+
+    /** 压缩消息压缩后的字节数 */
+    private final LongAdder compressedBytes = new LongAdder();
+
+    private CompressionCodecs() {
+        Map<String, CompressionCodec> registered = new LinkedHashMap<>();
+        registered.put("deflate", new DeflateCodec(RpcConfig.getCompressionLevel()));
+        registered.put("gzip", new GzipCodec(RpcConfig.getCompressionLevel()));
+        // 通过ServiceLoader注册的扩展编码，同名时覆盖内置实现
+        Iterator<CompressionCodec> loaded = ServiceLoader.load(CompressionCodec.class).iterator();
+        while (true) {
+            try {
+                if (!loaded.hasNext()) {
+                    break;
+                }
+                CompressionCodec codec = loaded.next();
+                registered.put(codec.name().toLowerCase(), codec);
+            } catch (ServiceConfigurationError e) {
+                System.err.println("Failed to load compression codec: " + e.getMessage());
+            }
+        }
+
+        String preferredName = RpcConfig.getCompressionCodec().toLowerCase();
+        this.preferred = registered.get(preferredName);
+        if (preferred == null && !"none".equals(preferredName)) {
+            System.err.println("Unknown compression codec " + preferredName + ", compression disabled");
+        }
+        // 首选编码排在最前
+        this.codecs = new LinkedHashMap<>();
+        if (preferred != null) {
+            codecs.put(preferredName, preferred);
+        }
+        codecs.putAll(registered);
+        this.acceptEncoding = String.join(", ", codecs.keySet());
+        this.threshold = RpcConfig.getCompressionThreshold();
+    }
+
+    /**
+     * 获取单例实例
+     */
+    public static CompressionCodecs getInstance() {
+        if (instance == null) {
+            synchronized (CompressionCodecs.class) {
+                if (instance == null) {
+                    instance = new CompressionCodecs();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 是否开启压缩
+     */
+    public boolean isEnabled() {
+        return preferred != null;
+    }
+
+    /**
+     * 按名称查找编码
+     */
+    public CompressionCodec get(String name) {
+        return name == null ? null : codecs.get(name.trim().toLowerCase());
+    }
+
+    /**
+     * 本端支持的编码列表，作为Accept-Encoding头发送；未开启压缩时返回null
+     */
+    public String getAcceptEncoding() {
+        return isEnabled() ? acceptEncoding : null;
+    }
+
+    /**
+     * 从对端的Accept-Encoding中选出第一个本端也支持的编码
+     *
+     * @return 协商出的编码，对端不支持压缩或本端未开启压缩时返回null
+     */
+    public CompressionCodec negotiate(String peerAcceptEncoding) {
+        if (!isEnabled() || peerAcceptEncoding == null) {
+            return null;
+        }
+        for (String name : peerAcceptEncoding.split(",")) {
+            // 忽略q值
+            int semicolon = name.indexOf(';');
+            CompressionCodec codec = get(semicolon >= 0 ? name.substring(0, semicolon) : name);
+            if (codec != null) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 达到阈值时压缩消息，压缩后没有变小则不压缩
+     *
+     * @param codec 协商出的编码，为null时不压缩
+     * @param body 原始消息
+     * @return 压缩后的消息（原始消息已归还），不压缩时返回原始消息
+     */
+    public PooledByteArrayOutputStream compressIfWorthwhile(CompressionCodec codec, PooledByteArrayOutputStream body)
+        throws IOException {
+        if (codec == null || body.size() < threshold) {
+            return body;
+        }
+        PooledByteArrayOutputStream compressed = new PooledByteArrayOutputStream(body.size() / 2);
+        try {
+            codec.compress(body.array(), 0, body.size(), compressed);
+        } catch (IOException | RuntimeException e) {
+            compressed.release();
+            throw e;
+        }
+        if (compressed.size() >= body.size()) {
+            compressed.release();
+            return body;
+        }
+        compressedCount.increment();
+        uncompressedBytes.add(body.size());
+        compressedBytes.add(compressed.size());
+        body.release();
+        return compressed;
+    }
+
+    /**
+     * 按Content-Encoding解压消息
+     *
+     * @param codecName Content-Encoding，为null时不解压
+     * @param body 收到的消息
+     * @return 解压后的消息（收到的消息已归还），不需要解压时返回原消息
+     */
+    public PooledByteArrayOutputStream decompress(String codecName, PooledByteArrayOutputStream body) throws IOException {
+        if (codecName == null || "identity".equalsIgnoreCase(codecName.trim())) {
+            return body;
+        }
+        CompressionCodec codec = get(codecName);
+        if (codec == null) {
+            throw new IOException("Unsupported content encoding: " + codecName);
+        }
+        PooledByteArrayOutputStream decompressed = new PooledByteArrayOutputStream(Math.min(body.size() * 4, 64 * 1024));
+        try {
+            codec.decompress(body.array(), 0, body.size(), decompressed);
+        } catch (IOException | RuntimeException e) {
+            decompressed.release();
+            throw e;
+        }
+        body.release();
+        return decompressed;
+    }
+
+    public long getCompressedCount() {
+        return compressedCount.sum();
+    }
+
+    public long getUncompressedBytes() {
+        return uncompressedBytes.sum();
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+}
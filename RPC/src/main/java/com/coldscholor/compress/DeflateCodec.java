@@ -0,0 +1,80 @@
+package com.coldscholor.compress;
+
+import com.coldscholor.buffer.PooledByteArrayOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * deflate编码（zlib格式，HTTP的deflate）
+ * 每个线程复用一个Deflater/Inflater，避免每条消息分配和释放本地内存；直接压缩到租用的缓冲区
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class DeflateCodec implements CompressionCodec {
+
+    /** 每次写出的最小可写空间 */
+    private static final int CHUNK = 4096;
+
+    /** 压缩级别 */
+    private final int level;
+
+    /** 线程复用的压缩器 */
+    private final ThreadLocal<Deflater> deflaters;
+
+    /** 线程复用的解压器 */
+    private final ThreadLocal<Inflater> inflaters;
+
+    public DeflateCodec(int level) {
+        this.level = level;
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(this.level));
+        this.inflaters = ThreadLocal.withInitial(Inflater::new);
+    }
+
+    @Override
+    public String name() {
+        return "deflate";
+    }
+
+    @Override
+    public void compress(byte[] src, int off, int len, PooledByteArrayOutputStream out) {
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(src, off, len);
+        deflater.finish();
+        while (!deflater.finished()) {
+            ByteBuffer target = out.writableBuffer(CHUNK);
+            out.advance(deflater.deflate(target.array(), target.position(), target.remaining()));
+        }
+    }
+
+    @Override
+    public void decompress(byte[] src, int off, int len, PooledByteArrayOutputStream out) throws IOException {
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(src, off, len);
+        try {
+            while (!inflater.finished()) {
+                ByteBuffer target = out.writableBuffer(CHUNK);
+                int inflated = inflater.inflate(target.array(), target.position(), target.remaining());
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated deflate stream");
+                }
+                out.advance(inflated);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Invalid deflate stream", e);
+        }
+    }
+
+    @Override
+    public InputStream decompressingStream(InputStream in) {
+        return new InflaterInputStream(in);
+    }
+}
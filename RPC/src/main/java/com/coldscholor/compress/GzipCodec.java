@@ -0,0 +1,53 @@
+package com.coldscholor.compress;
+
+import com.coldscholor.buffer.PooledByteArrayOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * gzip编码，基于JDK的GZIP流，直接写入租用的缓冲区
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class GzipCodec implements CompressionCodec {
+
+    /** 压缩级别 */
+    private final int level;
+
+    public GzipCodec(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public String name() {
+        return "gzip";
+    }
+
+    @Override
+    public void compress(byte[] src, int off, int len, PooledByteArrayOutputStream out) throws IOException {
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 4096) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gzip.write(src, off, len);
+        }
+    }
+
+    @Override
+    public void decompress(byte[] src, int off, int len, PooledByteArrayOutputStream out) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(src, off, len), 4096)) {
+            out.readFrom(gzip);
+        }
+    }
+
+    @Override
+    public InputStream decompressingStream(InputStream in) throws IOException {
+        return new GZIPInputStream(in, 4096);
+    }
+}
@@ -0,0 +1,120 @@
+package com.coldscholor.config;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 配置文件监听
+ * 监听配置文件所在目录，目录中有变化时等到短时间内没有新的变化（编辑器可能分几次写入），
+ * 再比较文件内容，内容确实变化时通知重新加载；按目录监听也能感知整个替换文件或符号链接的部署方式
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class ConfigFileWatcher {
+
+    /** 目录变化后等待写入完成的时间(毫秒) */
+    private static final long QUIET_PERIOD = 200L;
+
+    private final Path file;
+
+    private final Runnable onChange;
+
+    private final Thread thread;
+
+    private volatile WatchService watchService;
+
+    /** 上一次通知时的文件内容 */
+    private byte[] lastContent;
+
+    public ConfigFileWatcher(Path file, Runnable onChange) {
+        this.file = file.toAbsolutePath();
+        this.onChange = onChange;
+        this.thread = new Thread(this::run, "rpc-config-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * 开始监听，当前的文件内容作为基准
+     *
+     * @throws IOException 目录不存在或不支持监听
+     */
+    public void start() throws IOException {
+        lastContent = readContent();
+        watchService = file.getFileSystem().newWatchService();
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        thread.start();
+    }
+
+    /**
+     * 停止监听
+     */
+    public void stop() {
+        WatchService service = watchService;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close config watcher: " + e.getMessage());
+            }
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                key.pollEvents();
+                key.reset();
+                // 合并短时间内的连续变化
+                WatchKey next;
+                while ((next = watchService.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS)) != null) {
+                    next.pollEvents();
+                    next.reset();
+                }
+                checkForChange();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // 已停止监听
+        }
+    }
+
+    private void checkForChange() {
+        byte[] content;
+        try {
+            content = readContent();
+        } catch (IOException e) {
+            System.err.println("Failed to read config file " + file + ": " + e.getMessage());
+            return;
+        }
+        // 文件被删除时保留当前配置，等重新写入后再加载
+        if (content == null || Arrays.equals(content, lastContent)) {
+            return;
+        }
+        lastContent = content;
+        try {
+            onChange.run();
+        } catch (RuntimeException e) {
+            System.err.println("Config reload failed: " + e.getMessage());
+        }
+    }
+
+    private byte[] readContent() throws IOException {
+        try {
+            return Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.coldscholor.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 分层的配置来源
+ * 同一个配置项依次取 系统属性 > 环境变量 > 配置文件(-Drpc.config.file) > classpath下的rpc.properties，都没有时用代码中的默认值。
+ * 环境变量名由配置名转换而来：点和#换成下划线，驼峰处加下划线，全部大写，如rpc.pool.maxConnections对应RPC_POOL_MAX_CONNECTIONS。
+ * 每次加载得到一份不可变的快照，重新加载时整体替换
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class ConfigProperties {
+
+    /** 指定外部配置文件的系统属性，也可通过环境变量RPC_CONFIG_FILE指定 */
+    public static final String FILE_PROPERTY = "rpc.config.file";
+
+    /** classpath下的配置文件 */
+    public static final String CLASSPATH_RESOURCE = "rpc.properties";
+
+    /** 只读取这个前缀的环境变量 */
+    private static final String ENVIRONMENT_PREFIX = "RPC_";
+
+    private final Map<String, String> systemProperties;
+
+    /** 按转换后的变量名索引 */
+    private final Map<String, String> environment;
+
+    /** 配置文件和classpath配置合并后的结果，配置文件优先 */
+    private final Map<String, String> fileProperties;
+
+    ConfigProperties(Map<String, String> systemProperties, Map<String, String> environment,
+                     Map<String, String> fileProperties) {
+        this.systemProperties = systemProperties;
+        this.environment = environment;
+        this.fileProperties = fileProperties;
+    }
+
+    /**
+     * 读取当前的系统属性、环境变量和配置文件
+     *
+     * @throws UncheckedIOException 指定的配置文件不存在或读取失败
+     */
+    public static ConfigProperties load() {
+        Map<String, String> system = toMap(System.getProperties());
+        Map<String, String> environment = new HashMap<>();
+        for (Map.Entry<String, String> entry : System.getenv().entrySet()) {
+            if (entry.getKey().startsWith(ENVIRONMENT_PREFIX)) {
+                environment.put(entry.getKey(), entry.getValue());
+            }
+        }
+        Map<String, String> file = new HashMap<>();
+        try (InputStream in = ConfigProperties.class.getClassLoader().getResourceAsStream(CLASSPATH_RESOURCE)) {
+            if (in != null) {
+                file.putAll(read(in));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read classpath " + CLASSPATH_RESOURCE, e);
+        }
+        Path path = configFile(system, environment);
+        if (path != null) {
+            try (InputStream in = Files.newInputStream(path)) {
+                file.putAll(read(in));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read config file " + path, e);
+            }
+        }
+        return new ConfigProperties(system, environment, file);
+    }
+
+    /**
+     * 外部配置文件的路径，没有指定时返回null
+     */
+    public Path getConfigFile() {
+        return configFile(systemProperties, environment);
+    }
+
+    private static Path configFile(Map<String, String> system, Map<String, String> environment) {
+        String path = system.get(FILE_PROPERTY);
+        if (path == null) {
+            path = environment.get(toEnvironmentName(FILE_PROPERTY));
+        }
+        return path == null || path.trim().isEmpty() ? null : Paths.get(path.trim());
+    }
+
+    /**
+     * 按优先级取配置值，都没有时返回null
+     */
+    public String get(String key) {
+        String value = systemProperties.get(key);
+        if (value == null) {
+            value = environment.get(toEnvironmentName(key));
+        }
+        if (value == null) {
+            value = fileProperties.get(key);
+        }
+        return value == null ? null : value.trim();
+    }
+
+    public String getString(String key, String defaultValue) {
+        String value = get(key);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = get(key);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw invalid(key, value);
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = get(key);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw invalid(key, value);
+        }
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        String value = get(key);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw invalid(key, value);
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        if ("true".equalsIgnoreCase(value)) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(value)) {
+            return false;
+        }
+        throw invalid(key, value);
+    }
+
+    private static IllegalArgumentException invalid(String key, String value) {
+        return new IllegalArgumentException("Invalid value for " + key + ": " + value);
+    }
+
+    /**
+     * 配置名对应的环境变量名
+     */
+    static String toEnvironmentName(String key) {
+        StringBuilder name = new StringBuilder(key.length() + 8);
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (Character.isUpperCase(c) && i > 0 && Character.isLowerCase(key.charAt(i - 1))) {
+                    name.append('_');
+                }
+                name.append(Character.toUpperCase(c));
+            } else {
+                name.append('_');
+            }
+        }
+        return name.toString();
+    }
+
+    private static Map<String, String> read(InputStream in) throws IOException {
+        Properties properties = new Properties();
+        properties.load(in);
+        return toMap(properties);
+    }
+
+    private static Map<String, String> toMap(Properties properties) {
+        Map<String, String> map = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            map.put(name, properties.getProperty(name));
+        }
+        return Collections.unmodifiableMap(map);
+    }
+}
@@ -0,0 +1,184 @@
+package com.coldscholor.config;
+
+import com.coldscholor.loadbalance.LoadBalance;
+
+/**
+ * 可按服务和方法覆盖的调用配置
+ * 方法上的配置(rpc.service.接口.方法.配置名) > 服务上的配置(rpc.service.接口.配置名) > 全局配置(rpc.配置名)；
+ * 每个方法只有一个实例，重新加载时原地更新，调用方可以长期持有，读取只是一次volatile读
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class MethodConfig {
+
+    /** 服务和方法级配置的前缀 */
+    public static final String SERVICE_PREFIX = "rpc.service.";
+
+    static final String CALL_TIMEOUT = "timeout.call";
+    static final String OVERLOAD_RETRIES = "retry.overload";
+    static final String LOAD_BALANCE_STRATEGY = "loadBalance.strategy";
+    static final String FAILURE_RATE_THRESHOLD = "circuitBreaker.failureRateThreshold";
+    static final String WAIT_DURATION_IN_OPEN_STATE = "circuitBreaker.waitDurationInOpenState";
+    static final String PERMITTED_CALLS_IN_HALF_OPEN_STATE = "circuitBreaker.permittedCallsInHalfOpenState";
+    static final String MINIMUM_NUMBER_OF_CALLS = "circuitBreaker.minimumNumberOfCalls";
+
+    /** 服务名称(接口.方法)，全局配置为null */
+    private final String serviceName;
+
+    /** 调用超时(毫秒) */
+    private volatile long callTimeout;
+
+    /** 服务端过载时换端点重试的次数 */
+    private volatile int overloadRetries;
+
+    /** 负载均衡策略 */
+    private volatile LoadBalance.Strategy loadBalanceStrategy;
+
+    /** 熔断器失败率阈值(%) */
+    private volatile float failureRateThreshold;
+
+    /** 熔断器打开状态的持续时间(秒) */
+    private volatile int waitDurationInOpenState;
+
+    /** 熔断器半开状态的探测调用数 */
+    private volatile int permittedCallsInHalfOpenState;
+
+    /** 熔断器计算失败率的最小调用次数 */
+    private volatile int minimumNumberOfCalls;
+
+    MethodConfig(String serviceName, long callTimeout, int overloadRetries, LoadBalance.Strategy loadBalanceStrategy,
+                 float failureRateThreshold, int waitDurationInOpenState, int permittedCallsInHalfOpenState,
+                 int minimumNumberOfCalls) {
+        this.serviceName = serviceName;
+        this.callTimeout = callTimeout;
+        this.overloadRetries = overloadRetries;
+        this.loadBalanceStrategy = loadBalanceStrategy;
+        this.failureRateThreshold = failureRateThreshold;
+        this.waitDurationInOpenState = waitDurationInOpenState;
+        this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+    }
+
+    /**
+     * 按配置来源解析，没有配置的项沿用上一级的值
+     *
+     * @param serviceName 服务名称(接口.方法)，为null时解析全局配置
+     * @param properties 配置来源
+     * @param parent 上一级配置
+     * @throws IllegalArgumentException 配置值不合法
+     */
+    static MethodConfig resolve(String serviceName, ConfigProperties properties, MethodConfig parent) {
+        String[] prefixes;
+        if (serviceName == null) {
+            prefixes = new String[]{"rpc."};
+        } else {
+            int separator = serviceName.lastIndexOf('.');
+            String interfaceName = separator > 0 ? serviceName.substring(0, separator) : serviceName;
+            prefixes = new String[]{SERVICE_PREFIX + serviceName + ".", SERVICE_PREFIX + interfaceName + "."};
+        }
+        String callTimeout = find(properties, prefixes, CALL_TIMEOUT);
+        String overloadRetries = find(properties, prefixes, OVERLOAD_RETRIES);
+        String strategy = find(properties, prefixes, LOAD_BALANCE_STRATEGY);
+        String failureRate = find(properties, prefixes, FAILURE_RATE_THRESHOLD);
+        String waitDuration = find(properties, prefixes, WAIT_DURATION_IN_OPEN_STATE);
+        String permittedCalls = find(properties, prefixes, PERMITTED_CALLS_IN_HALF_OPEN_STATE);
+        String minimumCalls = find(properties, prefixes, MINIMUM_NUMBER_OF_CALLS);
+        MethodConfig config = new MethodConfig(serviceName,
+            callTimeout == null ? parent.callTimeout : properties.getLong(callTimeout, parent.callTimeout),
+            overloadRetries == null ? parent.overloadRetries : properties.getInt(overloadRetries, parent.overloadRetries),
+            strategy == null ? parent.loadBalanceStrategy : parseStrategy(properties.get(strategy)),
+            failureRate == null ? parent.failureRateThreshold
+                : (float) properties.getDouble(failureRate, parent.failureRateThreshold),
+            waitDuration == null ? parent.waitDurationInOpenState
+                : properties.getInt(waitDuration, parent.waitDurationInOpenState),
+            permittedCalls == null ? parent.permittedCallsInHalfOpenState
+                : properties.getInt(permittedCalls, parent.permittedCallsInHalfOpenState),
+            minimumCalls == null ? parent.minimumNumberOfCalls
+                : properties.getInt(minimumCalls, parent.minimumNumberOfCalls));
+        config.validate();
+        return config;
+    }
+
+    /**
+     * 用重新解析的配置原地更新
+     */
+    void update(MethodConfig source) {
+        this.callTimeout = source.callTimeout;
+        this.overloadRetries = source.overloadRetries;
+        this.loadBalanceStrategy = source.loadBalanceStrategy;
+        this.failureRateThreshold = source.failureRateThreshold;
+        this.waitDurationInOpenState = source.waitDurationInOpenState;
+        this.permittedCallsInHalfOpenState = source.permittedCallsInHalfOpenState;
+        this.minimumNumberOfCalls = source.minimumNumberOfCalls;
+    }
+
+    private void validate() {
+        String name = serviceName == null ? "rpc" : serviceName;
+        if (callTimeout <= 0 || overloadRetries < 0 || waitDurationInOpenState < 0
+            || permittedCallsInHalfOpenState <= 0 || minimumNumberOfCalls <= 0
+            || failureRateThreshold <= 0 || failureRateThreshold > 100) {
+            throw new IllegalArgumentException("Invalid call config for " + name + ": " + this);
+        }
+    }
+
+    /**
+     * 第一个有值的配置名，都没有配置时返回null
+     */
+    private static String find(ConfigProperties properties, String[] prefixes, String key) {
+        for (String prefix : prefixes) {
+            if (properties.getString(prefix + key, null) != null) {
+                return prefix + key;
+            }
+        }
+        return null;
+    }
+
+    private static LoadBalance.Strategy parseStrategy(String value) {
+        try {
+            return LoadBalance.Strategy.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown load balance strategy: " + value);
+        }
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public long getCallTimeout() {
+        return callTimeout;
+    }
+
+    public int getOverloadRetries() {
+        return overloadRetries;
+    }
+
+    public LoadBalance.Strategy getLoadBalanceStrategy() {
+        return loadBalanceStrategy;
+    }
+
+    public float getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public int getWaitDurationInOpenState() {
+        return waitDurationInOpenState;
+    }
+
+    public int getPermittedCallsInHalfOpenState() {
+        return permittedCallsInHalfOpenState;
+    }
+
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    @Override
+    public String toString() {
+        return "callTimeout=" + callTimeout + "ms, overloadRetries=" + overloadRetries
+            + ", loadBalance=" + loadBalanceStrategy + ", failureRateThreshold=" + failureRateThreshold
+            + ", waitDurationInOpenState=" + waitDurationInOpenState + "s, permittedCallsInHalfOpenState="
+            + permittedCallsInHalfOpenState + ", minimumNumberOfCalls=" + minimumNumberOfCalls;
+    }
+}
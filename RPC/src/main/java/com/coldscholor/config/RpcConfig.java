@@ -1,81 +1,452 @@
 package com.coldscholor.config;
 
+import com.coldscholor.loadbalance.LoadBalance;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 /**
  * RPC框架配置管理类
  * 管理线程池、连接池、熔断器等配置参数
+ * 每个配置项都可以通过系统属性、环境变量或配置文件设置（见ConfigProperties），没有设置时使用这里的默认值。
+ * 标注为可热更新的配置项在配置文件变化或调用reload()后立即生效，读取是一次volatile读；
+ * 其余配置项只在启动时读取一次，修改后需要重启
  * 
  * @author 寒士obj
  * @date 2025/01/15
  */
 public class RpcConfig {
     
+    /** 启动时加载的配置，只在启动时读取的配置项从这里取值 */
+    private static final ConfigProperties STARTUP = ConfigProperties.load();
+    
+    /** 当前生效的配置 */
+    private static volatile ConfigProperties properties = STARTUP;
+    
+    /** 配置重新加载后的监听者 */
+    private static final List<Runnable> LISTENERS = new CopyOnWriteArrayList<>();
+    
+    /** 可按服务和方法覆盖的调用配置的默认值 */
+    private static final MethodConfig CALL_DEFAULTS = new MethodConfig(null, 30000L, 2,
+        LoadBalance.Strategy.ADAPTIVE, 50.0f, 30, 5, 5);
+    
+    /** 全局调用配置（rpc.timeout.call、rpc.retry.overload、rpc.loadBalance.strategy、rpc.circuitBreaker.*），可热更新 */
+    private static final MethodConfig GLOBAL_CALL_CONFIG = MethodConfig.resolve(null, STARTUP, CALL_DEFAULTS);
+    
+    /** 已解析的方法级调用配置，key为接口.方法 */
+    private static final ConcurrentHashMap<String, MethodConfig> METHOD_CONFIGS = new ConcurrentHashMap<>();
+    
+    static {
+        applyReloadable(STARTUP);
+    }
+    
     // ========== 线程池配置 ==========
     
-    /** 核心线程数 */
-    private static final int CORE_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    /** 核心线程数(rpc.threadPool.coreSize)，可热更新 */
+    private static volatile int corePoolSize;
     
-    /** 最大线程数 */
-    private static final int MAX_POOL_SIZE = CORE_POOL_SIZE * 2;
+    /** 最大线程数(rpc.threadPool.maxSize)，可热更新 */
+    private static volatile int maxPoolSize;
     
     /** 线程空闲时间(秒) */
-    private static final long KEEP_ALIVE_TIME = 60L;
+    private static final long KEEP_ALIVE_TIME = STARTUP.getLong("rpc.threadPool.keepAlive", 60L);
+    
+    /** 任务队列大小(rpc.threadPool.queueCapacity)，可热更新 */
+    private static volatile int queueCapacity;
+    
+    /** 服务端单向调用的排队上限，超过后丢弃(rpc.threadPool.oneWayQueueCapacity)，可热更新 */
+    private static volatile int oneWayQueueCapacity;
+    
+    /** 是否根据排队等待时间和拒绝次数自动调整线程池大小（-Drpc.threadPool.autoTune=true开启） */
+    private static final boolean THREAD_POOL_AUTO_TUNE = STARTUP.getBoolean("rpc.threadPool.autoTune", false);
+    
+    /** 自动调整的周期(秒) */
+    private static final long THREAD_POOL_AUTO_TUNE_INTERVAL = STARTUP.getLong("rpc.threadPool.autoTuneInterval", 5L);
+    
+    /** 自动调整的目标排队等待时间(毫秒)，平均等待超过该值时扩容 */
+    private static final long THREAD_POOL_TARGET_QUEUE_WAIT = STARTUP.getLong("rpc.threadPool.targetQueueWait", 5L);
     
-    /** 任务队列大小 */
-    private static final int QUEUE_CAPACITY = 1000;
+    /** 自动调整允许的最大线程数 */
+    private static final int THREAD_POOL_MAX_SIZE_LIMIT = STARTUP.getInt("rpc.threadPool.maxSizeLimit", maxPoolSize * 4);
+    
+    /** 是否开启管理端点（线程池查看和在线调整），调整只接受本机请求 */
+    private static final boolean ADMIN_ENABLED = STARTUP.getBoolean("rpc.admin.enabled", true);
+    
+    /** 线程池管理端点的HTTP路径 */
+    private static final String ADMIN_THREAD_POOL_PATH = "/admin/threadpools";
     
     // ========== 连接池配置 ==========
     
-    /** 最大连接数 */
-    private static final int MAX_CONNECTIONS = 200;
+    /** 最大连接数(rpc.pool.maxConnections)，可热更新 */
+    private static volatile int maxConnections;
+    
+    /** 每个路由的最大连接数(rpc.pool.maxConnectionsPerRoute)，可热更新 */
+    private static volatile int maxConnectionsPerRoute;
+    
+    /** 连接超时时间(毫秒，rpc.timeout.connect)，可热更新 */
+    private static volatile int connectionTimeout;
+    
+    /** 读取超时时间(毫秒，rpc.timeout.read)，可热更新 */
+    private static volatile int readTimeout;
+    
+    /** 连接请求超时时间(毫秒，rpc.timeout.connectionRequest)，可热更新 */
+    private static volatile int connectionRequestTimeout;
+    
+    /** 传输模式：ASYNC基于NIO事件回调，BLOCKING每个请求占用一个客户端线程 */
+    private static final String TRANSPORT_MODE = STARTUP.getString("rpc.transport.mode", "ASYNC");
+    
+    /** 异步传输的I/O线程数 */
+    private static final int ASYNC_IO_THREADS = STARTUP.getInt("rpc.transport.ioThreads",
+        Runtime.getRuntime().availableProcessors());
+    
+    /** 发现新端点时预先建立的连接数，0表示不预热 */
+    private static final int POOL_WARMUP_CONNECTIONS = STARTUP.getInt("rpc.pool.warmupConnections", 4);
+    
+    /** 连接空闲超过该时间(毫秒)后，再次租用前先校验是否可用 */
+    private static final int POOL_VALIDATE_AFTER_INACTIVITY = STARTUP.getInt("rpc.pool.validateAfterInactivity", 2000);
+    
+    /** 空闲连接的回收时间(毫秒) */
+    private static final long POOL_IDLE_TIMEOUT = STARTUP.getLong("rpc.pool.idleTimeout", 30000L);
+    
+    /** 连接的最长存活时间(毫秒)，超过后不再复用 */
+    private static final long POOL_CONNECTION_TTL = STARTUP.getLong("rpc.pool.connectionTtl", 300000L);
+    
+    /** 连接池后台维护（回收、调整路由上限）的间隔(毫秒) */
+    private static final long POOL_MAINTENANCE_INTERVAL = STARTUP.getLong("rpc.pool.maintenanceInterval", 1000L);
+    
+    /** 是否按观测到的并发自适应调整每个路由的连接上限 */
+    private static final boolean POOL_ADAPTIVE_SIZING = STARTUP.getBoolean("rpc.pool.adaptiveSizing", true);
+    
+    /** 自适应调整时每个路由连接上限的下限 */
+    private static final int POOL_MIN_CONNECTIONS_PER_ROUTE = STARTUP.getInt("rpc.pool.minConnectionsPerRoute", 4);
+    
+    /** 流式响应每攒够多少个元素刷新一个分块 */
+    private static final int STREAM_FLUSH_ELEMENTS = STARTUP.getInt("rpc.stream.flushElements", 64);
+    
+    /** 流式响应距上次刷新超过该时间(毫秒)时立即刷新 */
+    private static final long STREAM_FLUSH_INTERVAL = STARTUP.getLong("rpc.stream.flushInterval", 20L);
+    
+    /** 流式参数发送时每帧的缓冲区大小(字节) */
+    private static final int STREAM_ARGUMENT_CHUNK_SIZE = STARTUP.getInt("rpc.stream.argumentChunkSize", 64 * 1024);
+    
+    /** 编解码缓冲池每个尺寸档位的共享缓存数 */
+    private static final int BUFFER_POOL_SHARED_CAPACITY = STARTUP.getInt("rpc.buffer.sharedCapacity", 256);
+    
+    /** 是否开启缓冲区泄漏检测（测试时通过-Drpc.buffer.leakDetection=true开启） */
+    private static final boolean BUFFER_LEAK_DETECTION = STARTUP.getBoolean("rpc.buffer.leakDetection", false);
+    
+    /** 首选压缩编码：deflate、gzip或通过ServiceLoader注册的编码名，none为关闭压缩 */
+    private static final String COMPRESSION_CODEC = STARTUP.getString("rpc.compression.codec", "deflate");
+    
+    /** 压缩阈值(字节)，小于该大小的消息不压缩 */
+    private static final int COMPRESSION_THRESHOLD = STARTUP.getInt("rpc.compression.threshold", 4 * 1024);
+    
+    /** deflate/gzip压缩级别（1最快，9压缩率最高） */
+    private static final int COMPRESSION_LEVEL = STARTUP.getInt("rpc.compression.level", 1);
+    
+    /** 是否使用方法ID握手：提供者在响应头中发布方法ID，消费者之后只发送方法ID，不再发送方法名和参数类型 */
+    private static final boolean METHOD_ID_ENABLED = STARTUP.getBoolean("rpc.methodId.enabled", true);
+    
+    /** 服务在当前JVM中导出时是否直接调用本地实现 */
+    private static final boolean LOCAL_SHORT_CIRCUIT = STARTUP.getBoolean("rpc.local.shortCircuit", true);
+    
+    /** 进程内调用是否通过序列化拷贝参数 */
+    private static final boolean LOCAL_CALL_COPY_ARGUMENTS = STARTUP.getBoolean("rpc.local.copyArguments", false);
+    
+    /** 是否对本机端点使用共享内存传输（-Drpc.shm.enabled=true开启，提供者和消费者都需开启） */
+    private static final boolean SHM_TRANSPORT_ENABLED = STARTUP.getBoolean("rpc.shm.enabled", false);
+    
+    /** 共享内存通道文件目录，Linux上可设为/dev/shm下的目录 */
+    private static final String SHM_DIRECTORY = STARTUP.getString("rpc.shm.directory",
+        new File(System.getProperty("java.io.tmpdir"), "cloudlink-rpc-shm").getPath());
+    
+    /** 每个通道请求环、响应环的容量(字节)，2的幂，更大的消息分片传输 */
+    private static final int SHM_RING_CAPACITY = STARTUP.getInt("rpc.shm.ringCapacity", 256 * 1024);
+    
+    /** 每个端点保留的空闲共享内存通道数 */
+    private static final int SHM_CHANNELS_PER_ENDPOINT = STARTUP.getInt("rpc.shm.channelsPerEndpoint", 16);
+    
+    /** 新建通道等待提供者接入的超时时间(毫秒) */
+    private static final long SHM_ATTACH_TIMEOUT = STARTUP.getLong("rpc.shm.attachTimeout", 1000L);
+    
+    /** 共享内存传输的等待策略：SPIN（忙等，延迟最低）或PARK（自旋后休眠） */
+    private static final String SHM_WAIT_STRATEGY = STARTUP.getString("rpc.shm.waitStrategy", "PARK");
+    
+    /** 是否记录调用指标（延迟直方图和结果计数） */
+    private static final boolean METRICS_ENABLED = STARTUP.getBoolean("rpc.metrics.enabled", true);
+    
+    /** Prometheus文本格式指标的HTTP路径，和DispatcherServlet挂在同一个Tomcat上 */
+    private static final String METRICS_PATH = "/metrics";
+    
+    /** 调用链根节点的追踪采样率(0~1)，下游沿用上游的决定 */
+    private static final double TRACE_SAMPLE_RATE = STARTUP.getDouble("rpc.trace.sampleRate", 0.01);
+    
+    /** 已结束Span的环形缓冲区容量，导出不及时的最旧Span会被覆盖 */
+    private static final int TRACE_BUFFER_CAPACITY = STARTUP.getInt("rpc.trace.bufferCapacity", 4096);
+    
+    /** Span导出周期(毫秒) */
+    private static final long TRACE_EXPORT_INTERVAL = STARTUP.getLong("rpc.trace.exportInterval", 1000L);
+    
+    // ========== 截止时间配置 ==========
+    
+    /** 是否随请求传递截止时间，服务端据此丢弃调用方已经放弃的请求 */
+    private static final boolean DEADLINE_PROPAGATION_ENABLED = STARTUP.getBoolean("rpc.deadline.propagation", true);
+    
+    /** 服务端判断过期时额外放宽的时间(毫秒)，用于容忍两端的时钟偏差 */
+    private static final long DEADLINE_CLOCK_SKEW_TOLERANCE = STARTUP.getLong("rpc.deadline.clockSkewTolerance", 0L);
+    
+    // ========== 服务端准入控制配置 ==========
+    
+    /** Tomcat工作线程数上限 */
+    private static final int SERVER_MAX_THREADS = STARTUP.getInt("rpc.server.maxThreads", 200);
+    
+    /** Tomcat保留的最少空闲工作线程数 */
+    private static final int SERVER_MIN_SPARE_THREADS = STARTUP.getInt("rpc.server.minSpareThreads", 10);
+    
+    /** 是否按排队时间拒绝过载请求 */
+    private static final boolean ADMISSION_ENABLED = STARTUP.getBoolean("rpc.admission.enabled", true);
+    
+    /** 目标排队时间(毫秒)，持续过载时排队超过该值的请求被拒绝 */
+    private static final long ADMISSION_TARGET_QUEUE_DELAY = STARTUP.getLong("rpc.admission.targetQueueDelay", 5L);
     
-    /** 每个路由的最大连接数 */
-    private static final int MAX_CONNECTIONS_PER_ROUTE = 50;
+    /** 过载检测周期(毫秒)，也是未过载时允许的最长排队时间 */
+    private static final long ADMISSION_INTERVAL = STARTUP.getLong("rpc.admission.interval", 100L);
     
-    /** 连接超时时间(毫秒) */
-    private static final int CONNECTION_TIMEOUT = 5000;
+    // ========== 服务端调度配置 ==========
     
-    /** 读取超时时间(毫秒) */
-    private static final int READ_TIMEOUT = 10000;
+    /** 是否按调度等级和调用方排队执行业务方法 */
+    private static final boolean SCHEDULER_ENABLED = STARTUP.getBoolean("rpc.scheduler.enabled", true);
     
-    /** 连接请求超时时间(毫秒) */
-    private static final int CONNECTION_REQUEST_TIMEOUT = 3000;
+    /** 业务方法同时执行的名额数，其余Tomcat工作线程上的请求排队等待 */
+    private static final int SCHEDULER_SLOTS = STARTUP.getInt("rpc.scheduler.slots",
+        Math.max(maxPoolSize, SERVER_MAX_THREADS / 4));
+    
+    /** 饥饿阈值(毫秒)：低等级有请求在等且超过该时间没有被调度时优先调度 */
+    private static final long SCHEDULER_STARVATION_THRESHOLD = STARTUP.getLong("rpc.scheduler.starvationThreshold", 50L);
+    
+    /** 调用方权重，格式为"调用方=权重,..."，未配置的调用方权重为1 */
+    private static final String SCHEDULER_CALLER_WEIGHTS = STARTUP.getString("rpc.scheduler.callerWeights", "");
+    
+    /** 请求优先级不低于该值时按INTERACTIVE调度 */
+    private static final int INTERACTIVE_PRIORITY_THRESHOLD = STARTUP.getInt("rpc.scheduler.interactivePriority", 7);
+    
+    /** 请求优先级不高于该值时按BATCH调度 */
+    private static final int BATCH_PRIORITY_THRESHOLD = STARTUP.getInt("rpc.scheduler.batchPriority", 3);
+    
+    /** 本应用的名称，作为调用方身份传给提供端，默认为进程名(pid@host) */
+    private static final String APPLICATION_NAME = STARTUP.getString("rpc.application.name",
+        ManagementFactory.getRuntimeMXBean().getName());
     
     // ========== 熔断器配置 ==========
     
-    /** 熔断器失败率阈值 */
-    private static final float FAILURE_RATE_THRESHOLD = 50.0f;
+    // 失败率阈值、打开状态等待时间、半开探测调用数和最小调用次数在全局调用配置中，可按服务和方法覆盖
+    
+    /** 熔断器滑动窗口大小(秒，每秒一个统计桶) */
+    private static final int SLIDING_WINDOW_SIZE = STARTUP.getInt("rpc.circuitBreaker.slidingWindowSize", 10);
+    
+    // ========== 异常端点摘除配置 ==========
+    
+    /** 连续失败多少次后摘除端点 */
+    private static final int OUTLIER_CONSECUTIVE_FAILURES = STARTUP.getInt("rpc.outlier.consecutiveFailures", 5);
+    
+    /** 基础摘除时间(秒)，多次摘除时按次数线性增长 */
+    private static final int OUTLIER_BASE_EJECTION_TIME = STARTUP.getInt("rpc.outlier.baseEjectionTime", 30);
+    
+    /** 最多允许摘除的端点比例(%) */
+    private static final int OUTLIER_MAX_EJECTION_PERCENT = STARTUP.getInt("rpc.outlier.maxEjectionPercent", 50);
+    
+    // ========== 自适应并发限制配置 ==========
+    
+    /** 是否启用端点级自适应并发限制 */
+    private static final boolean LIMITER_ENABLED = STARTUP.getBoolean("rpc.limiter.enabled", true);
+    
+    /** 初始并发上限 */
+    private static final int LIMITER_INITIAL_LIMIT = STARTUP.getInt("rpc.limiter.initialLimit", 20);
+    
+    /** 最小并发上限 */
+    private static final int LIMITER_MIN_LIMIT = STARTUP.getInt("rpc.limiter.minLimit", 1);
+    
+    /** 最大并发上限 */
+    private static final int LIMITER_MAX_LIMIT = STARTUP.getInt("rpc.limiter.maxLimit", 200);
     
-    /** 熔断器等待时间(秒) */
-    private static final int WAIT_DURATION_IN_OPEN_STATE = 30;
+    /** RTT容忍度，当前RTT低于基线的该倍数时不收缩上限 */
+    private static final double LIMITER_RTT_TOLERANCE = STARTUP.getDouble("rpc.limiter.rttTolerance", 2.0);
     
-    /** 熔断器半开状态下的调用次数 */
-    private static final int PERMITTED_CALLS_IN_HALF_OPEN_STATE = 5;
+    /** 上限调整的平滑系数 */
+    private static final double LIMITER_SMOOTHING = STARTUP.getDouble("rpc.limiter.smoothing", 0.2);
     
-    /** 熔断器滑动窗口大小 */
-    private static final int SLIDING_WINDOW_SIZE = 10;
+    /** 超过上限时异步排队等待余量的最长时间(毫秒)，0表示立即失败 */
+    private static final long LIMITER_MAX_WAIT = STARTUP.getLong("rpc.limiter.maxWait", 50L);
     
-    /** 熔断器最小调用次数 */
-    private static final int MINIMUM_NUMBER_OF_CALLS = 5;
+    /** 每个端点等待余量的最大排队数 */
+    private static final int LIMITER_MAX_WAITERS = STARTUP.getInt("rpc.limiter.maxWaiters", 500);
+
+    // ========== 客户端在途预算配置 ==========
+    
+    /** 客户端全局最大在途请求数 */
+    private static final int CLIENT_MAX_IN_FLIGHT = STARTUP.getInt("rpc.budget.clientMaxInFlight", 1000);
+    
+    /** 单个服务最大在途请求数 */
+    private static final int SERVICE_MAX_IN_FLIGHT = STARTUP.getInt("rpc.budget.serviceMaxInFlight", 500);
+    
+    /** 预算耗尽时的溢出策略：FAIL_FAST / BOUNDED_WAIT / SHED_LOWEST_PRIORITY */
+    private static final String BUDGET_OVERFLOW_POLICY = STARTUP.getString("rpc.budget.overflowPolicy", "BOUNDED_WAIT");
+    
+    /** 预算耗尽时的最长排队时间(毫秒) */
+    private static final long BUDGET_MAX_WAIT = STARTUP.getLong("rpc.budget.maxWait", 50L);
+    
+    /** 预算耗尽时的最大排队数 */
+    private static final int BUDGET_MAX_WAITERS = STARTUP.getInt("rpc.budget.maxWaiters", 1000);
+    
+    /** 默认请求优先级，数值越大越重要 */
+    private static final int DEFAULT_PRIORITY = STARTUP.getInt("rpc.priority.default", 5);
     
     // ========== RPC调用配置 ==========
     
-    /** 默认重试次数 */
-    private static final int DEFAULT_RETRY_COUNT = 3;
+    // 调用超时、过载重试次数和负载均衡策略在全局调用配置中，可按服务和方法覆盖
+    
+    /** 默认重试次数(rpc.retry.count)，可热更新 */
+    private static volatile int defaultRetryCount;
     
-    /** 重试间隔时间(毫秒) */
-    private static final long RETRY_INTERVAL = 1000L;
+    /** 重试间隔时间(毫秒，rpc.retry.interval)，可热更新 */
+    private static volatile long retryInterval;
     
-    /** 异步调用超时时间(秒) */
-    private static final int ASYNC_TIMEOUT = 30;
+    // ========== 配置加载 ==========
+    
+    /** 配置文件变化时是否自动重新加载 */
+    private static final boolean CONFIG_WATCH = STARTUP.getBoolean("rpc.config.watch", true);
+    
+    static {
+        Path configFile = STARTUP.getConfigFile();
+        if (configFile != null && CONFIG_WATCH) {
+            try {
+                new ConfigFileWatcher(configFile, RpcConfig::reload).start();
+            } catch (IOException e) {
+                System.err.println("Cannot watch config file " + configFile + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * 重新读取系统属性、环境变量和配置文件，更新可热更新的配置项后依次通知监听者；
+     * 任何一项不合法时整体保持原来的配置
+     *
+     * @return 是否加载成功
+     */
+    public static synchronized boolean reload() {
+        try {
+            ConfigProperties loaded = ConfigProperties.load();
+            // 先解析和校验全部配置，再统一生效
+            MethodConfig global = MethodConfig.resolve(null, loaded, CALL_DEFAULTS);
+            Map<MethodConfig, MethodConfig> methodUpdates = new IdentityHashMap<>();
+            for (MethodConfig config : METHOD_CONFIGS.values()) {
+                methodUpdates.put(config, MethodConfig.resolve(config.getServiceName(), loaded, global));
+            }
+            applyReloadable(loaded);
+            GLOBAL_CALL_CONFIG.update(global);
+            methodUpdates.forEach(MethodConfig::update);
+            properties = loaded;
+        } catch (RuntimeException e) {
+            System.err.println("RPC config reload rejected, keeping current values: " + e.getMessage());
+            return false;
+        }
+        System.out.println("RPC config reloaded");
+        for (Runnable listener : LISTENERS) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                System.err.println("Failed to apply reloaded RPC config: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 解析并校验可热更新的全局配置项，全部合法后才赋值
+     */
+    private static void applyReloadable(ConfigProperties source) {
+        int core = source.getInt("rpc.threadPool.coreSize", Runtime.getRuntime().availableProcessors());
+        int max = source.getInt("rpc.threadPool.maxSize", core * 2);
+        int queue = source.getInt("rpc.threadPool.queueCapacity", 1000);
+        int oneWayQueue = source.getInt("rpc.threadPool.oneWayQueueCapacity", 10000);
+        int connections = source.getInt("rpc.pool.maxConnections", 200);
+        int connectionsPerRoute = source.getInt("rpc.pool.maxConnectionsPerRoute", 50);
+        int connectTimeout = source.getInt("rpc.timeout.connect", 5000);
+        int socketTimeout = source.getInt("rpc.timeout.read", 10000);
+        int requestTimeout = source.getInt("rpc.timeout.connectionRequest", 3000);
+        int retryCount = source.getInt("rpc.retry.count", 3);
+        long interval = source.getLong("rpc.retry.interval", 1000L);
+        if (core <= 0 || max < core || queue <= 0 || oneWayQueue <= 0) {
+            throw new IllegalArgumentException("Invalid thread pool config: core=" + core + ", max=" + max
+                + ", queue=" + queue + ", oneWayQueue=" + oneWayQueue);
+        }
+        if (connections <= 0 || connectionsPerRoute <= 0 || connectionsPerRoute > connections) {
+            throw new IllegalArgumentException("Invalid connection pool config: maxConnections=" + connections
+                + ", maxConnectionsPerRoute=" + connectionsPerRoute);
+        }
+        if (connectTimeout <= 0 || socketTimeout <= 0 || requestTimeout <= 0 || retryCount < 0 || interval < 0) {
+            throw new IllegalArgumentException("Invalid timeout or retry config");
+        }
+        corePoolSize = core;
+        maxPoolSize = max;
+        queueCapacity = queue;
+        oneWayQueueCapacity = oneWayQueue;
+        maxConnections = connections;
+        maxConnectionsPerRoute = connectionsPerRoute;
+        connectionTimeout = connectTimeout;
+        readTimeout = socketTimeout;
+        connectionRequestTimeout = requestTimeout;
+        defaultRetryCount = retryCount;
+        retryInterval = interval;
+    }
+    
+    /**
+     * 注册配置重新加载后的监听者，在重新加载的线程上依次执行
+     */
+    public static void addListener(Runnable listener) {
+        LISTENERS.add(listener);
+    }
+    
+    /**
+     * 获取方法的调用配置，同一方法总是返回同一个实例，重新加载时原地更新
+     *
+     * @param serviceName 服务名称(接口.方法)
+     * @throws IllegalArgumentException 该方法的覆盖配置不合法
+     */
+    public static MethodConfig getMethodConfig(String serviceName) {
+        MethodConfig config = METHOD_CONFIGS.get(serviceName);
+        if (config != null) {
+            return config;
+        }
+        // 和重新加载互斥，避免新建的配置用的是旧的配置来源
+        synchronized (RpcConfig.class) {
+            return METHOD_CONFIGS.computeIfAbsent(serviceName,
+                name -> MethodConfig.resolve(name, properties, GLOBAL_CALL_CONFIG));
+        }
+    }
+    
+    /**
+     * 全局调用配置
+     */
+    public static MethodConfig getGlobalCallConfig() {
+        return GLOBAL_CALL_CONFIG;
+    }
     
     // ========== Getter方法 ==========
     
     public static int getCorePoolSize() {
-        return CORE_POOL_SIZE;
+        return corePoolSize;
     }
     
     public static int getMaxPoolSize() {
-        return MAX_POOL_SIZE;
+        return maxPoolSize;
     }
     
     public static long getKeepAliveTime() {
@@ -83,39 +454,251 @@ public class RpcConfig {
     }
     
     public static int getQueueCapacity() {
-        return QUEUE_CAPACITY;
+        return queueCapacity;
+    }
+    
+    public static int getOneWayQueueCapacity() {
+        return oneWayQueueCapacity;
+    }
+    
+    public static boolean isThreadPoolAutoTune() {
+        return THREAD_POOL_AUTO_TUNE;
+    }
+    
+    public static long getThreadPoolAutoTuneInterval() {
+        return THREAD_POOL_AUTO_TUNE_INTERVAL;
+    }
+    
+    public static long getThreadPoolTargetQueueWait() {
+        return THREAD_POOL_TARGET_QUEUE_WAIT;
+    }
+    
+    public static int getThreadPoolMaxSizeLimit() {
+        return THREAD_POOL_MAX_SIZE_LIMIT;
+    }
+    
+    public static boolean isAdminEnabled() {
+        return ADMIN_ENABLED;
+    }
+    
+    public static String getAdminThreadPoolPath() {
+        return ADMIN_THREAD_POOL_PATH;
     }
     
     public static int getMaxConnections() {
-        return MAX_CONNECTIONS;
+        return maxConnections;
     }
     
     public static int getMaxConnectionsPerRoute() {
-        return MAX_CONNECTIONS_PER_ROUTE;
+        return maxConnectionsPerRoute;
     }
     
     public static int getConnectionTimeout() {
-        return CONNECTION_TIMEOUT;
+        return connectionTimeout;
     }
     
     public static int getReadTimeout() {
-        return READ_TIMEOUT;
+        return readTimeout;
     }
     
     public static int getConnectionRequestTimeout() {
-        return CONNECTION_REQUEST_TIMEOUT;
+        return connectionRequestTimeout;
+    }
+    
+    public static String getTransportMode() {
+        return TRANSPORT_MODE;
+    }
+    
+    public static int getAsyncIoThreads() {
+        return ASYNC_IO_THREADS;
+    }
+    
+    public static int getPoolWarmupConnections() {
+        return POOL_WARMUP_CONNECTIONS;
+    }
+    
+    public static int getPoolValidateAfterInactivity() {
+        return POOL_VALIDATE_AFTER_INACTIVITY;
+    }
+    
+    public static long getPoolIdleTimeout() {
+        return POOL_IDLE_TIMEOUT;
+    }
+    
+    public static long getPoolConnectionTtl() {
+        return POOL_CONNECTION_TTL;
+    }
+    
+    public static long getPoolMaintenanceInterval() {
+        return POOL_MAINTENANCE_INTERVAL;
+    }
+    
+    public static boolean isPoolAdaptiveSizing() {
+        return POOL_ADAPTIVE_SIZING;
+    }
+    
+    public static int getPoolMinConnectionsPerRoute() {
+        return POOL_MIN_CONNECTIONS_PER_ROUTE;
+    }
+    
+    public static int getStreamFlushElements() {
+        return STREAM_FLUSH_ELEMENTS;
+    }
+    
+    public static long getStreamFlushInterval() {
+        return STREAM_FLUSH_INTERVAL;
+    }
+    
+    public static int getStreamArgumentChunkSize() {
+        return STREAM_ARGUMENT_CHUNK_SIZE;
+    }
+    
+    public static int getBufferPoolSharedCapacity() {
+        return BUFFER_POOL_SHARED_CAPACITY;
+    }
+    
+    public static boolean isBufferLeakDetection() {
+        return BUFFER_LEAK_DETECTION;
+    }
+    
+    public static boolean isMethodIdEnabled() {
+        return METHOD_ID_ENABLED;
+    }
+    
+    public static boolean isLocalShortCircuit() {
+        return LOCAL_SHORT_CIRCUIT;
+    }
+    
+    public static boolean isLocalCallCopyArguments() {
+        return LOCAL_CALL_COPY_ARGUMENTS;
+    }
+    
+    public static boolean isShmTransportEnabled() {
+        return SHM_TRANSPORT_ENABLED;
+    }
+    
+    public static String getShmDirectory() {
+        return SHM_DIRECTORY;
+    }
+    
+    public static int getShmRingCapacity() {
+        return SHM_RING_CAPACITY;
+    }
+    
+    public static int getShmChannelsPerEndpoint() {
+        return SHM_CHANNELS_PER_ENDPOINT;
+    }
+    
+    public static long getShmAttachTimeout() {
+        return SHM_ATTACH_TIMEOUT;
+    }
+    
+    public static String getShmWaitStrategy() {
+        return SHM_WAIT_STRATEGY;
+    }
+    
+    public static boolean isMetricsEnabled() {
+        return METRICS_ENABLED;
+    }
+    
+    public static String getMetricsPath() {
+        return METRICS_PATH;
+    }
+    
+    public static double getTraceSampleRate() {
+        return TRACE_SAMPLE_RATE;
+    }
+    
+    public static int getTraceBufferCapacity() {
+        return TRACE_BUFFER_CAPACITY;
+    }
+    
+    public static long getTraceExportInterval() {
+        return TRACE_EXPORT_INTERVAL;
+    }
+    
+    public static boolean isDeadlinePropagationEnabled() {
+        return DEADLINE_PROPAGATION_ENABLED;
+    }
+    
+    public static long getDeadlineClockSkewTolerance() {
+        return DEADLINE_CLOCK_SKEW_TOLERANCE;
+    }
+    
+    public static int getServerMaxThreads() {
+        return SERVER_MAX_THREADS;
+    }
+    
+    public static int getServerMinSpareThreads() {
+        return SERVER_MIN_SPARE_THREADS;
+    }
+    
+    public static boolean isAdmissionEnabled() {
+        return ADMISSION_ENABLED;
+    }
+    
+    public static long getAdmissionTargetQueueDelay() {
+        return ADMISSION_TARGET_QUEUE_DELAY;
+    }
+    
+    public static long getAdmissionInterval() {
+        return ADMISSION_INTERVAL;
+    }
+    
+    public static int getOverloadRetries() {
+        return GLOBAL_CALL_CONFIG.getOverloadRetries();
+    }
+    
+    public static boolean isSchedulerEnabled() {
+        return SCHEDULER_ENABLED;
+    }
+    
+    public static int getSchedulerSlots() {
+        return SCHEDULER_SLOTS;
+    }
+    
+    public static long getSchedulerStarvationThreshold() {
+        return SCHEDULER_STARVATION_THRESHOLD;
+    }
+    
+    public static String getSchedulerCallerWeights() {
+        return SCHEDULER_CALLER_WEIGHTS;
+    }
+    
+    public static int getInteractivePriorityThreshold() {
+        return INTERACTIVE_PRIORITY_THRESHOLD;
+    }
+    
+    public static int getBatchPriorityThreshold() {
+        return BATCH_PRIORITY_THRESHOLD;
+    }
+    
+    public static String getApplicationName() {
+        return APPLICATION_NAME;
+    }
+    
+    public static String getCompressionCodec() {
+        return COMPRESSION_CODEC;
+    }
+    
+    public static int getCompressionThreshold() {
+        return COMPRESSION_THRESHOLD;
+    }
+    
+    public static int getCompressionLevel() {
+        return COMPRESSION_LEVEL;
     }
     
     public static float getFailureRateThreshold() {
-        return FAILURE_RATE_THRESHOLD;
+        return GLOBAL_CALL_CONFIG.getFailureRateThreshold();
     }
     
     public static int getWaitDurationInOpenState() {
-        return WAIT_DURATION_IN_OPEN_STATE;
+        return GLOBAL_CALL_CONFIG.getWaitDurationInOpenState();
     }
     
     public static int getPermittedCallsInHalfOpenState() {
-        return PERMITTED_CALLS_IN_HALF_OPEN_STATE;
+        return GLOBAL_CALL_CONFIG.getPermittedCallsInHalfOpenState();
     }
     
     public static int getSlidingWindowSize() {
@@ -123,18 +706,93 @@ public class RpcConfig {
     }
     
     public static int getMinimumNumberOfCalls() {
-        return MINIMUM_NUMBER_OF_CALLS;
+        return GLOBAL_CALL_CONFIG.getMinimumNumberOfCalls();
+    }
+    
+    public static int getOutlierConsecutiveFailures() {
+        return OUTLIER_CONSECUTIVE_FAILURES;
+    }
+    
+    public static int getOutlierBaseEjectionTime() {
+        return OUTLIER_BASE_EJECTION_TIME;
+    }
+    
+    public static int getOutlierMaxEjectionPercent() {
+        return OUTLIER_MAX_EJECTION_PERCENT;
+    }
+    
+    public static boolean isLimiterEnabled() {
+        return LIMITER_ENABLED;
+    }
+    
+    public static int getLimiterInitialLimit() {
+        return LIMITER_INITIAL_LIMIT;
+    }
+    
+    public static int getLimiterMinLimit() {
+        return LIMITER_MIN_LIMIT;
+    }
+    
+    public static int getLimiterMaxLimit() {
+        return LIMITER_MAX_LIMIT;
+    }
+    
+    public static double getLimiterRttTolerance() {
+        return LIMITER_RTT_TOLERANCE;
+    }
+    
+    public static double getLimiterSmoothing() {
+        return LIMITER_SMOOTHING;
+    }
+    
+    public static long getLimiterMaxWait() {
+        return LIMITER_MAX_WAIT;
+    }
+    
+    public static int getLimiterMaxWaiters() {
+        return LIMITER_MAX_WAITERS;
+    }
+    
+    public static int getClientMaxInFlight() {
+        return CLIENT_MAX_IN_FLIGHT;
+    }
+    
+    public static int getServiceMaxInFlight() {
+        return SERVICE_MAX_IN_FLIGHT;
+    }
+    
+    public static String getBudgetOverflowPolicy() {
+        return BUDGET_OVERFLOW_POLICY;
+    }
+    
+    public static long getBudgetMaxWait() {
+        return BUDGET_MAX_WAIT;
+    }
+    
+    public static int getBudgetMaxWaiters() {
+        return BUDGET_MAX_WAITERS;
+    }
+    
+    public static int getDefaultPriority() {
+        return DEFAULT_PRIORITY;
     }
     
     public static int getDefaultRetryCount() {
-        return DEFAULT_RETRY_COUNT;
+        return defaultRetryCount;
     }
     
     public static long getRetryInterval() {
-        return RETRY_INTERVAL;
+        return retryInterval;
+    }
+    
+    /**
+     * 全局调用超时(毫秒)，按方法的超时见getMethodConfig
+     */
+    public static long getCallTimeout() {
+        return GLOBAL_CALL_CONFIG.getCallTimeout();
     }
     
-    public static int getAsyncTimeout() {
-        return ASYNC_TIMEOUT;
+    public static LoadBalance.Strategy getLoadBalanceStrategy() {
+        return GLOBAL_CALL_CONFIG.getLoadBalanceStrategy();
     }
 }
\ No newline at end of file
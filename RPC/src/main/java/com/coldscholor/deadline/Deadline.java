@@ -0,0 +1,172 @@
+package com.coldscholor.deadline;
+
+import com.coldscholor.config.RpcConfig;
+import com.coldscholor.trace.Scope;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 调用截止时间
+ * 客户端把调用的绝对截止时间（毫秒时间戳）随请求发出，服务端收到后换算成本机的System.nanoTime，
+ * 在解码前、排队后和执行前检查，过期的请求直接丢弃；执行期间截止时间保存在线程本地变量中，
+ * 耗时较长的服务方法可以通过current()查询剩余时间，方法内发起的下游调用自动继承剩余预算
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public final class Deadline {
+
+    /** 附件键：绝对截止时间(毫秒时间戳) */
+    public static final String ATTACHMENT = "rpc.deadline";
+
+    /** HTTP请求头：同附件，服务端不用反序列化请求体就能判断是否过期 */
+    public static final String HEADER = "X-RPC-Deadline";
+
+    /** 服务端丢弃过期请求的阶段 */
+    public enum Stage {
+        /** 收到请求、解码之前 */
+        RECEIVED,
+        /** 在单向调用线程池或执行调度队列中等待之后 */
+        QUEUED,
+        /** 调用服务方法之前，或服务方法检查时 */
+        INVOKE
+    }
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    /** 按阶段统计的丢弃数 */
+    private static final LongAdder[] DROPPED = new LongAdder[Stage.values().length];
+
+    static {
+        for (int i = 0; i < DROPPED.length; i++) {
+            DROPPED[i] = new LongAdder();
+        }
+    }
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * 从现在起经过指定时间后到期
+     */
+    public static Deadline after(long duration, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(duration));
+    }
+
+    /**
+     * 在指定的System.nanoTime到期
+     */
+    public static Deadline atNanoTime(long deadlineNanos) {
+        return new Deadline(deadlineNanos);
+    }
+
+    /**
+     * 当前线程的截止时间，不在RPC调用中或调用方没有传递时返回null
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 设为当前线程的截止时间，返回的作用域关闭时恢复之前的截止时间
+     */
+    public Scope makeCurrent() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * 到期时间(System.nanoTime)
+     */
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    /**
+     * 剩余时间，已过期时返回0
+     */
+    public long remaining(TimeUnit unit) {
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        return remainingNanos <= 0 ? 0L : unit.convert(remainingNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * 已过期时抛出DeadlineExceededException，供耗时较长的服务方法在各步骤之间调用
+     */
+    public void check() {
+        if (isExpired()) {
+            throw new DeadlineExceededException("Deadline exceeded "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - deadlineNanos) + " ms ago");
+        }
+    }
+
+    /**
+     * 取两个截止时间中较早的一个
+     *
+     * @param deadlineNanos 另一个截止时间(System.nanoTime)，0表示不限制
+     * @return 较早的截止时间(System.nanoTime)
+     */
+    public long earlierThan(long deadlineNanos) {
+        return deadlineNanos == 0L || this.deadlineNanos - deadlineNanos < 0 ? this.deadlineNanos : deadlineNanos;
+    }
+
+    /**
+     * 编码为绝对的毫秒时间戳，跨进程传递时不受System.nanoTime起点不同的影响
+     */
+    public String toWireValue() {
+        return Long.toString(System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * 从附件或请求头解码，按配置放宽时钟偏差
+     *
+     * @return 截止时间，值为空或格式不对时返回null
+     */
+    public static Deadline fromWireValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        long epochMillis;
+        try {
+            epochMillis = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        long remainingMillis = epochMillis - System.currentTimeMillis() + RpcConfig.getDeadlineClockSkewTolerance();
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(remainingMillis));
+    }
+
+    /**
+     * 记录一次因过期被丢弃的请求
+     */
+    public static void recordDropped(Stage stage) {
+        DROPPED[stage.ordinal()].increment();
+    }
+
+    /**
+     * 指定阶段因过期被丢弃的请求数
+     */
+    public static long getDroppedCount(Stage stage) {
+        return DROPPED[stage.ordinal()].sum();
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining = " + remaining(TimeUnit.MILLISECONDS) + " ms}";
+    }
+}
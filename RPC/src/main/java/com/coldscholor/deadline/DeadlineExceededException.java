@@ -0,0 +1,16 @@
+package com.coldscholor.deadline;
+
+/**
+ * 调用已超过截止时间
+ * 服务端执行前发现过期时由框架抛出，也可以由服务方法通过Deadline.check()抛出，
+ * 客户端收到后按超时处理
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,298 @@
+package com.coldscholor.http;
+
+import com.coldscholor.config.RpcConfig;
+import com.coldscholor.jfr.ConnectionLeaseEvent;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.NHttpClientConnection;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 异步HTTP连接池管理器
+ * 基于NIO的Apache HttpAsyncClient，少量I/O线程即可承载大量在途请求，
+ * 响应由I/O回调直接完成Future，不再需要每个请求占用一个阻塞线程
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class AsyncHttpConnectionPoolManager {
+
+    /** 单例实例 */
+    private static volatile AsyncHttpConnectionPoolManager instance;
+
+    /** 连接池管理器 */
+    private final PoolingNHttpClientConnectionManager connectionManager;
+
+    /** 异步HTTP客户端 */
+    private final CloseableHttpAsyncClient httpAsyncClient;
+
+    /** 请求配置，超时配置重新加载时整体替换 */
+    private volatile RequestConfig requestConfig;
+
+    /** 后台维护：回收连接、预热、调整路由上限 */
+    private final ConnectionPoolMaintainer maintainer;
+
+    /**
+     * 私有构造函数
+     */
+    private AsyncHttpConnectionPoolManager() {
+        this.maintainer = new ConnectionPoolMaintainer("async");
+        try {
+            // 创建I/O反应器，线程数默认与CPU核数一致
+            IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(RpcConfig.getAsyncIoThreads())
+                .setConnectTimeout(RpcConfig.getConnectionTimeout())
+                .setSoTimeout(RpcConfig.getReadTimeout())
+                .setTcpNoDelay(true)
+                .build();
+            DefaultConnectingIOReactor ioReactor = new DefaultConnectingIOReactor(ioReactorConfig,
+                new ThreadFactoryBuilder().setNameFormat("rpc-io-%d").setDaemon(true).build());
+
+            // 创建连接池管理器，超过存活时间的连接不再复用；记录每次租用连接的等待时间。
+            // NIO连接由I/O反应器监听对端关闭，不需要租用前校验
+            this.connectionManager = new PoolingNHttpClientConnectionManager(ioReactor, null,
+                    RegistryBuilder.<SchemeIOSessionStrategy>create()
+                        .register("http", NoopIOSessionStrategy.INSTANCE)
+                        .register("https", SSLIOSessionStrategy.getDefaultStrategy())
+                        .build(),
+                    null, null, RpcConfig.getPoolConnectionTtl(), TimeUnit.MILLISECONDS) {
+                @Override
+                public Future<NHttpClientConnection> requestConnection(HttpRoute route, Object state,
+                        long connectTimeout, long leaseTimeout, TimeUnit timeUnit,
+                        FutureCallback<NHttpClientConnection> callback) {
+                    return super.requestConnection(route, state, connectTimeout, leaseTimeout, timeUnit,
+                        new TimedLeaseCallback(callback, route, maintainer));
+                }
+            };
+        } catch (IOReactorException e) {
+            throw new RuntimeException("Failed to create async HTTP I/O reactor", e);
+        }
+
+        // 配置连接池参数
+        connectionManager.setMaxTotal(RpcConfig.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(RpcConfig.getMaxConnectionsPerRoute());
+
+        // 创建请求配置
+        this.requestConfig = requestConfigFromConfig();
+
+        // 创建并启动异步HTTP客户端
+        this.httpAsyncClient = HttpAsyncClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setThreadFactory(new ThreadFactoryBuilder().setNameFormat("rpc-io-reactor-%d").setDaemon(true).build())
+            .build();
+        httpAsyncClient.start();
+
+        // 启动后台维护
+        maintainer.start(connectionManager, connectionManager::getRoutes, () -> {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(RpcConfig.getPoolIdleTimeout(), TimeUnit.MILLISECONDS);
+        }, this::openConnections);
+
+        // 配置重新加载后调整连接上限和超时
+        RpcConfig.addListener(this::applyConfig);
+
+        // 注册JVM关闭钩子
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
+    }
+
+    private static RequestConfig requestConfigFromConfig() {
+        return RequestConfig.custom()
+            .setConnectionRequestTimeout(RpcConfig.getConnectionRequestTimeout())
+            .setConnectTimeout(RpcConfig.getConnectionTimeout())
+            .setSocketTimeout(RpcConfig.getReadTimeout())
+            .build();
+    }
+
+    /**
+     * 配置重新加载后调整连接池总上限和默认路由上限，新的超时对之后发出的请求生效；
+     * 已由自适应调整设置过上限的路由继续由后台维护调整
+     */
+    private void applyConfig() {
+        if (connectionManager.getMaxTotal() != RpcConfig.getMaxConnections()) {
+            connectionManager.setMaxTotal(RpcConfig.getMaxConnections());
+        }
+        if (connectionManager.getDefaultMaxPerRoute() != RpcConfig.getMaxConnectionsPerRoute()) {
+            connectionManager.setDefaultMaxPerRoute(RpcConfig.getMaxConnectionsPerRoute());
+        }
+        requestConfig = requestConfigFromConfig();
+    }
+
+    /**
+     * 获取单例实例
+     */
+    public static AsyncHttpConnectionPoolManager getInstance() {
+        if (instance == null) {
+            synchronized (AsyncHttpConnectionPoolManager.class) {
+                if (instance == null) {
+                    instance = new AsyncHttpConnectionPoolManager();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 获取异步HTTP客户端
+     */
+    public CloseableHttpAsyncClient getHttpAsyncClient() {
+        return httpAsyncClient;
+    }
+
+    /**
+     * 获取请求配置
+     */
+    public RequestConfig getRequestConfig() {
+        return requestConfig;
+    }
+
+    /**
+     * 获取连接池管理器
+     */
+    public PoolingNHttpClientConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+
+    /**
+     * 预热路由：后台预先建立连接，首批请求不再承担TCP建连开销
+     */
+    public void warmUp(HttpRoute route) {
+        maintainer.warmUp(route);
+    }
+
+    /**
+     * 获取各路由的连接池统计
+     */
+    public List<RoutePoolStats> getRouteStats() {
+        return maintainer.getRouteStats();
+    }
+
+    /**
+     * 租用并建立指定数量的连接后归还连接池，在维护线程上等待租用结果。
+     * 连接池在登记租出之前就会触发租用回调，不能在回调里直接归还
+     */
+    private void openConnections(HttpRoute route) {
+        int count = Math.min(RpcConfig.getPoolWarmupConnections(), connectionManager.getMaxPerRoute(route));
+        List<Future<NHttpClientConnection>> leases = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            leases.add(connectionManager.requestConnection(route, null, RpcConfig.getConnectionTimeout(),
+                RpcConfig.getConnectionRequestTimeout(), TimeUnit.MILLISECONDS, null));
+        }
+        long waitMillis = RpcConfig.getConnectionTimeout() + RpcConfig.getConnectionRequestTimeout();
+        HttpContext context = new BasicHttpContext();
+        for (Future<NHttpClientConnection> lease : leases) {
+            NHttpClientConnection connection;
+            try {
+                connection = lease.get(waitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | TimeoutException e) {
+                // 取消后迟到的连接由连接池自行回收
+                lease.cancel(true);
+                System.err.println("Connection warm-up failed for " + route.getTargetHost() + ": " + e.getMessage());
+                continue;
+            }
+            try {
+                if (!connectionManager.isRouteComplete(connection)) {
+                    connectionManager.startRoute(connection, route, context);
+                    connectionManager.routeComplete(connection, route, context);
+                }
+            } catch (IOException e) {
+                System.err.println("Connection warm-up failed for " + route.getTargetHost() + ": " + e.getMessage());
+            } finally {
+                connectionManager.releaseConnection(connection, null, RpcConfig.getPoolIdleTimeout(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * 关闭连接池
+     */
+    public void shutdown() {
+        try {
+            System.out.println("Shutting down async HTTP connection pool...");
+
+            maintainer.shutdown();
+
+            if (httpAsyncClient != null) {
+                httpAsyncClient.close();
+            }
+
+            System.out.println("Async HTTP connection pool shutdown completed.");
+        } catch (Exception e) {
+            System.err.println("Error shutting down async HTTP connection pool: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 记录等待时间的租用回调
+     */
+    private static class TimedLeaseCallback implements FutureCallback<NHttpClientConnection> {
+        private final FutureCallback<NHttpClientConnection> delegate;
+        private final HttpRoute route;
+        private final ConnectionPoolMaintainer maintainer;
+        private final long startNanos;
+        private final ConnectionLeaseEvent event;
+
+        private TimedLeaseCallback(FutureCallback<NHttpClientConnection> delegate, HttpRoute route,
+                                   ConnectionPoolMaintainer maintainer) {
+            this.delegate = delegate;
+            this.route = route;
+            this.maintainer = maintainer;
+            this.startNanos = System.nanoTime();
+            this.event = ConnectionLeaseEvent.start();
+        }
+
+        private void record(boolean success) {
+            maintainer.recordLease(route, System.nanoTime() - startNanos, success);
+            if (event != null) {
+                event.finish(route.getTargetHost().toHostString(), success);
+            }
+        }
+
+        @Override
+        public void completed(NHttpClientConnection connection) {
+            record(true);
+            if (delegate != null) {
+                delegate.completed(connection);
+            }
+        }
+
+        @Override
+        public void failed(Exception e) {
+            record(false);
+            if (delegate != null) {
+                delegate.failed(e);
+            }
+        }
+
+        @Override
+        public void cancelled() {
+            if (delegate != null) {
+                delegate.cancelled();
+            }
+        }
+    }
+}
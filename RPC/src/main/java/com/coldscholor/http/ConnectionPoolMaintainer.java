@@ -0,0 +1,213 @@
+package com.coldscholor.http;
+
+import com.coldscholor.config.RpcConfig;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 连接池后台维护器
+ * 同步和异步连接池共用：定期回收过期和空闲连接，对新发现的路由预先建立连接，
+ * 并按每个路由观测到的并发（已租出+等待中）扩大或收缩路由连接上限
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class ConnectionPoolMaintainer {
+
+    /** 收缩判断的采样窗口（维护周期数） */
+    private static final int SHRINK_WINDOW = 10;
+
+    /** 连接池 */
+    private ConnPoolControl<HttpRoute> pool;
+
+    /** 连接池中已有的路由 */
+    private Supplier<Set<HttpRoute>> routes;
+
+    /** 回收过期和空闲连接 */
+    private Runnable evictor;
+
+    /** 为路由预先建立连接 */
+    private Consumer<HttpRoute> warmer;
+
+    /** 每个路由的统计和调整状态 */
+    private final ConcurrentHashMap<HttpRoute, RouteState> routeStates;
+
+    /** 已预热过的路由 */
+    private final Set<HttpRoute> warmedRoutes;
+
+    /** 维护线程 */
+    private final ScheduledExecutorService scheduler;
+
+    /** 是否自适应调整路由上限 */
+    private final boolean adaptiveSizing;
+
+    /** 路由上限的下限 */
+    private final int minPerRoute;
+
+
+    public ConnectionPoolMaintainer(String name) {
+        this.routeStates = new ConcurrentHashMap<>();
+        this.warmedRoutes = ConcurrentHashMap.newKeySet();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("rpc-pool-maintainer-" + name + "-%d").setDaemon(true).build());
+        this.adaptiveSizing = RpcConfig.isPoolAdaptiveSizing();
+        this.minPerRoute = Math.max(1, RpcConfig.getPoolMinConnectionsPerRoute());
+    }
+
+    /**
+     * 绑定连接池并启动后台维护
+     *
+     * @param pool 连接池
+     * @param routes 连接池中已有的路由
+     * @param evictor 回收过期和空闲连接
+     * @param warmer 为路由预先建立连接，在维护线程上执行
+     */
+    public void start(ConnPoolControl<HttpRoute> pool, Supplier<Set<HttpRoute>> routes,
+                      Runnable evictor, Consumer<HttpRoute> warmer) {
+        this.pool = pool;
+        this.routes = routes;
+        this.evictor = evictor;
+        this.warmer = warmer;
+        long interval = RpcConfig.getPoolMaintenanceInterval();
+        scheduler.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 预热路由，每个路由只预热一次
+     */
+    public void warmUp(HttpRoute route) {
+        if (warmedRoutes.contains(route) || !warmedRoutes.add(route)) {
+            return;
+        }
+        routeStates.computeIfAbsent(route, r -> new RouteState());
+        if (RpcConfig.getPoolWarmupConnections() > 0) {
+            scheduler.execute(() -> {
+                try {
+                    warmer.accept(route);
+                } catch (Exception e) {
+                    System.err.println("Connection warm-up failed for " + route.getTargetHost() + ": " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * 记录一次连接租用
+     *
+     * @param route 路由
+     * @param waitNanos 等待时间(纳秒)
+     * @param success 是否租用成功
+     */
+    public void recordLease(HttpRoute route, long waitNanos, boolean success) {
+        RouteState routeState = routeStates.get(route);
+        if (routeState == null) {
+            routeState = routeStates.computeIfAbsent(route, r -> new RouteState());
+        }
+        routeState.leaseCount.increment();
+        routeState.leaseWaitNanos.add(waitNanos);
+        if (!success) {
+            routeState.leaseFailures.increment();
+        }
+    }
+
+    /**
+     * 各路由的连接池统计
+     */
+    public List<RoutePoolStats> getRouteStats() {
+        List<RoutePoolStats> stats = new ArrayList<>();
+        for (Map.Entry<HttpRoute, RouteState> entry : routeStates.entrySet()) {
+            PoolStats poolStats = pool.getStats(entry.getKey());
+            RouteState routeState = entry.getValue();
+            long leaseCount = routeState.leaseCount.sum();
+            double averageWait = leaseCount == 0 ? 0.0
+                : routeState.leaseWaitNanos.sum() / (double) leaseCount / TimeUnit.MILLISECONDS.toNanos(1);
+            stats.add(new RoutePoolStats(entry.getKey().getTargetHost().toURI(),
+                poolStats.getLeased(), poolStats.getAvailable(), poolStats.getPending(), poolStats.getMax(),
+                leaseCount, routeState.leaseFailures.sum(), averageWait));
+        }
+        return stats;
+    }
+
+    /**
+     * 停止后台维护
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 一次维护：回收连接，再按并发调整每个路由的上限
+     */
+    void maintain() {
+        try {
+            evictor.run();
+            if (adaptiveSizing) {
+                for (HttpRoute route : routes.get()) {
+                    resize(route);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Connection pool maintenance failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 有请求在等待连接时按当前上限的一半扩大；
+     * 一个窗口内并发峰值不到上限的一半时收缩到峰值的1.5倍，每次最多收缩四分之一
+     */
+    private void resize(HttpRoute route) {
+        RouteState routeState = routeStates.computeIfAbsent(route, r -> new RouteState());
+        PoolStats poolStats = pool.getStats(route);
+        int current = pool.getMaxPerRoute(route);
+        int demand = poolStats.getLeased() + poolStats.getPending();
+        // 路由上限不超过连接池总上限，总上限可热更新
+        int maxPerRoute = RpcConfig.getMaxConnections();
+
+        if (poolStats.getPending() > 0 && current < maxPerRoute) {
+            pool.setMaxPerRoute(route, Math.min(maxPerRoute, current + Math.max(1, current / 2)));
+            routeState.resetWindow();
+            return;
+        }
+
+        routeState.peakDemand = Math.max(routeState.peakDemand, demand);
+        if (++routeState.samples < SHRINK_WINDOW) {
+            return;
+        }
+        int peak = routeState.peakDemand;
+        routeState.resetWindow();
+        if (peak < current / 2 && current > minPerRoute) {
+            int target = Math.max(minPerRoute, Math.max((int) Math.ceil(peak * 1.5), current * 3 / 4));
+            pool.setMaxPerRoute(route, target);
+        }
+    }
+
+    /**
+     * 单个路由的状态，采样字段只在维护线程上读写
+     */
+    private static class RouteState {
+        private final LongAdder leaseCount = new LongAdder();
+        private final LongAdder leaseWaitNanos = new LongAdder();
+        private final LongAdder leaseFailures = new LongAdder();
+        private int peakDemand;
+        private int samples;
+
+        private void resetWindow() {
+            peakDemand = 0;
+            samples = 0;
+        }
+    }
+}
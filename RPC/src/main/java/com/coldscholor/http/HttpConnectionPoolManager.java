@@ -1,10 +1,22 @@
 package com.coldscholor.http;
 
 import com.coldscholor.config.RpcConfig;
+import com.coldscholor.jfr.ConnectionLeaseEvent;
+import org.apache.http.HttpClientConnection;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * HTTP连接池管理器
@@ -24,37 +36,79 @@ public class HttpConnectionPoolManager {
     /** HTTP客户端 */
     private final CloseableHttpClient httpClient;
     
-    /** 请求配置 */
-    private final RequestConfig requestConfig;
+    /** 请求配置，超时配置重新加载时整体替换 */
+    private volatile RequestConfig requestConfig;
+    
+    /** 后台维护：回收连接、预热、调整路由上限 */
+    private final ConnectionPoolMaintainer maintainer;
     
     /**
      * 私有构造函数
      */
     private HttpConnectionPoolManager() {
-        // 创建连接池管理器
-        this.connectionManager = new PoolingHttpClientConnectionManager();
+        this.maintainer = new ConnectionPoolMaintainer("http");
+        
+        // 创建连接池管理器，超过存活时间的连接不再复用；记录每次租用连接的等待时间
+        this.connectionManager = new PoolingHttpClientConnectionManager(
+                RpcConfig.getPoolConnectionTtl(), TimeUnit.MILLISECONDS) {
+            @Override
+            public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+                return new TimedConnectionRequest(super.requestConnection(route, state), route, maintainer);
+            }
+        };
         
         // 配置连接池参数
         connectionManager.setMaxTotal(RpcConfig.getMaxConnections());
         connectionManager.setDefaultMaxPerRoute(RpcConfig.getMaxConnectionsPerRoute());
+        // 空闲一段时间的连接租用前先校验，避免拿到已被服务端关闭的连接
+        connectionManager.setValidateAfterInactivity(RpcConfig.getPoolValidateAfterInactivity());
         
         // 创建请求配置
-        this.requestConfig = RequestConfig.custom()
-            .setConnectionRequestTimeout(RpcConfig.getConnectionRequestTimeout())
-            .setConnectTimeout(RpcConfig.getConnectionTimeout())
-            .setSocketTimeout(RpcConfig.getReadTimeout())
-            .build();
+        this.requestConfig = requestConfigFromConfig();
         
         // 创建HTTP客户端
+        // 创建HTTP客户端，压缩由RPC层协商和解压（CompressionCodecs），关闭HttpClient自带的gzip/deflate处理
         this.httpClient = HttpClients.custom()
             .setConnectionManager(connectionManager)
             .setDefaultRequestConfig(requestConfig)
+            .disableContentCompression()
             .build();
         
+        // 启动后台维护
+        maintainer.start(connectionManager, connectionManager::getRoutes, () -> {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(RpcConfig.getPoolIdleTimeout(), TimeUnit.MILLISECONDS);
+        }, this::openConnections);
+        
+        // 配置重新加载后调整连接上限和超时
+        RpcConfig.addListener(this::applyConfig);
+    
         // 注册JVM关闭钩子
         Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
     }
     
+    private static RequestConfig requestConfigFromConfig() {
+        return RequestConfig.custom()
+            .setConnectionRequestTimeout(RpcConfig.getConnectionRequestTimeout())
+            .setConnectTimeout(RpcConfig.getConnectionTimeout())
+            .setSocketTimeout(RpcConfig.getReadTimeout())
+            .build();
+    }
+    
+    /**
+     * 配置重新加载后调整连接池总上限和默认路由上限，新的超时对之后发出的请求生效；
+     * 已由自适应调整设置过上限的路由继续由后台维护调整
+     */
+    private void applyConfig() {
+        if (connectionManager.getMaxTotal() != RpcConfig.getMaxConnections()) {
+            connectionManager.setMaxTotal(RpcConfig.getMaxConnections());
+        }
+        if (connectionManager.getDefaultMaxPerRoute() != RpcConfig.getMaxConnectionsPerRoute()) {
+            connectionManager.setDefaultMaxPerRoute(RpcConfig.getMaxConnectionsPerRoute());
+        }
+        requestConfig = requestConfigFromConfig();
+    }
+    
     /**
      * 获取单例实例
      */
@@ -83,6 +137,47 @@ public class HttpConnectionPoolManager {
         return requestConfig;
     }
     
+    /**
+     * 预热路由：后台预先建立连接，首批请求不再承担TCP建连开销
+     */
+    public void warmUp(HttpRoute route) {
+        maintainer.warmUp(route);
+    }
+    
+    /**
+     * 获取各路由的连接池统计
+     */
+    public List<RoutePoolStats> getRouteStats() {
+        return maintainer.getRouteStats();
+    }
+    
+    /**
+     * 租用并建立指定数量的连接后归还连接池
+     */
+    private void openConnections(HttpRoute route) {
+        int count = Math.min(RpcConfig.getPoolWarmupConnections(), connectionManager.getMaxPerRoute(route));
+        HttpContext context = new BasicHttpContext();
+        List<HttpClientConnection> connections = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                HttpClientConnection connection = connectionManager.requestConnection(route, null)
+                    .get(RpcConfig.getConnectionRequestTimeout(), TimeUnit.MILLISECONDS);
+                connections.add(connection);
+                if (!connection.isOpen()) {
+                    connectionManager.connect(connection, route, RpcConfig.getConnectionTimeout(), context);
+                    connectionManager.routeComplete(connection, route, context);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Connection warm-up failed for " + route.getTargetHost() + ": " + e.getMessage());
+        } finally {
+            // 未建立成功的连接归还时会被连接池丢弃
+            for (HttpClientConnection connection : connections) {
+                connectionManager.releaseConnection(connection, null, RpcConfig.getPoolIdleTimeout(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+    
 
     /**
      * 关闭连接池
@@ -91,6 +186,8 @@ public class HttpConnectionPoolManager {
         try {
             System.out.println("Shutting down HTTP connection pool...");
             
+            maintainer.shutdown();
+            
             if (httpClient != null) {
                 httpClient.close();
             }
@@ -105,5 +202,43 @@ public class HttpConnectionPoolManager {
         }
     }
     
-
-}
\ No newline at end of file
+    /**
+     * 记录等待时间的连接请求
+     */
+    private static class TimedConnectionRequest implements ConnectionRequest {
+        private final ConnectionRequest delegate;
+        private final HttpRoute route;
+        private final ConnectionPoolMaintainer maintainer;
+        private final long startNanos;
+        private final ConnectionLeaseEvent event;
+        
+        private TimedConnectionRequest(ConnectionRequest delegate, HttpRoute route, ConnectionPoolMaintainer maintainer) {
+            this.delegate = delegate;
+            this.route = route;
+            this.maintainer = maintainer;
+            this.startNanos = System.nanoTime();
+            this.event = ConnectionLeaseEvent.start();
+        }
+        
+        @Override
+        public HttpClientConnection get(long timeout, TimeUnit unit)
+                throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+            boolean success = false;
+            try {
+                HttpClientConnection connection = delegate.get(timeout, unit);
+                success = true;
+                return connection;
+            } finally {
+                maintainer.recordLease(route, System.nanoTime() - startNanos, success);
+                if (event != null) {
+                    event.finish(route.getTargetHost().toHostString(), success);
+                }
+            }
+        }
+        
+        @Override
+        public boolean cancel() {
+            return delegate.cancel();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.coldscholor.http;
+
+/**
+ * 单个路由的连接池统计快照
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class RoutePoolStats {
+
+    /** 路由，形如 http://host:port */
+    private final String route;
+
+    /** 已租出的连接数 */
+    private final int leased;
+
+    /** 池中空闲可用的连接数 */
+    private final int available;
+
+    /** 等待租用连接的请求数 */
+    private final int pending;
+
+    /** 当前路由的连接上限 */
+    private final int max;
+
+    /** 累计租用次数 */
+    private final long leaseCount;
+
+    /** 累计租用失败次数（超时、连接失败） */
+    private final long leaseFailures;
+
+    /** 平均租用等待时间(毫秒) */
+    private final double averageLeaseWaitMillis;
+
+    public RoutePoolStats(String route, int leased, int available, int pending, int max,
+                          long leaseCount, long leaseFailures, double averageLeaseWaitMillis) {
+        this.route = route;
+        this.leased = leased;
+        this.available = available;
+        this.pending = pending;
+        this.max = max;
+        this.leaseCount = leaseCount;
+        this.leaseFailures = leaseFailures;
+        this.averageLeaseWaitMillis = averageLeaseWaitMillis;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public int getLeased() {
+        return leased;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public long getLeaseCount() {
+        return leaseCount;
+    }
+
+    public long getLeaseFailures() {
+        return leaseFailures;
+    }
+
+    public double getAverageLeaseWaitMillis() {
+        return averageLeaseWaitMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s leased=%d available=%d pending=%d max=%d leases=%d failures=%d avgWait=%.2fms",
+            route, leased, available, pending, max, leaseCount, leaseFailures, averageLeaseWaitMillis);
+    }
+}
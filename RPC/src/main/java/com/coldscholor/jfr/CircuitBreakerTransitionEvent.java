@@ -0,0 +1,43 @@
+package com.coldscholor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 熔断器状态切换，瞬时事件
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@Name("com.coldscholor.rpc.CircuitBreakerTransition")
+@Label("RPC Circuit Breaker Transition")
+@Category({RpcEvents.CATEGORY, "Client"})
+@Description("Circuit breaker state change")
+public class CircuitBreakerTransitionEvent extends Event {
+
+    @Label("Name")
+    private String name;
+
+    @Label("From")
+    private String from;
+
+    @Label("To")
+    private String to;
+
+    /**
+     * 事件启用时记录一次状态切换
+     */
+    public static void emit(String name, Enum<?> from, Enum<?> to) {
+        if (!RpcEvents.CIRCUIT_BREAKER_TRANSITION.isEnabled()) {
+            return;
+        }
+        CircuitBreakerTransitionEvent event = new CircuitBreakerTransitionEvent();
+        event.name = name;
+        event.from = from.name();
+        event.to = to.name();
+        event.commit();
+    }
+}
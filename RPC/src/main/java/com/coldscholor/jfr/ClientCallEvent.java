@@ -0,0 +1,65 @@
+package com.coldscholor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * 消费端一次调用：从发起到结果返回，包含排队等待预算和并发余量的时间
+ * 调用在I/O线程上完成，提交线程不是发起线程，因此不记录调用栈
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@Name("com.coldscholor.rpc.ClientCall")
+@Label("RPC Client Call")
+@Category({RpcEvents.CATEGORY, "Client"})
+@Description("Remote call issued by a consumer, from submission to completion")
+@Threshold("10 ms")
+@StackTrace(false)
+public class ClientCallEvent extends Event {
+
+    @Label("Service")
+    private String service;
+
+    @Label("Endpoint")
+    private String endpoint;
+
+    @Label("Trace Id")
+    private String traceId;
+
+    @Label("Error")
+    private String error;
+
+    /**
+     * 开始一次调用，事件未启用时返回null
+     */
+    public static ClientCallEvent start() {
+        if (!RpcEvents.CLIENT_CALL.isEnabled()) {
+            return null;
+        }
+        ClientCallEvent event = new ClientCallEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 结束并在超过阈值时提交
+     *
+     * @param error 失败原因，成功时为null
+     */
+    public void finish(String service, String endpoint, String traceId, Throwable error) {
+        end();
+        if (shouldCommit()) {
+            this.service = service;
+            this.endpoint = endpoint;
+            this.traceId = traceId;
+            this.error = RpcEvents.describe(error);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.coldscholor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * 从HTTP连接池租用连接的等待
+ * 异步连接池在I/O线程上完成租用，不记录调用栈
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@Name("com.coldscholor.rpc.ConnectionLease")
+@Label("RPC Connection Lease")
+@Category({RpcEvents.CATEGORY, "Client"})
+@Description("Wait for a pooled HTTP connection")
+@Threshold("1 ms")
+@StackTrace(false)
+public class ConnectionLeaseEvent extends Event {
+
+    @Label("Route")
+    private String route;
+
+    @Label("Success")
+    private boolean success;
+
+    /**
+     * 开始等待，事件未启用时返回null
+     */
+    public static ConnectionLeaseEvent start() {
+        if (!RpcEvents.CONNECTION_LEASE.isEnabled()) {
+            return null;
+        }
+        ConnectionLeaseEvent event = new ConnectionLeaseEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 结束并在超过阈值时提交
+     */
+    public void finish(String route, boolean success) {
+        end();
+        if (shouldCommit()) {
+            this.route = route;
+            this.success = success;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.coldscholor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * 提供端反序列化一次调用
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@Name("com.coldscholor.rpc.Deserialize")
+@Label("RPC Deserialize")
+@Category({RpcEvents.CATEGORY, "Serialization"})
+@Description("Invocation deserialized by a provider")
+@Threshold("1 ms")
+public class DeserializeEvent extends Event {
+
+    @Label("Service")
+    private String service;
+
+    /** 请求体的字节数，长度未知时为-1 */
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    /**
+     * 开始计时，事件未启用时返回null
+     */
+    public static DeserializeEvent start() {
+        if (!RpcEvents.DESERIALIZE.isEnabled()) {
+            return null;
+        }
+        DeserializeEvent event = new DeserializeEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 结束并在超过阈值时提交
+     */
+    public void finish(String service, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.service = service;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
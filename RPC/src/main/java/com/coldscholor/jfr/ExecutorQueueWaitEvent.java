@@ -0,0 +1,48 @@
+package com.coldscholor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * 任务在线程池队列中的等待：从提交到开始执行，在执行线程上提交
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@Name("com.coldscholor.rpc.ExecutorQueueWait")
+@Label("RPC Executor Queue Wait")
+@Category({RpcEvents.CATEGORY, "Thread Pool"})
+@Description("Time a task spent queued before a pool thread started it")
+@Threshold("1 ms")
+public class ExecutorQueueWaitEvent extends Event {
+
+    @Label("Pool")
+    private String pool;
+
+    /**
+     * 任务提交时开始计时，事件未启用时返回null
+     */
+    public static ExecutorQueueWaitEvent start() {
+        if (!RpcEvents.EXECUTOR_QUEUE_WAIT.isEnabled()) {
+            return null;
+        }
+        ExecutorQueueWaitEvent event = new ExecutorQueueWaitEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 任务开始执行时结束，超过阈值时提交
+     */
+    public void finish(String pool) {
+        end();
+        if (shouldCommit()) {
+            this.pool = pool;
+            commit();
+        }
+    }
+}
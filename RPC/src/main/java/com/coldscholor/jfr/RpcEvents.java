@@ -0,0 +1,48 @@
+package com.coldscholor.jfr;
+
+import jdk.jfr.EventType;
+
+/**
+ * RPC的JFR事件类型
+ * 调用路径上先检查事件类型是否被某个录制启用，没有录制或未启用时不创建事件对象；
+ * 启用后是否提交由各事件的阈值决定，阈值可在JFR配置中按事件名覆盖
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+final class RpcEvents {
+
+    /** 事件分类 */
+    static final String CATEGORY = "CloudLink RPC";
+
+    static final EventType CLIENT_CALL = EventType.getEventType(ClientCallEvent.class);
+
+    static final EventType SERVER_DISPATCH = EventType.getEventType(ServerDispatchEvent.class);
+
+    static final EventType SERIALIZE = EventType.getEventType(SerializeEvent.class);
+
+    static final EventType DESERIALIZE = EventType.getEventType(DeserializeEvent.class);
+
+    static final EventType CONNECTION_LEASE = EventType.getEventType(ConnectionLeaseEvent.class);
+
+    static final EventType CIRCUIT_BREAKER_TRANSITION = EventType.getEventType(CircuitBreakerTransitionEvent.class);
+
+    static final EventType EXECUTOR_QUEUE_WAIT = EventType.getEventType(ExecutorQueueWaitEvent.class);
+
+    private RpcEvents() {
+    }
+
+    /**
+     * 剥掉包装异常后的根因描述
+     */
+    static String describe(Throwable throwable) {
+        if (throwable == null) {
+            return null;
+        }
+        Throwable cause = throwable;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package com.coldscholor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * 消费端序列化一次调用（含压缩）
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@Name("com.coldscholor.rpc.Serialize")
+@Label("RPC Serialize")
+@Category({RpcEvents.CATEGORY, "Serialization"})
+@Description("Invocation serialized by a consumer, including compression")
+@Threshold("1 ms")
+public class SerializeEvent extends Event {
+
+    @Label("Service")
+    private String service;
+
+    /** 序列化后写出的字节数 */
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    /**
+     * 开始计时，事件未启用时返回null
+     */
+    public static SerializeEvent start() {
+        if (!RpcEvents.SERIALIZE.isEnabled()) {
+            return null;
+        }
+        SerializeEvent event = new SerializeEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 结束并在超过阈值时提交
+     */
+    public void finish(String service, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.service = service;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
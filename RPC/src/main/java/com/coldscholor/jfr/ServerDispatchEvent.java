@@ -0,0 +1,72 @@
+package com.coldscholor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * 提供端处理一次请求：从读取请求到写完响应，单向调用只到确认为止
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+@Name("com.coldscholor.rpc.ServerDispatch")
+@Label("RPC Server Dispatch")
+@Category({RpcEvents.CATEGORY, "Server"})
+@Description("Request handled by a provider, from decoding to writing the response")
+@Threshold("10 ms")
+public class ServerDispatchEvent extends Event {
+
+    @Label("Service")
+    private String service;
+
+    @Label("Method")
+    private String method;
+
+    @Label("Transport")
+    private String transport;
+
+    @Label("One Way")
+    private boolean oneWay;
+
+    @Label("Trace Id")
+    private String traceId;
+
+    @Label("Error")
+    private String error;
+
+    /**
+     * 开始处理一次请求，事件未启用时返回null
+     */
+    public static ServerDispatchEvent start() {
+        if (!RpcEvents.SERVER_DISPATCH.isEnabled()) {
+            return null;
+        }
+        ServerDispatchEvent event = new ServerDispatchEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 结束并在超过阈值时提交
+     *
+     * @param service 接口名，请求未能解码时为null
+     * @param transport 传输方式(http/shm)
+     * @param error 失败原因，成功时为null
+     */
+    public void finish(String service, String method, String transport, boolean oneWay, String traceId, Throwable error) {
+        end();
+        if (shouldCommit()) {
+            this.service = service;
+            this.method = method;
+            this.transport = transport;
+            this.oneWay = oneWay;
+            this.traceId = traceId;
+            this.error = RpcEvents.describe(error);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.coldscholor.limit;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 自适应并发限制器（Gradient算法）
+ * 以无负载RTT（窗口内最小RTT）为基线，比较当前RTT得到梯度：
+ * RTT接近基线时逐步放大并发上限，RTT因排队升高时按比例收缩，超时则乘性退避
+ *
+ * 新上限 = 当前上限 × 梯度 + sqrt(当前上限)，梯度 = clamp(容忍度 × 基线RTT / 当前RTT, 0.5, 1.0)
+ * 每隔固定窗口数把上限临时减半一个窗口，让服务端排队清空，用该窗口的最小RTT重新校准基线
+ *
+ * 超过上限的请求快速失败，或通过acquireAsync异步排队等待余量，排队期间不阻塞任何线程
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /** 超时退避比例 */
+    private static final double BACKOFF_RATIO = 0.9;
+
+    /** 每个统计窗口的最少样本数 */
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    /** 每隔多少个窗口探测一次基线RTT */
+    private static final int PROBE_INTERVAL_WINDOWS = 100;
+
+    /** 名称(端点地址) */
+    private final String name;
+
+    /** 最小并发上限 */
+    private final int minLimit;
+
+    /** 最大并发上限 */
+    private final int maxLimit;
+
+    /** RTT容忍度，当前RTT不超过基线的该倍数时不收缩 */
+    private final double rttTolerance;
+
+    /** 平滑系数 */
+    private final double smoothing;
+
+    /** 当前并发上限 */
+    private volatile int limit;
+
+    /** 当前上限的精确估计值 */
+    private double estimatedLimit;
+
+    /** 在途请求数 */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /** 基线RTT(纳秒) */
+    private long noLoadRttNanos = Long.MAX_VALUE;
+
+    /** 当前窗口内的RTT累计 */
+    private long windowRttSum;
+
+    /** 当前窗口内的样本数 */
+    private int windowSamples;
+
+    /** 当前窗口内的最小RTT */
+    private long windowMinRtt = Long.MAX_VALUE;
+
+    /** 是否处于基线探测窗口 */
+    private boolean probing;
+
+    /** 当前窗口内观察到的最大在途数 */
+    private int windowMaxInFlight;
+
+    /** 当前窗口是否出现超时 */
+    private boolean windowDropped;
+
+    /** 已完成的窗口数 */
+    private long windowCount;
+
+    /** 异步等待余量的请求，按到达顺序放行 */
+    private final ConcurrentLinkedQueue<CompletableFuture<Boolean>> waiters = new ConcurrentLinkedQueue<>();
+
+    /** 排队数 */
+    private final AtomicInteger waitingCount = new AtomicInteger();
+
+    /** 被拒绝的请求数 */
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /** 超时/丢弃的请求数 */
+    private final LongAdder droppedCount = new LongAdder();
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double rttTolerance, double smoothing) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    /**
+     * 立即尝试获取许可，超过当前上限时快速失败
+     *
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire() {
+        if (acquireIfBelowLimit()) {
+            return true;
+        }
+        rejectedCount.increment();
+        return false;
+    }
+
+    private boolean acquireIfBelowLimit() {
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 异步获取许可，超过上限时最多排队等待指定时间，不阻塞调用线程
+     * 有请求完成释放许可时，由释放线程把余量转交给最早的等待者
+     *
+     * @param maxWaitMillis 最长等待时间(毫秒)，不大于0时等同于tryAcquire
+     * @param maxWaiters 最大排队数，排队已满时直接拒绝
+     * @param scheduler 排队超时调度器
+     * @return 获取成功时完成为true，超时或排队已满时完成为false
+     */
+    public CompletableFuture<Boolean> acquireAsync(long maxWaitMillis, int maxWaiters, ScheduledExecutorService scheduler) {
+        if (acquireIfBelowLimit()) {
+            return CompletableFuture.completedFuture(Boolean.TRUE);
+        }
+        if (maxWaitMillis <= 0 || waitingCount.get() >= maxWaiters) {
+            rejectedCount.increment();
+            return CompletableFuture.completedFuture(Boolean.FALSE);
+        }
+        CompletableFuture<Boolean> waiter = new CompletableFuture<>();
+        waitingCount.incrementAndGet();
+        waiters.add(waiter);
+        scheduler.schedule(() -> {
+            // 谁把等待者移出队列谁决定结果：已被转交许可的等待者不会再超时
+            if (waiters.remove(waiter)) {
+                waitingCount.decrementAndGet();
+                rejectedCount.increment();
+                waiter.complete(Boolean.FALSE);
+            }
+        }, maxWaitMillis, TimeUnit.MILLISECONDS);
+        // 入队后再检查一次：许可可能在入队前已释放且释放线程没有看到本等待者
+        drainWaiters();
+        return waiter;
+    }
+
+    /**
+     * 请求成功完成，记录RTT样本并释放许可
+     *
+     * @param rttNanos 请求往返时间(纳秒)
+     */
+    public void onSuccess(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        onSample(rttNanos, current, false);
+        drainWaiters();
+    }
+
+    /**
+     * 请求超时或被服务端丢弃，触发退避并释放许可
+     */
+    public void onDropped() {
+        droppedCount.increment();
+        int current = inFlight.getAndDecrement();
+        onSample(0L, current, true);
+        drainWaiters();
+    }
+
+    /**
+     * 请求未产生有效样本（如未发出、非超时类错误），只释放许可
+     */
+    public void onIgnore() {
+        inFlight.decrementAndGet();
+        drainWaiters();
+    }
+
+    /**
+     * 按窗口聚合样本并更新并发上限
+     */
+    private synchronized void onSample(long rttNanos, int inFlightAtCompletion, boolean dropped) {
+        if (dropped) {
+            windowDropped = true;
+        } else {
+            windowRttSum += rttNanos;
+            windowSamples++;
+            windowMinRtt = Math.min(windowMinRtt, rttNanos);
+            if (rttNanos < noLoadRttNanos) {
+                noLoadRttNanos = rttNanos;
+            }
+        }
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtCompletion);
+
+        if (windowSamples < Math.max(MIN_WINDOW_SAMPLES, limit / 2) && !windowDropped) {
+            return;
+        }
+
+        if (probing) {
+            // 探测窗口结束：并发减半后的最小RTT即为新的无负载基线
+            if (windowSamples > 0) {
+                noLoadRttNanos = windowMinRtt;
+            }
+            probing = false;
+            limit = (int) estimatedLimit;
+        } else if (windowDropped) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit * BACKOFF_RATIO);
+            limit = (int) estimatedLimit;
+        } else {
+            long rtt = windowRttSum / windowSamples;
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * noLoadRttNanos / rtt));
+            // 在途数远低于上限时说明是调用方自身流量不足，不继续放大上限
+            double queueSize = windowMaxInFlight < estimatedLimit / 2 ? 0 : Math.sqrt(estimatedLimit);
+            double newLimit = estimatedLimit * gradient + queueSize;
+            newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+            estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+
+            if (++windowCount % PROBE_INTERVAL_WINDOWS == 0) {
+                probing = true;
+                limit = Math.max(minLimit, (int) (estimatedLimit / 2));
+            } else {
+                limit = (int) estimatedLimit;
+            }
+        }
+
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMinRtt = Long.MAX_VALUE;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+    }
+
+    /**
+     * 把空出的余量依次转交给等待者
+     */
+    private void drainWaiters() {
+        while (!waiters.isEmpty() && acquireIfBelowLimit()) {
+            CompletableFuture<Boolean> waiter = waiters.poll();
+            if (waiter == null) {
+                // 等待者已被其他线程取走，归还许可后重新检查
+                inFlight.decrementAndGet();
+                continue;
+            }
+            waitingCount.decrementAndGet();
+            waiter.complete(Boolean.TRUE);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 当前并发上限
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * 当前在途请求数
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 剩余可用并发数，负载均衡据此优先选择余量大的端点
+     */
+    public int getAvailablePermits() {
+        return limit - inFlight.get();
+    }
+
+    /**
+     * 当前排队等待余量的请求数
+     */
+    public int getWaiting() {
+        return waitingCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * 当前基线RTT(纳秒)，尚无样本时返回-1
+     */
+    public synchronized long getNoLoadRttNanos() {
+        return noLoadRttNanos == Long.MAX_VALUE ? -1L : noLoadRttNanos;
+    }
+}
@@ -0,0 +1,199 @@
+package com.coldscholor.limit;
+
+import com.coldscholor.config.RpcConfig;
+import com.coldscholor.metrics.LatencyHistogram;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 服务端准入控制
+ * 按CoDel的思路观察请求在Tomcat工作线程队列中的排队时间(sojourn time)：一个检测周期内的最小排队时间
+ * 都超过目标值，说明队列始终没有排空、处于持续过载，此后排队超过目标值的请求直接拒绝；
+ * 未过载时只拒绝排队超过一个检测周期的请求，短时突发照常排队处理。
+ * 被拒绝的请求在解码之前返回带过载标记的503，客户端不计入熔断失败并换一个端点重试。
+ * 同时按方法统计正在执行的请求数
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class AdmissionController {
+
+    /** 过载响应的标记头，客户端据此区分过载拒绝和其他503 */
+    public static final String OVERLOADED_HEADER = "X-RPC-Overloaded";
+
+    /** 单例实例 */
+    private static volatile AdmissionController instance;
+
+    /** 当前线程正在处理的请求在队列中等待的时间，-1表示没有经过计时的队列 */
+    private static final ThreadLocal<long[]> QUEUE_SOJOURN = ThreadLocal.withInitial(() -> new long[]{-1L});
+
+    /** 目标排队时间(纳秒) */
+    private final long targetNanos;
+
+    /** 检测周期(纳秒) */
+    private final long intervalNanos;
+
+    /** 当前检测周期的开始时间 */
+    private final AtomicLong windowStart;
+
+    /** 当前检测周期内的最小排队时间 */
+    private final AtomicLong windowMinNanos = new AtomicLong(Long.MAX_VALUE);
+
+    /** 上一个检测周期是否处于持续过载 */
+    private volatile boolean overloaded;
+
+    /** 排队时间分布 */
+    private final LatencyHistogram queueSojourn = new LatencyHistogram();
+
+    /** 已准入的请求数 */
+    private final LongAdder admittedCount = new LongAdder();
+
+    /** 因过载被拒绝的请求数 */
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /** 按方法统计的执行中请求数，key为"接口名#方法名" */
+    private final ConcurrentHashMap<String, MethodInFlight> inFlight = new ConcurrentHashMap<>();
+
+    AdmissionController(long targetNanos, long intervalNanos, long nowNanos) {
+        this.targetNanos = targetNanos;
+        this.intervalNanos = intervalNanos;
+        this.windowStart = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * 获取单例实例
+     */
+    public static AdmissionController getInstance() {
+        if (instance == null) {
+            synchronized (AdmissionController.class) {
+                if (instance == null) {
+                    instance = new AdmissionController(
+                        TimeUnit.MILLISECONDS.toNanos(RpcConfig.getAdmissionTargetQueueDelay()),
+                        TimeUnit.MILLISECONDS.toNanos(RpcConfig.getAdmissionInterval()),
+                        System.nanoTime());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 由工作线程池在任务开始执行时调用，记录它在队列中等待的时间
+     */
+    public static void setQueueSojourn(long sojournNanos) {
+        QUEUE_SOJOURN.get()[0] = sojournNanos;
+    }
+
+    /**
+     * 判断当前线程上的请求是否准入，每个请求只判断一次；没有经过计时队列的请求总是准入
+     */
+    public boolean admit() {
+        long[] holder = QUEUE_SOJOURN.get();
+        long sojournNanos = holder[0];
+        if (sojournNanos < 0) {
+            return true;
+        }
+        holder[0] = -1L;
+        return admit(sojournNanos, System.nanoTime());
+    }
+
+    boolean admit(long sojournNanos, long nowNanos) {
+        queueSojourn.record(sojournNanos);
+        updateWindow(sojournNanos, nowNanos);
+        long allowedNanos = overloaded ? targetNanos : intervalNanos;
+        if (sojournNanos > allowedNanos) {
+            rejectedCount.increment();
+            return false;
+        }
+        admittedCount.increment();
+        return true;
+    }
+
+    /**
+     * 周期结束时按周期内的最小排队时间判断是否持续过载；空闲超过一个周期后的第一个请求总是重新开始判断
+     */
+    private void updateWindow(long sojournNanos, long nowNanos) {
+        long start = windowStart.get();
+        long elapsed = nowNanos - start;
+        if (elapsed >= intervalNanos && windowStart.compareAndSet(start, nowNanos)) {
+            long minNanos = windowMinNanos.getAndSet(Long.MAX_VALUE);
+            overloaded = elapsed < 2 * intervalNanos && minNanos != Long.MAX_VALUE && minNanos > targetNanos;
+        }
+        long current;
+        while ((current = windowMinNanos.get()) > sojournNanos && !windowMinNanos.compareAndSet(current, sojournNanos)) {
+            // 被其他线程更新，重新比较
+        }
+    }
+
+    /**
+     * 获取方法的执行中计数，调用方在执行前后分别increment/decrement
+     */
+    public MethodInFlight inFlight(String interfaceName, String methodName) {
+        String key = interfaceName + "#" + methodName;
+        MethodInFlight counter = inFlight.get(key);
+        if (counter != null) {
+            return counter;
+        }
+        return inFlight.computeIfAbsent(key, k -> new MethodInFlight(interfaceName, methodName));
+    }
+
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    public LatencyHistogram getQueueSojourn() {
+        return queueSojourn;
+    }
+
+    public long getAdmittedCount() {
+        return admittedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public Collection<MethodInFlight> getInFlight() {
+        return Collections.unmodifiableCollection(inFlight.values());
+    }
+
+    /**
+     * 单个方法正在执行的请求数
+     */
+    public static final class MethodInFlight {
+        private final String service;
+        private final String method;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private MethodInFlight(String service, String method) {
+            this.service = service;
+            this.method = method;
+        }
+
+        public void increment() {
+            count.incrementAndGet();
+        }
+
+        public void decrement() {
+            count.decrementAndGet();
+        }
+
+        public String getService() {
+            return service;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public int get() {
+            return count.get();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.coldscholor.limit;
+
+/**
+ * 在途请求预算耗尽时抛出的异常
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class BudgetExhaustedException extends RuntimeException {
+
+    /** 是否因被更高优先级的请求淘汰而失败 */
+    private final boolean shed;
+
+    public BudgetExhaustedException(String budgetName, int capacity, boolean shed) {
+        super((shed ? "Request shed by higher priority traffic, budget '" : "In-flight budget exhausted, budget '")
+            + budgetName + "', capacity: " + capacity);
+        this.shed = shed;
+    }
+
+    public boolean isShed() {
+        return shed;
+    }
+}
@@ -0,0 +1,139 @@
+package com.coldscholor.limit;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 提供端隔离舱：一个服务或方法的并发上限和令牌桶限流
+ * 并发用信号量控制，获取不到时不等待；先占并发再取令牌，取不到令牌时归还并发许可
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class Bulkhead {
+
+    /** 分组名 */
+    private final String name;
+
+    /** 最大并发执行数，0表示不限制 */
+    private final int maxConcurrent;
+
+    /** 并发许可，不限制时为null */
+    private final Semaphore permits;
+
+    /** 限流令牌桶，不限速时为null */
+    private final TokenBucket rateLimiter;
+
+    /** 历史最大并发数 */
+    private final AtomicInteger peakInUse = new AtomicInteger();
+
+    /** 放行的调用数 */
+    private final LongAdder permittedCount = new LongAdder();
+
+    /** 因并发已满被拒绝的调用数 */
+    private final LongAdder concurrencyRejectedCount = new LongAdder();
+
+    /** 因没有令牌被拒绝的调用数 */
+    private final LongAdder rateRejectedCount = new LongAdder();
+
+    public Bulkhead(String name, int maxConcurrent, double permitsPerSecond, int burst) {
+        this.name = name;
+        this.maxConcurrent = Math.max(0, maxConcurrent);
+        this.permits = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+        this.rateLimiter = permitsPerSecond > 0
+            ? new TokenBucket(permitsPerSecond, burst > 0 ? burst : Math.max(1, (int) Math.ceil(permitsPerSecond)))
+            : null;
+    }
+
+    /**
+     * 占用一个执行名额，成功后必须调用release
+     *
+     * @throws BulkheadRejectedException 并发已满或没有令牌
+     */
+    public void acquire() {
+        if (permits != null) {
+            if (!permits.tryAcquire()) {
+                concurrencyRejectedCount.increment();
+                throw new BulkheadRejectedException(name, BulkheadRejectedException.Reason.CONCURRENCY);
+            }
+            int inUse = maxConcurrent - permits.availablePermits();
+            int peak;
+            while (inUse > (peak = peakInUse.get()) && !peakInUse.compareAndSet(peak, inUse)) {
+                // 被其他线程更新，重新比较
+            }
+        }
+        if (rateLimiter != null && !rateLimiter.tryAcquire()) {
+            if (permits != null) {
+                permits.release();
+            }
+            rateRejectedCount.increment();
+            throw new BulkheadRejectedException(name, BulkheadRejectedException.Reason.RATE);
+        }
+        permittedCount.increment();
+    }
+
+    /**
+     * 归还执行名额
+     */
+    public void release() {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean hasConcurrencyLimit() {
+        return permits != null;
+    }
+
+    public boolean hasRateLimit() {
+        return rateLimiter != null;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getInUse() {
+        return permits == null ? 0 : maxConcurrent - permits.availablePermits();
+    }
+
+    public int getPeakInUse() {
+        return peakInUse.get();
+    }
+
+    /**
+     * 并发利用率，不限制并发时为0
+     */
+    public double getUtilization() {
+        return permits == null ? 0 : (double) getInUse() / maxConcurrent;
+    }
+
+    public double getPermitsPerSecond() {
+        return rateLimiter == null ? 0 : rateLimiter.getPermitsPerSecond();
+    }
+
+    public int getBurst() {
+        return rateLimiter == null ? 0 : rateLimiter.getBurst();
+    }
+
+    public int getAvailableTokens() {
+        return rateLimiter == null ? 0 : rateLimiter.getAvailableTokens();
+    }
+
+    public long getPermittedCount() {
+        return permittedCount.sum();
+    }
+
+    public long getConcurrencyRejectedCount() {
+        return concurrencyRejectedCount.sum();
+    }
+
+    public long getRateRejectedCount() {
+        return rateRejectedCount.sum();
+    }
+}
@@ -0,0 +1,159 @@
+package com.coldscholor.limit;
+
+import com.coldscholor.annotation.RpcBulkhead;
+import com.coldscholor.common.MethodDescriptor;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 提供端隔离舱注册表
+ * 按服务实现上的@RpcBulkhead为服务和方法创建隔离舱，每个方法第一次调用时解析一次注解并缓存，
+ * 之后分发时只有一次Map查找；没有标注的方法使用不做任何限制的NONE
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class BulkheadRegistry {
+
+    /** 单例实例 */
+    private static volatile BulkheadRegistry instance;
+
+    /** 分组名到隔离舱，服务为接口名，方法为"接口名#方法名"（重载方法共用一个分组） */
+    private final ConcurrentHashMap<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    /** 导出的方法到它需要经过的隔离舱 */
+    private final ConcurrentHashMap<MethodDescriptor, MethodGuard> guards = new ConcurrentHashMap<>();
+
+    private BulkheadRegistry() {
+    }
+
+    /**
+     * 获取单例实例
+     */
+    public static BulkheadRegistry getInstance() {
+        if (instance == null) {
+            synchronized (BulkheadRegistry.class) {
+                if (instance == null) {
+                    instance = new BulkheadRegistry();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 获取方法的隔离舱
+     *
+     * @param interfaceName 服务接口名
+     * @param implClass 服务实现类
+     * @param method 导出的方法
+     */
+    public MethodGuard getGuard(String interfaceName, Class<?> implClass, MethodDescriptor method) {
+        MethodGuard guard = guards.get(method);
+        if (guard != null) {
+            return guard;
+        }
+        return guards.computeIfAbsent(method, m -> resolve(interfaceName, implClass, m));
+    }
+
+    public Collection<Bulkhead> getBulkheads() {
+        return Collections.unmodifiableCollection(bulkheads.values());
+    }
+
+    private MethodGuard resolve(String interfaceName, Class<?> implClass, MethodDescriptor method) {
+        Class<?> serviceInterface = findInterface(implClass, interfaceName);
+        RpcBulkhead serviceConfig = implClass.getAnnotation(RpcBulkhead.class);
+        if (serviceConfig == null && serviceInterface != null) {
+            serviceConfig = serviceInterface.getAnnotation(RpcBulkhead.class);
+        }
+        RpcBulkhead methodConfig = annotation(implClass, method);
+        if (methodConfig == null && serviceInterface != null) {
+            methodConfig = annotation(serviceInterface, method);
+        }
+        if (serviceConfig == null && methodConfig == null) {
+            return MethodGuard.NONE;
+        }
+        return new MethodGuard(bulkhead(interfaceName, serviceConfig),
+            bulkhead(interfaceName + "#" + method.getName(), methodConfig));
+    }
+
+    private Bulkhead bulkhead(String name, RpcBulkhead config) {
+        if (config == null) {
+            return null;
+        }
+        return bulkheads.computeIfAbsent(name,
+            n -> new Bulkhead(n, config.maxConcurrent(), config.permitsPerSecond(), config.burst()));
+    }
+
+    /**
+     * 类型上同一方法的@RpcBulkhead，没有这个方法时返回null
+     */
+    private static RpcBulkhead annotation(Class<?> type, MethodDescriptor method) {
+        try {
+            return type.getMethod(method.getName(), method.getParameterTypes()).getAnnotation(RpcBulkhead.class);
+        } catch (NoSuchMethodException e) {
+            // 实现类自己的方法，接口上没有
+            return null;
+        }
+    }
+
+    private static Class<?> findInterface(Class<?> implClass, String interfaceName) {
+        for (Class<?> type = implClass; type != null; type = type.getSuperclass()) {
+            for (Class<?> candidate : type.getInterfaces()) {
+                if (candidate.getName().equals(interfaceName)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 一个方法需要依次经过的服务隔离舱和方法隔离舱
+     */
+    public static final class MethodGuard {
+
+        /** 没有任何限制 */
+        public static final MethodGuard NONE = new MethodGuard(null, null);
+
+        private final Bulkhead service;
+        private final Bulkhead method;
+
+        private MethodGuard(Bulkhead service, Bulkhead method) {
+            this.service = service;
+            this.method = method;
+        }
+
+        /**
+         * 占用服务和方法的执行名额，成功后必须调用release
+         *
+         * @throws BulkheadRejectedException 任一隔离舱拒绝
+         */
+        public void acquire() {
+            if (service != null) {
+                service.acquire();
+            }
+            if (method != null) {
+                try {
+                    method.acquire();
+                } catch (BulkheadRejectedException e) {
+                    if (service != null) {
+                        service.release();
+                    }
+                    throw e;
+                }
+            }
+        }
+
+        public void release() {
+            if (method != null) {
+                method.release();
+            }
+            if (service != null) {
+                service.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.coldscholor.limit;
+
+/**
+ * 调用超过了提供端隔离舱的并发上限或限流速率
+ * 调用没有执行；提供端在分发时抛出，客户端收到后作为ProviderOverloadedException的原因，
+ * 和过载拒绝一样不计入熔断失败、可以换端点重试。拒绝是常规路径，不填充栈
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class BulkheadRejectedException extends RuntimeException {
+
+    /** 限流响应中被拒绝的分组名 */
+    public static final String GROUP_HEADER = "X-RPC-Bulkhead";
+
+    /** 限流响应中的拒绝原因 */
+    public static final String REASON_HEADER = "X-RPC-Bulkhead-Reason";
+
+    /**
+     * 拒绝原因
+     */
+    public enum Reason {
+        CONCURRENCY,    // 并发执行数已满
+        RATE            // 令牌桶没有令牌
+    }
+
+    /** 分组名：服务为接口名，方法为"接口名#方法名" */
+    private final String group;
+
+    private final Reason reason;
+
+    public BulkheadRejectedException(String group, Reason reason) {
+        super((reason == Reason.RATE ? "Rate limit exceeded for '" : "Bulkhead full for '") + group + "'",
+            null, false, false);
+        this.group = group;
+        this.reason = reason;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
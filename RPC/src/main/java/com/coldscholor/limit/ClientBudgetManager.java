@@ -0,0 +1,123 @@
+package com.coldscholor.limit;
+
+import com.coldscholor.config.RpcConfig;
+import com.coldscholor.threadpool.ThreadPoolManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 客户端在途请求预算管理器
+ * 每次调用需同时获取服务级预算和全局预算，任一耗尽都按溢出策略处理，
+ * 过载时快速、可观测地失败，而不是把调用退回业务线程执行
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class ClientBudgetManager {
+
+    /** 单例实例 */
+    private static volatile ClientBudgetManager instance;
+
+    /** 全局预算 */
+    private final InFlightBudget globalBudget;
+
+    /** 服务级预算，key为接口名 */
+    private final ConcurrentHashMap<String, InFlightBudget> serviceBudgets;
+
+    /**
+     * 私有构造函数
+     */
+    private ClientBudgetManager() {
+        this.globalBudget = createBudget("global", RpcConfig.getClientMaxInFlight());
+        this.serviceBudgets = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * 获取单例实例
+     */
+    public static ClientBudgetManager getInstance() {
+        if (instance == null) {
+            synchronized (ClientBudgetManager.class) {
+                if (instance == null) {
+                    instance = new ClientBudgetManager();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 异步获取服务级和全局预算许可
+     *
+     * @param serviceName 服务名称(接口名)
+     * @param priority 请求优先级，数值越大越重要
+     * @return 同时持有两级许可的Future
+     */
+    public CompletableFuture<BudgetPermit> acquire(String serviceName, int priority) {
+        InFlightBudget serviceBudget = getServiceBudget(serviceName);
+        return serviceBudget.acquire(priority).thenCompose(servicePermit ->
+            globalBudget.acquire(priority)
+                .thenApply(globalPermit -> new BudgetPermit(servicePermit, globalPermit))
+                .whenComplete((permit, throwable) -> {
+                    if (throwable != null) {
+                        servicePermit.release();
+                    }
+                })
+        );
+    }
+
+    /**
+     * 获取或创建服务级预算
+     */
+    public InFlightBudget getServiceBudget(String serviceName) {
+        InFlightBudget budget = serviceBudgets.get(serviceName);
+        if (budget != null) {
+            return budget;
+        }
+        return serviceBudgets.computeIfAbsent(serviceName,
+            name -> createBudget(name, RpcConfig.getServiceMaxInFlight()));
+    }
+
+    public InFlightBudget getGlobalBudget() {
+        return globalBudget;
+    }
+
+    /**
+     * 获取全部服务级预算，用于监控
+     */
+    public Collection<InFlightBudget> getServiceBudgets() {
+        return Collections.unmodifiableCollection(serviceBudgets.values());
+    }
+
+    private static InFlightBudget createBudget(String name, int capacity) {
+        return new InFlightBudget(
+            name,
+            capacity,
+            InFlightBudget.OverflowPolicy.valueOf(RpcConfig.getBudgetOverflowPolicy()),
+            RpcConfig.getBudgetMaxWait(),
+            RpcConfig.getBudgetMaxWaiters(),
+            ThreadPoolManager.getInstance().getTimeoutScheduler()
+        );
+    }
+
+    /**
+     * 两级预算许可
+     */
+    public static class BudgetPermit {
+        private final InFlightBudget.Permit servicePermit;
+        private final InFlightBudget.Permit globalPermit;
+
+        private BudgetPermit(InFlightBudget.Permit servicePermit, InFlightBudget.Permit globalPermit) {
+            this.servicePermit = servicePermit;
+            this.globalPermit = globalPermit;
+        }
+
+        public void release() {
+            globalPermit.release();
+            servicePermit.release();
+        }
+    }
+}
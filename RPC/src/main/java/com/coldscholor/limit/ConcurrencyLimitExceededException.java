@@ -0,0 +1,14 @@
+package com.coldscholor.limit;
+
+/**
+ * 端点并发数超过自适应上限时抛出的异常
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    public ConcurrencyLimitExceededException(String endpoint, int limit) {
+        super("Concurrency limit exceeded for endpoint '" + endpoint + "', current limit: " + limit);
+    }
+}
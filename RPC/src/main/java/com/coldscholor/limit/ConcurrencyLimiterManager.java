@@ -0,0 +1,74 @@
+package com.coldscholor.limit;
+
+import com.coldscholor.common.URL;
+import com.coldscholor.config.RpcConfig;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 自适应并发限制器管理器
+ * 每个服务端点一个限制器，按端点独立感知服务端的处理能力
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class ConcurrencyLimiterManager {
+
+    /** 单例实例 */
+    private static volatile ConcurrencyLimiterManager instance;
+
+    /** 限制器缓存，key为host:port */
+    private final ConcurrentHashMap<String, AdaptiveConcurrencyLimiter> limiterCache;
+
+    /**
+     * 私有构造函数
+     */
+    private ConcurrencyLimiterManager() {
+        this.limiterCache = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * 获取单例实例
+     */
+    public static ConcurrencyLimiterManager getInstance() {
+        if (instance == null) {
+            synchronized (ConcurrencyLimiterManager.class) {
+                if (instance == null) {
+                    instance = new ConcurrencyLimiterManager();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 获取或创建端点的并发限制器
+     *
+     * @param url 服务端点
+     * @return 并发限制器
+     */
+    public AdaptiveConcurrencyLimiter getLimiter(URL url) {
+        String address = url.getAddress();
+        AdaptiveConcurrencyLimiter limiter = limiterCache.get(address);
+        if (limiter != null) {
+            return limiter;
+        }
+        return limiterCache.computeIfAbsent(address, name -> new AdaptiveConcurrencyLimiter(
+            name,
+            RpcConfig.getLimiterInitialLimit(),
+            RpcConfig.getLimiterMinLimit(),
+            RpcConfig.getLimiterMaxLimit(),
+            RpcConfig.getLimiterRttTolerance(),
+            RpcConfig.getLimiterSmoothing()
+        ));
+    }
+
+    /**
+     * 获取全部限制器，用于监控
+     */
+    public Collection<AdaptiveConcurrencyLimiter> getLimiters() {
+        return Collections.unmodifiableCollection(limiterCache.values());
+    }
+}
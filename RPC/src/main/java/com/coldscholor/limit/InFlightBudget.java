@@ -0,0 +1,302 @@
+package com.coldscholor.limit;
+
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 在途请求预算
+ * 限制同时在途的请求数，许可以CompletableFuture异步获取，不会阻塞调用线程；
+ * 预算耗尽时按溢出策略处理：快速失败、限时排队，或排队已满时淘汰优先级最低的等待者
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class InFlightBudget {
+
+    /**
+     * 预算耗尽时的溢出策略
+     */
+    public enum OverflowPolicy {
+        FAIL_FAST,              // 快速失败
+        BOUNDED_WAIT,           // 限时排队，队列满时拒绝
+        SHED_LOWEST_PRIORITY    // 限时排队，队列满时淘汰优先级最低的请求
+    }
+
+    /** 名称 */
+    private final String name;
+
+    /** 预算容量 */
+    private final int capacity;
+
+    /** 溢出策略 */
+    private final OverflowPolicy overflowPolicy;
+
+    /** 最长排队时间(毫秒) */
+    private final long maxWaitMillis;
+
+    /** 最大排队数 */
+    private final int maxWaiters;
+
+    /** 排队超时调度器 */
+    private final ScheduledExecutorService timeoutScheduler;
+
+    /** 已占用的许可数 */
+    private final AtomicInteger used = new AtomicInteger();
+
+    /** 等待队列：优先级高的在前，同优先级先到先得，仅在慢路径上加锁访问 */
+    private final TreeSet<Waiter> waiters = new TreeSet<>();
+
+    /** 排队数，供无锁快速判断是否有等待者 */
+    private volatile int waitingCount;
+
+    /** 等待者序号 */
+    private final AtomicLong waiterSequence = new AtomicLong();
+
+    /** 成功获取次数 */
+    private final LongAdder acquiredCount = new LongAdder();
+
+    /** 直接拒绝次数 */
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /** 排队超时次数 */
+    private final LongAdder timeoutCount = new LongAdder();
+
+    /** 被高优先级请求淘汰的次数 */
+    private final LongAdder shedCount = new LongAdder();
+
+    /** 历史最大占用数 */
+    private final AtomicInteger peakUsed = new AtomicInteger();
+
+    public InFlightBudget(String name, int capacity, OverflowPolicy overflowPolicy,
+                          long maxWaitMillis, int maxWaiters, ScheduledExecutorService timeoutScheduler) {
+        this.name = name;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.maxWaitMillis = maxWaitMillis;
+        this.maxWaiters = maxWaiters;
+        this.timeoutScheduler = timeoutScheduler;
+    }
+
+    /**
+     * 异步获取一个许可
+     *
+     * @param priority 请求优先级，数值越大越重要
+     * @return 获取到许可时完成的Future；预算耗尽且无法排队时异常完成
+     */
+    public CompletableFuture<Permit> acquire(int priority) {
+        if (tryIncrement()) {
+            acquiredCount.increment();
+            return CompletableFuture.completedFuture(new Permit(this));
+        }
+        if (overflowPolicy == OverflowPolicy.FAIL_FAST || maxWaitMillis <= 0) {
+            rejectedCount.increment();
+            return failed();
+        }
+        return enqueue(priority);
+    }
+
+    private CompletableFuture<Permit> enqueue(int priority) {
+        Waiter waiter = new Waiter(priority, waiterSequence.incrementAndGet());
+        Waiter shed = null;
+        synchronized (waiters) {
+            // 加锁后再尝试一次，避免与release之间错过刚释放的许可
+            if (tryIncrement()) {
+                acquiredCount.increment();
+                return CompletableFuture.completedFuture(new Permit(this));
+            }
+            if (waiters.size() >= maxWaiters) {
+                Waiter lowest = waiters.isEmpty() ? null : waiters.last();
+                if (overflowPolicy != OverflowPolicy.SHED_LOWEST_PRIORITY
+                        || lowest == null || lowest.priority >= priority) {
+                    rejectedCount.increment();
+                    return failed();
+                }
+                waiters.remove(lowest);
+                shed = lowest;
+            }
+            waiters.add(waiter);
+            // 入队后再检查一次：release可能在入队前已释放许可且未看到本等待者
+            if (tryIncrement()) {
+                waiters.remove(waiter);
+                waitingCount = waiters.size();
+                acquiredCount.increment();
+                waiter.future.complete(new Permit(this));
+            } else {
+                waitingCount = waiters.size();
+            }
+        }
+        failShed(shed);
+        if (waiter.future.isDone()) {
+            return waiter.future;
+        }
+        waiter.timeoutTask = timeoutScheduler.schedule(() -> onWaitTimeout(waiter), maxWaitMillis, TimeUnit.MILLISECONDS);
+        return waiter.future;
+    }
+
+    private void failShed(Waiter shed) {
+        if (shed != null) {
+            shedCount.increment();
+            shed.cancelTimeout();
+            shed.future.completeExceptionally(new BudgetExhaustedException(name, capacity, true));
+        }
+    }
+
+    private void onWaitTimeout(Waiter waiter) {
+        boolean removed;
+        synchronized (waiters) {
+            removed = waiters.remove(waiter);
+            waitingCount = waiters.size();
+        }
+        if (removed) {
+            timeoutCount.increment();
+            waiter.future.completeExceptionally(new BudgetExhaustedException(name, capacity, false));
+        }
+    }
+
+    /**
+     * 归还许可：有等待者时直接转交给优先级最高的等待者，否则释放占用
+     */
+    void release() {
+        Waiter next = null;
+        if (waitingCount > 0) {
+            synchronized (waiters) {
+                next = waiters.pollFirst();
+                waitingCount = waiters.size();
+            }
+        }
+        if (next == null) {
+            used.decrementAndGet();
+            // 释放后可能有等待者在检查之后入队，再检查一次
+            if (waitingCount > 0 && tryIncrement()) {
+                release();
+            }
+            return;
+        }
+        next.cancelTimeout();
+        acquiredCount.increment();
+        if (!next.future.complete(new Permit(this))) {
+            // 等待者已被取消，许可继续向后转交
+            release();
+        }
+    }
+
+    private boolean tryIncrement() {
+        for (;;) {
+            int current = used.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (used.compareAndSet(current, current + 1)) {
+                int peak = peakUsed.get();
+                if (current + 1 > peak) {
+                    peakUsed.compareAndSet(peak, current + 1);
+                }
+                return true;
+            }
+        }
+    }
+
+    private CompletableFuture<Permit> failed() {
+        CompletableFuture<Permit> future = new CompletableFuture<>();
+        future.completeExceptionally(new BudgetExhaustedException(name, capacity, false));
+        return future;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * 当前占用数
+     */
+    public int getUsed() {
+        return used.get();
+    }
+
+    /**
+     * 当前排队数
+     */
+    public int getWaiting() {
+        return waitingCount;
+    }
+
+    public int getPeakUsed() {
+        return peakUsed.get();
+    }
+
+    public long getAcquiredCount() {
+        return acquiredCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    public long getShedCount() {
+        return shedCount.sum();
+    }
+
+    /**
+     * 预算许可，使用完毕后必须调用release归还，重复调用无副作用
+     */
+    public static class Permit {
+        private final InFlightBudget budget;
+        private final AtomicInteger released = new AtomicInteger();
+
+        private Permit(InFlightBudget budget) {
+            this.budget = budget;
+        }
+
+        public void release() {
+            if (released.compareAndSet(0, 1)) {
+                budget.release();
+            }
+        }
+    }
+
+    /**
+     * 排队中的请求
+     */
+    private static class Waiter implements Comparable<Waiter> {
+        private final int priority;
+        private final long sequence;
+        private final CompletableFuture<Permit> future = new CompletableFuture<>();
+        private volatile ScheduledFuture<?> timeoutTask;
+
+        private Waiter(int priority, long sequence) {
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        private void cancelTimeout() {
+            ScheduledFuture<?> task = timeoutTask;
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+
+        @Override
+        public int compareTo(Waiter other) {
+            int byPriority = Integer.compare(other.priority, priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
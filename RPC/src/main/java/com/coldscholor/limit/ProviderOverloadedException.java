@@ -0,0 +1,22 @@
+package com.coldscholor.limit;
+
+import java.io.IOException;
+
+/**
+ * 服务端因过载拒绝了请求
+ * 请求没有被执行，不计入熔断失败，可以安全地换一个端点重试；
+ * 因隔离舱或限流被拒绝时，原因为BulkheadRejectedException
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class ProviderOverloadedException extends IOException {
+
+    public ProviderOverloadedException(String endpoint) {
+        super("Provider " + endpoint + " is overloaded and rejected the call");
+    }
+
+    public ProviderOverloadedException(String endpoint, BulkheadRejectedException cause) {
+        super("Provider " + endpoint + " rejected the call: " + cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,85 @@
+package com.coldscholor.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶
+ * 按GCRA的等价形式实现：只保存一个"理论到达时间"，每个令牌把它推后一个发放间隔，
+ * 它超出当前时间的部分就是已透支的令牌；超出桶容量时拒绝。获取令牌只有一次CAS，不需要后台补充线程
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class TokenBucket {
+
+    /** 每秒发放的令牌数 */
+    private final double permitsPerSecond;
+
+    /** 桶容量 */
+    private final int burst;
+
+    /** 发放一个令牌的间隔(纳秒) */
+    private final long intervalNanos;
+
+    /** 允许透支的时间(纳秒)，桶满时可以连续获取burst个令牌 */
+    private final long toleranceNanos;
+
+    /** 理论到达时间，早于当前时间表示桶已满 */
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System.nanoTime());
+    }
+
+    TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond must be > 0 and burst >= 1");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * 尝试获取一个令牌，不等待
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    boolean tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long backlog = Math.max(0L, arrival - nowNanos);
+            if (backlog > toleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, nowNanos + backlog + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 当前可用的令牌数
+     */
+    public int getAvailableTokens() {
+        return availableTokens(System.nanoTime());
+    }
+
+    int availableTokens(long nowNanos) {
+        long backlog = Math.max(0L, theoreticalArrival.get() - nowNanos);
+        return (int) Math.max(0L, (toleranceNanos + intervalNanos - backlog) / intervalNanos);
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+}
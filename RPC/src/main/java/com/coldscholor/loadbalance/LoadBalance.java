@@ -1,6 +1,7 @@
 package com.coldscholor.loadbalance;
 
 import com.coldscholor.common.URL;
+import com.coldscholor.limit.ConcurrencyLimiterManager;
 
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
@@ -8,7 +9,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 负载均衡算法实现类
- * 支持三种负载均衡策略：随机、轮询、加权随机
+ * 支持四种负载均衡策略：随机、轮询、加权随机、自适应
  * 
  * @author 寒士obj
  * @date 2025/09/13 15:52
@@ -24,7 +25,8 @@ public class LoadBalance {
     public enum Strategy {
         RANDOM,              // 随机
         ROUND_ROBIN,         // 轮询
-        WEIGHTED_RANDOM      // 加权随机
+        WEIGHTED_RANDOM,     // 加权随机
+        ADAPTIVE             // 自适应（按并发余量二选一）
     }
     
     /**
@@ -84,7 +86,32 @@ public class LoadBalance {
         return urls.get(urls.size() - 1); // 兜底返回最后一个
     }
     
-
+    /**
+     * 自适应算法（Power of Two Choices）
+     * 随机挑选两个端点，选择自适应并发限制器剩余余量更大的一个，
+     * 变慢的端点上限会收缩，余量随之变小，流量自然向健康端点倾斜
+     * @param urls 服务URL列表
+     * @return 选中的URL
+     */
+    public static URL adaptive(List<URL> urls) {
+        if (urls == null || urls.isEmpty()) {
+            throw new IllegalArgumentException("URL list cannot be null or empty");
+        }
+        int size = urls.size();
+        if (size == 1) {
+            return urls.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        ConcurrencyLimiterManager limiterManager = ConcurrencyLimiterManager.getInstance();
+        URL a = urls.get(first);
+        URL b = urls.get(second);
+        return limiterManager.getLimiter(a).getAvailablePermits() >= limiterManager.getLimiter(b).getAvailablePermits() ? a : b;
+    }
     
     /**
      * 根据策略选择URL
@@ -100,6 +127,8 @@ public class LoadBalance {
                 return roundRobin(urls);
             case WEIGHTED_RANDOM:
                 return weightedRandom(urls);
+            case ADAPTIVE:
+                return adaptive(urls);
             default:
                 return random(urls);
         }
@@ -0,0 +1,103 @@
+package com.coldscholor.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一组调用的指标：按结果分类的计数和延迟直方图
+ * 消费端按(服务, 方法, 端点)统计，提供端按(服务, 方法)统计，此时端点为null。
+ * 被拒绝和降级的调用没有真实耗时，不计入直方图
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class CallMetrics {
+
+    private final String service;
+
+    private final String method;
+
+    private final String endpoint;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LongAdder successCount = new LongAdder();
+
+    private final LongAdder errorCount = new LongAdder();
+
+    private final LongAdder timeoutCount = new LongAdder();
+
+    private final LongAdder fallbackCount = new LongAdder();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    CallMetrics(String service, String method, String endpoint) {
+        this.service = service;
+        this.method = method;
+        this.endpoint = endpoint;
+    }
+
+    public void recordSuccess(long nanos) {
+        successCount.increment();
+        latency.record(nanos);
+    }
+
+    public void recordError(long nanos) {
+        errorCount.increment();
+        latency.record(nanos);
+    }
+
+    public void recordTimeout(long nanos) {
+        timeoutCount.increment();
+        latency.record(nanos);
+    }
+
+    /**
+     * 调用失败后返回了降级结果，调用本身已按错误或超时记录过
+     */
+    public void recordFallback() {
+        fallbackCount.increment();
+    }
+
+    /**
+     * 被熔断器、并发限制、在途预算或线程池拒绝，请求没有发出
+     */
+    public void recordRejected() {
+        rejectedCount.increment();
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getSuccessCount() {
+        return successCount.sum();
+    }
+
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    public long getFallbackCount() {
+        return fallbackCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+}
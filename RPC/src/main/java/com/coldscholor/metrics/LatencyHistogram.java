@@ -0,0 +1,119 @@
+package com.coldscholor.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 对数线性延迟直方图
+ * 以约1微秒为单位，16个单位以内线性分桶，之后每个2的幂区间再等分为16个线性子桶，相对误差不超过1/16；
+ * 桶数固定为(MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS = 368个，内存不随调用量增长。
+ * 记录只有一次数组原子自增和一次LongAdder累加，不加锁
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class LatencyHistogram {
+
+    /** 最小分辨率为2^10纳秒（约1微秒） */
+    private static final int UNIT_SHIFT = 10;
+
+    /** 每个2的幂区间的子桶数为2^4 */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** 最高记录到2^(25+1)个单位（约68秒），更大的值计入最后一个桶 */
+    private static final int MAX_EXPONENT = 25;
+
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时(纳秒)
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(indexOf(nanos));
+        totalNanos.add(nanos);
+    }
+
+    static int indexOf(long nanos) {
+        long units = nanos >>> UNIT_SHIFT;
+        if (nanos < 0 || units < SUB_BUCKETS) {
+            return nanos < 0 ? 0 : (int) units;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(units);
+        int index = (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS
+            + (int) ((units >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return Math.min(index, BUCKET_COUNT - 1);
+    }
+
+    /**
+     * 桶的上界(纳秒，不含)
+     */
+    static long upperBoundNanos(int index) {
+        if (index < SUB_BUCKETS) {
+            return (long) (index + 1) << UNIT_SHIFT;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long units = (long) (SUB_BUCKETS + index % SUB_BUCKETS + 1) << (exponent - SUB_BUCKET_BITS);
+        return units << UNIT_SHIFT;
+    }
+
+    /**
+     * 记录的总次数
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * 记录的耗时总和(纳秒)
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * 计算多个分位数，只遍历一次桶
+     *
+     * @param quantiles 升序排列的分位数，取值0~1
+     * @return 各分位数所在桶的上界(纳秒)，没有记录时为0
+     */
+    public long[] quantilesNanos(double... quantiles) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        long[] result = new long[quantiles.length];
+        if (count == 0) {
+            return result;
+        }
+        int next = 0;
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT && next < quantiles.length; i++) {
+            cumulative += snapshot[i];
+            while (next < quantiles.length && cumulative >= Math.max(1, (long) Math.ceil(quantiles[next] * count))) {
+                result[next++] = upperBoundNanos(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 单个分位数(纳秒)
+     */
+    public long quantileNanos(double quantile) {
+        return quantilesNanos(quantile)[0];
+    }
+}
@@ -0,0 +1,128 @@
+package com.coldscholor.metrics;
+
+import com.coldscholor.common.URL;
+import com.coldscholor.config.RpcConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 调用指标注册表
+ * 消费端指标按端点、服务名(接口.方法)两级索引，提供端按接口、方法两级索引，
+ * 查找时不需要拼接字符串；指标对象创建后常驻，调用路径上只有两次哈希查找
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class MetricsRegistry {
+
+    /** 单例实例 */
+    private static volatile MetricsRegistry instance;
+
+    /** 关闭指标时返回的共享对象，不会被导出 */
+    private static final CallMetrics DISABLED = new CallMetrics("", "", null);
+
+    private final boolean enabled;
+
+    /** 消费端指标：端点 -> 服务名(接口.方法) -> 指标 */
+    private final ConcurrentHashMap<URL, ConcurrentHashMap<String, CallMetrics>> consumerMetrics;
+
+    /** 提供端指标：接口名 -> 方法名 -> 指标 */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, CallMetrics>> providerMetrics;
+
+    /**
+     * 私有构造函数
+     */
+    private MetricsRegistry() {
+        this(RpcConfig.isMetricsEnabled());
+    }
+
+    MetricsRegistry(boolean enabled) {
+        this.enabled = enabled;
+        this.consumerMetrics = new ConcurrentHashMap<>();
+        this.providerMetrics = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * 获取单例实例
+     */
+    public static MetricsRegistry getInstance() {
+        if (instance == null) {
+            synchronized (MetricsRegistry.class) {
+                if (instance == null) {
+                    instance = new MetricsRegistry();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 获取消费端调用某个端点某个方法的指标
+     *
+     * @param url 服务端点
+     * @param serviceName 服务名称(接口.方法)
+     */
+    public CallMetrics getConsumerMetrics(URL url, String serviceName) {
+        if (!enabled) {
+            return DISABLED;
+        }
+        ConcurrentHashMap<String, CallMetrics> endpointMetrics = consumerMetrics.get(url);
+        if (endpointMetrics == null) {
+            endpointMetrics = consumerMetrics.computeIfAbsent(url, key -> new ConcurrentHashMap<>());
+        }
+        CallMetrics metrics = endpointMetrics.get(serviceName);
+        if (metrics == null) {
+            metrics = endpointMetrics.computeIfAbsent(serviceName, name -> {
+                int separator = name.lastIndexOf('.');
+                return new CallMetrics(name.substring(0, separator), name.substring(separator + 1), url.getAddress());
+            });
+        }
+        return metrics;
+    }
+
+    /**
+     * 获取提供端某个方法的指标
+     *
+     * @param interfaceName 接口名
+     * @param methodName 方法名
+     */
+    public CallMetrics getProviderMetrics(String interfaceName, String methodName) {
+        if (!enabled) {
+            return DISABLED;
+        }
+        ConcurrentHashMap<String, CallMetrics> serviceMetrics = providerMetrics.get(interfaceName);
+        if (serviceMetrics == null) {
+            serviceMetrics = providerMetrics.computeIfAbsent(interfaceName, key -> new ConcurrentHashMap<>());
+        }
+        CallMetrics metrics = serviceMetrics.get(methodName);
+        if (metrics == null) {
+            metrics = serviceMetrics.computeIfAbsent(methodName, name -> new CallMetrics(interfaceName, name, null));
+        }
+        return metrics;
+    }
+
+    /**
+     * 全部消费端指标，用于导出
+     */
+    public List<CallMetrics> getConsumerMetrics() {
+        return flatten(consumerMetrics);
+    }
+
+    /**
+     * 全部提供端指标，用于导出
+     */
+    public List<CallMetrics> getProviderMetrics() {
+        return flatten(providerMetrics);
+    }
+
+    private static List<CallMetrics> flatten(Map<?, ConcurrentHashMap<String, CallMetrics>> metrics) {
+        List<CallMetrics> result = new ArrayList<>();
+        for (ConcurrentHashMap<String, CallMetrics> group : metrics.values()) {
+            result.addAll(group.values());
+        }
+        return result;
+    }
+}
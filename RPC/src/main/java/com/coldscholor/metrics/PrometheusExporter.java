@@ -0,0 +1,373 @@
+package com.coldscholor.metrics;
+
+import com.coldscholor.buffer.BufferPool;
+import com.coldscholor.circuitbreaker.CircuitBreakerManager;
+import com.coldscholor.circuitbreaker.EndpointCircuitBreaker;
+import com.coldscholor.circuitbreaker.OutlierDetector;
+import com.coldscholor.compress.CompressionCodecs;
+import com.coldscholor.config.RpcConfig;
+import com.coldscholor.deadline.Deadline;
+import com.coldscholor.limit.AdaptiveConcurrencyLimiter;
+import com.coldscholor.limit.AdmissionController;
+import com.coldscholor.limit.Bulkhead;
+import com.coldscholor.limit.BulkheadRegistry;
+import com.coldscholor.limit.ClientBudgetManager;
+import com.coldscholor.limit.ConcurrencyLimiterManager;
+import com.coldscholor.limit.InFlightBudget;
+import com.coldscholor.protocol.LocalInvoker;
+import com.coldscholor.protocol.OneWayInvoker;
+import com.coldscholor.schedule.FairScheduler;
+import com.coldscholor.schedule.PriorityClass;
+import com.coldscholor.threadpool.InstrumentedThreadPoolExecutor;
+import com.coldscholor.threadpool.ThreadPoolManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 以Prometheus文本格式(0.0.4)导出指标
+ * 包括消费端、提供端的调用计数和延迟分位数，以及熔断器、异常端点摘除、自适应并发限制、
+ * 在途预算、提供端准入和隔离舱、线程池、缓冲区池、压缩和进程内调用的运行状态；只在抓取时读取，不影响调用路径
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class PrometheusExporter {
+
+    /** Prometheus文本格式的Content-Type */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /** 导出的延迟分位数 */
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final StringBuilder out = new StringBuilder(8192);
+
+    private PrometheusExporter() {
+    }
+
+    /**
+     * 抓取当前全部指标
+     */
+    public static String scrape() {
+        PrometheusExporter exporter = new PrometheusExporter();
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        exporter.writeCalls("rpc_client", "consumer", registry.getConsumerMetrics());
+        exporter.writeCalls("rpc_server", "provider", registry.getProviderMetrics());
+        exporter.writeCircuitBreakers(CircuitBreakerManager.getInstance());
+        exporter.writeOutliers(OutlierDetector.getInstance());
+        exporter.writeLimiters(ConcurrencyLimiterManager.getInstance().getLimiters());
+        exporter.writeBudgets(ClientBudgetManager.getInstance());
+        exporter.writeThreadPools(ThreadPoolManager.getInstance().getPools());
+        exporter.writeAdmission(AdmissionController.getInstance());
+        exporter.writeBulkheads(BulkheadRegistry.getInstance().getBulkheads());
+        if (RpcConfig.isSchedulerEnabled()) {
+            exporter.writeScheduler(FairScheduler.getInstance());
+        }
+        exporter.writeRuntime();
+        return exporter.out.toString();
+    }
+
+    private void writeCalls(String prefix, String side, List<CallMetrics> metrics) {
+        if (metrics.isEmpty()) {
+            return;
+        }
+        header(prefix + "_requests_total", "counter",
+            "RPC calls handled by this " + side + ", by outcome");
+        for (CallMetrics callMetrics : metrics) {
+            String labels = callLabels(callMetrics);
+            sample(prefix + "_requests_total", labels + ",outcome=\"success\"", callMetrics.getSuccessCount());
+            sample(prefix + "_requests_total", labels + ",outcome=\"error\"", callMetrics.getErrorCount());
+            sample(prefix + "_requests_total", labels + ",outcome=\"timeout\"", callMetrics.getTimeoutCount());
+            sample(prefix + "_requests_total", labels + ",outcome=\"fallback\"", callMetrics.getFallbackCount());
+            sample(prefix + "_requests_total", labels + ",outcome=\"rejected\"", callMetrics.getRejectedCount());
+        }
+
+        header(prefix + "_latency_seconds", "summary",
+            "Latency of completed RPC calls on the " + side + " side (rejections excluded)");
+        for (CallMetrics callMetrics : metrics) {
+            summary(prefix + "_latency_seconds", callLabels(callMetrics), callMetrics.getLatency());
+        }
+    }
+
+    private static String callLabels(CallMetrics callMetrics) {
+        String labels = "service=\"" + escape(callMetrics.getService()) + "\",method=\"" + escape(callMetrics.getMethod()) + "\"";
+        return callMetrics.getEndpoint() == null ? labels : labels + ",endpoint=\"" + escape(callMetrics.getEndpoint()) + "\"";
+    }
+
+    private void writeCircuitBreakers(CircuitBreakerManager circuitBreakerManager) {
+        Collection<EndpointCircuitBreaker> circuitBreakers = circuitBreakerManager.getCircuitBreakers();
+        if (!circuitBreakers.isEmpty()) {
+            header("rpc_circuit_breaker_state", "gauge", "Circuit breaker state per endpoint and method (1 for the current state)");
+            for (EndpointCircuitBreaker circuitBreaker : circuitBreakers) {
+                EndpointCircuitBreaker.State current = circuitBreaker.getState();
+                for (EndpointCircuitBreaker.State state : EndpointCircuitBreaker.State.values()) {
+                    sample("rpc_circuit_breaker_state", nameLabel(circuitBreaker.getName()) + ",state=\"" + state + "\"",
+                        state == current ? 1 : 0);
+                }
+            }
+            header("rpc_circuit_breaker_calls_total", "counter", "Calls seen by the circuit breaker, by result");
+            for (EndpointCircuitBreaker circuitBreaker : circuitBreakers) {
+                String labels = nameLabel(circuitBreaker.getName());
+                sample("rpc_circuit_breaker_calls_total", labels + ",result=\"success\"", circuitBreaker.getSuccessCount());
+                sample("rpc_circuit_breaker_calls_total", labels + ",result=\"failure\"", circuitBreaker.getFailureCount());
+                sample("rpc_circuit_breaker_calls_total", labels + ",result=\"rejected\"", circuitBreaker.getRejectedCount());
+                sample("rpc_circuit_breaker_calls_total", labels + ",result=\"fallback\"", circuitBreaker.getFallbackCount());
+            }
+            gauges("rpc_circuit_breaker_failure_rate_percent", "Failure rate in the current window, NaN until enough calls",
+                circuitBreakers, breaker -> nameLabel(breaker.getName()),
+                breaker -> breaker.getFailureRate() < 0 ? Double.NaN : breaker.getFailureRate());
+        }
+
+        Map<String, Long> fallbackCounts = circuitBreakerManager.getFallbackCounts();
+        if (!fallbackCounts.isEmpty()) {
+            header("rpc_client_fallbacks_total", "counter",
+                "Fallback responses per service, including calls with no available endpoint");
+            fallbackCounts.forEach((serviceName, count) ->
+                sample("rpc_client_fallbacks_total", "service=\"" + escape(serviceName) + "\"", count));
+        }
+    }
+
+    private void writeOutliers(OutlierDetector outlierDetector) {
+        Map<String, Boolean> ejected = outlierDetector.getEjectedStates();
+        if (ejected.isEmpty()) {
+            return;
+        }
+        header("rpc_outlier_ejected", "gauge", "Whether the endpoint is currently ejected by outlier detection");
+        ejected.forEach((address, state) -> sample("rpc_outlier_ejected", endpointLabel(address), state ? 1 : 0));
+        header("rpc_outlier_ejection_multiplier", "gauge", "Current ejection multiplier of the endpoint");
+        outlierDetector.getEjectionCounts().forEach((address, count) ->
+            sample("rpc_outlier_ejection_multiplier", endpointLabel(address), count));
+    }
+
+    private void writeLimiters(Collection<AdaptiveConcurrencyLimiter> limiters) {
+        if (limiters.isEmpty()) {
+            return;
+        }
+        Function<AdaptiveConcurrencyLimiter, String> labels = limiter -> endpointLabel(limiter.getName());
+        gauges("rpc_limiter_limit", "Adaptive concurrency limit of the endpoint",
+            limiters, labels, AdaptiveConcurrencyLimiter::getLimit);
+        gauges("rpc_limiter_in_flight", "Calls in flight to the endpoint",
+            limiters, labels, AdaptiveConcurrencyLimiter::getInFlight);
+        gauges("rpc_limiter_waiting", "Calls queued for a concurrency permit",
+            limiters, labels, AdaptiveConcurrencyLimiter::getWaiting);
+        counters("rpc_limiter_rejected_total", "Calls rejected by the concurrency limiter",
+            limiters, labels, AdaptiveConcurrencyLimiter::getRejectedCount);
+        counters("rpc_limiter_dropped_total", "Calls that timed out and lowered the limit",
+            limiters, labels, AdaptiveConcurrencyLimiter::getDroppedCount);
+    }
+
+    private void writeBudgets(ClientBudgetManager budgetManager) {
+        List<InFlightBudget> budgets = new ArrayList<>();
+        budgets.add(budgetManager.getGlobalBudget());
+        budgets.addAll(budgetManager.getServiceBudgets());
+        Function<InFlightBudget, String> labels = budget -> "budget=\"" + escape(budget.getName()) + "\"";
+        gauges("rpc_budget_capacity", "In-flight budget capacity", budgets, labels, InFlightBudget::getCapacity);
+        gauges("rpc_budget_used", "In-flight budget permits in use", budgets, labels, InFlightBudget::getUsed);
+        gauges("rpc_budget_waiting", "Calls queued for an in-flight budget permit", budgets, labels, InFlightBudget::getWaiting);
+        gauges("rpc_budget_peak_used", "Peak in-flight budget permits in use", budgets, labels, InFlightBudget::getPeakUsed);
+        counters("rpc_budget_acquired_total", "In-flight budget permits acquired", budgets, labels, InFlightBudget::getAcquiredCount);
+        counters("rpc_budget_rejected_total", "Calls rejected by an exhausted budget", budgets, labels, InFlightBudget::getRejectedCount);
+        counters("rpc_budget_timeouts_total", "Calls that timed out waiting for a budget permit", budgets, labels, InFlightBudget::getTimeoutCount);
+        counters("rpc_budget_shed_total", "Queued calls shed for higher priority calls", budgets, labels, InFlightBudget::getShedCount);
+    }
+
+    private void writeBulkheads(Collection<Bulkhead> bulkheads) {
+        if (bulkheads.isEmpty()) {
+            return;
+        }
+        List<Bulkhead> concurrency = new ArrayList<>();
+        List<Bulkhead> rate = new ArrayList<>();
+        for (Bulkhead bulkhead : bulkheads) {
+            if (bulkhead.hasConcurrencyLimit()) {
+                concurrency.add(bulkhead);
+            }
+            if (bulkhead.hasRateLimit()) {
+                rate.add(bulkhead);
+            }
+        }
+        Function<Bulkhead, String> labels = bulkhead -> "group=\"" + escape(bulkhead.getName()) + "\"";
+        gauges("rpc_bulkhead_max_concurrent", "Maximum concurrent executions of the group", concurrency, labels, Bulkhead::getMaxConcurrent);
+        gauges("rpc_bulkhead_in_use", "Executions currently holding a bulkhead permit", concurrency, labels, Bulkhead::getInUse);
+        gauges("rpc_bulkhead_peak_in_use", "Peak executions holding a bulkhead permit", concurrency, labels, Bulkhead::getPeakInUse);
+        gauges("rpc_bulkhead_utilization", "Share of bulkhead permits in use", concurrency, labels, Bulkhead::getUtilization);
+        gauges("rpc_rate_limit_permits_per_second", "Token bucket refill rate of the group", rate, labels, Bulkhead::getPermitsPerSecond);
+        gauges("rpc_rate_limit_burst", "Token bucket capacity of the group", rate, labels, Bulkhead::getBurst);
+        gauges("rpc_rate_limit_available_tokens", "Tokens currently available in the bucket", rate, labels, Bulkhead::getAvailableTokens);
+        header("rpc_bulkhead_calls_total", "counter", "Calls seen by the group, by decision");
+        for (Bulkhead bulkhead : bulkheads) {
+            String group = labels.apply(bulkhead);
+            sample("rpc_bulkhead_calls_total", group + ",decision=\"permitted\"", bulkhead.getPermittedCount());
+            sample("rpc_bulkhead_calls_total", group + ",decision=\"rejected_concurrency\"", bulkhead.getConcurrencyRejectedCount());
+            sample("rpc_bulkhead_calls_total", group + ",decision=\"rejected_rate\"", bulkhead.getRateRejectedCount());
+        }
+    }
+
+    private void writeScheduler(FairScheduler scheduler) {
+        header("rpc_scheduler_slots", "gauge", "Business execution slots on the provider");
+        sample("rpc_scheduler_slots", null, scheduler.getSlots());
+        header("rpc_scheduler_slots_in_use", "gauge", "Execution slots currently held");
+        sample("rpc_scheduler_slots_in_use", null, scheduler.getSlotsInUse());
+        List<FairScheduler.ClassQueue> queues = new ArrayList<>();
+        for (PriorityClass priorityClass : PriorityClass.all()) {
+            queues.add(scheduler.getQueue(priorityClass));
+        }
+        Function<FairScheduler.ClassQueue, String> labels =
+            queue -> "class=\"" + queue.getPriorityClass().name().toLowerCase() + "\"";
+        gauges("rpc_scheduler_waiting", "Requests waiting for an execution slot", queues, labels, FairScheduler.ClassQueue::getWaiting);
+        gauges("rpc_scheduler_running", "Requests holding an execution slot", queues, labels, FairScheduler.ClassQueue::getRunning);
+        counters("rpc_scheduler_granted_total", "Execution slots granted", queues, labels, FairScheduler.ClassQueue::getGrantedCount);
+        counters("rpc_scheduler_expired_total", "Requests whose deadline passed while waiting for a slot",
+            queues, labels, FairScheduler.ClassQueue::getExpiredCount);
+        counters("rpc_scheduler_promoted_total", "Slots granted ahead of higher classes to prevent starvation",
+            queues, labels, FairScheduler.ClassQueue::getPromotedCount);
+        header("rpc_scheduler_wait_seconds", "summary", "Time spent waiting for an execution slot");
+        for (FairScheduler.ClassQueue queue : queues) {
+            summary("rpc_scheduler_wait_seconds", labels.apply(queue), queue.getWaitTime());
+        }
+    }
+
+    private void writeThreadPools(Collection<InstrumentedThreadPoolExecutor> pools) {
+        Function<InstrumentedThreadPoolExecutor, String> labels = pool -> "pool=\"" + escape(pool.getName()) + "\"";
+        gauges("rpc_thread_pool_core_size", "Core pool size", pools, labels, ThreadPoolExecutor::getCorePoolSize);
+        gauges("rpc_thread_pool_max_size", "Maximum pool size", pools, labels, ThreadPoolExecutor::getMaximumPoolSize);
+        gauges("rpc_thread_pool_threads", "Threads currently in the pool", pools, labels, ThreadPoolExecutor::getPoolSize);
+        gauges("rpc_thread_pool_active_threads", "Threads executing tasks", pools, labels, ThreadPoolExecutor::getActiveCount);
+        gauges("rpc_thread_pool_queue_size", "Tasks waiting in the queue", pools, labels, pool -> pool.getQueue().size());
+        gauges("rpc_thread_pool_queue_capacity", "Queue capacity", pools, labels, InstrumentedThreadPoolExecutor::getQueueCapacity);
+        counters("rpc_thread_pool_completed_tasks_total", "Tasks completed", pools, labels, ThreadPoolExecutor::getCompletedTaskCount);
+        counters("rpc_thread_pool_rejected_total", "Tasks rejected", pools, labels, InstrumentedThreadPoolExecutor::getRejectedCount);
+        counters("rpc_thread_pool_caller_runs_total", "Tasks run on the submitting thread because the queue was full",
+            pools, labels, InstrumentedThreadPoolExecutor::getCallerRunsCount);
+        header("rpc_thread_pool_queue_wait_seconds", "summary", "Time tasks spent queued before running");
+        for (InstrumentedThreadPoolExecutor pool : pools) {
+            summary("rpc_thread_pool_queue_wait_seconds", labels.apply(pool), pool.getQueueWait());
+        }
+        header("rpc_thread_pool_run_seconds", "summary", "Time tasks spent running");
+        for (InstrumentedThreadPoolExecutor pool : pools) {
+            summary("rpc_thread_pool_run_seconds", labels.apply(pool), pool.getRunTime());
+        }
+    }
+
+    private void writeAdmission(AdmissionController admission) {
+        header("rpc_server_overloaded", "gauge", "1 while the provider queue has stayed above the target delay for a whole interval");
+        sample("rpc_server_overloaded", null, admission.isOverloaded() ? 1 : 0);
+        header("rpc_server_admission_total", "counter", "Requests seen by admission control, by decision");
+        sample("rpc_server_admission_total", "decision=\"admitted\"", admission.getAdmittedCount());
+        sample("rpc_server_admission_total", "decision=\"rejected\"", admission.getRejectedCount());
+        header("rpc_server_queue_sojourn_seconds", "summary", "Time requests waited for a Tomcat worker thread");
+        summary("rpc_server_queue_sojourn_seconds", "transport=\"http\"", admission.getQueueSojourn());
+        gauges("rpc_server_in_flight", "Requests currently executing, by method", admission.getInFlight(),
+            counter -> "service=\"" + escape(counter.getService()) + "\",method=\"" + escape(counter.getMethod()) + "\"",
+            AdmissionController.MethodInFlight::get);
+    }
+
+    private void writeRuntime() {
+        BufferPool bufferPool = BufferPool.getInstance();
+        header("rpc_buffer_pool_acquired_total", "counter", "Buffers leased from the pool");
+        sample("rpc_buffer_pool_acquired_total", null, bufferPool.getAcquiredCount());
+        header("rpc_buffer_pool_allocated_total", "counter", "Buffers allocated because the pool had none free");
+        sample("rpc_buffer_pool_allocated_total", null, bufferPool.getAllocatedCount());
+        header("rpc_buffer_pool_outstanding", "gauge", "Buffers currently leased");
+        sample("rpc_buffer_pool_outstanding", null, bufferPool.getOutstandingCount());
+        header("rpc_buffer_pool_leaks_total", "counter", "Buffers garbage collected without being released");
+        sample("rpc_buffer_pool_leaks_total", null, bufferPool.getLeakCount());
+
+        CompressionCodecs compressionCodecs = CompressionCodecs.getInstance();
+        header("rpc_compression_messages_total", "counter", "Messages sent compressed");
+        sample("rpc_compression_messages_total", null, compressionCodecs.getCompressedCount());
+        header("rpc_compression_input_bytes_total", "counter", "Bytes before compression");
+        sample("rpc_compression_input_bytes_total", null, compressionCodecs.getUncompressedBytes());
+        header("rpc_compression_output_bytes_total", "counter", "Bytes after compression");
+        sample("rpc_compression_output_bytes_total", null, compressionCodecs.getCompressedBytes());
+
+        LocalInvoker localInvoker = LocalInvoker.getInstance();
+        header("rpc_local_calls_total", "counter", "Calls short-circuited to a service exported in this JVM");
+        sample("rpc_local_calls_total", null, localInvoker.getCallCount());
+        header("rpc_local_errors_total", "counter", "In-JVM calls that threw");
+        sample("rpc_local_errors_total", null, localInvoker.getErrorCount());
+
+        OneWayInvoker oneWayInvoker = OneWayInvoker.getInstance();
+        header("rpc_server_one_way_total", "counter", "One-way calls on the provider, by result");
+        sample("rpc_server_one_way_total", "result=\"accepted\"", oneWayInvoker.getAcceptedCount());
+        sample("rpc_server_one_way_total", "result=\"completed\"", oneWayInvoker.getCompletedCount());
+        sample("rpc_server_one_way_total", "result=\"failed\"", oneWayInvoker.getFailedCount());
+        sample("rpc_server_one_way_total", "result=\"dropped\"", oneWayInvoker.getDroppedCount());
+
+        header("rpc_server_deadline_dropped_total", "counter", "Requests dropped on the provider after their deadline expired, by stage");
+        for (Deadline.Stage stage : Deadline.Stage.values()) {
+            sample("rpc_server_deadline_dropped_total", "stage=\"" + stage.name().toLowerCase() + "\"",
+                Deadline.getDroppedCount(stage));
+        }
+    }
+
+    private void summary(String name, String labels, LatencyHistogram histogram) {
+        long[] values = histogram.quantilesNanos(QUANTILES);
+        for (int i = 0; i < QUANTILES.length; i++) {
+            sample(name, labels + ",quantile=\"" + QUANTILES[i] + "\"", values[i] / 1e9);
+        }
+        sample(name + "_sum", labels, histogram.getTotalNanos() / 1e9);
+        sample(name + "_count", labels, histogram.getCount());
+    }
+
+    private <T> void gauges(String name, String help, Collection<T> items,
+                            Function<T, String> labels, ToDoubleFunction<T> value) {
+        family(name, "gauge", help, items, labels, value);
+    }
+
+    private <T> void counters(String name, String help, Collection<T> items,
+                              Function<T, String> labels, ToDoubleFunction<T> value) {
+        family(name, "counter", help, items, labels, value);
+    }
+
+    private <T> void family(String name, String type, String help, Collection<T> items,
+                            Function<T, String> labels, ToDoubleFunction<T> value) {
+        header(name, type, help);
+        for (T item : items) {
+            sample(name, labels.apply(item), value.applyAsDouble(item));
+        }
+    }
+
+    private void header(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private void sample(String name, String labels, double value) {
+        out.append(name);
+        if (labels != null) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (Double.isNaN(value)) {
+            out.append("NaN");
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static String nameLabel(String name) {
+        return "name=\"" + escape(name) + "\"";
+    }
+
+    private static String endpointLabel(String address) {
+        return "endpoint=\"" + escape(address) + "\"";
+    }
+
+    /**
+     * 标签值转义：反斜杠、双引号和换行
+     */
+    static String escape(String value) {
+        if (value.indexOf('\\') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
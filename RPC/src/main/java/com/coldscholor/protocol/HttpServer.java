@@ -1,11 +1,16 @@
 package com.coldscholor.protocol;
 
+import com.coldscholor.config.RpcConfig;
+import com.coldscholor.shm.SharedMemoryServer;
 import org.apache.catalina.*;
 import org.apache.catalina.connector.Connector;
 import org.apache.catalina.core.StandardContext;
 import org.apache.catalina.core.StandardEngine;
 import org.apache.catalina.core.StandardHost;
 import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.AbstractProtocol;
+
+import java.io.IOException;
 
 /**
  * @author 寒士obj
@@ -13,6 +18,17 @@ import org.apache.catalina.startup.Tomcat;
  **/
 public class HttpServer {
 
+    /** Tomcat工作线程数上限 */
+    private final int maxThreads;
+
+    public HttpServer() {
+        this(RpcConfig.getServerMaxThreads());
+    }
+
+    public HttpServer(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
     public void start(String hostName, int port){
         // 读取用户的配置 server.name=xxx
         Tomcat tomcat = new Tomcat();
@@ -22,6 +38,13 @@ public class HttpServer {
 
         Connector connector = new Connector();
         connector.setPort(port);
+        // 准入控制需要知道请求在工作线程队列中等了多久，换成记录排队时间的线程池
+        if (RpcConfig.isAdmissionEnabled()) {
+            ((AbstractProtocol<?>) connector.getProtocolHandler()).setExecutor(new QueueTimingExecutor(
+                "rpc-http-" + port, Math.min(RpcConfig.getServerMinSpareThreads(), maxThreads), maxThreads));
+        } else {
+            connector.setProperty("maxThreads", String.valueOf(maxThreads));
+        }
 
         Engine engine = new StandardEngine();
         engine.setDefaultHost(hostName);
@@ -42,11 +65,24 @@ public class HttpServer {
 
         tomcat.addServlet(conttextPath, "dispatcher", new DispatcherServlet());
         context.addServletMappingDecoded("/*", "dispatcher");
+        // 精确路径优先于"/*"，抓取请求不会进入RPC分发
+        if (RpcConfig.isMetricsEnabled()) {
+            tomcat.addServlet(conttextPath, "metrics", new MetricsServlet());
+            context.addServletMappingDecoded(RpcConfig.getMetricsPath(), "metrics");
+        }
+        if (RpcConfig.isAdminEnabled()) {
+            tomcat.addServlet(conttextPath, "threadPoolAdmin", new ThreadPoolAdminServlet());
+            context.addServletMappingDecoded(RpcConfig.getAdminThreadPoolPath(), "threadPoolAdmin");
+        }
 
         try {
+            // 本机消费者可以通过共享内存调用，不经过TCP和Tomcat
+            if (RpcConfig.isShmTransportEnabled()) {
+                SharedMemoryServer.start(port);
+            }
             tomcat.start();
             tomcat.getServer().await();
-        } catch (LifecycleException e) {
+        } catch (LifecycleException | IOException e) {
             e.printStackTrace();
         }
     }
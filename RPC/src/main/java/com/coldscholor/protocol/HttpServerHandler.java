@@ -1,15 +1,36 @@
 package com.coldscholor.protocol;
 
+import com.coldscholor.buffer.PooledByteArrayOutputStream;
 import com.coldscholor.common.Invocation;
+import com.coldscholor.common.MethodDescriptor;
+import com.coldscholor.common.MethodRef;
+import com.coldscholor.compress.CompressionCodec;
+import com.coldscholor.compress.CompressionCodecs;
+import com.coldscholor.config.RpcConfig;
+import com.coldscholor.deadline.Deadline;
+import com.coldscholor.deadline.DeadlineExceededException;
+import com.coldscholor.jfr.DeserializeEvent;
+import com.coldscholor.jfr.ServerDispatchEvent;
+import com.coldscholor.limit.AdmissionController;
+import com.coldscholor.limit.BulkheadRegistry;
+import com.coldscholor.limit.BulkheadRejectedException;
+import com.coldscholor.metrics.CallMetrics;
+import com.coldscholor.metrics.MetricsRegistry;
+import com.coldscholor.register.ExportedService;
 import com.coldscholor.register.LocalRegister;
+import com.coldscholor.schedule.FairScheduler;
+import com.coldscholor.schedule.PriorityClass;
+import com.coldscholor.trace.Scope;
+import com.coldscholor.trace.Span;
+import com.coldscholor.trace.Tracer;
 import org.apache.commons.io.IOUtils;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 
 /**
  * @author 寒士obj
@@ -17,44 +38,293 @@ import java.lang.reflect.Method;
  **/
 public class HttpServerHandler {
     public void handle(HttpServletRequest  request, HttpServletResponse  response){
+        // 过载时在解码前拒绝，只返回一个带过载标记的空503
+        AdmissionController admission = AdmissionController.getInstance();
+        if (!admission.admit()) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(AdmissionController.OVERLOADED_HEADER, "1");
+            response.setContentLength(0);
+            return;
+        }
+        // 在Tomcat队列中等到调用方已经放弃的请求，不读取也不反序列化请求体
+        Deadline deadline = RpcConfig.isDeadlinePropagationEnabled()
+            ? Deadline.fromWireValue(request.getHeader(Deadline.HEADER)) : null;
+        if (deadline != null && deadline.isExpired()) {
+            Deadline.recordDropped(Deadline.Stage.RECEIVED);
+            rejectExpired(response);
+            return;
+        }
+        InputStream requestBody = null;
+        // 提供端按方法记录处理耗时，从收到请求到写完响应
+        long startNanos = System.nanoTime();
+        CallMetrics metrics = null;
+        boolean succeeded = false;
+        boolean expired = false;
+        Span span = Span.NOOP;
+        Scope scope = null;
+        Scope deadlineScope = null;
+        AdmissionController.MethodInFlight inFlight = null;
+        BulkheadRegistry.MethodGuard guard = null;
+        PriorityClass scheduled = null;
+        Throwable failure = null;
+        Invocation invocation = null;
+        ServerDispatchEvent dispatchEvent = ServerDispatchEvent.start();
         try {
             // 处理请求 --> 调用某个接口的某个方法、方法参数
-            ObjectInputStream ois = new ObjectInputStream(request.getInputStream());
-            // 反序列化
-            Invocation invocation = (Invocation) ois.readObject();
+            // 反序列化；带流式参数的请求只先读出请求头，参数内容由服务方法按需读取
+            boolean streaming = request.getContentType() != null
+                && request.getContentType().startsWith(StreamArgument.CONTENT_TYPE);
+            requestBody = decodeRequestBody(request);
+            DeserializeEvent deserializeEvent = DeserializeEvent.start();
+            invocation = streaming
+                ? new StreamingInvocationReader(requestBody).readInvocation()
+                : (Invocation) new ObjectInputStream(requestBody).readObject();
+            // 紧凑形式按ID查找服务和方法，方法表已经变化时返回不匹配，请求不执行，由消费者按完整描述重发
+            ExportedService service = null;
+            MethodDescriptor method = null;
+            if (invocation.isCompact()) {
+                service = LocalRegister.getService(invocation.getServiceId());
+                method = service == null ? null : service.findMethod(invocation.getMethodId(), invocation.getTableVersion());
+                if (method == null) {
+                    rejectMethodRefMismatch(response);
+                    return;
+                }
+                invocation.resolve(service.getInterfaceName(), method);
+            }
+            if (deserializeEvent != null) {
+                deserializeEvent.finish(invocation.getInterfaceName(), request.getContentLengthLong());
+            }
+            // 从调用附件恢复追踪上下文，服务方法和它发起的下游调用都在这个上下文中
+            span = Tracer.getInstance().startServerSpan(invocation);
+            scope = span.makeCurrent();
+            // 声明本端支持的压缩编码，客户端据此压缩后续请求
+            CompressionCodecs compressionCodecs = CompressionCodecs.getInstance();
+            if (compressionCodecs.isEnabled()) {
+                response.setHeader("Accept-Encoding", compressionCodecs.getAcceptEncoding());
+            }
             String interfaceName = invocation.getInterfaceName();
             // String version = invocation.getVersion();
 
-            // 通过接口名称，从本地注册中心（map）中获取接口实现类
+            // 通过接口名称，从本地注册中心（map）中获取导出的服务
             // 如果版本号为空，则默认调用1.0版本
 
-            Class aClass = aClass = LocalRegister.get(interfaceName, "1.0");;
-          /*  if(version == null){
-                aClass = LocalRegister.get(interfaceName, "1.0");
+            if (service == null) {
+                service = LocalRegister.getService(interfaceName, "1.0");
+              /*  if(version == null){
+                    service = LocalRegister.getService(interfaceName, "1.0");
+                }
+                service = LocalRegister.getService(interfaceName, version);*/
+                if (service == null) {
+                    throw new IllegalStateException("Service not found: " + interfaceName);
+                }
+
+                // 按方法名和参数类型查找方法编号，之后由分发器按编号调用
+                method = service.findMethod(invocation.getMethodName(), invocation.getParameterTypes());
+                if (method == null) {
+                    throw new NoSuchMethodException(interfaceName + "." + invocation.getMethodName());
+                }
+                // 发布方法ID，消费者之后对本端点只发送方法ID
+                if (RpcConfig.isMethodIdEnabled() && service.isAddressable(method)) {
+                    response.setHeader(MethodRef.HEADER, new MethodRef(service.getServiceId(), method.getMethodId(),
+                        service.getTableVersion()).toWireValue());
+                }
             }
-            aClass = LocalRegister.get(interfaceName, version);*/
+            metrics = MetricsRegistry.getInstance().getProviderMetrics(interfaceName, invocation.getMethodName());
 
-            // 通过反射创建实例并执行方法
-            Object object = aClass.newInstance();
-            Method method = aClass.getMethod(invocation.getMethodName(), invocation.getParameterTypes());
+            // 解码期间过了截止时间的请求不再排队和执行
+            if (deadline != null && deadline.isExpired()) {
+                Deadline.recordDropped(Deadline.Stage.INVOKE);
+                rejectExpired(response);
+                expired = true;
+                return;
+            }
 
-            // 执行方法获取结果
-            String result = (String) method.invoke(object, invocation.getArguments());
+            // 服务或方法的隔离舱已满、或超过限流速率时直接拒绝，不执行也不排队
+            BulkheadRegistry.MethodGuard methodGuard = BulkheadRegistry.getInstance()
+                .getGuard(interfaceName, service.getImplementationClass(), method);
+            try {
+                methodGuard.acquire();
+            } catch (BulkheadRejectedException e) {
+                rejectLimited(response, e);
+                metrics.recordRejected();
+                metrics = null;
+                return;
+            }
+            guard = methodGuard;
 
-            // // 序列化结果并返回给客户端
-            IOUtils.write(result, response.getOutputStream());
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException(e);
-        } catch (NoSuchMethodException e) {
-            throw new RuntimeException(e);
+            // 单向调用：解码完成即确认，方法异步执行，不返回结果；队列已满时返回503。
+            // 流式参数依赖当前请求体，这类单向调用在请求线程上执行完再确认
+            if (invocation.isOneWay() && !streaming) {
+                // 隔离舱名额随任务交给单向调用执行器，执行完才归还
+                boolean accepted = OneWayInvoker.getInstance().submit(service, method, invocation.getArguments(), deadline, guard);
+                guard = null;
+                response.setStatus(accepted ? HttpServletResponse.SC_ACCEPTED : HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                response.setContentLength(0);
+                if (accepted) {
+                    succeeded = true;
+                } else {
+                    metrics.recordRejected();
+                    metrics = null;
+                }
+                return;
+            }
+
+            // 按调度等级和调用方排队获取执行名额，排到截止时间仍未轮到的请求不再执行
+            if (RpcConfig.isSchedulerEnabled()) {
+                PriorityClass priorityClass = PriorityClass.fromWireValue(invocation.getAttachment(PriorityClass.ATTACHMENT));
+                if (!FairScheduler.getInstance().acquire(priorityClass,
+                        invocation.getAttachment(FairScheduler.CALLER_ATTACHMENT),
+                        deadline == null ? 0L : deadline.getDeadlineNanos())) {
+                    Deadline.recordDropped(Deadline.Stage.QUEUED);
+                    rejectExpired(response);
+                    expired = true;
+                    return;
+                }
+                scheduled = priorityClass;
+            }
+
+            // 创建实例并执行方法获取结果，方法内可通过Deadline.current()查询剩余时间，下游调用自动继承
+            if (deadline != null) {
+                deadlineScope = deadline.makeCurrent();
+            }
+            inFlight = admission.inFlight(interfaceName, invocation.getMethodName());
+            inFlight.increment();
+            Object result = service.invoke(method, invocation.getArguments());
+            if (invocation.isOneWay()) {
+                response.setStatus(HttpServletResponse.SC_ACCEPTED);
+                succeeded = true;
+                return;
+            }
+
+            // 返回Iterator或Stream的方法按元素流式写出
+            if (StreamingResponseWriter.isStream(result)) {
+                new StreamingResponseWriter().write(result, response);
+                succeeded = true;
+                return;
+            }
+
+            // // 序列化结果并返回给客户端：UTF-8编码到租用的缓冲区，写出后归还
+            writeResult((String) result, request, response);
+            succeeded = true;
         } catch (InvocationTargetException e) {
+            failure = e.getCause();
+            // 服务方法通过Deadline.check()中止，按超时返回
+            if (failure instanceof DeadlineExceededException && !response.isCommitted()) {
+                Deadline.recordDropped(Deadline.Stage.INVOKE);
+                response.resetBuffer();
+                rejectExpired(response);
+                expired = true;
+                return;
+            }
             throw new RuntimeException(e);
-        } catch (InstantiationException e) {
-            throw new RuntimeException(e);
-        } catch (IllegalAccessException e) {
+        } catch (IOException | ClassNotFoundException | NoSuchMethodException e) {
+            failure = e;
             throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            if (scheduled != null) {
+                FairScheduler.getInstance().release(scheduled);
+            }
+            if (guard != null) {
+                guard.release();
+            }
+            if (inFlight != null) {
+                inFlight.decrement();
+            }
+            if (deadlineScope != null) {
+                deadlineScope.close();
+            }
+            if (scope != null) {
+                scope.close();
+            }
+            span.end(failure);
+            if (dispatchEvent != null) {
+                dispatchEvent.finish(invocation == null ? null : invocation.getInterfaceName(),
+                    invocation == null ? null : invocation.getMethodName(), "http",
+                    invocation != null && invocation.isOneWay(), span.getTraceId(), failure);
+            }
+            if (metrics != null) {
+                long elapsedNanos = System.nanoTime() - startNanos;
+                if (succeeded) {
+                    metrics.recordSuccess(elapsedNanos);
+                } else if (expired) {
+                    metrics.recordTimeout(elapsedNanos);
+                } else {
+                    metrics.recordError(elapsedNanos);
+                }
+            }
+            // 解压流持有本地内存，用完立即释放
+            if (requestBody != null && request.getHeader("Content-Encoding") != null) {
+                IOUtils.closeQuietly(requestBody);
+            }
+        }
+    }
+
+    /**
+     * 丢弃过期请求：返回504，客户端按超时处理
+     */
+    private static void rejectExpired(HttpServletResponse response) {
+        response.setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+        response.setContentLength(0);
+    }
+
+    /**
+     * 按方法ID找不到方法：返回404和不匹配标记，请求没有执行
+     */
+    private static void rejectMethodRefMismatch(HttpServletResponse response) {
+        response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        response.setHeader(MethodRef.MISMATCH_HEADER, "1");
+        response.setContentLength(0);
+    }
+
+    /**
+     * 隔离舱拒绝：返回429，带上被拒绝的分组和原因，客户端据此还原为类型化的拒绝
+     */
+    private static void rejectLimited(HttpServletResponse response, BulkheadRejectedException e) {
+        response.setStatus(429);
+        response.setHeader(BulkheadRejectedException.GROUP_HEADER, e.getGroup());
+        response.setHeader(BulkheadRejectedException.REASON_HEADER, e.getReason().name());
+        response.setContentLength(0);
+    }
+
+    /**
+     * 按请求的Content-Encoding边读边解压请求体
+     */
+    private static InputStream decodeRequestBody(HttpServletRequest request) throws IOException {
+        String contentEncoding = request.getHeader("Content-Encoding");
+        if (contentEncoding == null) {
+            return request.getInputStream();
+        }
+        CompressionCodec codec = CompressionCodecs.getInstance().get(contentEncoding);
+        if (codec == null) {
+            throw new IOException("Unsupported content encoding: " + contentEncoding);
+        }
+        return codec.decompressingStream(request.getInputStream());
+    }
+
+    /**
+     * 写出结果，超过阈值且客户端支持时按协商的编码压缩
+     */
+    private static void writeResult(String result, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (result == null) {
+            return;
+        }
+        CompressionCodecs compressionCodecs = CompressionCodecs.getInstance();
+        PooledByteArrayOutputStream body = new PooledByteArrayOutputStream(result.length());
+        try {
+            body.writeUtf8(result);
+            CompressionCodec codec = compressionCodecs.negotiate(request.getHeader("Accept-Encoding"));
+            PooledByteArrayOutputStream encoded = compressionCodecs.compressIfWorthwhile(codec, body);
+            if (encoded != body) {
+                response.setHeader("Content-Encoding", codec.name());
+                body = encoded;
+            }
+            response.setContentLength(body.size());
+            body.writeTo(response.getOutputStream());
+        } finally {
+            body.release();
         }
     }
 }
@@ -1,17 +1,54 @@
 package com.coldscholor.protocol;
 
+import com.coldscholor.buffer.PooledByteArrayOutputStream;
 import com.coldscholor.common.Invocation;
+import com.coldscholor.common.MethodDescriptor;
+import com.coldscholor.common.MethodRef;
+import com.coldscholor.compress.CompressionCodec;
+import com.coldscholor.compress.CompressionCodecs;
+import com.coldscholor.common.URL;
+import com.coldscholor.config.RpcConfig;
+import com.coldscholor.deadline.Deadline;
+import com.coldscholor.http.AsyncHttpConnectionPoolManager;
 import com.coldscholor.http.HttpConnectionPoolManager;
+import com.coldscholor.jfr.SerializeEvent;
+import com.coldscholor.limit.AdmissionController;
+import com.coldscholor.limit.BulkheadRejectedException;
+import com.coldscholor.limit.ProviderOverloadedException;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.SerializableEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.nio.protocol.BasicAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 
 /**
  * 改进的HTTP客户端
@@ -31,12 +68,28 @@ public class ImprovedHttpClient {
     /** HTTP客户端 */
     private final CloseableHttpClient httpClient;
     
+    /** 已预热过的端点地址 */
+    private final Set<String> warmedAddresses;
+    
+    /** 压缩编码 */
+    private final CompressionCodecs compressionCodecs;
+    
+    /** 各端点（host:port）声明支持的请求压缩编码 */
+    private final ConcurrentHashMap<String, CompressionCodec> endpointCodecs;
+    
+    /** 各端点（host:port）发布的方法ID，key为消费者端的方法描述 */
+    private final ConcurrentHashMap<String, Map<MethodDescriptor, MethodRef>> endpointMethodRefs;
+    
     /**
      * 私有构造函数
      */
     private ImprovedHttpClient() {
         this.connectionPoolManager = HttpConnectionPoolManager.getInstance();
         this.httpClient = connectionPoolManager.getHttpClient();
+        this.warmedAddresses = ConcurrentHashMap.newKeySet();
+        this.compressionCodecs = CompressionCodecs.getInstance();
+        this.endpointCodecs = new ConcurrentHashMap<>();
+        this.endpointMethodRefs = new ConcurrentHashMap<>();
     }
     
     /**
@@ -53,6 +106,25 @@ public class ImprovedHttpClient {
         return instance;
     }
 
+    /**
+     * 预热端点连接，按当前传输模式预热对应的连接池，每个端点只预热一次
+     * 
+     * @param urls 服务发现得到的端点
+     */
+    public void warmUp(List<URL> urls) {
+        for (URL url : urls) {
+            if (warmedAddresses.contains(url.getAddress()) || !warmedAddresses.add(url.getAddress())) {
+                continue;
+            }
+            HttpRoute route = new HttpRoute(new HttpHost(url.getHostName(), url.getPort()));
+            if ("ASYNC".equalsIgnoreCase(RpcConfig.getTransportMode())) {
+                AsyncHttpConnectionPoolManager.getInstance().warmUp(route);
+            } else {
+                connectionPoolManager.warmUp(route);
+            }
+        }
+    }
+    
     /**
      * 发送HTTP请求（通过URL）
      * 
@@ -62,47 +134,40 @@ public class ImprovedHttpClient {
      * @throws IOException IO异常
      */
     public String sendRequest(String url, Invocation invocation) throws IOException {
-        // 确保URL以/结尾
-        if (!url.endsWith("/")) {
-            url = url + "/";
+        return sendRequest(url, invocation, 0);
+    }
+    
+    /**
+     * 发送HTTP请求（指定本次请求的读取超时）
+     * 
+     * @param url 完整的URL
+     * @param invocation 调用信息
+     * @param timeoutMillis 读取超时(毫秒)，不大于0时使用连接池的默认配置
+     * @return 响应结果
+     * @throws IOException IO异常
+     */
+    public String sendRequest(String url, Invocation invocation, int timeoutMillis) throws IOException {
+        try {
+            return sendRequest(url, invocation, timeoutMillis, true);
+        } catch (MethodRefMismatchException e) {
+            // 提供者的方法表已经变化，按完整描述重发一次
+            forgetMethodRef(e.authority, invocation);
+            return sendRequest(url, invocation, timeoutMillis, false);
         }
-        
+    }
+    
+    /**
+     * @param allowCompact 端点发布过方法ID时是否使用紧凑形式
+     */
+    private String sendRequest(String url, Invocation invocation, int timeoutMillis, boolean allowCompact) throws IOException {
         // 创建POST请求
-        HttpPost httpPost = new HttpPost(url);
+        HttpPost httpPost = createPost(url, invocation, connectionPoolManager.getRequestConfig(), timeoutMillis, true,
+            allowCompact);
         
         try {
-            // 序列化请求对象
-            byte[] requestData = serializeInvocation(invocation);
-            
-            // 设置请求实体
-            HttpEntity requestEntity = new ByteArrayEntity(requestData);
-            httpPost.setEntity(requestEntity);
-            
-            // 设置请求头
-            httpPost.setHeader("Content-Type", "application/octet-stream");
-            httpPost.setHeader("User-Agent", "RPC-Client/1.0");
-            
             // 执行请求
             try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
-                // 检查响应状态
-                int statusCode = response.getStatusLine().getStatusCode();
-                if (statusCode != 200) {
-                    throw new IOException("HTTP request failed with status code: " + statusCode);
-                }
-                
-                // 获取响应实体
-                HttpEntity responseEntity = response.getEntity();
-                if (responseEntity == null) {
-                    throw new IOException("Empty response entity");
-                }
-                
-                // 读取响应内容
-                String result = EntityUtils.toString(responseEntity, "UTF-8");
-                
-                // 确保实体被完全消费
-                EntityUtils.consume(responseEntity);
-                
-                return result;
+                return readResponse(httpPost.getURI().getAuthority(), invocation, response);
             }
             
         } catch (IOException e) {
@@ -110,25 +175,464 @@ public class ImprovedHttpClient {
             httpPost.abort();
             throw e;
         } finally {
-            // HttpPost会自动释放连接，无需手动释放
+            // HttpPost会自动释放连接，无需手动释放；归还请求缓冲区
+            releaseEntity(httpPost);
+        }
+    }
+    
+    /**
+     * 发起流式调用，收到响应头后返回迭代器，元素在迭代时才逐个读取
+     * 流式调用使用阻塞连接池，迭代期间一直占用该连接，读取完毕或关闭迭代器时归还
+     * 
+     * @param url 完整的URL
+     * @param invocation 调用信息
+     * @return 结果元素的迭代器
+     * @throws IOException IO异常，或服务端没有返回流式结果
+     */
+    public <T> RpcStreamIterator<T> openStream(String url, Invocation invocation) throws IOException {
+        HttpPost httpPost = createPost(url, invocation, connectionPoolManager.getRequestConfig(), 0, true, false);
+        CloseableHttpResponse response;
+        try {
+            response = httpClient.execute(httpPost);
+        } finally {
+            releaseEntity(httpPost);
+        }
+        rememberEndpointCodec(httpPost.getURI().getAuthority(), response);
+        rememberMethodRef(httpPost.getURI().getAuthority(), invocation, response);
+        try {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode != 200) {
+                throw statusException(httpPost.getURI().getAuthority(), response);
+            }
+            if (response.getFirstHeader(StreamingResponseWriter.STREAM_HEADER) == null || response.getEntity() == null) {
+                throw new IOException("Provider did not return a stream for " + invocation.getMethodName());
+            }
+            return new RpcStreamIterator<>(response, response.getEntity().getContent());
+        } catch (IOException | RuntimeException e) {
+            response.close();
+            throw e;
         }
     }
     
     /**
-     * 序列化Invocation对象
+     * 异步发送HTTP请求（NIO事件驱动）
+     * 请求发出后不占用任何线程，响应到达时由I/O线程回调完成Future
+     * 
+     * @param url 完整的URL
+     * @param invocation 调用信息
+     * @return 响应结果的Future
+     */
+    public CompletableFuture<String> sendRequestAsync(String url, Invocation invocation) {
+        return sendRequestAsync(url, invocation, 0);
+    }
+    
+    /**
+     * 异步发送HTTP请求（指定本次请求的读取超时）
+     * 取消返回的Future会中止底层的HTTP交换，立即归还连接
+     * 
+     * @param url 完整的URL
+     * @param invocation 调用信息
+     * @param timeoutMillis 读取超时(毫秒)，不大于0时使用连接池的默认配置
+     * @return 响应结果的Future
+     */
+    public CompletableFuture<String> sendRequestAsync(String url, Invocation invocation, int timeoutMillis) {
+        return sendRequestAsync(url, invocation, timeoutMillis, true);
+    }
+    
+    /**
+     * @param allowCompact 端点发布过方法ID时是否使用紧凑形式
      */
-    private byte[] serializeInvocation(Invocation invocation) throws IOException {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+    private CompletableFuture<String> sendRequestAsync(String url, Invocation invocation, int timeoutMillis,
+                                                       boolean allowCompact) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        AsyncHttpConnectionPoolManager asyncPoolManager = AsyncHttpConnectionPoolManager.getInstance();
+        HttpPost httpPost;
+        PooledByteArrayOutputStream body;
+        try {
+            httpPost = createPost(url, invocation, asyncPoolManager.getRequestConfig(), timeoutMillis, false, allowCompact);
+            body = ((PooledInvocationEntity) httpPost.getEntity()).body;
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        
+        // 请求缓冲区和响应缓冲区在交换结束（完成、失败或取消）时由HttpAsyncClient关闭生产者/消费者时归还
+        HttpAsyncRequestProducer requestProducer = new BasicAsyncRequestProducer(
+            URIUtils.extractHost(httpPost.getURI()), httpPost) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    body.release();
+                }
+            }
+        };
+        Future<String> exchange;
+        try {
+            exchange = asyncPoolManager.getHttpAsyncClient().execute(
+                requestProducer, new PooledResponseConsumer(httpPost.getURI().getAuthority(), invocation), new FutureCallback<String>() {
+                @Override
+                public void completed(String result) {
+                    future.complete(result);
+                }
             
-            oos.writeObject(invocation);
-            oos.flush();
+                @Override
+                public void failed(Exception e) {
+                    if (e instanceof MethodRefMismatchException) {
+                        // 提供者的方法表已经变化，按完整描述重发一次
+                        forgetMethodRef(((MethodRefMismatchException) e).authority, invocation);
+                        CompletableFuture<String> retry = sendRequestAsync(url, invocation, timeoutMillis, false);
+                        retry.whenComplete((result, throwable) -> {
+                            if (throwable == null) {
+                                future.complete(result);
+                            } else {
+                                future.completeExceptionally(throwable);
+                            }
+                        });
+                        future.whenComplete((result, throwable) -> {
+                            if (throwable instanceof CancellationException) {
+                                retry.cancel(false);
+                            }
+                        });
+                        return;
+                    }
+                    future.completeExceptionally(e);
+                }
             
-            return baos.toByteArray();
+                @Override
+                public void cancelled() {
+                    future.cancel(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            // 客户端已关闭，交换没有开始
+            body.release();
+            future.completeExceptionally(e);
+            return future;
         }
+        future.whenComplete((result, throwable) -> {
+            if (throwable instanceof CancellationException) {
+                exchange.cancel(true);
+            }
+        });
+        return future;
+    }
+    
+    /**
+     * 创建POST请求
+     * 阻塞传输直接把调用信息序列化到连接上；带流式参数的调用在请求头之后分块发送参数内容；
+     * NIO传输、以及端点支持压缩时需要先序列化到内存，序列化到从缓冲池租用的缓冲区，
+     * 超过阈值时按端点协商的编码压缩，交换结束后归还；端点发布过该方法的方法ID时发送紧凑形式
+     * 
+     * @param blocking 是否由阻塞连接池发送
+     * @param allowCompact 是否允许使用紧凑形式
+     */
+    private HttpPost createPost(String url, Invocation invocation, RequestConfig requestConfig,
+                                int timeoutMillis, boolean blocking, boolean allowCompact) throws IOException {
+        // 确保URL以/结尾
+        if (!url.endsWith("/")) {
+            url = url + "/";
+        }
+        
+        HttpPost httpPost = new HttpPost(url);
+        // 每个请求带上连接池当前的请求配置，超时配置重新加载后对之后的请求生效
+        httpPost.setConfig(timeoutMillis > 0
+            ? RequestConfig.copy(requestConfig).setSocketTimeout(timeoutMillis).build() : requestConfig);
+        
+        // 设置请求实体
+        String contentType = "application/octet-stream";
+        HttpEntity requestEntity;
+        if (StreamArgument.hasStreamArguments(invocation.getArguments())) {
+            if (!blocking) {
+                throw new IOException("Stream arguments require the blocking transport");
+            }
+            requestEntity = new StreamingInvocationEntity(invocation);
+            contentType = StreamArgument.CONTENT_TYPE;
+        } else {
+            String authority = httpPost.getURI().getAuthority();
+            Invocation wire = allowCompact ? compactIfPublished(authority, invocation) : invocation;
+            // 端点支持压缩时先序列化到内存，才能按大小决定是否压缩
+            CompressionCodec codec = endpointCodecs.get(authority);
+            if (blocking && codec == null) {
+                requestEntity = new SerializableEntity(wire);
+            } else {
+                PooledInvocationEntity pooledEntity = serializeInvocation(invocation, wire, codec);
+                if (pooledEntity.compressed) {
+                    httpPost.setHeader("Content-Encoding", codec.name());
+                }
+                requestEntity = pooledEntity;
+            }
+        }
+        httpPost.setEntity(requestEntity);
+        
+        // 设置请求头
+        httpPost.setHeader("Content-Type", contentType);
+        httpPost.setHeader("User-Agent", "RPC-Client/1.0");
+        // 截止时间同时放在请求头中，服务端解码前就能丢弃过期请求
+        String deadline = invocation.getAttachment(Deadline.ATTACHMENT);
+        if (deadline != null) {
+            httpPost.setHeader(Deadline.HEADER, deadline);
+        }
+        String acceptEncoding = compressionCodecs.getAcceptEncoding();
+        if (acceptEncoding != null) {
+            httpPost.setHeader("Accept-Encoding", acceptEncoding);
+        }
+        return httpPost;
     }
-
     
+    /**
+     * 非200响应对应的异常：带过载标记的503表示服务端过载拒绝，请求没有执行；
+     * 带隔离舱分组的429表示服务或方法的并发上限、限流拒绝，同样没有执行；
+     * 504表示服务端因截止时间已过丢弃了请求，按超时处理；
+     * 带方法ID不匹配标记的404表示提供者按方法ID找不到方法，请求没有执行
+     */
+    private static IOException statusException(String authority, HttpResponse response) {
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (statusCode == 404 && response.getFirstHeader(MethodRef.MISMATCH_HEADER) != null) {
+            return new MethodRefMismatchException(authority);
+        }
+        if (statusCode == 503 && response.getFirstHeader(AdmissionController.OVERLOADED_HEADER) != null) {
+            return new ProviderOverloadedException(authority);
+        }
+        Header bulkhead = response.getFirstHeader(BulkheadRejectedException.GROUP_HEADER);
+        Header reason = response.getFirstHeader(BulkheadRejectedException.REASON_HEADER);
+        if (statusCode == 429 && bulkhead != null && reason != null) {
+            return new ProviderOverloadedException(authority, new BulkheadRejectedException(bulkhead.getValue(),
+                BulkheadRejectedException.Reason.valueOf(reason.getValue())));
+        }
+        if (statusCode == 504) {
+            return new InterruptedIOException("Provider dropped the call because its deadline expired");
+        }
+        return new IOException("HTTP request failed with status code: " + statusCode);
+    }
+    
+    /**
+     * 读取响应内容，响应体读入租用的缓冲区后解码
+     */
+    private String readResponse(String authority, Invocation invocation, HttpResponse response) throws IOException {
+        rememberEndpointCodec(authority, response);
+        rememberMethodRef(authority, invocation, response);
+        
+        // 检查响应状态，202为单向调用的确认，没有响应内容
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (statusCode == 202) {
+            EntityUtils.consumeQuietly(response.getEntity());
+            return null;
+        }
+        if (statusCode != 200) {
+            EntityUtils.consumeQuietly(response.getEntity());
+            throw statusException(authority, response);
+        }
+        
+        // 获取响应实体
+        HttpEntity responseEntity = response.getEntity();
+        if (responseEntity == null) {
+            throw new IOException("Empty response entity");
+        }
+        
+        // 读取响应内容，读到流结束即完全消费了实体
+        PooledByteArrayOutputStream body = new PooledByteArrayOutputStream(initialCapacity(responseEntity.getContentLength()));
+        try (InputStream content = responseEntity.getContent()) {
+            body.readFrom(content);
+        } catch (IOException | RuntimeException e) {
+            body.release();
+            throw e;
+        }
+        return decodeBody(response, body);
+    }
+    
+    /**
+     * 按Content-Length确定缓冲区初始容量，长度未知时从最小档位开始
+     */
+    private static int initialCapacity(long contentLength) {
+        return contentLength > 0 && contentLength < Integer.MAX_VALUE ? (int) contentLength : 1024;
+    }
+    
+    /**
+     * 序列化Invocation对象到租用的缓冲区，超过阈值时按端点协商的编码压缩，实体直接引用该缓冲区
+     *
+     * @param wire 实际发送的调用，完整形式或紧凑形式
+     * @param codec 端点支持的编码，为null时不压缩
+     */
+    private PooledInvocationEntity serializeInvocation(Invocation invocation, Invocation wire,
+                                                       CompressionCodec codec) throws IOException {
+        PooledByteArrayOutputStream body = new PooledByteArrayOutputStream();
+        PooledByteArrayOutputStream encoded;
+        SerializeEvent event = SerializeEvent.start();
+        try {
+            try (ObjectOutputStream oos = new ObjectOutputStream(body)) {
+                oos.writeObject(wire);
+            }
+            encoded = compressionCodecs.compressIfWorthwhile(codec, body);
+            if (event != null) {
+                event.finish(invocation.getInterfaceName(), encoded.size());
+            }
+        } catch (IOException | RuntimeException e) {
+            body.release();
+            throw e;
+        }
+        return new PooledInvocationEntity(encoded, encoded != body);
+    }
+    
+    /**
+     * 归还请求实体引用的缓冲区（阻塞传输收到响应时请求已经发送完毕）
+     */
+    private static void releaseEntity(HttpPost httpPost) {
+        if (httpPost.getEntity() instanceof PooledInvocationEntity) {
+            ((PooledInvocationEntity) httpPost.getEntity()).body.release();
+        }
+    }
+    
+    /**
+     * 记录端点在响应Accept-Encoding中声明支持的编码，决定后续请求是否压缩
+     */
+    private void rememberEndpointCodec(String authority, HttpResponse response) {
+        Header acceptEncoding = response.getFirstHeader("Accept-Encoding");
+        CompressionCodec codec = compressionCodecs.negotiate(acceptEncoding == null ? null : acceptEncoding.getValue());
+        if (codec == null) {
+            endpointCodecs.remove(authority);
+        } else if (endpointCodecs.get(authority) != codec) {
+            endpointCodecs.put(authority, codec);
+        }
+    }
+    
+    /**
+     * 记录端点在响应头中发布的方法ID；只接受和本端计算的方法ID一致的结果
+     */
+    private void rememberMethodRef(String authority, Invocation invocation, HttpResponse response) {
+        MethodDescriptor method = invocation.getMethodDescriptor();
+        Header header = method == null ? null : response.getFirstHeader(MethodRef.HEADER);
+        MethodRef methodRef = header == null ? null : MethodRef.fromWireValue(header.getValue());
+        if (methodRef != null && methodRef.getMethodId() == method.getMethodId() && RpcConfig.isMethodIdEnabled()) {
+            endpointMethodRefs.computeIfAbsent(authority, key -> new ConcurrentHashMap<>()).put(method, methodRef);
+        }
+    }
+    
+    private void forgetMethodRef(String authority, Invocation invocation) {
+        Map<MethodDescriptor, MethodRef> methodRefs = endpointMethodRefs.get(authority);
+        if (methodRefs != null && invocation.getMethodDescriptor() != null) {
+            methodRefs.remove(invocation.getMethodDescriptor());
+        }
+    }
+    
+    /**
+     * 端点发布过该方法的方法ID时返回紧凑形式，否则返回原调用
+     */
+    private Invocation compactIfPublished(String authority, Invocation invocation) {
+        MethodDescriptor method = invocation.getMethodDescriptor();
+        Map<MethodDescriptor, MethodRef> methodRefs = method == null ? null : endpointMethodRefs.get(authority);
+        MethodRef methodRef = methodRefs == null ? null : methodRefs.get(method);
+        return methodRef == null ? invocation : invocation.compact(methodRef);
+    }
+    
+    /**
+     * 按响应的Content-Encoding解压并解码为字符串，缓冲区用完归还
+     */
+    private String decodeBody(HttpResponse response, PooledByteArrayOutputStream body) throws IOException {
+        Header contentEncoding = response.getFirstHeader("Content-Encoding");
+        PooledByteArrayOutputStream decoded = body;
+        try {
+            decoded = compressionCodecs.decompress(contentEncoding == null ? null : contentEncoding.getValue(), body);
+            return decoded.toString(StandardCharsets.UTF_8);
+        } finally {
+            decoded.release();
+        }
+    }
+    
+    /**
+     * 引用租用缓冲区的请求实体
+     */
+    private static class PooledInvocationEntity extends ByteArrayEntity {
+        private final PooledByteArrayOutputStream body;
+        
+        /** 是否已压缩 */
+        private final boolean compressed;
+        
+        private PooledInvocationEntity(PooledByteArrayOutputStream body, boolean compressed) {
+            super(body.array(), 0, body.size());
+            this.body = body;
+            this.compressed = compressed;
+        }
+    }
+    
+    /**
+     * 把响应体直接读入租用缓冲区的响应消费者，结果在I/O线程上解码，缓冲区在交换结束时归还
+     */
+    private class PooledResponseConsumer extends AbstractAsyncResponseConsumer<String> {
+        private final String authority;
+        private final Invocation invocation;
+        private HttpResponse response;
+        private PooledByteArrayOutputStream body;
+        
+        private PooledResponseConsumer(String authority, Invocation invocation) {
+            this.authority = authority;
+            this.invocation = invocation;
+        }
+        
+        @Override
+        protected void onResponseReceived(HttpResponse response) {
+            this.response = response;
+            rememberEndpointCodec(authority, response);
+            rememberMethodRef(authority, invocation, response);
+        }
+        
+        @Override
+        protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) {
+            body = new PooledByteArrayOutputStream(initialCapacity(entity.getContentLength()));
+        }
+        
+        @Override
+        protected void onContentReceived(ContentDecoder decoder, IOControl ioControl) throws IOException {
+            int read;
+            do {
+                read = decoder.read(body.writableBuffer(1024));
+                if (read > 0) {
+                    body.advance(read);
+                }
+            } while (read > 0);
+        }
+        
+        @Override
+        protected String buildResult(HttpContext context) throws IOException {
+            // 检查响应状态，202为单向调用的确认，没有响应内容
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode == 202) {
+                return null;
+            }
+            if (statusCode != 200) {
+                throw statusException(authority, response);
+            }
+            if (body == null) {
+                throw new IOException("Empty response entity");
+            }
+            PooledByteArrayOutputStream received = body;
+            body = null;
+            return decodeBody(response, received);
+        }
+        
+        @Override
+        protected void releaseResources() {
+            if (body != null) {
+                body.release();
+                body = null;
+            }
+            response = null;
+        }
+    }
+
+    /**
+     * 提供者按方法ID找不到方法，请求没有执行，由客户端按完整描述重发
+     */
+    private static class MethodRefMismatchException extends IOException {
+        private final String authority;
+        
+        private MethodRefMismatchException(String authority) {
+            super("Provider " + authority + " does not recognize the method ID");
+            this.authority = authority;
+        }
+    }
+
     /**
      * HTTP回调接口
      */
@@ -0,0 +1,192 @@
+package com.coldscholor.protocol;
+
+import com.coldscholor.buffer.PooledByteArrayOutputStream;
+import com.coldscholor.circuitbreaker.CircuitBreakerManager;
+import com.coldscholor.circuitbreaker.CircuitBreakerOpenException;
+import com.coldscholor.circuitbreaker.EndpointCircuitBreaker;
+import com.coldscholor.common.MethodDescriptor;
+import com.coldscholor.common.URL;
+import com.coldscholor.config.RpcConfig;
+import com.coldscholor.deadline.Deadline;
+import com.coldscholor.metrics.CallMetrics;
+import com.coldscholor.metrics.MetricsRegistry;
+import com.coldscholor.register.ExportedService;
+import com.coldscholor.register.LocalRegister;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内调用：服务在当前JVM中通过LocalRegister导出时，代理直接通过服务的分发器调用本地实现，
+ * 不经过序列化、HTTP和Tomcat。熔断器按虚拟端点in-jvm:0和方法统计，与远程端点一致；
+ * 可选地通过序列化对参数做防御性拷贝，保持和远程调用相同的值语义。
+ * 调用指标同样按虚拟端点记录，便于和远程调用对比
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class LocalInvoker {
+
+    /** 进程内调用的虚拟端点，用于熔断器和异常端点统计 */
+    public static final URL LOCAL_URL = new URL("in-jvm", 0);
+
+    /** 单例实例 */
+    private static volatile LocalInvoker instance;
+
+    /** 熔断器管理器 */
+    private final CircuitBreakerManager circuitBreakerManager;
+
+    /** 调用指标注册表 */
+    private final MetricsRegistry metricsRegistry;
+
+    /** 是否拷贝参数 */
+    private final boolean copyArguments;
+
+    /** 进程内调用次数 */
+    private final LongAdder callCount = new LongAdder();
+
+    /** 进程内调用抛出异常的次数 */
+    private final LongAdder errorCount = new LongAdder();
+
+    LocalInvoker(boolean copyArguments) {
+        this.circuitBreakerManager = CircuitBreakerManager.getInstance();
+        this.metricsRegistry = MetricsRegistry.getInstance();
+        this.copyArguments = copyArguments;
+    }
+
+    /**
+     * 获取单例实例
+     */
+    public static LocalInvoker getInstance() {
+        if (instance == null) {
+            synchronized (LocalInvoker.class) {
+                if (instance == null) {
+                    instance = new LocalInvoker(RpcConfig.isLocalCallCopyArguments());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 服务是否在当前JVM中导出，且开启了进程内调用
+     */
+    public boolean isExported(String interfaceName) {
+        return RpcConfig.isLocalShortCircuit() && LocalRegister.getService(interfaceName, "1.0") != null;
+    }
+
+    /**
+     * 直接调用本地实现，和服务端一样每次调用创建实现类实例
+     *
+     * @param interfaceName 接口名
+     * @param method 接口方法
+     * @param arguments 调用参数
+     * @return 调用结果
+     * @throws CircuitBreakerOpenException 该方法的进程内熔断器处于打开状态
+     * @throws Throwable 服务实现抛出的异常
+     */
+    public Object invoke(String interfaceName, MethodDescriptor method, Object[] arguments) throws Throwable {
+        String serviceName = interfaceName + "." + method.getName();
+        EndpointCircuitBreaker circuitBreaker = circuitBreakerManager.getOrCreateCircuitBreaker(LOCAL_URL, serviceName);
+        CallMetrics metrics = metricsRegistry.getConsumerMetrics(LOCAL_URL, serviceName);
+        if (!circuitBreaker.tryAcquirePermission()) {
+            metrics.recordRejected();
+            throw new CircuitBreakerOpenException(circuitBreaker.getName());
+        }
+        callCount.increment();
+        long startNanos = System.nanoTime();
+        try {
+            ExportedService service = exportedService(interfaceName);
+            Object result = service.invoke(exportedMethod(service, method), copy(arguments));
+            circuitBreakerManager.onSuccess(LOCAL_URL, circuitBreaker);
+            metrics.recordSuccess(System.nanoTime() - startNanos);
+            return result;
+        } catch (InvocationTargetException e) {
+            errorCount.increment();
+            circuitBreakerManager.onError(LOCAL_URL, circuitBreaker);
+            metrics.recordError(System.nanoTime() - startNanos);
+            throw e.getTargetException();
+        } catch (RuntimeException e) {
+            errorCount.increment();
+            circuitBreakerManager.onError(LOCAL_URL, circuitBreaker);
+            metrics.recordError(System.nanoTime() - startNanos);
+            throw e;
+        }
+    }
+
+    /**
+     * 单向调用：放入单向调用线程池执行，队列已满时丢弃
+     *
+     * @return 是否排队成功
+     */
+    public boolean submitOneWay(String interfaceName, MethodDescriptor method, Object[] arguments) {
+        callCount.increment();
+        long startNanos = System.nanoTime();
+        CallMetrics metrics = metricsRegistry.getConsumerMetrics(LOCAL_URL, interfaceName + "." + method.getName());
+        ExportedService service = exportedService(interfaceName);
+        boolean accepted = OneWayInvoker.getInstance().submit(service, exportedMethod(service, method), copy(arguments),
+            Deadline.current());
+        if (accepted) {
+            metrics.recordSuccess(System.nanoTime() - startNanos);
+        } else {
+            metrics.recordRejected();
+        }
+        return accepted;
+    }
+
+    private static ExportedService exportedService(String interfaceName) {
+        ExportedService service = LocalRegister.getService(interfaceName, "1.0");
+        if (service == null) {
+            throw new IllegalStateException("Service is no longer exported locally: " + interfaceName);
+        }
+        return service;
+    }
+
+    /**
+     * 调用方接口方法在本地导出服务中对应的方法
+     */
+    private static MethodDescriptor exportedMethod(ExportedService service, MethodDescriptor method) {
+        MethodDescriptor exported = service.findMethod(method.getName(), method.getParameterTypes());
+        if (exported == null) {
+            throw new IllegalStateException("Method is not exported locally: " + service.getInterfaceName() + "." + method);
+        }
+        return exported;
+    }
+
+    /**
+     * 通过序列化深拷贝参数，避免服务实现修改调用方的对象
+     */
+    Object[] copy(Object[] arguments) {
+        if (!copyArguments || arguments == null || arguments.length == 0) {
+            return arguments;
+        }
+        PooledByteArrayOutputStream buffer = new PooledByteArrayOutputStream();
+        try {
+            try (ObjectOutputStream oos = new ObjectOutputStream(buffer)) {
+                oos.writeObject(arguments);
+            }
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(buffer.array(), 0, buffer.size()))) {
+                return (Object[]) ois.readObject();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to copy arguments", e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Failed to copy arguments", e);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    public long getCallCount() {
+        return callCount.sum();
+    }
+
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+}
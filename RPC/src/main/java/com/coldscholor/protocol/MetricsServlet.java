@@ -0,0 +1,25 @@
+package com.coldscholor.protocol;
+
+import com.coldscholor.metrics.PrometheusExporter;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Prometheus抓取端点，和DispatcherServlet挂在同一个Tomcat上
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class MetricsServlet extends HttpServlet {
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        byte[] body = PrometheusExporter.scrape().getBytes(StandardCharsets.UTF_8);
+        resp.setContentType(PrometheusExporter.CONTENT_TYPE);
+        resp.setContentLength(body.length);
+        resp.getOutputStream().write(body);
+    }
+}
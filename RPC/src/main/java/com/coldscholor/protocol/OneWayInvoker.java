@@ -0,0 +1,121 @@
+package com.coldscholor.protocol;
+
+import com.coldscholor.common.MethodDescriptor;
+import com.coldscholor.deadline.Deadline;
+import com.coldscholor.limit.BulkheadRegistry;
+import com.coldscholor.register.ExportedService;
+import com.coldscholor.threadpool.ThreadPoolManager;
+import com.coldscholor.trace.Scope;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 服务端单向调用执行器
+ * 单向调用在确认后放入单向调用线程池异步执行，不再占用请求处理线程；
+ * 队列已满时直接丢弃，排队期间过了截止时间的调用不再执行，分别统计接收、执行完成、执行失败和丢弃次数
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class OneWayInvoker {
+
+    /** 单例实例 */
+    private static volatile OneWayInvoker instance;
+
+    /** 已接收（排队成功）的调用数 */
+    private final LongAdder acceptedCount = new LongAdder();
+
+    /** 执行完成的调用数 */
+    private final LongAdder completedCount = new LongAdder();
+
+    /** 执行抛出异常的调用数 */
+    private final LongAdder failedCount = new LongAdder();
+
+    /** 队列已满被丢弃的调用数 */
+    private final LongAdder droppedCount = new LongAdder();
+
+    private OneWayInvoker() {
+    }
+
+    /**
+     * 获取单例实例
+     */
+    public static OneWayInvoker getInstance() {
+        if (instance == null) {
+            synchronized (OneWayInvoker.class) {
+                if (instance == null) {
+                    instance = new OneWayInvoker();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 提交单向调用
+     *
+     * @param service 导出的服务
+     * @param method 目标方法
+     * @param arguments 调用参数
+     * @param deadline 调用方传递的截止时间，没有时为null
+     * @return 是否排队成功，队列已满时返回false
+     */
+    public boolean submit(ExportedService service, MethodDescriptor method, Object[] arguments, Deadline deadline) {
+        return submit(service, method, arguments, deadline, BulkheadRegistry.MethodGuard.NONE);
+    }
+
+    /**
+     * 提交已占用隔离舱名额的单向调用，名额在执行结束、丢弃或排队失败时归还
+     */
+    public boolean submit(ExportedService service, MethodDescriptor method, Object[] arguments, Deadline deadline,
+                          BulkheadRegistry.MethodGuard guard) {
+        try {
+            ThreadPoolManager.getInstance().getOneWayExecutor().execute(() -> {
+                try {
+                    invoke(service, method, arguments, deadline);
+                } finally {
+                    guard.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            guard.release();
+            droppedCount.increment();
+            return false;
+        }
+        acceptedCount.increment();
+        return true;
+    }
+
+    private void invoke(ExportedService service, MethodDescriptor method, Object[] arguments, Deadline deadline) {
+        if (deadline != null && deadline.isExpired()) {
+            Deadline.recordDropped(Deadline.Stage.QUEUED);
+            droppedCount.increment();
+            return;
+        }
+        try (Scope scope = deadline == null ? null : deadline.makeCurrent()) {
+            service.invoke(method, arguments);
+            completedCount.increment();
+        } catch (InvocationTargetException e) {
+            failedCount.increment();
+            System.err.println("One-way call " + method.getName() + " failed: " + e.getTargetException());
+        }
+    }
+
+    public long getAcceptedCount() {
+        return acceptedCount.sum();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+}
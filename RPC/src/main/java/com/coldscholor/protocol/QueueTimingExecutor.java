@@ -0,0 +1,38 @@
+package com.coldscholor.protocol;
+
+import com.coldscholor.limit.AdmissionController;
+import org.apache.tomcat.util.threads.TaskQueue;
+import org.apache.tomcat.util.threads.TaskThreadFactory;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tomcat工作线程池，记录每个任务在队列中等待的时间
+ * 线程池和Tomcat内部创建的一样（优先新建线程、线程用满后才排队），
+ * 任务开始执行时把排队时间交给AdmissionController，由请求处理线程判断是否准入
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+class QueueTimingExecutor implements Executor {
+
+    private final ThreadPoolExecutor delegate;
+
+    QueueTimingExecutor(String namePrefix, int minSpareThreads, int maxThreads) {
+        TaskQueue queue = new TaskQueue();
+        this.delegate = new ThreadPoolExecutor(minSpareThreads, maxThreads, 60, TimeUnit.SECONDS, queue,
+            new TaskThreadFactory(namePrefix + "-exec-", true, Thread.NORM_PRIORITY));
+        queue.setParent(delegate);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        long enqueuedNanos = System.nanoTime();
+        delegate.execute(() -> {
+            AdmissionController.setQueueSojourn(System.nanoTime() - enqueuedNanos);
+            command.run();
+        });
+    }
+}
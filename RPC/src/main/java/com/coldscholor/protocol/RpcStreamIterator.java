@@ -0,0 +1,143 @@
+package com.coldscholor.protocol;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.util.EntityUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 流式调用结果的客户端迭代器
+ * 调用方每取一个元素才从响应体中读取一帧，未读取的数据留在TCP缓冲区中，
+ * 服务端因此被阻塞而不会继续生产，读取完毕或关闭时归还连接
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class RpcStreamIterator<T> implements Iterator<T>, Closeable {
+
+    /** HTTP响应，持有连接直到关闭 */
+    private final CloseableHttpResponse response;
+
+    /** 帧读取流 */
+    private final ObjectInputStream ois;
+
+    /** 已读取但未取走的元素 */
+    private T next;
+
+    /** 是否已预读下一个元素 */
+    private boolean prefetched;
+
+    /** 是否已结束 */
+    private boolean finished;
+
+    /** 连接归还时的回调 */
+    private Runnable releaseHook;
+
+    RpcStreamIterator(CloseableHttpResponse response, InputStream content) throws IOException {
+        this.response = response;
+        this.ois = new ObjectInputStream(content);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (finished) {
+            return false;
+        }
+        if (!prefetched) {
+            readFrame();
+        }
+        return !finished;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        prefetched = false;
+        T element = next;
+        next = null;
+        return element;
+    }
+
+    /**
+     * 注册连接归还时的回调，读完、出错或被关闭时只执行一次；已经结束时立即执行
+     */
+    public void onRelease(Runnable hook) {
+        if (finished) {
+            hook.run();
+            return;
+        }
+        this.releaseHook = hook;
+    }
+
+    /**
+     * 转换为Stream，关闭Stream时关闭连接
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+            .onClose(this::close);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readFrame() {
+        try {
+            byte frame = ois.readByte();
+            if (frame == StreamingResponseWriter.FRAME_ELEMENT) {
+                next = (T) ois.readObject();
+                prefetched = true;
+                return;
+            }
+            String error = frame == StreamingResponseWriter.FRAME_ERROR ? ois.readUTF() : null;
+            // 正常读到结束帧时读完分块结尾，连接可以复用
+            release(true);
+            if (error != null) {
+                throw new IllegalStateException("Stream failed on provider: " + error);
+            }
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("Failed to read stream frame", e);
+        } catch (ClassNotFoundException e) {
+            close();
+            throw new IllegalStateException("Failed to decode stream element", e);
+        }
+    }
+
+    /**
+     * 关闭流；未读完就关闭时直接断开连接，不再读完剩余数据
+     */
+    @Override
+    public void close() {
+        release(false);
+    }
+
+    private void release(boolean reuse) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            if (reuse) {
+                EntityUtils.consume(response.getEntity());
+            }
+            response.close();
+        } catch (IOException e) {
+            // 忽略关闭异常
+        }
+        Runnable hook = releaseHook;
+        releaseHook = null;
+        if (hook != null) {
+            hook.run();
+        }
+    }
+}
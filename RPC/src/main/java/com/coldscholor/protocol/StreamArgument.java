@@ -0,0 +1,67 @@
+package com.coldscholor.protocol;
+
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * 流式参数占位符
+ * InputStream、ReadableByteChannel和ByteBuffer类型的参数不随调用信息序列化，
+ * 请求头中只保留该占位符，参数内容按参数顺序以分帧方式跟在请求头之后
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class StreamArgument implements Serializable {
+
+    /** 流式请求的Content-Type */
+    public static final String CONTENT_TYPE = "application/x-rpc-stream";
+
+    /** 参数的原始类型 */
+    enum Kind {
+        INPUT_STREAM, CHANNEL, BYTE_BUFFER
+    }
+
+    /** 参数类型 */
+    private final Kind kind;
+
+    /** 内容长度，未知时为-1 */
+    private final long length;
+
+    StreamArgument(Kind kind, long length) {
+        this.kind = kind;
+        this.length = length;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    long getLength() {
+        return length;
+    }
+
+    /**
+     * 判断参数是否按流式发送
+     */
+    public static boolean isStreamArgument(Object argument) {
+        return argument instanceof InputStream || argument instanceof ReadableByteChannel
+            || argument instanceof ByteBuffer;
+    }
+
+    /**
+     * 判断调用参数中是否有流式参数
+     */
+    public static boolean hasStreamArguments(Object[] arguments) {
+        if (arguments == null) {
+            return false;
+        }
+        for (Object argument : arguments) {
+            if (isStreamArgument(argument)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
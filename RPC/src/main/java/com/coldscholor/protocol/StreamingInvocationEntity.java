@@ -0,0 +1,188 @@
+package com.coldscholor.protocol;
+
+import com.coldscholor.common.Invocation;
+import com.coldscholor.config.RpcConfig;
+import org.apache.http.entity.AbstractHttpEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 带流式参数的请求体，以分块(chunked)方式边读边发，不在堆中拼出完整请求
+ *
+ * 格式：int 请求头长度 + 序列化的调用信息（流式参数替换为StreamArgument），
+ * 然后按参数顺序写出每个流式参数：若干个(int 帧长度 + 数据)，以长度0结束。
+ * 文件来源通过FileChannel.transferTo写出，由JDK选择最少拷贝的传输方式
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class StreamingInvocationEntity extends AbstractHttpEntity {
+
+    /** 单帧的最大长度，文件来源按该长度分帧传输 */
+    private static final int MAX_TRANSFER_FRAME = 8 * 1024 * 1024;
+
+    /** 调用信息 */
+    private final Invocation invocation;
+
+    public StreamingInvocationEntity(Invocation invocation) {
+        this.invocation = invocation;
+        setContentType(StreamArgument.CONTENT_TYPE);
+        setChunked(true);
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        Object[] arguments = invocation.getArguments();
+        Object[] headerArguments = arguments.clone();
+        for (int i = 0; i < arguments.length; i++) {
+            if (StreamArgument.isStreamArgument(arguments[i])) {
+                headerArguments[i] = placeholder(arguments[i]);
+            }
+        }
+        Invocation header = new Invocation(invocation.getInterfaceName(), invocation.getMethodName(),
+            invocation.getParameterTypes(), headerArguments);
+        header.setOneWay(invocation.isOneWay());
+        header.putAttachments(invocation.getAttachments());
+
+        // 请求头只包含调用信息和占位符，体积很小
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream oos = new ObjectOutputStream(headerBytes)) {
+            oos.writeObject(header);
+        }
+        DataOutputStream out = new DataOutputStream(outStream);
+        out.writeInt(headerBytes.size());
+        headerBytes.writeTo(out);
+
+        byte[] buffer = null;
+        for (Object argument : arguments) {
+            if (!StreamArgument.isStreamArgument(argument)) {
+                continue;
+            }
+            FileChannel fileChannel = fileChannel(argument);
+            if (fileChannel != null) {
+                transferFile(fileChannel, out);
+                continue;
+            }
+            if (buffer == null) {
+                buffer = new byte[RpcConfig.getStreamArgumentChunkSize()];
+            }
+            if (argument instanceof ByteBuffer) {
+                writeBuffer(((ByteBuffer) argument).duplicate(), out, buffer);
+            } else if (argument instanceof InputStream) {
+                writeStream((InputStream) argument, out, buffer);
+            } else {
+                writeStream(Channels.newInputStream((ReadableByteChannel) argument), out, buffer);
+            }
+            out.writeInt(0);
+        }
+        out.flush();
+    }
+
+    private static StreamArgument placeholder(Object argument) throws IOException {
+        if (argument instanceof ByteBuffer) {
+            return new StreamArgument(StreamArgument.Kind.BYTE_BUFFER, ((ByteBuffer) argument).remaining());
+        }
+        FileChannel fileChannel = fileChannel(argument);
+        long length = fileChannel == null ? -1 : fileChannel.size() - fileChannel.position();
+        return new StreamArgument(argument instanceof InputStream
+            ? StreamArgument.Kind.INPUT_STREAM : StreamArgument.Kind.CHANNEL, length);
+    }
+
+    /**
+     * 文件来源的参数返回对应的FileChannel
+     */
+    private static FileChannel fileChannel(Object argument) {
+        if (argument instanceof FileChannel) {
+            return (FileChannel) argument;
+        }
+        if (argument instanceof FileInputStream) {
+            return ((FileInputStream) argument).getChannel();
+        }
+        return null;
+    }
+
+    /**
+     * 文件从当前位置传输到末尾，传输完成后位置移到末尾，与读取流的语义一致
+     */
+    private static void transferFile(FileChannel fileChannel, DataOutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        long position = fileChannel.position();
+        long end = fileChannel.size();
+        while (position < end) {
+            int frame = (int) Math.min(MAX_TRANSFER_FRAME, end - position);
+            out.writeInt(frame);
+            long frameEnd = position + frame;
+            while (position < frameEnd) {
+                long transferred = fileChannel.transferTo(position, frameEnd - position, target);
+                if (transferred <= 0) {
+                    throw new IOException("File truncated while sending stream argument");
+                }
+                position += transferred;
+            }
+        }
+        fileChannel.position(position);
+        out.writeInt(0);
+    }
+
+    private static void writeBuffer(ByteBuffer source, DataOutputStream out, byte[] buffer) throws IOException {
+        if (source.hasArray()) {
+            int offset = source.arrayOffset() + source.position();
+            int remaining = source.remaining();
+            while (remaining > 0) {
+                int frame = Math.min(buffer.length, remaining);
+                out.writeInt(frame);
+                out.write(source.array(), offset, frame);
+                offset += frame;
+                remaining -= frame;
+            }
+            return;
+        }
+        while (source.hasRemaining()) {
+            int frame = Math.min(buffer.length, source.remaining());
+            source.get(buffer, 0, frame);
+            out.writeInt(frame);
+            out.write(buffer, 0, frame);
+        }
+    }
+
+    private static void writeStream(InputStream source, DataOutputStream out, byte[] buffer) throws IOException {
+        int read;
+        while ((read = source.read(buffer)) != -1) {
+            if (read > 0) {
+                out.writeInt(read);
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public InputStream getContent() {
+        throw new UnsupportedOperationException("Streaming invocation entity can only be written");
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return true;
+    }
+}
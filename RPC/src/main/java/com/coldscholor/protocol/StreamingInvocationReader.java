@@ -0,0 +1,164 @@
+package com.coldscholor.protocol;
+
+import com.coldscholor.common.Invocation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 服务端解析带流式参数的请求，格式见StreamingInvocationEntity
+ * InputStream和ReadableByteChannel参数直接读取请求体，方法读取时才从网络接收数据；
+ * 多个流式参数共用同一个请求体，必须按参数顺序读取。
+ * ByteBuffer参数在解析时读入内存，排在它前面且未读取的流参数会先被缓存
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class StreamingInvocationReader {
+
+    /** 请求体 */
+    private final DataInputStream in;
+
+    /** 当前可以读取的流式参数序号 */
+    private int currentIndex;
+
+    /** 当前帧剩余的字节数 */
+    private int frameRemaining;
+
+    public StreamingInvocationReader(InputStream body) {
+        this.in = new DataInputStream(body);
+    }
+
+    /**
+     * 读取调用信息，并把占位符替换为对应类型的参数
+     */
+    public Invocation readInvocation() throws IOException, ClassNotFoundException {
+        byte[] header = new byte[in.readInt()];
+        in.readFully(header);
+        Invocation invocation;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(header))) {
+            invocation = (Invocation) ois.readObject();
+        }
+
+        Object[] arguments = invocation.getArguments();
+        List<ArgumentInputStream> pendingStreams = new ArrayList<>();
+        int streamIndex = 0;
+        for (int i = 0; i < arguments.length; i++) {
+            if (!(arguments[i] instanceof StreamArgument)) {
+                continue;
+            }
+            StreamArgument placeholder = (StreamArgument) arguments[i];
+            int index = streamIndex++;
+            if (placeholder.getKind() == StreamArgument.Kind.BYTE_BUFFER) {
+                // ByteBuffer需要立即读出，前面未读取的流参数先缓存到内存
+                for (ArgumentInputStream pending : pendingStreams) {
+                    pending.bufferRemaining();
+                }
+                pendingStreams.clear();
+                arguments[i] = readBuffer(index, placeholder.getLength());
+                continue;
+            }
+            ArgumentInputStream stream = new ArgumentInputStream(index);
+            pendingStreams.add(stream);
+            arguments[i] = placeholder.getKind() == StreamArgument.Kind.INPUT_STREAM
+                ? stream : Channels.newChannel(stream);
+        }
+        return invocation;
+    }
+
+    private ByteBuffer readBuffer(int index, long length) throws IOException {
+        ByteArrayOutputStream bytes = length >= 0 ? null : new ByteArrayOutputStream();
+        ByteBuffer buffer = length >= 0 ? ByteBuffer.allocate((int) length) : null;
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = readFrameData(index, chunk, 0, chunk.length)) != -1) {
+            if (buffer != null) {
+                buffer.put(chunk, 0, read);
+            } else {
+                bytes.write(chunk, 0, read);
+            }
+        }
+        if (buffer == null) {
+            return ByteBuffer.wrap(bytes.toByteArray());
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * 从请求体中读取指定流式参数的数据，该参数读完时返回-1
+     */
+    private int readFrameData(int index, byte[] b, int off, int len) throws IOException {
+        if (index < currentIndex) {
+            return -1;
+        }
+        if (index > currentIndex) {
+            throw new IllegalStateException("Stream arguments must be read in parameter order");
+        }
+        if (frameRemaining == 0) {
+            frameRemaining = in.readInt();
+            if (frameRemaining == 0) {
+                currentIndex++;
+                return -1;
+            }
+        }
+        int read = in.read(b, off, Math.min(len, frameRemaining));
+        if (read < 0) {
+            throw new IOException("Request body ended inside a stream argument");
+        }
+        frameRemaining -= read;
+        return read;
+    }
+
+    /**
+     * 传给服务方法的流参数
+     */
+    private class ArgumentInputStream extends InputStream {
+
+        /** 流式参数序号 */
+        private final int index;
+
+        /** 被提前缓存时的数据 */
+        private InputStream buffered;
+
+        private ArgumentInputStream(int index) {
+            this.index = index;
+        }
+
+        private void bufferRemaining() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            int read;
+            while ((read = readFrameData(index, chunk, 0, chunk.length)) != -1) {
+                bytes.write(chunk, 0, read);
+            }
+            buffered = new ByteArrayInputStream(bytes.toByteArray());
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (buffered != null) {
+                return buffered.read(b, off, len);
+            }
+            if (len == 0) {
+                return 0;
+            }
+            return readFrameData(index, b, off, len);
+        }
+    }
+}
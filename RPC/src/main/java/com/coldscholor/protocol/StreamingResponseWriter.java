@@ -0,0 +1,91 @@
+package com.coldscholor.protocol;
+
+import com.coldscholor.config.RpcConfig;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
+
+/**
+ * 流式响应写出器
+ * 服务方法返回Iterator或Stream时，按元素逐个序列化写入分块(chunked)响应，不在堆中拼出完整结果。
+ * 元素只在写出前才从迭代器中拉取，客户端读得慢时写操作被TCP窗口阻塞，迭代器随之暂停，
+ * 两端内存只与套接字缓冲区和单个元素有关
+ *
+ * 帧格式：每帧一个类型字节，ELEMENT后跟序列化的元素，ERROR后跟错误信息，END表示结束
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class StreamingResponseWriter {
+
+    /** 标识流式响应的响应头 */
+    public static final String STREAM_HEADER = "X-RPC-Stream";
+
+    static final byte FRAME_ELEMENT = 1;
+    static final byte FRAME_END = 0;
+    static final byte FRAME_ERROR = 2;
+
+    /**
+     * 判断方法结果是否需要流式返回
+     */
+    public static boolean isStream(Object result) {
+        return result instanceof Iterator || result instanceof BaseStream;
+    }
+
+    /**
+     * 写出流式结果，写完或客户端提前关闭后关闭Stream
+     */
+    public void write(Object result, HttpServletResponse response) throws IOException {
+        response.setHeader(STREAM_HEADER, "1");
+        response.setContentType("application/octet-stream");
+
+        BaseStream<?, ?> stream = result instanceof BaseStream ? (BaseStream<?, ?>) result : null;
+        Iterator<?> iterator = stream != null ? stream.iterator() : (Iterator<?>) result;
+        ObjectOutputStream oos = new ObjectOutputStream(response.getOutputStream());
+        try {
+            int flushElements = RpcConfig.getStreamFlushElements();
+            long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(RpcConfig.getStreamFlushInterval());
+            long lastFlush = System.nanoTime();
+            int pending = 0;
+            while (true) {
+                Object element;
+                try {
+                    if (!iterator.hasNext()) {
+                        break;
+                    }
+                    element = iterator.next();
+                } catch (RuntimeException e) {
+                    // 响应头已经发出，生产元素失败时通过错误帧告知客户端
+                    oos.writeByte(FRAME_ERROR);
+                    oos.writeUTF(String.valueOf(e));
+                    oos.flush();
+                    return;
+                }
+                oos.writeByte(FRAME_ELEMENT);
+                oos.writeObject(element);
+                // 清空序列化句柄表，否则已写出的元素都会被引用住
+                oos.reset();
+
+                // 攒够一批或距上次刷新超过间隔时刷新一个分块，慢速生产的元素也能及时送达
+                long now = System.nanoTime();
+                if (++pending >= flushElements || now - lastFlush >= flushIntervalNanos) {
+                    oos.flush();
+                    pending = 0;
+                    lastFlush = now;
+                }
+            }
+            oos.writeByte(FRAME_END);
+            oos.flush();
+        } catch (IOException e) {
+            // 客户端提前关闭了流，停止生产即可，不作为服务端错误
+        } finally {
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+}
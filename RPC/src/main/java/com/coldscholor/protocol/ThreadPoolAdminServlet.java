@@ -0,0 +1,73 @@
+package com.coldscholor.protocol;
+
+import com.coldscholor.threadpool.InstrumentedThreadPoolExecutor;
+import com.coldscholor.threadpool.ThreadPoolManager;
+import com.coldscholor.threadpool.ThreadPoolStats;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 线程池管理端点
+ * GET 每行输出一个线程池的统计；
+ * POST ?name=rpc-client&core=4&max=16&queue=2000 在线调整，省略的参数保持不变，只接受本机请求
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class ThreadPoolAdminServlet extends HttpServlet {
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (ThreadPoolStats stats : ThreadPoolManager.getInstance().getPoolStats()) {
+            body.append(stats).append('\n');
+        }
+        write(resp, HttpServletResponse.SC_OK, body.toString());
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        if (!InetAddress.getByName(req.getRemoteAddr()).isLoopbackAddress()) {
+            write(resp, HttpServletResponse.SC_FORBIDDEN, "Thread pools can only be resized from localhost\n");
+            return;
+        }
+        ThreadPoolManager threadPoolManager = ThreadPoolManager.getInstance();
+        String name = req.getParameter("name");
+        InstrumentedThreadPoolExecutor pool = null;
+        for (InstrumentedThreadPoolExecutor candidate : threadPoolManager.getPools()) {
+            if (candidate.getName().equals(name)) {
+                pool = candidate;
+            }
+        }
+        if (pool == null) {
+            write(resp, HttpServletResponse.SC_NOT_FOUND, "Unknown thread pool: " + name + "\n");
+            return;
+        }
+        try {
+            ThreadPoolStats stats = threadPoolManager.resize(name,
+                intParameter(req, "core", pool.getCorePoolSize()),
+                intParameter(req, "max", pool.getMaximumPoolSize()),
+                intParameter(req, "queue", pool.getQueueCapacity()));
+            write(resp, HttpServletResponse.SC_OK, stats + "\n");
+        } catch (IllegalArgumentException e) {
+            write(resp, HttpServletResponse.SC_BAD_REQUEST, e.getMessage() + "\n");
+        }
+    }
+
+    private static int intParameter(HttpServletRequest req, String name, int defaultValue) {
+        String value = req.getParameter(name);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static void write(HttpServletResponse resp, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        resp.setStatus(status);
+        resp.setContentType("text/plain; charset=utf-8");
+        resp.setContentLength(bytes.length);
+        resp.getOutputStream().write(bytes);
+    }
+}
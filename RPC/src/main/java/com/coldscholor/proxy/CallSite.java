@@ -0,0 +1,51 @@
+package com.coldscholor.proxy;
+
+import com.coldscholor.common.MethodDescriptor;
+import com.coldscholor.config.MethodConfig;
+import com.coldscholor.config.RpcConfig;
+
+/**
+ * 一个接口方法的调用信息，创建代理或调用桩时解析一次：
+ * 服务名、单向调用标记、调用优先级和调用配置（配置重新加载时原地更新，可以一直持有）
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+final class CallSite {
+
+    final String interfaceName;
+
+    final MethodDescriptor method;
+
+    /** 接口名.方法名，熔断器、指标和调用配置按它区分 */
+    final String serviceName;
+
+    final int priority;
+
+    final MethodConfig config;
+
+    /**
+     * @param proxyPriority 创建代理时指定的优先级，没有时为null
+     * @param typePriority 接口上@RpcPriority的值，没有时为null
+     */
+    CallSite(String interfaceName, MethodDescriptor method, Integer proxyPriority, Integer typePriority) {
+        this.interfaceName = interfaceName;
+        this.method = method;
+        this.serviceName = interfaceName + "." + method.getName();
+        this.priority = resolvePriority(method, proxyPriority, typePriority);
+        this.config = RpcConfig.getMethodConfig(serviceName);
+    }
+
+    /**
+     * 解析调用优先级：方法注解 > 代理设置 > 接口注解 > 默认优先级
+     */
+    private static int resolvePriority(MethodDescriptor method, Integer proxyPriority, Integer typePriority) {
+        if (method.getPriority() != null) {
+            return method.getPriority();
+        }
+        if (proxyPriority != null) {
+            return proxyPriority;
+        }
+        return typePriority != null ? typePriority : RpcConfig.getDefaultPriority();
+    }
+}
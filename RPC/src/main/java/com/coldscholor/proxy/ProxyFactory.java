@@ -1,20 +1,33 @@
 package com.coldscholor.proxy;
 
+import com.coldscholor.annotation.RpcPriority;
 import com.coldscholor.async.AsyncRpcManager;
 import com.coldscholor.circuitbreaker.CircuitBreakerManager;
+import com.coldscholor.circuitbreaker.CircuitBreakerOpenException;
 import com.coldscholor.common.Invocation;
+import com.coldscholor.common.MethodDescriptor;
 import com.coldscholor.common.URL;
+import com.coldscholor.config.MethodConfig;
 import com.coldscholor.loadbalance.LoadBalance;
 import com.coldscholor.protocol.ImprovedHttpClient;
+import com.coldscholor.protocol.LocalInvoker;
+import com.coldscholor.protocol.RpcStreamIterator;
 import com.coldscholor.register.MapRemoteRegister;
+import com.coldscholor.register.RpcModules;
 import com.coldscholor.threadpool.ThreadPoolManager;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * 代理工厂 - 纯异步版
@@ -26,6 +39,7 @@ import java.util.concurrent.TimeUnit;
  * - 熔断器保护，防止雪崩效应
  * - 智能负载均衡，优化资源利用
  * - 非阻塞线程池，提高并发性能
+ * - 有编译期生成的调用桩时直接返回调用桩，不创建JDK动态代理
  * 
  * @author 寒士obj
  * @date 2025/09/13 15:30
@@ -41,9 +55,23 @@ public class ProxyFactory {
     /** 改进的HTTP客户端 */
     private static final ImprovedHttpClient improvedHttpClient = ImprovedHttpClient.getInstance();
     
+    /** 进程内调用 */
+    private static final LocalInvoker localInvoker = LocalInvoker.getInstance();
+    
     /** 线程池管理器 */
     private static final ThreadPoolManager threadPoolManager = ThreadPoolManager.getInstance();
     
+    /** 动态代理的方法描述，同一方法的所有代理共用，客户端按方法描述记录各端点发布的方法ID */
+    private static final ConcurrentHashMap<Method, MethodDescriptor> dynamicMethods = new ConcurrentHashMap<>();
+    
+    /** 编译期生成的调用桩，key为服务接口，value按代理优先级创建调用桩 */
+    private static final ConcurrentHashMap<Class<?>, Function<Integer, Object>> stubs = new ConcurrentHashMap<>();
+    
+    static {
+        // 加载生成的模块注册代码中的调用桩
+        RpcModules.registerStubs();
+    }
+    
     /**
      * 创建异步代理对象（默认异步模式）
      * @param clazz 接口类
@@ -63,33 +91,66 @@ public class ProxyFactory {
      */
     public static <T> T getProxy(Class clazz, boolean async)
     {
+        return createProxy(clazz, null);
+    }
+    
+    /**
+     * 创建指定调用优先级的代理对象
+     * 方法上的@RpcPriority优先于这里的设置，这里的设置优先于接口上的@RpcPriority
+     * @param clazz 接口类
+     * @param priority 请求优先级，数值越大越重要
+     * @return 代理对象
+     * @param <T> 泛型类型
+     */
+    public static <T> T getProxy(Class clazz, int priority) {
+        return createProxy(clazz, priority);
+    }
+    
+    /**
+     * 创建JDK动态代理，不使用生成的调用桩（用于对比，或调用桩与接口版本不一致时）
+     * @param clazz 接口类
+     * @return 代理对象
+     * @param <T> 泛型类型
+     */
+    public static <T> T getDynamicProxy(Class clazz) {
+        return createDynamicProxy(clazz, null);
+    }
+    
+    /**
+     * 注册编译期生成的调用桩，由生成的模块注册代码调用
+     * @param serviceInterface 服务接口
+     * @param factory 按代理优先级（可为null）创建调用桩
+     */
+    public static void registerStub(Class<?> serviceInterface, Function<Integer, Object> factory) {
+        stubs.put(serviceInterface, factory);
+    }
+    
+    private static <T> T createProxy(Class clazz, Integer proxyPriority)
+    {
+        Function<Integer, Object> stub = stubs.get(clazz);
+        if (stub != null) {
+            return (T) stub.apply(proxyPriority);
+        }
+        return createDynamicProxy(clazz, proxyPriority);
+    }
+    
+    private static <T> T createDynamicProxy(Class clazz, Integer proxyPriority)
+    {
+        RpcPriority typeAnnotation = (RpcPriority) clazz.getAnnotation(RpcPriority.class);
+        Integer typePriority = typeAnnotation != null ? typeAnnotation.value() : null;
         Object proxyInstance = Proxy.newProxyInstance(clazz.getClassLoader(), new Class[] {clazz}, new InvocationHandler() {
+            /** 方法的调用信息缓存，避免每次调用都解析注解和查找调用配置 */
+            private final ConcurrentHashMap<Method, CallSite> callSites = new ConcurrentHashMap<>();
+            
             @Override
             public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-                // Mock模式支持
-                String mock = System.getProperty("mock");
-                if(mock != null && mock.startsWith("return:")){
-                    String returnValue = mock.replace("return:", "");
-                    return returnValue;
+                CallSite callSite = callSites.get(method);
+                if (callSite == null) {
+                    callSite = callSites.computeIfAbsent(method,
+                        m -> new CallSite(clazz.getName(),
+                            dynamicMethods.computeIfAbsent(m, key -> MethodDescriptor.of(-1, key)), proxyPriority, typePriority));
                 }
-
-                // 创建调用信息
-                Invocation invocation = new Invocation(
-                        clazz.getName(),
-                        method.getName(),
-                        method.getParameterTypes(),
-                        args);
-
-                // 服务发现
-                List<URL> urls = MapRemoteRegister.get(clazz.getName());
-                if (urls == null || urls.isEmpty()) {
-                    throw new RuntimeException("No available service providers for: " + clazz.getName());
-                }
-
-                String serviceName = clazz.getName() + "." + method.getName();
-                
-                // 纯异步调用模式（带熔断器和负载均衡）
-                return handleAsyncCallWithCircuitBreaker(urls, invocation, serviceName, method);
+                return ProxyFactory.invoke(callSite, args);
             }
         });
 
@@ -97,29 +158,169 @@ public class ProxyFactory {
         return (T) proxyInstance;
     }
     
+    /**
+     * 代理和调用桩共用的调用逻辑
+     */
+    static Object invoke(CallSite callSite, Object[] args) throws Throwable {
+        // Mock模式支持
+        String mock = System.getProperty("mock");
+        if(mock != null && mock.startsWith("return:")){
+            String returnValue = mock.replace("return:", "");
+            return returnValue;
+        }
+
+        String interfaceName = callSite.interfaceName;
+        MethodDescriptor method = callSite.method;
+        
+        // 服务在当前JVM中导出时直接调用本地实现，不经过序列化和网络
+        if (localInvoker.isExported(interfaceName)) {
+            return handleLocalCall(interfaceName, method, args);
+        }
+
+        // 创建调用信息
+        Invocation invocation = new Invocation(
+                interfaceName,
+                method.getName(),
+                method.getParameterTypes(),
+                args);
+        invocation.setMethodDescriptor(method);
+
+        // 服务发现
+        List<URL> urls = MapRemoteRegister.get(interfaceName);
+        if (urls == null || urls.isEmpty()) {
+            throw new RuntimeException("No available service providers for: " + interfaceName);
+        }
+        // 新发现的端点预先建立连接
+        improvedHttpClient.warmUp(urls);
+
+        String serviceName = callSite.serviceName;
+        MethodConfig config = callSite.config;
+        
+        // 单向调用：发出后立即释放调用线程
+        if (method.isOneWay()) {
+            handleOneWayCall(urls, invocation, serviceName, callSite.priority, config);
+            return null;
+        }
+        
+        // 流式调用：返回Iterator或Stream的方法逐个读取元素
+        if (method.isStreaming()) {
+            RpcStreamIterator<Object> iterator = handleStreamCall(urls, invocation, serviceName, callSite.priority, config);
+            return method.getReturnType() == Stream.class ? iterator.stream() : iterator;
+        }
+        
+        // 纯异步调用模式（带熔断器和负载均衡）
+        return handleAsyncCallWithCircuitBreaker(urls, invocation, serviceName, callSite.priority, config);
+    }
+    
     /**
      * 处理异步调用（带熔断器保护和负载均衡）
+     * 负载均衡跳过被摘除和已熔断的端点；熔断器在AsyncRpcManager中按端点只应用一次，
+     * 这里只负责降级，降级结果单独计数，不会被当作成功调用；
+     * 服务端过载拒绝的请求没有执行，在剩余时间内换其他端点重试；
+     * 超时、重试次数和负载均衡策略取方法的调用配置
      */
-    private static Object handleAsyncCallWithCircuitBreaker(List<URL> urls, Invocation invocation, String serviceName, Method method) {
-        return circuitBreakerManager.executeWithCircuitBreaker(
-            serviceName,
-            () -> {
-                // 负载均衡选择服务
-                URL url = LoadBalance.random(urls);
-                String requestUrl = "http://" + url.getHostName() + ":" + url.getPort();
-                
-                // 异步调用但同步等待结果（非阻塞线程池处理）
-                try {
-                    CompletableFuture<String> future = asyncRpcManager.callAsyncWithTimeout(
-                        requestUrl, invocation, 30, TimeUnit.SECONDS
-                    );
-                    return future.get(30, TimeUnit.SECONDS);
-                } catch (Exception e) {
-                    throw new RuntimeException("Async call failed: " + e.getMessage(), e);
+    private static Object handleAsyncCallWithCircuitBreaker(List<URL> urls, Invocation invocation, String serviceName,
+                                                            int priority, MethodConfig config) {
+        List<URL> availableUrls = circuitBreakerManager.selectAvailable(urls, serviceName);
+        if (availableUrls.isEmpty()) {
+            circuitBreakerManager.onFallback(serviceName);
+            return CircuitBreakerManager.createFallbackResponse(serviceName);
+        }
+        
+        // 负载均衡选择服务
+        LoadBalance.Strategy strategy = config.getLoadBalanceStrategy();
+        URL url = LoadBalance.select(availableUrls, strategy);
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getCallTimeout());
+        
+        // 异步调用但同步等待结果（非阻塞线程池处理）
+        for (int attempt = 0; ; attempt++) {
+            try {
+                long remainingNanos = deadlineNanos - System.nanoTime();
+                CompletableFuture<String> future = asyncRpcManager.callAsyncWithTimeout(
+                    url, invocation, priority, remainingNanos, TimeUnit.NANOSECONDS
+                );
+                return future.get(remainingNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Async call interrupted: " + serviceName, e);
+            } catch (Exception e) {
+                if (attempt < config.getOverloadRetries() && AsyncRpcManager.isOverloaded(e)
+                    && deadlineNanos - System.nanoTime() > 0) {
+                    List<URL> others = without(availableUrls, url);
+                    if (!others.isEmpty()) {
+                        availableUrls = others;
+                        url = LoadBalance.select(availableUrls, strategy);
+                        continue;
+                    }
                 }
-            },
-            () -> CircuitBreakerManager.createFallbackResponse(serviceName)
-        );
+                circuitBreakerManager.onFallback(url, serviceName);
+                return CircuitBreakerManager.createFallbackResponse(serviceName);
+            }
+        }
+    }
+    
+    private static List<URL> without(List<URL> urls, URL excluded) {
+        List<URL> remaining = new ArrayList<>(urls.size());
+        for (URL url : urls) {
+            if (!url.equals(excluded)) {
+                remaining.add(url);
+            }
+        }
+        return remaining;
+    }
+    
+    /**
+     * 处理进程内调用：熔断器按进程内虚拟端点统计，熔断或调用失败时和远程调用一样降级，
+     * 流式结果没有字符串降级结果，直接抛出异常
+     */
+    private static Object handleLocalCall(String interfaceName, MethodDescriptor method, Object[] args) throws Throwable {
+        if (method.isOneWay()) {
+            localInvoker.submitOneWay(interfaceName, method, args);
+            return null;
+        }
+        String serviceName = interfaceName + "." + method.getName();
+        try {
+            return localInvoker.invoke(interfaceName, method, args);
+        } catch (Exception e) {
+            if (method.isStreaming()) {
+                throw e;
+            }
+            circuitBreakerManager.onFallback(LocalInvoker.LOCAL_URL, serviceName);
+            return CircuitBreakerManager.createFallbackResponse(serviceName);
+        }
+    }
+    
+    /**
+     * 处理单向调用：选择端点后发出请求即返回，送达与否只计数
+     */
+    private static void handleOneWayCall(List<URL> urls, Invocation invocation, String serviceName, int priority,
+                                         MethodConfig config) {
+        List<URL> availableUrls = circuitBreakerManager.selectAvailable(urls, serviceName);
+        if (availableUrls.isEmpty()) {
+            circuitBreakerManager.onFallback(serviceName);
+            return;
+        }
+        asyncRpcManager.sendOneWay(LoadBalance.select(availableUrls, config.getLoadBalanceStrategy()), invocation, priority);
+    }
+    
+    /**
+     * 处理流式调用：流没有字符串降级结果，端点全部不可用时直接抛出异常；
+     * 在途预算、并发限制和熔断器由AsyncRpcManager按普通调用的规则应用，流结束时归还许可
+     */
+    private static RpcStreamIterator<Object> handleStreamCall(List<URL> urls, Invocation invocation, String serviceName,
+                                                             int priority, MethodConfig config) {
+        List<URL> availableUrls = circuitBreakerManager.selectAvailable(urls, serviceName);
+        if (availableUrls.isEmpty()) {
+            circuitBreakerManager.onFallback(serviceName);
+            throw new CircuitBreakerOpenException(serviceName);
+        }
+        URL url = LoadBalance.select(availableUrls, config.getLoadBalanceStrategy());
+        try {
+            long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getCallTimeout());
+            return asyncRpcManager.openStream(url, invocation, priority, deadlineNanos);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Stream call failed: " + serviceName, e);
+        }
     }
 
 
@@ -0,0 +1,69 @@
+package com.coldscholor.proxy;
+
+import com.coldscholor.common.MethodDescriptor;
+
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * 编译期生成的调用桩的基类
+ * RPC-processor为@RpcReference引用的接口生成实现类，每个接口方法只是按方法编号调用call，
+ * 调用信息在创建调用桩时按方法表一次解析好，调用时只是一次数组下标访问，不经过JDK动态代理和Method查找
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public abstract class ServiceStub {
+
+    private final Class<?> serviceInterface;
+
+    /** 下标即方法编号 */
+    private final CallSite[] callSites;
+
+    /**
+     * @param serviceInterface 服务接口
+     * @param methods 生成的方法表
+     * @param typePriority 接口上@RpcPriority的值，没有时为null
+     * @param proxyPriority 创建代理时指定的优先级，没有时为null
+     */
+    protected ServiceStub(Class<?> serviceInterface, MethodDescriptor[] methods, Integer typePriority,
+                          Integer proxyPriority) {
+        this.serviceInterface = serviceInterface;
+        this.callSites = new CallSite[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            callSites[i] = new CallSite(serviceInterface.getName(), methods[i], proxyPriority, typePriority);
+        }
+    }
+
+    /**
+     * 调用编号为methodIndex的方法，异常处理和JDK动态代理一致：
+     * 运行时异常和方法声明的受检异常原样抛出，其他受检异常包装为UndeclaredThrowableException
+     */
+    protected final Object call(int methodIndex, Object[] arguments) {
+        CallSite callSite = callSites[methodIndex];
+        try {
+            return ProxyFactory.invoke(callSite, arguments);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            for (Class<?> declared : callSite.method.getExceptionTypes()) {
+                if (declared.isInstance(e)) {
+                    throw ServiceStub.<RuntimeException>rethrow(e);
+                }
+            }
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    /**
+     * 抛出方法声明过的受检异常，生成的接口方法上带有同样的throws声明
+     */
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> E rethrow(Throwable e) throws E {
+        throw (E) e;
+    }
+
+    @Override
+    public String toString() {
+        return "RPC stub for " + serviceInterface.getName();
+    }
+}
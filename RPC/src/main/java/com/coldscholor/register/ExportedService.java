@@ -0,0 +1,141 @@
+package com.coldscholor.register;
+
+import com.coldscholor.common.MethodDescriptor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 一个已导出的服务：接口名、版本、分发器和按方法名索引的方法表
+ * 服务端按调用中的方法名和参数类型找到方法编号，再由分发器按编号调用；
+ * 消费者完成方法ID握手后只发送服务ID、方法ID和方法表版本，服务端按ID在平坦数组中查找
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public final class ExportedService {
+
+    private static final MethodDescriptor[] NONE = new MethodDescriptor[0];
+
+    private final String interfaceName;
+
+    private final String version;
+
+    private final ServiceDispatcher dispatcher;
+
+    /** 方法名到同名的方法（重载方法有多个） */
+    private final Map<String, MethodDescriptor[]> methodsByName;
+
+    /** 服务ID，接口名和版本的稳定哈希 */
+    private final int serviceId;
+
+    /** 方法表版本：接口名、版本和全部方法签名的哈希，方法增删或签名变化后改变 */
+    private final int tableVersion;
+
+    /** 按方法ID索引的方法 */
+    private final IdIndex<MethodDescriptor> methodsById;
+
+    ExportedService(String interfaceName, String version, ServiceDispatcher dispatcher) {
+        this.interfaceName = interfaceName;
+        this.version = version;
+        this.dispatcher = dispatcher;
+        Map<String, MethodDescriptor[]> byName = new HashMap<>();
+        for (MethodDescriptor method : dispatcher.getMethods()) {
+            MethodDescriptor[] overloads = byName.getOrDefault(method.getName(), NONE);
+            MethodDescriptor[] merged = new MethodDescriptor[overloads.length + 1];
+            System.arraycopy(overloads, 0, merged, 0, overloads.length);
+            merged[overloads.length] = method;
+            byName.put(method.getName(), merged);
+        }
+        this.methodsByName = Collections.unmodifiableMap(byName);
+        this.serviceId = MethodDescriptor.stableHash(interfaceName + ":" + version);
+        // 按方法ID排序后计算版本，与分发器的方法顺序无关
+        MethodDescriptor[] sorted = dispatcher.getMethods().clone();
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.getMethodId(), b.getMethodId()));
+        StringBuilder table = new StringBuilder(interfaceName).append(':').append(version);
+        for (MethodDescriptor method : sorted) {
+            table.append(';').append(method);
+        }
+        this.tableVersion = MethodDescriptor.stableHash(table);
+        this.methodsById = new IdIndex<>(Arrays.asList(dispatcher.getMethods()), MethodDescriptor::getMethodId);
+    }
+
+    /**
+     * 按方法名和参数类型查找方法
+     *
+     * @return 方法描述，服务没有这个方法时返回null
+     */
+    public MethodDescriptor findMethod(String methodName, Class<?>[] parameterTypes) {
+        for (MethodDescriptor method : methodsByName.getOrDefault(methodName, NONE)) {
+            if (method.matches(methodName, parameterTypes)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按方法ID查找方法
+     *
+     * @param tableVersion 消费者握手时得到的方法表版本
+     * @return 方法描述；方法表版本不一致（提供者升级后方法表变化）、没有这个ID或ID冲突时返回null，
+     *         调用方应改用完整的方法描述
+     */
+    public MethodDescriptor findMethod(int methodId, int tableVersion) {
+        return tableVersion == this.tableVersion ? methodsById.get(methodId) : null;
+    }
+
+    /**
+     * 方法是否可以按方法ID调用，即方法ID在本服务中没有冲突
+     */
+    public boolean isAddressable(MethodDescriptor method) {
+        return methodsById.get(method.getMethodId()) == method;
+    }
+
+    /**
+     * 创建服务实现实例并调用方法
+     *
+     * @throws InvocationTargetException 创建实例或服务方法抛出异常，原始异常为getTargetException()
+     */
+    public Object invoke(MethodDescriptor method, Object[] arguments) throws InvocationTargetException {
+        try {
+            return dispatcher.invoke(dispatcher.newInstance(), method.getIndex(), arguments);
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    public String getInterfaceName() {
+        return interfaceName;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public int getServiceId() {
+        return serviceId;
+    }
+
+    public int getTableVersion() {
+        return tableVersion;
+    }
+
+    public Class<?> getImplementationClass() {
+        return dispatcher.getImplementationClass();
+    }
+
+    public MethodDescriptor[] getMethods() {
+        return dispatcher.getMethods();
+    }
+
+    /**
+     * 是否使用编译期生成的分发器
+     */
+    public boolean isGenerated() {
+        return !(dispatcher instanceof ReflectiveServiceDispatcher);
+    }
+}
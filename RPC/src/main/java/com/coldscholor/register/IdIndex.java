@@ -0,0 +1,53 @@
+package com.coldscholor.register;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * 按整数ID查找的只读索引：ID排序后放在平坦数组中二分查找，查找时不装箱、不计算哈希。
+ * ID由哈希得到，同一索引中ID相同的元素全部排除，这些元素只能按名称查找
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+final class IdIndex<T> {
+
+    private final int[] ids;
+
+    private final Object[] values;
+
+    IdIndex(Collection<? extends T> elements, ToIntFunction<? super T> idFunction) {
+        List<T> sorted = new ArrayList<>(elements);
+        sorted.sort((a, b) -> Integer.compare(idFunction.applyAsInt(a), idFunction.applyAsInt(b)));
+        int[] ids = new int[sorted.size()];
+        Object[] values = new Object[sorted.size()];
+        int size = 0;
+        for (int i = 0; i < sorted.size(); ) {
+            int id = idFunction.applyAsInt(sorted.get(i));
+            int end = i + 1;
+            while (end < sorted.size() && idFunction.applyAsInt(sorted.get(end)) == id) {
+                end++;
+            }
+            if (end == i + 1) {
+                ids[size] = id;
+                values[size] = sorted.get(i);
+                size++;
+            }
+            i = end;
+        }
+        this.ids = Arrays.copyOf(ids, size);
+        this.values = Arrays.copyOf(values, size);
+    }
+
+    /**
+     * @return ID对应的元素，没有或ID冲突时返回null
+     */
+    @SuppressWarnings("unchecked")
+    T get(int id) {
+        int position = Arrays.binarySearch(ids, id);
+        return position >= 0 ? (T) values[position] : null;
+    }
+}
@@ -9,15 +9,32 @@ import java.util.concurrent.ConcurrentHashMap;
  **/
 // 本地注册
 public class LocalRegister {
-    private static final Map<String, Class> map = new ConcurrentHashMap<>();
+    private static final Map<String, ExportedService> map = new ConcurrentHashMap<>();
+
+    /** 按服务ID索引的服务，注册时整体替换 */
+    private static volatile IdIndex<ExportedService> servicesById = new IdIndex<>(map.values(), ExportedService::getServiceId);
 
     /**
-     *  把接口和实现类注册到本地注册中心
+     *  把接口和实现类注册到本地注册中心，方法通过反射调用
      * @param interfaceName
      * @param implClass
      */
     public static void register(String interfaceName, String version, Class implClass) {
-        map.put(interfaceName + version, implClass);
+        register(interfaceName, version, new ReflectiveServiceDispatcher(implClass));
+    }
+
+    /**
+     * 把接口和分发器注册到本地注册中心，编译期生成的注册代码调用
+     * @param interfaceName
+     * @param dispatcher
+     */
+    public static void register(String interfaceName, String version, ServiceDispatcher dispatcher) {
+        map.put(interfaceName + version, new ExportedService(interfaceName, version, dispatcher));
+        reindex();
+    }
+
+    private static synchronized void reindex() {
+        servicesById = new IdIndex<>(map.values(), ExportedService::getServiceId);
     }
 
     /**
@@ -26,6 +43,25 @@ public class LocalRegister {
      * @return
      */
     public static Class get(String interfaceName, String version) {
+        ExportedService service = map.get(interfaceName + version);
+        return service == null ? null : service.getImplementationClass();
+    }
+
+    /**
+     * 根据接口名获取导出的服务
+     * @param interfaceName
+     * @return 导出的服务，没有注册时返回null
+     */
+    public static ExportedService getService(String interfaceName, String version) {
         return map.get(interfaceName + version);
     }
+
+    /**
+     * 根据服务ID获取导出的服务
+     * @param serviceId
+     * @return 导出的服务，没有注册或服务ID冲突时返回null
+     */
+    public static ExportedService getService(int serviceId) {
+        return servicesById.get(serviceId);
+    }
 }
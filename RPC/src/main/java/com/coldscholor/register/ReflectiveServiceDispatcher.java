@@ -0,0 +1,66 @@
+package com.coldscholor.register;
+
+import com.coldscholor.common.MethodDescriptor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 手工注册(LocalRegister.register(接口名, 版本, 实现类))的服务使用的反射分发器
+ * 方法表为实现类除Object方法外的全部public方法，按签名排序，与原来getMethod能找到的方法一致
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+class ReflectiveServiceDispatcher implements ServiceDispatcher {
+
+    private final Class<?> implClass;
+
+    private final Method[] methods;
+
+    private final MethodDescriptor[] descriptors;
+
+    ReflectiveServiceDispatcher(Class<?> implClass) {
+        this.implClass = implClass;
+        List<Method> exported = new ArrayList<>();
+        for (Method method : implClass.getMethods()) {
+            if (method.getDeclaringClass() != Object.class) {
+                exported.add(method);
+            }
+        }
+        exported.sort(Comparator.comparing(Method::toGenericString));
+        this.methods = exported.toArray(new Method[0]);
+        this.descriptors = new MethodDescriptor[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            descriptors[i] = new MethodDescriptor(i, methods[i].getName(), methods[i].getParameterTypes(),
+                methods[i].getReturnType());
+        }
+    }
+
+    @Override
+    public Class<?> getImplementationClass() {
+        return implClass;
+    }
+
+    @Override
+    public MethodDescriptor[] getMethods() {
+        return descriptors;
+    }
+
+    @Override
+    public Object newInstance() throws Exception {
+        return implClass.newInstance();
+    }
+
+    @Override
+    public Object invoke(Object instance, int methodIndex, Object[] arguments) throws Throwable {
+        try {
+            return methods[methodIndex].invoke(instance, arguments);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.coldscholor.register;
+
+/**
+ * 编译期生成的模块注册代码
+ * RPC-processor为每次编译生成一个实现，并写入META-INF/services，启动时通过ServiceLoader加载，不扫描classpath
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public interface RpcModule {
+
+    /**
+     * 导出本模块中标注了@RpcService的服务
+     *
+     * @return 导出的服务接口名
+     */
+    String[] exportServices();
+
+    /**
+     * 注册本模块中@RpcReference引用的接口的调用桩
+     */
+    void registerStubs();
+}
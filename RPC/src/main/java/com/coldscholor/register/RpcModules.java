@@ -0,0 +1,71 @@
+package com.coldscholor.register;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+/**
+ * 加载编译期生成的模块注册代码
+ * 模块列表来自META-INF/services中由RPC-processor写入的条目，只读取这些资源文件，不扫描classpath
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public final class RpcModules {
+
+    /** 已加载的模块，第一次使用时加载 */
+    private static List<RpcModule> modules;
+
+    /** 已导出的服务接口名 */
+    private static Set<String> exportedServices;
+
+    private static boolean stubsRegistered;
+
+    private RpcModules() {
+    }
+
+    /**
+     * 导出全部模块中标注了@RpcService的服务，重复调用只导出一次
+     *
+     * @return 导出的服务接口名，供注册到远程注册中心
+     */
+    public static synchronized Set<String> exportServices() {
+        if (exportedServices == null) {
+            Set<String> names = new LinkedHashSet<>();
+            for (RpcModule module : modules()) {
+                Collections.addAll(names, module.exportServices());
+            }
+            exportedServices = Collections.unmodifiableSet(names);
+            System.out.println("Exported " + names.size() + " generated RPC service(s): " + names);
+        }
+        return exportedServices;
+    }
+
+    /**
+     * 注册全部模块中的调用桩，重复调用只注册一次
+     */
+    public static synchronized void registerStubs() {
+        if (!stubsRegistered) {
+            stubsRegistered = true;
+            for (RpcModule module : modules()) {
+                module.registerStubs();
+            }
+        }
+    }
+
+    private static List<RpcModule> modules() {
+        if (modules == null) {
+            List<RpcModule> loaded = new ArrayList<>();
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            for (RpcModule module : ServiceLoader.load(RpcModule.class,
+                    classLoader != null ? classLoader : RpcModules.class.getClassLoader())) {
+                loaded.add(module);
+            }
+            modules = loaded;
+        }
+        return modules;
+    }
+}
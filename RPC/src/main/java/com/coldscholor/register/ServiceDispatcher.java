@@ -0,0 +1,34 @@
+package com.coldscholor.register;
+
+import com.coldscholor.common.MethodDescriptor;
+
+/**
+ * 服务分发器：按方法编号调用服务实现
+ * 标注了@RpcService的实现类由RPC-processor在编译期生成，invoke是一个按方法编号的switch，直接调用实现类的方法；
+ * 手工注册的实现类使用反射实现
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public interface ServiceDispatcher {
+
+    /**
+     * 服务实现类
+     */
+    Class<?> getImplementationClass();
+
+    /**
+     * 方法表，下标即方法编号
+     */
+    MethodDescriptor[] getMethods();
+
+    /**
+     * 创建服务实现实例，每次调用创建一个
+     */
+    Object newInstance() throws Exception;
+
+    /**
+     * 调用实例上编号为methodIndex的方法，服务方法抛出的异常原样抛出
+     */
+    Object invoke(Object instance, int methodIndex, Object[] arguments) throws Throwable;
+}
@@ -0,0 +1,388 @@
+package com.coldscholor.schedule;
+
+import com.coldscholor.config.RpcConfig;
+import com.coldscholor.metrics.LatencyHistogram;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 提供端业务执行调度器
+ * 业务方法同时执行的数量限制为固定的名额数，没有空闲名额时请求按调度顺序排队：
+ * 调度等级之间严格优先，但一个等级有请求在等、且超过饥饿阈值没有被调度时优先调度它；
+ * 同一等级内按调用方做加权公平排队（start-time fair queuing，每个请求代价记为1），
+ * 一个调用方突发大量请求只会排在自己的份额之后，不会挤占其他调用方。
+ * 获得名额的请求仍在请求线程上执行，没有名额竞争时只有一次CAS，不发生线程切换
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class FairScheduler {
+
+    /** 调用附件中的调用方身份 */
+    public static final String CALLER_ATTACHMENT = "rpc.caller";
+
+    /** 没有携带身份的调用方 */
+    private static final String ANONYMOUS = "anonymous";
+
+    /** 单例实例 */
+    private static volatile FairScheduler instance;
+
+    /** 执行名额数 */
+    private final int slots;
+
+    /** 饥饿阈值(纳秒) */
+    private final long starvationNanos;
+
+    /** 调用方权重，未配置的为1 */
+    private final Map<String, Double> weights;
+
+    /** 空闲名额数 */
+    private final AtomicInteger freeSlots;
+
+    /** 排队中的请求数，只在持有锁时修改，供无锁快速判断是否需要排队 */
+    private volatile int waitingCount;
+
+    /** 保护各等级队列，只在排队和有排队者时的归还路径上使用 */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** 按等级的队列 */
+    private final ClassQueue[] queues;
+
+    /** 排队序号，同一虚拟开始时间按到达顺序 */
+    private long sequence;
+
+    public FairScheduler(int slots, long starvationNanos, Map<String, Double> weights) {
+        this.slots = slots;
+        this.starvationNanos = starvationNanos;
+        this.weights = weights;
+        this.freeSlots = new AtomicInteger(slots);
+        PriorityClass[] classes = PriorityClass.all();
+        this.queues = new ClassQueue[classes.length];
+        for (PriorityClass priorityClass : classes) {
+            queues[priorityClass.ordinal()] = new ClassQueue(priorityClass);
+        }
+    }
+
+    /**
+     * 获取单例实例
+     */
+    public static FairScheduler getInstance() {
+        if (instance == null) {
+            synchronized (FairScheduler.class) {
+                if (instance == null) {
+                    instance = new FairScheduler(RpcConfig.getSchedulerSlots(),
+                        TimeUnit.MILLISECONDS.toNanos(RpcConfig.getSchedulerStarvationThreshold()),
+                        parseWeights(RpcConfig.getSchedulerCallerWeights()));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 获取一个执行名额，没有空闲名额时排队等待，获得后必须调用release
+     *
+     * @param priorityClass 调度等级
+     * @param caller 调用方身份，为null时按匿名调用方
+     * @param deadlineNanos 最晚等到的时间(System.nanoTime)，0表示一直等待
+     * @return 是否获得名额，到截止时间仍未轮到时返回false
+     */
+    public boolean acquire(PriorityClass priorityClass, String caller, long deadlineNanos) {
+        ClassQueue queue = queues[priorityClass.ordinal()];
+        if (waitingCount == 0 && tryTakeSlot()) {
+            queue.onGranted(0L);
+            return true;
+        }
+        Waiter waiter;
+        lock.lock();
+        try {
+            String callerName = caller == null ? ANONYMOUS : caller;
+            Double weight = weights.get(callerName);
+            waiter = queue.enqueue(callerName, weight == null ? 1.0 : weight, sequence++, System.nanoTime());
+            waitingCount++;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+        boolean interrupted = false;
+        try {
+            while (!waiter.granted) {
+                if (deadlineNanos == 0L) {
+                    LockSupport.park(this);
+                } else {
+                    long remainingNanos = deadlineNanos - System.nanoTime();
+                    if (remainingNanos <= 0L) {
+                        return !cancel(waiter);
+                    }
+                    LockSupport.parkNanos(this, remainingNanos);
+                }
+                // 中断不打断排队，返回前恢复中断标志
+                interrupted |= Thread.interrupted();
+            }
+            return true;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 归还执行名额，有请求在排队时直接交给下一个
+     */
+    public void release(PriorityClass priorityClass) {
+        queues[priorityClass.ordinal()].running.decrementAndGet();
+        freeSlots.incrementAndGet();
+        if (waitingCount > 0) {
+            lock.lock();
+            try {
+                dispatch();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private boolean tryTakeSlot() {
+        int free;
+        while ((free = freeSlots.get()) > 0) {
+            if (freeSlots.compareAndSet(free, free - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 把空闲名额按调度顺序分给排队者，需持有锁
+     */
+    private void dispatch() {
+        while (waitingCount > 0 && tryTakeSlot()) {
+            long nowNanos = System.nanoTime();
+            ClassQueue queue = next(nowNanos);
+            Waiter waiter = queue.dequeue(nowNanos);
+            waitingCount--;
+            queue.onGranted(nowNanos - waiter.enqueueNanos);
+            waiter.granted = true;
+            LockSupport.unpark(waiter.thread);
+        }
+    }
+
+    /**
+     * 选出下一个调度的等级：超过饥饿阈值没有被调度的等级中等待最久的优先，否则取最高的非空等级
+     */
+    private ClassQueue next(long nowNanos) {
+        ClassQueue highest = null;
+        ClassQueue starving = null;
+        for (ClassQueue queue : queues) {
+            if (queue.waiters.isEmpty()) {
+                continue;
+            }
+            if (highest == null) {
+                highest = queue;
+            }
+            if (nowNanos - queue.waitingSince >= starvationNanos
+                && (starving == null || queue.waitingSince - starving.waitingSince < 0)) {
+                starving = queue;
+            }
+        }
+        if (starving != null && starving != highest) {
+            starving.promotedCount.increment();
+            return starving;
+        }
+        return highest;
+    }
+
+    /**
+     * 等待超时后撤销排队
+     *
+     * @return 是否撤销成功，已经获得名额时返回false
+     */
+    private boolean cancel(Waiter waiter) {
+        lock.lock();
+        try {
+            if (waiter.granted) {
+                return false;
+            }
+            waiter.queue.remove(waiter);
+            waitingCount--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    public int getSlotsInUse() {
+        return slots - freeSlots.get();
+    }
+
+    public ClassQueue getQueue(PriorityClass priorityClass) {
+        return queues[priorityClass.ordinal()];
+    }
+
+    /**
+     * 解析调用方权重，格式为"调用方=权重,调用方=权重"
+     */
+    static Map<String, Double> parseWeights(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Double> weights = new HashMap<>();
+        for (String entry : value.split(",")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid caller weight: " + entry);
+            }
+            double weight = Double.parseDouble(entry.substring(separator + 1).trim());
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Caller weight must be positive: " + entry);
+            }
+            weights.put(entry.substring(0, separator).trim(), weight);
+        }
+        return weights;
+    }
+
+    /**
+     * 一个调度等级的排队队列和统计
+     */
+    public static final class ClassQueue {
+        private final PriorityClass priorityClass;
+
+        /** 排队者，按虚拟开始时间、到达顺序排列 */
+        private final PriorityQueue<Waiter> waiters = new PriorityQueue<>();
+
+        /** 各调用方最近一个请求的虚拟结束时间，队列排空时清空 */
+        private final Map<String, Double> finishTags = new HashMap<>();
+
+        /** 虚拟时间：最近调度的请求的开始时间 */
+        private double virtualTime;
+
+        /** 本等级开始等待（队列变为非空）或最近一次被调度的时间 */
+        private long waitingSince;
+
+        /** 排队数，供无锁读取 */
+        private volatile int waiting;
+
+        /** 持有名额的请求数 */
+        private final AtomicInteger running = new AtomicInteger();
+
+        private final LongAdder grantedCount = new LongAdder();
+        private final LongAdder expiredCount = new LongAdder();
+        private final LongAdder promotedCount = new LongAdder();
+
+        /** 获得名额前的等待时间 */
+        private final LatencyHistogram waitTime = new LatencyHistogram();
+
+        private ClassQueue(PriorityClass priorityClass) {
+            this.priorityClass = priorityClass;
+        }
+
+        private Waiter enqueue(String caller, double weight, long sequence, long nowNanos) {
+            if (waiters.isEmpty()) {
+                waitingSince = nowNanos;
+            }
+            Double lastFinish = finishTags.get(caller);
+            double start = lastFinish == null ? virtualTime : Math.max(virtualTime, lastFinish);
+            finishTags.put(caller, start + 1.0 / weight);
+            Waiter waiter = new Waiter(this, Thread.currentThread(), start, sequence, nowNanos);
+            waiters.add(waiter);
+            waiting = waiters.size();
+            return waiter;
+        }
+
+        private Waiter dequeue(long nowNanos) {
+            Waiter waiter = waiters.poll();
+            virtualTime = waiter.startTag;
+            waitingSince = nowNanos;
+            afterRemove();
+            return waiter;
+        }
+
+        private void remove(Waiter waiter) {
+            waiters.remove(waiter);
+            expiredCount.increment();
+            afterRemove();
+        }
+
+        private void afterRemove() {
+            waiting = waiters.size();
+            // 队列排空后所有调用方重新从同一起点开始，不保留历史份额
+            if (waiters.isEmpty()) {
+                finishTags.clear();
+                virtualTime = 0;
+            }
+        }
+
+        private void onGranted(long waitNanos) {
+            running.incrementAndGet();
+            grantedCount.increment();
+            waitTime.record(waitNanos);
+        }
+
+        public PriorityClass getPriorityClass() {
+            return priorityClass;
+        }
+
+        public int getWaiting() {
+            return waiting;
+        }
+
+        public int getRunning() {
+            return running.get();
+        }
+
+        public long getGrantedCount() {
+            return grantedCount.sum();
+        }
+
+        public long getExpiredCount() {
+            return expiredCount.sum();
+        }
+
+        public long getPromotedCount() {
+            return promotedCount.sum();
+        }
+
+        public LatencyHistogram getWaitTime() {
+            return waitTime;
+        }
+    }
+
+    /**
+     * 排队中的请求
+     */
+    private static final class Waiter implements Comparable<Waiter> {
+        private final ClassQueue queue;
+        private final Thread thread;
+        private final double startTag;
+        private final long sequence;
+        private final long enqueueNanos;
+        private volatile boolean granted;
+
+        private Waiter(ClassQueue queue, Thread thread, double startTag, long sequence, long enqueueNanos) {
+            this.queue = queue;
+            this.thread = thread;
+            this.startTag = startTag;
+            this.sequence = sequence;
+            this.enqueueNanos = enqueueNanos;
+        }
+
+        @Override
+        public int compareTo(Waiter other) {
+            int byTag = Double.compare(startTag, other.startTag);
+            return byTag != 0 ? byTag : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.coldscholor.schedule;
+
+import com.coldscholor.config.RpcConfig;
+
+/**
+ * 请求的调度等级，按声明顺序严格优先
+ * 由客户端的请求优先级换算，放在调用附件中传给提供端
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public enum PriorityClass {
+
+    INTERACTIVE,    // 用户直接等待结果的请求
+    NORMAL,         // 默认
+    BATCH;          // 批处理、回填等可以延后的请求
+
+    /** 调用附件中的调度等级 */
+    public static final String ATTACHMENT = "rpc.priority";
+
+    private static final PriorityClass[] VALUES = values();
+
+    /**
+     * 按请求优先级换算：不低于交互阈值为INTERACTIVE，不高于批处理阈值为BATCH
+     */
+    public static PriorityClass of(int priority) {
+        if (priority >= RpcConfig.getInteractivePriorityThreshold()) {
+            return INTERACTIVE;
+        }
+        if (priority <= RpcConfig.getBatchPriorityThreshold()) {
+            return BATCH;
+        }
+        return NORMAL;
+    }
+
+    /**
+     * 解析附件中的值，缺失或不认识时为NORMAL
+     */
+    public static PriorityClass fromWireValue(String value) {
+        for (PriorityClass priorityClass : VALUES) {
+            if (priorityClass.name().equals(value)) {
+                return priorityClass;
+            }
+        }
+        return NORMAL;
+    }
+
+    public static PriorityClass[] all() {
+        return VALUES;
+    }
+}
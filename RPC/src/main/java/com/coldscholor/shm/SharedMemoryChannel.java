@@ -0,0 +1,239 @@
+package com.coldscholor.shm;
+
+import com.coldscholor.buffer.PooledByteArrayOutputStream;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 共享内存通道：一个内存映射文件，包含请求和响应两个单生产者/单消费者环形缓冲区
+ * 文件布局：[0,64)通道头（魔数、版本、环容量、状态），之后依次是请求环和响应环。
+ * 客户端创建文件并独占使用通道（同一时刻只有一个请求），服务端扫描到文件后接入，
+ * 任一方关闭通道时把状态置为CLOSED，对端在下一次轮询时退出
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class SharedMemoryChannel implements Closeable {
+
+    /** 文件扩展名 */
+    public static final String FILE_SUFFIX = ".ring";
+
+    private static final int MAGIC = 0x52504353;
+
+    private static final int VERSION = 1;
+
+    private static final int MAGIC_OFFSET = 0;
+
+    private static final int VERSION_OFFSET = 4;
+
+    private static final int CAPACITY_OFFSET = 8;
+
+    private static final int STATE_OFFSET = 12;
+
+    private static final int RINGS_OFFSET = 128;
+
+    /** 客户端已创建，等待服务端接入 */
+    static final int CREATED = 0;
+
+    /** 服务端已接入 */
+    static final int ATTACHED = 1;
+
+    /** 已关闭 */
+    static final int CLOSED = 2;
+
+    /** 通道文件 */
+    private final File file;
+
+    /** 映射的内存 */
+    private final MappedByteBuffer mapped;
+
+    /** 请求环：客户端写，服务端读 */
+    private final SharedMemoryRing requestRing;
+
+    /** 响应环：服务端写，客户端读 */
+    private final SharedMemoryRing responseRing;
+
+    /** 等待策略 */
+    private final WaitStrategy waitStrategy;
+
+    private SharedMemoryChannel(File file, MappedByteBuffer mapped, int capacity, WaitStrategy waitStrategy) {
+        this.file = file;
+        this.mapped = mapped;
+        this.waitStrategy = waitStrategy;
+        int ringSize = SharedMemoryRing.size(capacity);
+        this.requestRing = new SharedMemoryRing(slice(mapped, RINGS_OFFSET, ringSize));
+        this.responseRing = new SharedMemoryRing(slice(mapped, RINGS_OFFSET + ringSize, ringSize));
+    }
+
+    /**
+     * 客户端创建通道文件
+     *
+     * @param capacity 每个环的数据区容量，2的幂
+     */
+    public static SharedMemoryChannel create(File file, int capacity, WaitStrategy waitStrategy) throws IOException {
+        int size = RINGS_OFFSET + 2 * SharedMemoryRing.size(capacity);
+        // 先写到临时文件，初始化完成后再改名，服务端不会扫描到未初始化的文件
+        File temp = new File(file.getPath() + ".tmp");
+        MappedByteBuffer mapped = map(temp, size);
+        mapped.putInt(VERSION_OFFSET, VERSION);
+        mapped.putInt(CAPACITY_OFFSET, capacity);
+        SharedMemoryRing.writeInt(mapped, STATE_OFFSET, CREATED);
+        SharedMemoryRing.writeInt(mapped, MAGIC_OFFSET, MAGIC);
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Failed to create shared memory channel " + file);
+        }
+        return new SharedMemoryChannel(file, mapped, capacity, waitStrategy);
+    }
+
+    /**
+     * 服务端接入客户端创建的通道
+     */
+    public static SharedMemoryChannel attach(File file, WaitStrategy waitStrategy) throws IOException {
+        MappedByteBuffer mapped = map(file, 0);
+        if (mapped.capacity() < RINGS_OFFSET || SharedMemoryRing.readInt(mapped, MAGIC_OFFSET) != MAGIC
+            || mapped.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("Not a shared memory channel: " + file);
+        }
+        int capacity = mapped.getInt(CAPACITY_OFFSET);
+        if (mapped.capacity() != RINGS_OFFSET + 2 * SharedMemoryRing.size(capacity)) {
+            throw new IOException("Corrupted shared memory channel: " + file);
+        }
+        SharedMemoryChannel channel = new SharedMemoryChannel(file, mapped, capacity, waitStrategy);
+        SharedMemoryRing.writeInt(mapped, STATE_OFFSET, ATTACHED);
+        return channel;
+    }
+
+    /**
+     * 客户端等待服务端接入
+     *
+     * @return 是否在超时前接入
+     */
+    public boolean awaitAttached(long timeoutMillis) throws InterruptedIOException {
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+        int iteration = 0;
+        while (state() == CREATED) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Interrupted while waiting for provider to attach");
+            }
+            WaitStrategy.PARK.idle(iteration++);
+        }
+        return state() == ATTACHED;
+    }
+
+    public void writeRequest(byte[] src, int off, int len, long deadlineNanos) throws IOException {
+        write(requestRing, src, off, len, deadlineNanos);
+    }
+
+    public void readRequest(PooledByteArrayOutputStream out, long deadlineNanos) throws IOException {
+        read(requestRing, out, deadlineNanos);
+    }
+
+    public void writeResponse(byte[] src, int off, int len, long deadlineNanos) throws IOException {
+        write(responseRing, src, off, len, deadlineNanos);
+    }
+
+    public void readResponse(PooledByteArrayOutputStream out, long deadlineNanos) throws IOException {
+        read(responseRing, out, deadlineNanos);
+    }
+
+    /**
+     * 写入一条消息，环满时按等待策略等待消费者腾出空间
+     *
+     * @param deadlineNanos 截止时间(System.nanoTime)，0表示不限制
+     */
+    private void write(SharedMemoryRing ring, byte[] src, int off, int len, long deadlineNanos) throws IOException {
+        int iteration = 0;
+        while (len > 0) {
+            int written = ring.tryWrite(src, off, len);
+            if (written > 0) {
+                off += written;
+                len -= written;
+                iteration = 0;
+                continue;
+            }
+            checkWaiting(deadlineNanos);
+            waitStrategy.idle(iteration++);
+        }
+    }
+
+    /**
+     * 读取一条完整消息，没有数据时按等待策略等待
+     */
+    private void read(SharedMemoryRing ring, PooledByteArrayOutputStream out, long deadlineNanos) throws IOException {
+        int iteration = 0;
+        while (true) {
+            int read = ring.tryRead(out);
+            if (read == 1) {
+                return;
+            }
+            if (read == 0) {
+                iteration = 0;
+                continue;
+            }
+            checkWaiting(deadlineNanos);
+            waitStrategy.idle(iteration++);
+        }
+    }
+
+    private void checkWaiting(long deadlineNanos) throws IOException {
+        if (state() == CLOSED) {
+            throw new EOFException("Shared memory channel closed by peer: " + file.getName());
+        }
+        if (deadlineNanos != 0L && System.nanoTime() - deadlineNanos > 0) {
+            throw new InterruptedIOException("Shared memory call timed out on " + file.getName());
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Interrupted while waiting on " + file.getName());
+        }
+    }
+
+    public boolean isClosed() {
+        return state() == CLOSED;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    private int state() {
+        return SharedMemoryRing.readInt(mapped, STATE_OFFSET);
+    }
+
+    /**
+     * 关闭通道并删除文件；映射的内存在GC时释放，已映射的对端不受删除影响
+     */
+    @Override
+    public void close() {
+        SharedMemoryRing.writeInt(mapped, STATE_OFFSET, CLOSED);
+        file.delete();
+    }
+
+    private static MappedByteBuffer map(File file, int size) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel fileChannel = raf.getChannel()) {
+            int length = size > 0 ? size : (int) fileChannel.size();
+            MappedByteBuffer mapped = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            mapped.order(ByteOrder.nativeOrder());
+            return mapped;
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset);
+        duplicate.limit(offset + length);
+        return duplicate.slice().order(ByteOrder.nativeOrder());
+    }
+}
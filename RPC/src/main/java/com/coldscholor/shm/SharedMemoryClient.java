@@ -0,0 +1,223 @@
+package com.coldscholor.shm;
+
+import com.coldscholor.buffer.PooledByteArrayOutputStream;
+import com.coldscholor.common.Invocation;
+import com.coldscholor.common.URL;
+import com.coldscholor.config.RpcConfig;
+import com.coldscholor.jfr.SerializeEvent;
+import com.coldscholor.limit.BulkheadRejectedException;
+import com.coldscholor.limit.ProviderOverloadedException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 共享内存传输的客户端
+ * 只用于主机是本机、且提供者写入了共享内存标记文件的端点；
+ * 每个端点维护一组空闲通道，调用时独占一个通道，写入请求后等待响应，用完放回
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class SharedMemoryClient {
+
+    /** 单例实例 */
+    private static volatile SharedMemoryClient instance;
+
+    /** 各端点（host:port）的空闲通道 */
+    private final ConcurrentHashMap<String, ArrayBlockingQueue<SharedMemoryChannel>> idleChannels;
+
+    /** 各主机名是否为本机 */
+    private final ConcurrentHashMap<String, Boolean> localHosts;
+
+    /** 通道文件名前缀：进程名 */
+    private final String processName;
+
+    /** 通道序号 */
+    private final AtomicLong channelSequence;
+
+    /** 请求ID */
+    private final AtomicLong requestIdGenerator;
+
+    /** 等待策略 */
+    private final WaitStrategy waitStrategy;
+
+    private SharedMemoryClient() {
+        this.idleChannels = new ConcurrentHashMap<>();
+        this.localHosts = new ConcurrentHashMap<>();
+        this.processName = ManagementFactory.getRuntimeMXBean().getName().replaceAll("[^A-Za-z0-9.-]", "_");
+        this.channelSequence = new AtomicLong();
+        this.requestIdGenerator = new AtomicLong();
+        this.waitStrategy = WaitStrategy.valueOf(RpcConfig.getShmWaitStrategy());
+    }
+
+    /**
+     * 获取单例实例
+     */
+    public static SharedMemoryClient getInstance() {
+        if (instance == null) {
+            synchronized (SharedMemoryClient.class) {
+                if (instance == null) {
+                    instance = new SharedMemoryClient();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 端点是否可以使用共享内存传输：主机是本机，且该端口的提供者已启动共享内存服务端
+     */
+    public boolean supports(URL url) {
+        Boolean local = localHosts.get(url.getHostName());
+        if (local == null) {
+            local = localHosts.computeIfAbsent(url.getHostName(), SharedMemoryClient::isLocalHost);
+        }
+        return local && new File(SharedMemoryServer.directory(url.getPort()), SharedMemoryServer.MARKER_FILE).exists();
+    }
+
+    /**
+     * 通过共享内存发送请求并等待响应
+     *
+     * @param timeoutMillis 超时时间(毫秒)，不大于0时使用默认的读取超时
+     * @return 响应结果，单向调用返回null
+     * @throws IOException 通道建立失败、超时或服务端执行失败
+     */
+    public String sendRequest(URL url, Invocation invocation, int timeoutMillis) throws IOException {
+        long deadlineNanos = System.nanoTime()
+            + TimeUnit.MILLISECONDS.toNanos(timeoutMillis > 0 ? timeoutMillis : RpcConfig.getReadTimeout());
+        long requestId = requestIdGenerator.incrementAndGet();
+        PooledByteArrayOutputStream request = new PooledByteArrayOutputStream();
+        PooledByteArrayOutputStream response = new PooledByteArrayOutputStream();
+        SharedMemoryChannel channel = null;
+        try {
+            writeLong(request, requestId);
+            SerializeEvent event = SerializeEvent.start();
+            try (ObjectOutputStream oos = new ObjectOutputStream(request)) {
+                oos.writeObject(invocation);
+            }
+            if (event != null) {
+                event.finish(invocation.getInterfaceName(), request.size() - 8);
+            }
+            channel = lease(url);
+            channel.writeRequest(request.array(), 0, request.size(), deadlineNanos);
+            channel.readResponse(response, deadlineNanos);
+            if (response.size() < 9 || readLong(response.array()) != requestId) {
+                throw new IOException("Unexpected shared memory response on " + channel.getFile().getName());
+            }
+            // 通道上没有未读的数据，可以复用
+            giveBack(url, channel);
+            channel = null;
+            return decode(url, response);
+        } catch (IOException | RuntimeException e) {
+            // 超时的通道上可能还会收到迟到的响应，不再复用
+            if (channel != null) {
+                channel.close();
+            }
+            throw e;
+        } finally {
+            request.release();
+            response.release();
+        }
+    }
+
+    /**
+     * 关闭所有空闲通道
+     */
+    public void shutdown() {
+        for (ArrayBlockingQueue<SharedMemoryChannel> queue : idleChannels.values()) {
+            SharedMemoryChannel channel;
+            while ((channel = queue.poll()) != null) {
+                channel.close();
+            }
+        }
+    }
+
+    private String decode(URL url, PooledByteArrayOutputStream response) throws IOException {
+        byte status = response.array()[8];
+        switch (status) {
+            case SharedMemoryServer.STATUS_OK:
+                return new String(response.array(), 9, response.size() - 9, StandardCharsets.UTF_8);
+            case SharedMemoryServer.STATUS_NULL:
+            case SharedMemoryServer.STATUS_ACCEPTED:
+                return null;
+            case SharedMemoryServer.STATUS_REJECTED:
+                throw new IOException("One-way call rejected by provider");
+            case SharedMemoryServer.STATUS_DEADLINE_EXCEEDED:
+                throw new InterruptedIOException("Provider dropped the call because its deadline expired");
+            case SharedMemoryServer.STATUS_BULKHEAD_REJECTED:
+                String[] rejection = new String(response.array(), 9, response.size() - 9, StandardCharsets.UTF_8).split(" ", 2);
+                throw new ProviderOverloadedException(url.getAddress(), new BulkheadRejectedException(rejection[1],
+                    BulkheadRejectedException.Reason.valueOf(rejection[0])));
+            default:
+                throw new IOException("Provider failed: "
+                    + new String(response.array(), 9, response.size() - 9, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * 取一个空闲通道，没有时新建并等待服务端接入
+     */
+    private SharedMemoryChannel lease(URL url) throws IOException {
+        ArrayBlockingQueue<SharedMemoryChannel> queue = idleChannels.get(url.getAddress());
+        SharedMemoryChannel channel;
+        while (queue != null && (channel = queue.poll()) != null) {
+            if (!channel.isClosed()) {
+                return channel;
+            }
+        }
+        File file = new File(SharedMemoryServer.directory(url.getPort()),
+            processName + "-" + channelSequence.incrementAndGet() + SharedMemoryChannel.FILE_SUFFIX);
+        channel = SharedMemoryChannel.create(file, RpcConfig.getShmRingCapacity(), waitStrategy);
+        if (!channel.awaitAttached(RpcConfig.getShmAttachTimeout())) {
+            channel.close();
+            throw new IOException("Provider did not attach shared memory channel " + file.getName());
+        }
+        return channel;
+    }
+
+    private void giveBack(URL url, SharedMemoryChannel channel) {
+        ArrayBlockingQueue<SharedMemoryChannel> queue = idleChannels.get(url.getAddress());
+        if (queue == null) {
+            queue = idleChannels.computeIfAbsent(url.getAddress(),
+                address -> new ArrayBlockingQueue<>(RpcConfig.getShmChannelsPerEndpoint()));
+        }
+        if (!queue.offer(channel)) {
+            channel.close();
+        }
+    }
+
+    private static boolean isLocalHost(String hostName) {
+        try {
+            InetAddress address = InetAddress.getByName(hostName);
+            return address.isLoopbackAddress() || address.isAnyLocalAddress()
+                || NetworkInterface.getByInetAddress(address) != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void writeLong(PooledByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    private static long readLong(byte[] data) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (data[i] & 0xff);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,195 @@
+package com.coldscholor.shm;
+
+import com.coldscholor.buffer.PooledByteArrayOutputStream;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
+/**
+ * 映射在共享内存上的单生产者/单消费者环形缓冲区
+ * 布局：[0,8)读位置head，[64,72)写位置tail（各占一个缓存行），[128, 128+capacity)数据区。
+ * head/tail单调递增，只由消费者/生产者各自写入，不需要锁和CAS；
+ * 每条记录为4字节长度头加内容，按8字节对齐，长度头最高位表示后面还有分片。
+ * 跨进程的可见性通过Unsafe内存屏障保证：生产者先写内容再发布tail，消费者读完内容再发布head
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+final class SharedMemoryRing {
+
+    /** 头部大小 */
+    static final int HEADER_SIZE = 128;
+
+    private static final int HEAD = 0;
+
+    private static final int TAIL = 64;
+
+    /** 还有后续分片的标记 */
+    private static final int MORE = 0x80000000;
+
+    /** Unsafe的三种内存屏障，运行时反射加载并绑定到实例，编译期不引用内部API */
+    private static final MethodHandle LOAD_FENCE;
+
+    private static final MethodHandle STORE_FENCE;
+
+    private static final MethodHandle FULL_FENCE;
+
+    static {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodType fence = MethodType.methodType(void.class);
+            LOAD_FENCE = lookup.findVirtual(unsafeClass, "loadFence", fence).bindTo(unsafe);
+            STORE_FENCE = lookup.findVirtual(unsafeClass, "storeFence", fence).bindTo(unsafe);
+            FULL_FENCE = lookup.findVirtual(unsafeClass, "fullFence", fence).bindTo(unsafe);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** 本环形缓冲区的内存区域 */
+    private final ByteBuffer buffer;
+
+    /** 批量拷贝用的视图，一个进程只以生产者或消费者一种身份使用同一个环，视图不会被并发使用 */
+    private final ByteBuffer view;
+
+    /** 数据区容量，2的幂 */
+    private final int capacity;
+
+    private final int mask;
+
+    /** 单个分片的最大长度，留出空间让消费者读取时生产者可以继续写 */
+    private final int maxFragment;
+
+    SharedMemoryRing(ByteBuffer region) {
+        this.buffer = region;
+        this.view = region.duplicate();
+        this.capacity = region.capacity() - HEADER_SIZE;
+        if (Integer.bitCount(capacity) != 1 || capacity < 64) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.maxFragment = capacity / 2;
+    }
+
+    /**
+     * 环形缓冲区占用的字节数
+     */
+    static int size(int capacity) {
+        return HEADER_SIZE + capacity;
+    }
+
+    /**
+     * 写入一个分片，空间不足时只写能放下的部分
+     *
+     * @return 写入的内容字节数，没有空间时返回0
+     */
+    int tryWrite(byte[] src, int off, int len) {
+        long tail = buffer.getLong(TAIL);
+        long head = buffer.getLong(HEAD);
+        // 读到head之后才能覆盖消费者已释放的空间
+        loadFence();
+        long free = capacity - (tail - head);
+        int n = (int) Math.min(len, Math.min(maxFragment, free - 4));
+        if (n <= 0) {
+            return 0;
+        }
+        int index = (int) (tail & mask);
+        int dataIndex = (index + 4) & mask;
+        int first = Math.min(n, capacity - dataIndex);
+        view.position(HEADER_SIZE + dataIndex);
+        view.put(src, off, first);
+        if (n > first) {
+            view.position(HEADER_SIZE);
+            view.put(src, off + first, n - first);
+        }
+        buffer.putInt(HEADER_SIZE + index, n < len ? n | MORE : n);
+        // 内容和长度头写完后才发布
+        storeFence();
+        buffer.putLong(TAIL, tail + align(4 + n));
+        return n;
+    }
+
+    /**
+     * 读取一个分片追加到out
+     *
+     * @return -1表示没有数据，0表示读到了分片但消息还没结束，1表示读到了消息的最后一个分片
+     */
+    int tryRead(PooledByteArrayOutputStream out) {
+        long head = buffer.getLong(HEAD);
+        long tail = buffer.getLong(TAIL);
+        // 读到tail之后才能读取生产者发布的内容
+        loadFence();
+        if (head == tail) {
+            return -1;
+        }
+        int index = (int) (head & mask);
+        int header = buffer.getInt(HEADER_SIZE + index);
+        int n = header & ~MORE;
+        int dataIndex = (index + 4) & mask;
+        int first = Math.min(n, capacity - dataIndex);
+        ByteBuffer target = out.writableBuffer(n);
+        view.position(HEADER_SIZE + dataIndex);
+        view.get(target.array(), target.position(), first);
+        if (n > first) {
+            view.position(HEADER_SIZE);
+            view.get(target.array(), target.position() + first, n - first);
+        }
+        out.advance(n);
+        // 内容读完后才释放空间
+        storeFence();
+        buffer.putLong(HEAD, head + align(4 + n));
+        return (header & MORE) != 0 ? 0 : 1;
+    }
+
+    /**
+     * 跨进程读取一个int（通道状态）
+     */
+    static int readInt(ByteBuffer buffer, int index) {
+        int value = buffer.getInt(index);
+        loadFence();
+        return value;
+    }
+
+    /**
+     * 跨进程写入一个int（通道状态），之前的写入先对对端可见
+     */
+    static void writeInt(ByteBuffer buffer, int index, int value) {
+        storeFence();
+        buffer.putInt(index, value);
+        fullFence();
+    }
+
+    private static long align(int length) {
+        return (length + 7) & ~7L;
+    }
+
+    private static void loadFence() {
+        fence(LOAD_FENCE);
+    }
+
+    private static void storeFence() {
+        fence(STORE_FENCE);
+    }
+
+    private static void fullFence() {
+        fence(FULL_FENCE);
+    }
+
+    /**
+     * 执行内存屏障，本方法内联后句柄是静态常量，invokeExact会被即时编译内联
+     */
+    private static void fence(MethodHandle handle) {
+        try {
+            handle.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Memory fence failed", e);
+        }
+    }
+}
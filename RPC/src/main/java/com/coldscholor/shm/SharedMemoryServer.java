@@ -0,0 +1,335 @@
+package com.coldscholor.shm;
+
+import com.coldscholor.buffer.PooledByteArrayOutputStream;
+import com.coldscholor.common.Invocation;
+import com.coldscholor.common.MethodDescriptor;
+import com.coldscholor.config.RpcConfig;
+import com.coldscholor.deadline.Deadline;
+import com.coldscholor.deadline.DeadlineExceededException;
+import com.coldscholor.jfr.DeserializeEvent;
+import com.coldscholor.jfr.ServerDispatchEvent;
+import com.coldscholor.limit.BulkheadRegistry;
+import com.coldscholor.limit.BulkheadRejectedException;
+import com.coldscholor.metrics.CallMetrics;
+import com.coldscholor.metrics.MetricsRegistry;
+import com.coldscholor.protocol.OneWayInvoker;
+import com.coldscholor.protocol.StreamingResponseWriter;
+import com.coldscholor.register.ExportedService;
+import com.coldscholor.register.LocalRegister;
+import com.coldscholor.schedule.FairScheduler;
+import com.coldscholor.schedule.PriorityClass;
+import com.coldscholor.trace.Scope;
+import com.coldscholor.trace.Span;
+import com.coldscholor.trace.Tracer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 共享内存传输的服务端
+ * 在共享内存目录下按端口建立子目录并写入标记文件，客户端据此判断本机的提供者支持共享内存传输；
+ * 后台线程扫描客户端创建的通道文件并接入，每个通道由一个工作线程轮询请求、执行服务方法并写回响应。
+ * 只支持返回String的普通调用和单向调用，流式结果和流式参数仍走HTTP
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class SharedMemoryServer {
+
+    /** 提供者标记文件名 */
+    static final String MARKER_FILE = "provider";
+
+    /** 响应状态：成功，内容为UTF-8结果 */
+    static final byte STATUS_OK = 0;
+
+    /** 响应状态：成功，结果为null */
+    static final byte STATUS_NULL = 1;
+
+    /** 响应状态：失败，内容为错误信息 */
+    static final byte STATUS_ERROR = 2;
+
+    /** 响应状态：单向调用已接收 */
+    static final byte STATUS_ACCEPTED = 3;
+
+    /** 响应状态：单向调用队列已满被拒绝 */
+    static final byte STATUS_REJECTED = 4;
+
+    /** 响应状态：截止时间已过，请求被丢弃或服务方法中止 */
+    static final byte STATUS_DEADLINE_EXCEEDED = 5;
+
+    /** 响应状态：隔离舱已满或超过限流速率，内容为"原因 分组名" */
+    static final byte STATUS_BULKHEAD_REJECTED = 6;
+
+    /** 扫描通道文件的间隔(毫秒) */
+    private static final long SCAN_INTERVAL_MILLIS = 20;
+
+    /** 端口对应的共享内存目录 */
+    private final File directory;
+
+    /** 已接入的通道文件 */
+    private final Set<String> attached = ConcurrentHashMap.newKeySet();
+
+    /** 扫描线程 */
+    private final ScheduledExecutorService acceptor;
+
+    /** 工作线程工厂 */
+    private final ThreadFactory workerFactory;
+
+    /** 等待策略 */
+    private final WaitStrategy waitStrategy;
+
+    private volatile boolean running = true;
+
+    private SharedMemoryServer(int port) {
+        this.directory = directory(port);
+        this.acceptor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("rpc-shm-acceptor-" + port).setDaemon(true).build());
+        this.workerFactory = new ThreadFactoryBuilder().setNameFormat("rpc-shm-worker-" + port + "-%d").setDaemon(true).build();
+        this.waitStrategy = WaitStrategy.valueOf(RpcConfig.getShmWaitStrategy());
+    }
+
+    /**
+     * 为端口启动共享内存服务端
+     */
+    public static SharedMemoryServer start(int port) throws IOException {
+        SharedMemoryServer server = new SharedMemoryServer(port);
+        if (!server.directory.isDirectory() && !server.directory.mkdirs()) {
+            throw new IOException("Failed to create shared memory directory " + server.directory);
+        }
+        // 上一次运行残留的通道文件已无人使用
+        File[] stale = server.directory.listFiles();
+        if (stale != null) {
+            for (File file : stale) {
+                file.delete();
+            }
+        }
+        Files.write(new File(server.directory, MARKER_FILE).toPath(),
+            ManagementFactory.getRuntimeMXBean().getName().getBytes(StandardCharsets.UTF_8));
+        server.acceptor.scheduleWithFixedDelay(server::scan, 0, SCAN_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        return server;
+    }
+
+    /**
+     * 端口对应的共享内存目录
+     */
+    static File directory(int port) {
+        return new File(RpcConfig.getShmDirectory(), String.valueOf(port));
+    }
+
+    /**
+     * 停止接入新通道，关闭已接入的通道
+     */
+    public void shutdown() {
+        running = false;
+        acceptor.shutdownNow();
+        new File(directory, MARKER_FILE).delete();
+    }
+
+    private void scan() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SharedMemoryChannel.FILE_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (!attached.add(file.getName())) {
+                continue;
+            }
+            try {
+                SharedMemoryChannel channel = SharedMemoryChannel.attach(file, waitStrategy);
+                workerFactory.newThread(() -> serve(channel)).start();
+            } catch (IOException e) {
+                attached.remove(file.getName());
+                System.err.println("Failed to attach shared memory channel " + file.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 工作线程：循环读取请求、执行并写回响应，通道关闭时退出
+     */
+    private void serve(SharedMemoryChannel channel) {
+        PooledByteArrayOutputStream request = new PooledByteArrayOutputStream();
+        PooledByteArrayOutputStream response = new PooledByteArrayOutputStream();
+        try {
+            while (running) {
+                request.reset();
+                channel.readRequest(request, 0L);
+                response.reset();
+                handle(request, response);
+                channel.writeResponse(response.array(), 0, response.size(), 0L);
+            }
+        } catch (IOException e) {
+            // 客户端关闭了通道
+        } finally {
+            channel.close();
+            attached.remove(channel.getFile().getName());
+            request.release();
+            response.release();
+        }
+    }
+
+    /**
+     * 执行一次调用：请求为8字节请求ID加序列化的Invocation，响应为请求ID、状态和内容
+     */
+    private void handle(PooledByteArrayOutputStream request, PooledByteArrayOutputStream response) {
+        byte[] data = request.array();
+        for (int i = 0; i < 8; i++) {
+            response.write(data[i]);
+        }
+        long startNanos = System.nanoTime();
+        CallMetrics metrics = null;
+        Span span = Span.NOOP;
+        Scope scope = null;
+        Deadline deadline = null;
+        Scope deadlineScope = null;
+        BulkheadRegistry.MethodGuard guard = null;
+        PriorityClass scheduled = null;
+        Throwable failure = null;
+        Invocation invocation = null;
+        ServerDispatchEvent dispatchEvent = ServerDispatchEvent.start();
+        try {
+            DeserializeEvent deserializeEvent = DeserializeEvent.start();
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data, 8, request.size() - 8))) {
+                invocation = (Invocation) ois.readObject();
+            }
+            if (deserializeEvent != null) {
+                deserializeEvent.finish(invocation.getInterfaceName(), request.size() - 8);
+            }
+            span = Tracer.getInstance().startServerSpan(invocation);
+            scope = span.makeCurrent();
+            deadline = RpcConfig.isDeadlinePropagationEnabled()
+                ? Deadline.fromWireValue(invocation.getAttachment(Deadline.ATTACHMENT)) : null;
+            ExportedService service = LocalRegister.getService(invocation.getInterfaceName(), "1.0");
+            if (service == null) {
+                throw new IllegalStateException("Service not found: " + invocation.getInterfaceName());
+            }
+            MethodDescriptor method = service.findMethod(invocation.getMethodName(), invocation.getParameterTypes());
+            if (method == null) {
+                throw new NoSuchMethodException(invocation.getInterfaceName() + "." + invocation.getMethodName());
+            }
+            metrics = MetricsRegistry.getInstance().getProviderMetrics(invocation.getInterfaceName(), invocation.getMethodName());
+
+            // 调用方已经放弃的请求不再排队和执行
+            if (deadline != null && deadline.isExpired()) {
+                Deadline.recordDropped(Deadline.Stage.INVOKE);
+                response.write(STATUS_DEADLINE_EXCEEDED);
+                metrics.recordTimeout(System.nanoTime() - startNanos);
+                return;
+            }
+            BulkheadRegistry.MethodGuard methodGuard = BulkheadRegistry.getInstance()
+                .getGuard(invocation.getInterfaceName(), service.getImplementationClass(), method);
+            try {
+                methodGuard.acquire();
+            } catch (BulkheadRejectedException e) {
+                response.write(STATUS_BULKHEAD_REJECTED);
+                response.writeUtf8(e.getReason().name() + " " + e.getGroup());
+                metrics.recordRejected();
+                return;
+            }
+            if (invocation.isOneWay()) {
+                boolean accepted = OneWayInvoker.getInstance()
+                    .submit(service, method, invocation.getArguments(), deadline, methodGuard);
+                response.write(accepted ? STATUS_ACCEPTED : STATUS_REJECTED);
+                if (accepted) {
+                    metrics.recordSuccess(System.nanoTime() - startNanos);
+                } else {
+                    metrics.recordRejected();
+                }
+                return;
+            }
+
+            guard = methodGuard;
+            if (RpcConfig.isSchedulerEnabled()) {
+                PriorityClass priorityClass = PriorityClass.fromWireValue(invocation.getAttachment(PriorityClass.ATTACHMENT));
+                if (!FairScheduler.getInstance().acquire(priorityClass,
+                        invocation.getAttachment(FairScheduler.CALLER_ATTACHMENT),
+                        deadline == null ? 0L : deadline.getDeadlineNanos())) {
+                    Deadline.recordDropped(Deadline.Stage.QUEUED);
+                    response.write(STATUS_DEADLINE_EXCEEDED);
+                    metrics.recordTimeout(System.nanoTime() - startNanos);
+                    return;
+                }
+                scheduled = priorityClass;
+            }
+            if (deadline != null) {
+                deadlineScope = deadline.makeCurrent();
+            }
+            Object result = service.invoke(method, invocation.getArguments());
+            if (StreamingResponseWriter.isStream(result)) {
+                throw new IllegalStateException("Streaming results are not supported over shared memory");
+            }
+            if (result == null) {
+                response.write(STATUS_NULL);
+            } else {
+                response.write(STATUS_OK);
+                response.writeUtf8((String) result);
+            }
+            metrics.recordSuccess(System.nanoTime() - startNanos);
+        } catch (InvocationTargetException e) {
+            failure = e.getTargetException();
+            if (failure instanceof DeadlineExceededException) {
+                // 服务方法通过Deadline.check()中止
+                Deadline.recordDropped(Deadline.Stage.INVOKE);
+                response.reset();
+                response.advance(8);
+                response.write(STATUS_DEADLINE_EXCEEDED);
+                if (metrics != null) {
+                    metrics.recordTimeout(System.nanoTime() - startNanos);
+                }
+            } else {
+                error(response, failure);
+                recordError(metrics, startNanos);
+            }
+        } catch (Exception e) {
+            failure = e;
+            error(response, e);
+            recordError(metrics, startNanos);
+        } finally {
+            if (scheduled != null) {
+                FairScheduler.getInstance().release(scheduled);
+            }
+            if (guard != null) {
+                guard.release();
+            }
+            if (deadlineScope != null) {
+                deadlineScope.close();
+            }
+            if (scope != null) {
+                scope.close();
+            }
+            span.end(failure);
+            if (dispatchEvent != null) {
+                dispatchEvent.finish(invocation == null ? null : invocation.getInterfaceName(),
+                    invocation == null ? null : invocation.getMethodName(), "shm",
+                    invocation != null && invocation.isOneWay(), span.getTraceId(), failure);
+            }
+        }
+    }
+
+    private static void recordError(CallMetrics metrics, long startNanos) {
+        if (metrics != null) {
+            metrics.recordError(System.nanoTime() - startNanos);
+        }
+    }
+
+    private static void error(PooledByteArrayOutputStream response, Throwable error) {
+        // 丢弃已写入的部分结果，保留开头的请求ID
+        response.reset();
+        response.advance(8);
+        response.write(STATUS_ERROR);
+        response.writeUtf8(String.valueOf(error));
+    }
+}
@@ -0,0 +1,61 @@
+package com.coldscholor.shm;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 共享内存传输的等待策略
+ * 对端在另一个进程中，无法唤醒本线程，只能轮询环形缓冲区
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public enum WaitStrategy {
+
+    /**
+     * 忙等：延迟最低，等待期间占满一个CPU；定期让出CPU，避免CPU不足时饿死对端
+     */
+    SPIN {
+        @Override
+        public void idle(int iteration) {
+            if ((iteration & 0x3ff) == 0x3ff) {
+                Thread.yield();
+            }
+        }
+    },
+
+    /**
+     * 先短暂自旋，再让出CPU，最后按空闲时长逐步延长休眠，空闲通道几乎不占CPU
+     */
+    PARK {
+        @Override
+        public void idle(int iteration) {
+            if (iteration < SPIN_ITERATIONS) {
+                return;
+            }
+            if (iteration < SPIN_ITERATIONS + YIELD_ITERATIONS) {
+                Thread.yield();
+                return;
+            }
+            LockSupport.parkNanos(iteration < LONG_IDLE_ITERATIONS ? SHORT_PARK_NANOS : LONG_PARK_NANOS);
+        }
+    };
+
+    /** 自旋次数 */
+    private static final int SPIN_ITERATIONS = 1000;
+
+    /** 让出CPU的次数 */
+    private static final int YIELD_ITERATIONS = 100;
+
+    /** 超过该次数（约0.5秒空闲）后改为长休眠 */
+    private static final int LONG_IDLE_ITERATIONS = 10000;
+
+    private static final long SHORT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private static final long LONG_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * 第iteration次轮询没有数据时调用
+     */
+    public abstract void idle(int iteration);
+}
@@ -0,0 +1,189 @@
+package com.coldscholor.threadpool;
+
+import com.coldscholor.deadline.Deadline;
+import com.coldscholor.jfr.ExecutorQueueWaitEvent;
+import com.coldscholor.metrics.LatencyHistogram;
+import com.coldscholor.trace.Scope;
+import com.coldscholor.trace.TraceContext;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带统计的线程池
+ * 记录每个任务的排队等待时间和执行时间、被拒绝次数以及CallerRunsPolicy退回调用线程执行的次数；
+ * 核心线程数、最大线程数和队列容量都可以在运行时调整。任务在提交时的追踪上下文中执行
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+
+    /** 线程池名称，同时是线程名前缀 */
+    private final String name;
+
+    /** 可调整容量的任务队列 */
+    private final ResizableBlockingQueue<Runnable> queue;
+
+    /** 任务从提交到开始执行的等待时间 */
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+
+    /** 任务执行时间 */
+    private final LatencyHistogram runTime = new LatencyHistogram();
+
+    /** 被拒绝（抛出RejectedExecutionException）的任务数 */
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /** 队列满后退回提交线程执行的任务数 */
+    private final LongAdder callerRunsCount = new LongAdder();
+
+    public InstrumentedThreadPoolExecutor(String name, int corePoolSize, int maximumPoolSize, long keepAliveSeconds,
+                                          int queueCapacity, ThreadFactory threadFactory,
+                                          RejectedExecutionHandler rejectedHandler) {
+        this(name, corePoolSize, maximumPoolSize, keepAliveSeconds,
+            new ResizableBlockingQueue<>(queueCapacity), threadFactory, rejectedHandler);
+    }
+
+    private InstrumentedThreadPoolExecutor(String name, int corePoolSize, int maximumPoolSize, long keepAliveSeconds,
+                                           ResizableBlockingQueue<Runnable> queue, ThreadFactory threadFactory,
+                                           RejectedExecutionHandler rejectedHandler) {
+        super(corePoolSize, maximumPoolSize, keepAliveSeconds, TimeUnit.SECONDS, queue, threadFactory);
+        this.name = name;
+        this.queue = queue;
+        setRejectedExecutionHandler(new CountingRejectedExecutionHandler(rejectedHandler));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        super.execute(new TimedTask(command));
+    }
+
+    /**
+     * 在线调整线程池大小和队列容量
+     * 扩大时先调最大线程数，缩小时先调核心线程数，任一时刻都满足核心线程数不超过最大线程数
+     *
+     * @param corePoolSize 核心线程数
+     * @param maximumPoolSize 最大线程数
+     * @param queueCapacity 队列容量
+     */
+    public synchronized void resize(int corePoolSize, int maximumPoolSize, int queueCapacity) {
+        if (corePoolSize < 0 || maximumPoolSize <= 0 || corePoolSize > maximumPoolSize || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Invalid pool size for " + name + ": core=" + corePoolSize
+                + ", max=" + maximumPoolSize + ", queue=" + queueCapacity);
+        }
+        if (maximumPoolSize >= getMaximumPoolSize()) {
+            setMaximumPoolSize(maximumPoolSize);
+            setCorePoolSize(corePoolSize);
+        } else {
+            setCorePoolSize(corePoolSize);
+            setMaximumPoolSize(maximumPoolSize);
+        }
+        queue.setCapacity(queueCapacity);
+    }
+
+    /**
+     * 当前统计快照
+     */
+    public ThreadPoolStats getStats() {
+        long waitCount = queueWait.getCount();
+        long runCount = runTime.getCount();
+        return new ThreadPoolStats(name, getCorePoolSize(), getMaximumPoolSize(), getPoolSize(), getActiveCount(),
+            getLargestPoolSize(), queue.size(), queue.getCapacity(), getCompletedTaskCount(),
+            rejectedCount.sum(), callerRunsCount.sum(),
+            waitCount == 0 ? 0.0 : queueWait.getTotalNanos() / 1e6 / waitCount,
+            queueWait.quantileNanos(0.99) / 1e6,
+            runCount == 0 ? 0.0 : runTime.getTotalNanos() / 1e6 / runCount);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueueCapacity() {
+        return queue.getCapacity();
+    }
+
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    public LatencyHistogram getRunTime() {
+        return runTime;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getCallerRunsCount() {
+        return callerRunsCount.sum();
+    }
+
+    /**
+     * 记录排队和执行时间、传递追踪上下文和截止时间的任务包装
+     */
+    private final class TimedTask implements Runnable {
+        private final Runnable task;
+        private final long submitNanos;
+        private final TraceContext traceContext;
+        private final Deadline deadline;
+        private final ExecutorQueueWaitEvent queueWaitEvent;
+
+        private TimedTask(Runnable task) {
+            this.task = task;
+            this.submitNanos = System.nanoTime();
+            this.traceContext = TraceContext.current();
+            this.deadline = Deadline.current();
+            this.queueWaitEvent = ExecutorQueueWaitEvent.start();
+        }
+
+        @Override
+        public void run() {
+            long startNanos = System.nanoTime();
+            queueWait.record(startNanos - submitNanos);
+            if (queueWaitEvent != null) {
+                queueWaitEvent.finish(name);
+            }
+            Scope scope = traceContext == null ? null : traceContext.makeCurrent();
+            Scope deadlineScope = deadline == null ? null : deadline.makeCurrent();
+            try {
+                task.run();
+            } finally {
+                if (deadlineScope != null) {
+                    deadlineScope.close();
+                }
+                if (scope != null) {
+                    scope.close();
+                }
+                runTime.record(System.nanoTime() - startNanos);
+            }
+        }
+    }
+
+    /**
+     * 统计拒绝次数后交给原拒绝策略处理
+     */
+    private final class CountingRejectedExecutionHandler implements RejectedExecutionHandler {
+        private final RejectedExecutionHandler delegate;
+
+        private CountingRejectedExecutionHandler(RejectedExecutionHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (delegate instanceof CallerRunsPolicy && !executor.isShutdown()) {
+                callerRunsCount.increment();
+            } else {
+                rejectedCount.increment();
+            }
+            delegate.rejectedExecution(r, executor);
+        }
+    }
+}
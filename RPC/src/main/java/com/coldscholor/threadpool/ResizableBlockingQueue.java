@@ -0,0 +1,46 @@
+package com.coldscholor.threadpool;
+
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * 容量可在线调整的任务队列
+ * ThreadPoolExecutor只通过offer(E)入队，容量检查放在这里；检查和入队之间没有加锁，
+ * 并发提交时可能短暂超出容量几个任务，换来入队路径不增加额外的锁竞争。
+ * 容量调小时已排队的任务不受影响，排空到新容量以下后才接受新任务
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+class ResizableBlockingQueue<E> extends LinkedBlockingQueue<E> {
+
+    private volatile int capacity;
+
+    ResizableBlockingQueue(int capacity) {
+        super();
+        setCapacity(capacity);
+    }
+
+    void setCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        if (size() >= capacity) {
+            return false;
+        }
+        return super.offer(e);
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Math.max(0, capacity - size());
+    }
+}
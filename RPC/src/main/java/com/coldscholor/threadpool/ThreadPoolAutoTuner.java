@@ -0,0 +1,123 @@
+package com.coldscholor.threadpool;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线程池自动调整器
+ * 每个周期比较各线程池的排队等待时间和拒绝次数：平均等待超过目标或出现拒绝、退回调用线程执行时，
+ * 核心线程数增加1/4（必要时同时提高最大线程数，不超过上限）；连续几个周期空闲时每次减少1/8，
+ * 不低于启动时的大小。队列容量是过载保护，只能通过管理接口调整
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class ThreadPoolAutoTuner {
+
+    /** 连续空闲多少个周期后缩容 */
+    private static final int SHRINK_AFTER_IDLE_TICKS = 3;
+
+    private final Collection<InstrumentedThreadPoolExecutor> pools;
+
+    /** 目标平均排队等待时间(纳秒) */
+    private final long targetQueueWaitNanos;
+
+    /** 最大线程数上限 */
+    private final int maxPoolSizeLimit;
+
+    /** 各线程池上一周期的累计值，只在调度线程中访问 */
+    private final Map<String, PoolState> states = new HashMap<>();
+
+    ThreadPoolAutoTuner(Collection<InstrumentedThreadPoolExecutor> pools, long targetQueueWaitNanos, int maxPoolSizeLimit) {
+        this.pools = pools;
+        this.targetQueueWaitNanos = targetQueueWaitNanos;
+        this.maxPoolSizeLimit = maxPoolSizeLimit;
+        for (InstrumentedThreadPoolExecutor pool : pools) {
+            states.put(pool.getName(), new PoolState(pool));
+        }
+    }
+
+    /**
+     * 按固定周期在调度器上运行
+     */
+    void start(ScheduledExecutorService scheduler, long intervalSeconds) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                tune();
+            } catch (RuntimeException e) {
+                System.err.println("Thread pool auto-tuning failed: " + e.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 执行一个调整周期
+     */
+    void tune() {
+        for (InstrumentedThreadPoolExecutor pool : pools) {
+            if (!pool.isShutdown()) {
+                tune(pool, states.get(pool.getName()));
+            }
+        }
+    }
+
+    private void tune(InstrumentedThreadPoolExecutor pool, PoolState state) {
+        long waitCount = pool.getQueueWait().getCount();
+        long waitNanos = pool.getQueueWait().getTotalNanos();
+        long pressure = pool.getRejectedCount() + pool.getCallerRunsCount();
+        long tasks = waitCount - state.waitCount;
+        long averageWaitNanos = tasks == 0 ? 0 : (waitNanos - state.waitNanos) / tasks;
+        long newPressure = pressure - state.pressure;
+        state.waitCount = waitCount;
+        state.waitNanos = waitNanos;
+        state.pressure = pressure;
+
+        int core = pool.getCorePoolSize();
+        int max = pool.getMaximumPoolSize();
+        if (newPressure > 0 || averageWaitNanos > targetQueueWaitNanos) {
+            state.idleTicks = 0;
+            if (core >= maxPoolSizeLimit) {
+                return;
+            }
+            int newCore = Math.min(maxPoolSizeLimit, core + Math.max(1, core / 4));
+            resize(pool, newCore, Math.max(max, newCore), averageWaitNanos, newPressure);
+        } else if (averageWaitNanos < targetQueueWaitNanos / 4 && pool.getQueue().isEmpty()
+                   && pool.getActiveCount() <= core / 2) {
+            if (++state.idleTicks < SHRINK_AFTER_IDLE_TICKS || (core <= state.initialCore && max <= state.initialMax)) {
+                return;
+            }
+            state.idleTicks = 0;
+            int newCore = Math.max(state.initialCore, core - Math.max(1, core / 8));
+            resize(pool, newCore, Math.max(state.initialMax, newCore), averageWaitNanos, newPressure);
+        } else {
+            state.idleTicks = 0;
+        }
+    }
+
+    private static void resize(InstrumentedThreadPoolExecutor pool, int core, int max, long averageWaitNanos, long pressure) {
+        System.out.println(String.format("Auto-tuning %s: core %d -> %d, max %d -> %d (avg wait %.2fms, rejected %d)",
+            pool.getName(), pool.getCorePoolSize(), core, pool.getMaximumPoolSize(), max,
+            averageWaitNanos / 1e6, pressure));
+        pool.resize(core, max, pool.getQueueCapacity());
+    }
+
+    /**
+     * 线程池上一周期的累计值和启动时的大小
+     */
+    private static class PoolState {
+        private final int initialCore;
+        private final int initialMax;
+        private long waitCount;
+        private long waitNanos;
+        private long pressure;
+        private int idleTicks;
+
+        private PoolState(InstrumentedThreadPoolExecutor pool) {
+            this.initialCore = pool.getCorePoolSize();
+            this.initialMax = pool.getMaximumPoolSize();
+        }
+    }
+}
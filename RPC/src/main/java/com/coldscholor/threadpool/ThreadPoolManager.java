@@ -3,12 +3,21 @@ package com.coldscholor.threadpool;
 import com.coldscholor.config.RpcConfig;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 线程池管理器
- * 提供统一的线程池管理和任务执行功能
+ * 提供统一的线程池管理和任务执行功能；各线程池记录排队和执行时间、拒绝次数，
+ * 可通过resize在线调整，开启自动调整后按排队等待时间扩缩容
  * 
  * @author 寒士obj
  * @date 2025/01/15
@@ -18,53 +27,112 @@ public class ThreadPoolManager {
     /** 单例实例 */
     private static volatile ThreadPoolManager instance;
     
-    /** 服务端请求处理线程池 */
-    private final ThreadPoolExecutor serverExecutor;
+    /** 全部线程池，key为线程池名称 */
+    private final Map<String, InstrumentedThreadPoolExecutor> pools = new LinkedHashMap<>();
     
     /** 客户端调用线程池 */
-    private final ThreadPoolExecutor clientExecutor;
+    private final InstrumentedThreadPoolExecutor clientExecutor;
     
     /** 异步回调线程池 */
-    private final ThreadPoolExecutor callbackExecutor;
+    private final InstrumentedThreadPoolExecutor callbackExecutor;
+    
+    /** 服务端单向调用线程池 */
+    private final InstrumentedThreadPoolExecutor oneWayExecutor;
+    
+    /** 超时调度器（调用超时、预算排队超时共用） */
+    private final ScheduledThreadPoolExecutor timeoutScheduler;
     
     /** 关闭标志 */
     private final AtomicBoolean shutdown = new AtomicBoolean(false);
     
+    /** 各线程池按配置设置的核心线程数、最大线程数和队列容量，配置重新加载时据此判断是否需要调整 */
+    private final Map<String, int[]> configuredSizes = new HashMap<>();
+    
     /**
      * 私有构造函数
      */
     private ThreadPoolManager() {
-        // 服务端请求处理线程池
-        this.serverExecutor = createThreadPool(
-            "rpc-server",
-            RpcConfig.getCorePoolSize(),
-            RpcConfig.getMaxPoolSize(),
-            RpcConfig.getKeepAliveTime(),
-            RpcConfig.getQueueCapacity()
-        );
+        // 服务端业务方法在请求线程上执行，执行顺序由FairScheduler按调度等级和调用方决定，不再经过线程池
+        
+        Map<String, int[]> sizes = sizesFromConfig();
         
-        // 客户端调用线程池
+        // 客户端调用线程池：在途请求已由ClientBudgetManager限流，队列满时直接拒绝，
+        // 不再退回业务线程执行阻塞IO
         this.clientExecutor = createThreadPool(
             "rpc-client",
-            RpcConfig.getCorePoolSize() / 2,
-            RpcConfig.getMaxPoolSize(),
+            sizes.get("rpc-client"),
             RpcConfig.getKeepAliveTime(),
-            RpcConfig.getQueueCapacity()
+            new ThreadPoolExecutor.AbortPolicy()
         );
         
-        // 异步回调线程池
+        // 异步回调线程池：异步传输的结果统计和Future完成都在这里执行，不占用I/O线程
         this.callbackExecutor = createThreadPool(
             "rpc-callback",
-            2,
-            RpcConfig.getCorePoolSize(),
+            sizes.get("rpc-callback"),
             RpcConfig.getKeepAliveTime(),
-            RpcConfig.getQueueCapacity() / 2
+            new ThreadPoolExecutor.CallerRunsPolicy()
         );
         
+        // 服务端单向调用线程池：请求已经确认，队列满时拒绝并由调用方计为丢弃
+        this.oneWayExecutor = createThreadPool(
+            "rpc-oneway",
+            sizes.get("rpc-oneway"),
+            RpcConfig.getKeepAliveTime(),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        
+        // 超时调度器
+        this.timeoutScheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+            .setNameFormat("rpc-timer-%d")
+            .setDaemon(true)
+            .build());
+        this.timeoutScheduler.setRemoveOnCancelPolicy(true);
+        
+        // 自动调整复用超时调度线程，每个周期只读取统计，开销可以忽略
+        if (RpcConfig.isThreadPoolAutoTune()) {
+            new ThreadPoolAutoTuner(pools.values(),
+                TimeUnit.MILLISECONDS.toNanos(RpcConfig.getThreadPoolTargetQueueWait()),
+                RpcConfig.getThreadPoolMaxSizeLimit())
+                .start(timeoutScheduler, RpcConfig.getThreadPoolAutoTuneInterval());
+        }
+        
+        // 配置重新加载后按新的线程数和队列容量调整
+        RpcConfig.addListener(this::applyConfig);
+        
         // 注册JVM关闭钩子
         Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
     }
     
+    /**
+     * 按当前配置计算各线程池的核心线程数、最大线程数和队列容量
+     */
+    private static Map<String, int[]> sizesFromConfig() {
+        int core = RpcConfig.getCorePoolSize();
+        int max = RpcConfig.getMaxPoolSize();
+        int queue = RpcConfig.getQueueCapacity();
+        Map<String, int[]> sizes = new HashMap<>();
+        sizes.put("rpc-client", new int[]{core / 2, max, queue});
+        sizes.put("rpc-callback", new int[]{2, Math.max(2, core), Math.max(1, queue / 2)});
+        sizes.put("rpc-oneway", new int[]{core, max, RpcConfig.getOneWayQueueCapacity()});
+        return sizes;
+    }
+    
+    /**
+     * 配置重新加载后调整线程池：只调整配置值有变化的线程池，配置没变的保持当前大小（包括自动调整或手动调整后的大小）
+     */
+    private synchronized void applyConfig() {
+        if (shutdown.get()) {
+            return;
+        }
+        for (Map.Entry<String, int[]> entry : sizesFromConfig().entrySet()) {
+            int[] size = entry.getValue();
+            if (!Arrays.equals(size, configuredSizes.get(entry.getKey()))) {
+                resize(entry.getKey(), size[0], size[1], size[2]);
+                configuredSizes.put(entry.getKey(), size);
+            }
+        }
+    }
+    
     /**
      * 获取单例实例
      */
@@ -82,41 +150,31 @@ public class ThreadPoolManager {
     /**
      * 创建线程池
      */
-    private ThreadPoolExecutor createThreadPool(String namePrefix, int corePoolSize, 
-                                               int maximumPoolSize, long keepAliveTime, 
-                                               int queueCapacity) {
+    private InstrumentedThreadPoolExecutor createThreadPool(String namePrefix, int[] size, long keepAliveTime,
+                                                            RejectedExecutionHandler rejectedHandler) {
         ThreadFactory threadFactory = new ThreadFactoryBuilder()
             .setNameFormat(namePrefix + "-%d")
             .setDaemon(false)
             .build();
             
-        BlockingQueue<Runnable> workQueue = new LinkedBlockingQueue<>(queueCapacity);
-        
-        ThreadPoolExecutor executor = new ThreadPoolExecutor(
-            corePoolSize,
-            maximumPoolSize,
+        InstrumentedThreadPoolExecutor executor = new InstrumentedThreadPoolExecutor(
+            namePrefix,
+            size[0],
+            size[1],
             keepAliveTime,
-            TimeUnit.SECONDS,
-            workQueue,
+            size[2],
             threadFactory,
-            new ThreadPoolExecutor.CallerRunsPolicy() // 拒绝策略：调用者运行
+            rejectedHandler
         );
         
         // 允许核心线程超时
         executor.allowCoreThreadTimeOut(true);
         
+        pools.put(namePrefix, executor);
+        configuredSizes.put(namePrefix, size);
         return executor;
     }
     
-    /**
-     * 提交服务端任务
-     */
-    public void submitServerTask(Runnable task) {
-        if (!shutdown.get()) {
-            serverExecutor.submit(task);
-        }
-    }
-    
 
     
 
@@ -135,6 +193,59 @@ public class ThreadPoolManager {
         return clientExecutor;
     }
     
+    /**
+     * 获取服务端单向调用线程池
+     */
+    public ThreadPoolExecutor getOneWayExecutor() {
+        return oneWayExecutor;
+    }
+    
+    /**
+     * 获取共享的超时调度器
+     */
+    public ScheduledExecutorService getTimeoutScheduler() {
+        return timeoutScheduler;
+    }
+    
+    /**
+     * 获取全部线程池，用于监控
+     */
+    public Collection<InstrumentedThreadPoolExecutor> getPools() {
+        return Collections.unmodifiableCollection(pools.values());
+    }
+    
+    /**
+     * 获取全部线程池的统计快照
+     */
+    public List<ThreadPoolStats> getPoolStats() {
+        List<ThreadPoolStats> stats = new ArrayList<>(pools.size());
+        for (InstrumentedThreadPoolExecutor pool : pools.values()) {
+            stats.add(pool.getStats());
+        }
+        return stats;
+    }
+    
+    /**
+     * 在线调整线程池大小和队列容量
+     * 
+     * @param name 线程池名称，如rpc-client
+     * @param corePoolSize 核心线程数
+     * @param maximumPoolSize 最大线程数
+     * @param queueCapacity 队列容量
+     * @return 调整后的统计快照
+     * @throws IllegalArgumentException 线程池不存在或参数不合法
+     */
+    public ThreadPoolStats resize(String name, int corePoolSize, int maximumPoolSize, int queueCapacity) {
+        InstrumentedThreadPoolExecutor pool = pools.get(name);
+        if (pool == null) {
+            throw new IllegalArgumentException("Unknown thread pool: " + name);
+        }
+        pool.resize(corePoolSize, maximumPoolSize, queueCapacity);
+        System.out.println("Resized thread pool " + name + ": core=" + corePoolSize
+            + ", max=" + maximumPoolSize + ", queue=" + queueCapacity);
+        return pool.getStats();
+    }
+    
 
     
     /**
@@ -144,9 +255,10 @@ public class ThreadPoolManager {
         if (shutdown.compareAndSet(false, true)) {
             System.out.println("Shutting down ThreadPoolManager...");
             
-            shutdownExecutor("Server", serverExecutor);
             shutdownExecutor("Client", clientExecutor);
             shutdownExecutor("Callback", callbackExecutor);
+            shutdownExecutor("OneWay", oneWayExecutor);
+            timeoutScheduler.shutdownNow();
             
             System.out.println("ThreadPoolManager shutdown completed.");
         }
@@ -0,0 +1,137 @@
+package com.coldscholor.threadpool;
+
+/**
+ * 单个线程池的统计快照
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class ThreadPoolStats {
+
+    /** 线程池名称 */
+    private final String name;
+
+    /** 核心线程数 */
+    private final int corePoolSize;
+
+    /** 最大线程数 */
+    private final int maximumPoolSize;
+
+    /** 当前线程数 */
+    private final int poolSize;
+
+    /** 正在执行任务的线程数 */
+    private final int activeCount;
+
+    /** 历史最大线程数 */
+    private final int largestPoolSize;
+
+    /** 排队中的任务数 */
+    private final int queueSize;
+
+    /** 队列容量 */
+    private final int queueCapacity;
+
+    /** 累计完成的任务数 */
+    private final long completedTaskCount;
+
+    /** 累计被拒绝的任务数 */
+    private final long rejectedCount;
+
+    /** 累计退回提交线程执行的任务数 */
+    private final long callerRunsCount;
+
+    /** 平均排队等待时间(毫秒) */
+    private final double averageQueueWaitMillis;
+
+    /** 排队等待时间P99(毫秒) */
+    private final double p99QueueWaitMillis;
+
+    /** 平均执行时间(毫秒) */
+    private final double averageRunMillis;
+
+    public ThreadPoolStats(String name, int corePoolSize, int maximumPoolSize, int poolSize, int activeCount,
+                           int largestPoolSize, int queueSize, int queueCapacity, long completedTaskCount,
+                           long rejectedCount, long callerRunsCount, double averageQueueWaitMillis,
+                           double p99QueueWaitMillis, double averageRunMillis) {
+        this.name = name;
+        this.corePoolSize = corePoolSize;
+        this.maximumPoolSize = maximumPoolSize;
+        this.poolSize = poolSize;
+        this.activeCount = activeCount;
+        this.largestPoolSize = largestPoolSize;
+        this.queueSize = queueSize;
+        this.queueCapacity = queueCapacity;
+        this.completedTaskCount = completedTaskCount;
+        this.rejectedCount = rejectedCount;
+        this.callerRunsCount = callerRunsCount;
+        this.averageQueueWaitMillis = averageQueueWaitMillis;
+        this.p99QueueWaitMillis = p99QueueWaitMillis;
+        this.averageRunMillis = averageRunMillis;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCorePoolSize() {
+        return corePoolSize;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public int getLargestPoolSize() {
+        return largestPoolSize;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getCompletedTaskCount() {
+        return completedTaskCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public long getCallerRunsCount() {
+        return callerRunsCount;
+    }
+
+    public double getAverageQueueWaitMillis() {
+        return averageQueueWaitMillis;
+    }
+
+    public double getP99QueueWaitMillis() {
+        return p99QueueWaitMillis;
+    }
+
+    public double getAverageRunMillis() {
+        return averageRunMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s core=%d max=%d threads=%d active=%d largest=%d queue=%d/%d completed=%d "
+                + "rejected=%d callerRuns=%d avgWait=%.3fms p99Wait=%.3fms avgRun=%.3fms",
+            name, corePoolSize, maximumPoolSize, poolSize, activeCount, largestPoolSize, queueSize, queueCapacity,
+            completedTaskCount, rejectedCount, callerRunsCount, averageQueueWaitMillis, p99QueueWaitMillis,
+            averageRunMillis);
+    }
+}
@@ -0,0 +1,13 @@
+package com.coldscholor.trace;
+
+/**
+ * 当前追踪上下文的作用域，关闭时恢复进入前的上下文
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public interface Scope extends AutoCloseable {
+
+    @Override
+    void close();
+}
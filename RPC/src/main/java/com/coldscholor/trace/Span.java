@@ -0,0 +1,144 @@
+package com.coldscholor.trace;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次调用在某一跳上的耗时记录
+ * 只有采样的Span会在结束时写入环形缓冲区；未采样的Span只用于传递上下文，结束时什么也不做
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class Span {
+
+    /**
+     * Span类型
+     */
+    public enum Kind {
+        CLIENT,     // 消费端发出的调用
+        SERVER,     // 提供端处理的调用
+        INTERNAL    // 进程内的业务操作
+    }
+
+    /** 未采样且没有行李时共享的Span */
+    public static final Span NOOP = new Span(null, TraceContext.NOT_SAMPLED, null, null, null, null);
+
+    private final Tracer tracer;
+
+    /** 本Span的上下文，下游调用以它为父Span */
+    private final TraceContext context;
+
+    private final String parentSpanId;
+
+    private final String name;
+
+    private final Kind kind;
+
+    /** 对端地址，提供端Span为null */
+    private final String endpoint;
+
+    private final long startEpochMicros;
+
+    private final long startNanos;
+
+    private volatile long durationNanos = -1;
+
+    private volatile String error;
+
+    /** 写入环形缓冲区时的序号 */
+    volatile long sequence;
+
+    Span(Tracer tracer, TraceContext context, String parentSpanId, String name, Kind kind, String endpoint) {
+        this.tracer = tracer;
+        this.context = context;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.kind = kind;
+        this.endpoint = endpoint;
+        this.startEpochMicros = tracer == null ? 0L : TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        this.startNanos = tracer == null ? 0L : System.nanoTime();
+    }
+
+    /**
+     * 把本Span设为当前上下文，其中发起的调用成为它的子Span
+     */
+    public Scope makeCurrent() {
+        return context.makeCurrent();
+    }
+
+    /**
+     * 正常结束
+     */
+    public void end() {
+        end(null);
+    }
+
+    /**
+     * 结束并记录错误，重复调用只有第一次生效
+     *
+     * @param throwable 失败原因，成功时为null
+     */
+    public void end(Throwable throwable) {
+        if (tracer == null || durationNanos >= 0) {
+            return;
+        }
+        if (throwable != null) {
+            error = throwable.toString();
+        }
+        durationNanos = System.nanoTime() - startNanos;
+        tracer.record(this);
+    }
+
+    public boolean isRecording() {
+        return tracer != null;
+    }
+
+    public TraceContext getContext() {
+        return context;
+    }
+
+    public String getTraceId() {
+        return context.getTraceId();
+    }
+
+    public String getSpanId() {
+        return context.getSpanId();
+    }
+
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public long getStartEpochMicros() {
+        return startEpochMicros;
+    }
+
+    /**
+     * 耗时(纳秒)，未结束时为-1
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s parent=%s %s %s%s %.3fms%s", getTraceId(), getSpanId(), parentSpanId, kind, name,
+            endpoint == null ? "" : " -> " + endpoint, durationNanos / 1e6, error == null ? "" : " error=" + error);
+    }
+}
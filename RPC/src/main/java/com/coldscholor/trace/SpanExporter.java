@@ -0,0 +1,21 @@
+package com.coldscholor.trace;
+
+import java.util.List;
+
+/**
+ * Span导出扩展点
+ * 通过ServiceLoader注册（META-INF/services/com.coldscholor.trace.SpanExporter）或Tracer.addExporter添加，
+ * 在独立的导出线程上按批调用，实现可以把Span写到日志或发送到追踪后端
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public interface SpanExporter {
+
+    /**
+     * 导出一批已结束的Span
+     *
+     * @param spans 按结束顺序排列
+     */
+    void export(List<Span> spans);
+}
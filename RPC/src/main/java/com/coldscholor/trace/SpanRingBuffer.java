@@ -0,0 +1,91 @@
+package com.coldscholor.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 固定容量的Span环形缓冲区
+ * 写入只有一次序号自增和一次数组写，不加锁；满了覆盖最旧的Span，导出线程来不及读取的计为丢弃
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+class SpanRingBuffer {
+
+    private final AtomicReferenceArray<Span> slots;
+
+    private final int mask;
+
+    /** 下一个写入序号 */
+    private final AtomicLong head = new AtomicLong();
+
+    /** 导出线程的读取位置，只在导出线程中访问 */
+    private long cursor;
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    SpanRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    void add(Span span) {
+        long sequence = head.getAndIncrement();
+        span.sequence = sequence;
+        slots.set((int) (sequence & mask), span);
+    }
+
+    /**
+     * 读取上次之后写入的Span，只能由单个导出线程调用
+     */
+    List<Span> drain() {
+        long end = head.get();
+        if (end - cursor > slots.length()) {
+            droppedCount.add(end - slots.length() - cursor);
+            cursor = end - slots.length();
+        }
+        List<Span> spans = new ArrayList<>((int) (end - cursor));
+        while (cursor < end) {
+            Span span = slots.get((int) (cursor & mask));
+            if (span == null || span.sequence < cursor) {
+                // 序号已分配但还没写入，下次再读
+                break;
+            }
+            if (span.sequence == cursor) {
+                spans.add(span);
+            } else {
+                droppedCount.increment();
+            }
+            cursor++;
+        }
+        return spans;
+    }
+
+    /**
+     * 最近写入的Span，按写入顺序排列，用于排查
+     */
+    List<Span> snapshot() {
+        long end = head.get();
+        long start = Math.max(0, end - slots.length());
+        List<Span> spans = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            Span span = slots.get((int) (sequence & mask));
+            if (span != null && span.sequence == sequence) {
+                spans.add(span);
+            }
+        }
+        return spans;
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+
+    long getDroppedCount() {
+        return droppedCount.sum();
+    }
+}
@@ -0,0 +1,169 @@
+package com.coldscholor.trace;
+
+import com.coldscholor.common.Invocation;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 追踪上下文：追踪ID、当前Span ID、采样决定和随调用链传递的行李(baggage)
+ * 通过Invocation的附件跨进程传递，在进程内保存在线程本地变量中；
+ * 未采样且没有行李的请求只携带一个固定的采样标记，不生成ID
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public final class TraceContext {
+
+    /** 附件键：追踪ID（32位十六进制） */
+    public static final String TRACE_ID = "rpc.trace.id";
+
+    /** 附件键：调用方Span ID（16位十六进制） */
+    public static final String SPAN_ID = "rpc.span.id";
+
+    /** 附件键：采样决定，1为采样 */
+    public static final String SAMPLED = "rpc.sampled";
+
+    /** 附件键前缀：行李 */
+    public static final String BAGGAGE_PREFIX = "rpc.baggage.";
+
+    /** 未采样、没有行李的上下文 */
+    static final TraceContext NOT_SAMPLED = new TraceContext(null, null, false, Collections.emptyMap());
+
+    /** 未采样上下文对应的附件，所有请求共享 */
+    private static final Map<String, String> NOT_SAMPLED_ATTACHMENTS = Collections.singletonMap(SAMPLED, "0");
+
+    private static final ThreadLocal<TraceContext> CURRENT = new ThreadLocal<>();
+
+    private final String traceId;
+
+    private final String spanId;
+
+    private final boolean sampled;
+
+    private final Map<String, String> baggage;
+
+    TraceContext(String traceId, String spanId, boolean sampled, Map<String, String> baggage) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.sampled = sampled;
+        this.baggage = baggage;
+    }
+
+    /**
+     * 当前线程的追踪上下文，没有时返回null
+     */
+    public static TraceContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 设为当前线程的上下文，返回的作用域关闭时恢复之前的上下文
+     */
+    public Scope makeCurrent() {
+        TraceContext previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * 让任务在指定上下文中执行，用于跨线程池传递
+     *
+     * @param context 提交任务时的上下文，为null时直接返回原任务
+     */
+    public static Runnable wrap(TraceContext context, Runnable task) {
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope scope = context.makeCurrent()) {
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * 返回附加了一项行李的新上下文，行李随后续所有下游调用传递
+     */
+    public TraceContext withBaggage(String key, String value) {
+        Map<String, String> newBaggage = new HashMap<>(baggage);
+        newBaggage.put(key, value);
+        return new TraceContext(traceId, spanId, sampled, Collections.unmodifiableMap(newBaggage));
+    }
+
+    /**
+     * 写入调用附件
+     */
+    void inject(Invocation invocation) {
+        if (!sampled && baggage.isEmpty()) {
+            invocation.putAttachments(NOT_SAMPLED_ATTACHMENTS);
+            return;
+        }
+        Map<String, String> attachments = new HashMap<>();
+        if (traceId != null) {
+            attachments.put(TRACE_ID, traceId);
+            attachments.put(SPAN_ID, spanId);
+        }
+        attachments.put(SAMPLED, sampled ? "1" : "0");
+        for (Map.Entry<String, String> entry : baggage.entrySet()) {
+            attachments.put(BAGGAGE_PREFIX + entry.getKey(), entry.getValue());
+        }
+        invocation.putAttachments(attachments);
+    }
+
+    /**
+     * 从调用附件恢复上游上下文，没有追踪附件时返回null
+     */
+    public static TraceContext extract(Map<String, String> attachments) {
+        if (attachments == null) {
+            return null;
+        }
+        String sampledFlag = attachments.get(SAMPLED);
+        if (sampledFlag == null) {
+            return null;
+        }
+        Map<String, String> baggage = Collections.emptyMap();
+        for (Map.Entry<String, String> entry : attachments.entrySet()) {
+            if (entry.getKey().startsWith(BAGGAGE_PREFIX)) {
+                if (baggage.isEmpty()) {
+                    baggage = new HashMap<>();
+                }
+                baggage.put(entry.getKey().substring(BAGGAGE_PREFIX.length()), entry.getValue());
+            }
+        }
+        String traceId = attachments.get(TRACE_ID);
+        boolean sampled = "1".equals(sampledFlag) && traceId != null;
+        if (!sampled && baggage.isEmpty()) {
+            return NOT_SAMPLED;
+        }
+        return new TraceContext(traceId, attachments.get(SPAN_ID), sampled,
+            baggage.isEmpty() ? baggage : Collections.unmodifiableMap(baggage));
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    public Map<String, String> getBaggage() {
+        return baggage;
+    }
+
+    public String getBaggage(String key) {
+        return baggage.get(key);
+    }
+}
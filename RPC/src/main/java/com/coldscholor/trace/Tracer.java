@@ -0,0 +1,207 @@
+package com.coldscholor.trace;
+
+import com.coldscholor.common.Invocation;
+import com.coldscholor.common.URL;
+import com.coldscholor.config.RpcConfig;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 分布式追踪入口
+ * 只在调用链的根节点按采样率做一次采样决定，下游沿用上游的决定；采样的Span结束后写入环形缓冲区，
+ * 由独立的导出线程按批交给SpanExporter。未采样的调用返回共享的空Span，不生成ID、不分配对象
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class Tracer {
+
+    /** 单例实例 */
+    private static volatile Tracer instance;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** 根节点采样率 */
+    private final double sampleRate;
+
+    private final SpanRingBuffer buffer;
+
+    private final List<SpanExporter> exporters = new CopyOnWriteArrayList<>();
+
+    /** 导出线程，第一次添加导出器时启动 */
+    private volatile ScheduledExecutorService exportScheduler;
+
+    private final long exportIntervalMillis;
+
+    private final LongAdder recordedCount = new LongAdder();
+
+    /**
+     * 私有构造函数
+     */
+    private Tracer() {
+        this(RpcConfig.getTraceSampleRate(), RpcConfig.getTraceBufferCapacity(), RpcConfig.getTraceExportInterval());
+        for (SpanExporter exporter : ServiceLoader.load(SpanExporter.class)) {
+            addExporter(exporter);
+        }
+    }
+
+    Tracer(double sampleRate, int bufferCapacity, long exportIntervalMillis) {
+        this.sampleRate = sampleRate;
+        this.buffer = new SpanRingBuffer(bufferCapacity);
+        this.exportIntervalMillis = exportIntervalMillis;
+    }
+
+    /**
+     * 获取单例实例
+     */
+    public static Tracer getInstance() {
+        if (instance == null) {
+            synchronized (Tracer.class) {
+                if (instance == null) {
+                    instance = new Tracer();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 开始一次消费端调用的Span，以当前线程的上下文为父Span，并把上下文写入调用附件
+     *
+     * @param invocation 调用信息
+     * @param serviceName 服务名称(接口.方法)
+     * @param url 对端地址
+     */
+    public Span startClientSpan(Invocation invocation, String serviceName, URL url) {
+        TraceContext parent = TraceContext.current();
+        Span span = isSampled(parent)
+            ? newSpan(parent, serviceName, Span.Kind.CLIENT, url.getAddress())
+            : unsampled(parent);
+        span.getContext().inject(invocation);
+        return span;
+    }
+
+    /**
+     * 开始一次提供端处理的Span，以调用附件中的上游上下文为父Span
+     * 调用方应通过makeCurrent()让服务方法和其中发起的下游调用处在该上下文中
+     */
+    public Span startServerSpan(Invocation invocation) {
+        TraceContext parent = TraceContext.extract(invocation.getAttachments());
+        return isSampled(parent)
+            ? newSpan(parent, invocation.getInterfaceName() + "." + invocation.getMethodName(), Span.Kind.SERVER, null)
+            : unsampled(parent);
+    }
+
+    /**
+     * 开始一个进程内业务操作的Span，用于在一段业务逻辑外层开启追踪
+     */
+    public Span startSpan(String name) {
+        TraceContext parent = TraceContext.current();
+        return isSampled(parent) ? newSpan(parent, name, Span.Kind.INTERNAL, null) : unsampled(parent);
+    }
+
+    /**
+     * 有上游时沿用上游的决定，否则按采样率决定
+     */
+    private boolean isSampled(TraceContext parent) {
+        if (parent != null) {
+            return parent.isSampled();
+        }
+        return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * 未采样：只需要把采样决定和行李继续传下去
+     */
+    private static Span unsampled(TraceContext parent) {
+        return parent == null || parent.getBaggage().isEmpty() ? Span.NOOP : new Span(null, parent, null, null, null, null);
+    }
+
+    private Span newSpan(TraceContext parent, String name, Span.Kind kind, String endpoint) {
+        String traceId = parent != null ? parent.getTraceId() : randomHex(2);
+        TraceContext context = new TraceContext(traceId, randomHex(1), true,
+            parent != null ? parent.getBaggage() : Collections.emptyMap());
+        return new Span(this, context, parent != null ? parent.getSpanId() : null, name, kind, endpoint);
+    }
+
+    void record(Span span) {
+        recordedCount.increment();
+        buffer.add(span);
+    }
+
+    /**
+     * 添加导出器，第一次添加时启动导出线程
+     */
+    public synchronized void addExporter(SpanExporter exporter) {
+        exporters.add(exporter);
+        if (exportScheduler == null) {
+            exportScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("rpc-trace-export-%d")
+                .setDaemon(true)
+                .build());
+            exportScheduler.scheduleWithFixedDelay(this::export, exportIntervalMillis, exportIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void export() {
+        List<Span> spans = buffer.drain();
+        if (spans.isEmpty()) {
+            return;
+        }
+        for (SpanExporter exporter : exporters) {
+            try {
+                exporter.export(Collections.unmodifiableList(spans));
+            } catch (RuntimeException e) {
+                System.err.println("Span exporter " + exporter.getClass().getName() + " failed: " + e);
+            }
+        }
+    }
+
+    /**
+     * 缓冲区中最近的Span，按结束顺序排列
+     */
+    public List<Span> getRecentSpans() {
+        return buffer.snapshot();
+    }
+
+    /**
+     * 已记录的采样Span数
+     */
+    public long getRecordedCount() {
+        return recordedCount.sum();
+    }
+
+    /**
+     * 导出前被覆盖的Span数
+     */
+    public long getDroppedCount() {
+        return buffer.getDroppedCount();
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    private static String randomHex(int longs) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] chars = new char[longs * 16];
+        for (int i = 0; i < longs; i++) {
+            long value = random.nextLong();
+            for (int j = 15; j >= 0; j--) {
+                chars[i * 16 + j] = HEX[(int) (value & 0xf)];
+                value >>>= 4;
+            }
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,272 @@
+package com.coldscholor.async;
+
+import com.coldscholor.circuitbreaker.CircuitBreakerManager;
+import com.coldscholor.circuitbreaker.EndpointCircuitBreaker;
+import com.coldscholor.common.Invocation;
+import com.coldscholor.common.URL;
+import com.coldscholor.config.RpcConfig;
+import com.coldscholor.deadline.Deadline;
+import com.coldscholor.http.AsyncHttpConnectionPoolManager;
+import com.coldscholor.http.RoutePoolStats;
+import com.coldscholor.limit.AdaptiveConcurrencyLimiter;
+import com.coldscholor.limit.AdmissionController;
+import com.coldscholor.limit.ClientBudgetManager;
+import com.coldscholor.limit.ConcurrencyLimiterManager;
+import com.coldscholor.limit.InFlightBudget;
+import com.coldscholor.limit.ProviderOverloadedException;
+import com.coldscholor.protocol.ImprovedHttpClient;
+import com.coldscholor.protocol.RpcStreamIterator;
+import com.coldscholor.protocol.StreamingResponseWriter;
+import com.coldscholor.schedule.FairScheduler;
+import com.coldscholor.schedule.PriorityClass;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 异步传输测试：本地HttpServer模拟服务端的成功、非200响应和超时
+ */
+public class AsyncRpcManagerTest {
+
+    private static final Invocation INVOCATION =
+        new Invocation("com.coldscholor.EchoService", "echo", new Class[]{String.class}, new Object[]{"ping"});
+
+    private static final Invocation STREAM_INVOCATION =
+        new Invocation("com.coldscholor.FeedService", "list", new Class[0], new Object[0]);
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+
+    @AfterEach
+    public void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (serverExecutor != null) {
+            serverExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSuccess() throws Exception {
+        URL url = startServer(exchange -> respond(exchange, 200, "pong"));
+
+        String result = AsyncRpcManager.getInstance().callAsync(url, INVOCATION).get(5, TimeUnit.SECONDS);
+
+        assertEquals("pong", result);
+        assertEquals(1, circuitBreaker(url).getSuccessCount());
+        awaitTrue(() -> limiter(url).getInFlight() == 0);
+    }
+
+    @Test
+    public void testNon200StatusFails() throws Exception {
+        URL url = startServer(exchange -> respond(exchange, 500, "boom"));
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+            () -> AsyncRpcManager.getInstance().callAsync(url, INVOCATION).get(5, TimeUnit.SECONDS));
+
+        assertTrue(rootCause(e) instanceof IOException);
+        assertTrue(rootCause(e).getMessage().contains("500"));
+        assertEquals(1, circuitBreaker(url).getFailureCount());
+        // 非超时类错误不参与并发上限调整
+        assertEquals(0, limiter(url).getDroppedCount());
+        awaitTrue(() -> limiter(url).getInFlight() == 0);
+    }
+
+    @Test
+    public void testSocketTimeout() throws Exception {
+        URL url = startServer(exchange -> {
+            sleep(2000);
+            respond(exchange, 200, "late");
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+            () -> ImprovedHttpClient.getInstance()
+                .sendRequestAsync("http://" + url.getAddress(), INVOCATION, 200)
+                .get(5, TimeUnit.SECONDS));
+
+        assertTrue(rootCause(e) instanceof SocketTimeoutException);
+    }
+
+    @Test
+    public void testTimeoutCancelsExchangeAndDropsLimiterSample() throws Exception {
+        URL url = startServer(exchange -> {
+            sleep(3000);
+            respond(exchange, 200, "late");
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+            () -> AsyncRpcManager.getInstance()
+                .callAsyncWithTimeout(url, INVOCATION, 300, TimeUnit.MILLISECONDS)
+                .get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof TimeoutException);
+
+        // 超时计入限制器的丢弃样本，许可和连接在服务端响应前就已归还
+        AdaptiveConcurrencyLimiter limiter = limiter(url);
+        awaitTrue(() -> limiter.getDroppedCount() == 1 && limiter.getInFlight() == 0);
+        HttpRoute route = new HttpRoute(new HttpHost(url.getHostName(), url.getPort()));
+        awaitTrue(() -> AsyncHttpConnectionPoolManager.getInstance().getConnectionManager()
+            .getStats(route).getLeased() == 0);
+        assertEquals(1, circuitBreaker(url).getFailureCount());
+    }
+
+    @Test
+    public void testWarmUpOpensConnectionsBeforeFirstCall() throws Exception {
+        URL url = startServer(exchange -> respond(exchange, 200, "pong"));
+
+        ImprovedHttpClient.getInstance().warmUp(Collections.singletonList(url));
+
+        // 预热的连接建立后归还连接池，首个请求直接复用
+        awaitTrue(() -> routeStats(url) != null
+            && routeStats(url).getAvailable() == RpcConfig.getPoolWarmupConnections());
+        assertEquals("pong", AsyncRpcManager.getInstance().callAsync(url, INVOCATION).get(5, TimeUnit.SECONDS));
+        awaitTrue(() -> routeStats(url).getAvailable() == RpcConfig.getPoolWarmupConnections());
+        assertEquals(0, routeStats(url).getLeaseFailures());
+    }
+
+    @Test
+    public void testStreamHoldsPermitsUntilClosed() throws Exception {
+        AtomicReference<String> deadlineHeader = new AtomicReference<>();
+        URL url = startServer(exchange -> {
+            deadlineHeader.set(exchange.getRequestHeaders().getFirst(Deadline.HEADER));
+            exchange.getResponseHeaders().add(StreamingResponseWriter.STREAM_HEADER, "1");
+            exchange.sendResponseHeaders(200, 0);
+            try (ObjectOutputStream out = new ObjectOutputStream(exchange.getResponseBody())) {
+                out.writeByte(1);
+                out.writeObject("a");
+                out.writeByte(1);
+                out.writeObject("b");
+                out.writeByte(0);
+            }
+        });
+        InFlightBudget budget = ClientBudgetManager.getInstance().getServiceBudget("com.coldscholor.FeedService");
+
+        long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        RpcStreamIterator<Object> iterator = AsyncRpcManager.getInstance()
+            .openStream(url, STREAM_INVOCATION, 5, deadlineNanos);
+        // 截止时间随请求发出，流打开期间一直占用预算和并发许可
+        assertTrue(Deadline.fromWireValue(deadlineHeader.get()).remaining(TimeUnit.MILLISECONDS) > 0);
+        assertEquals(PriorityClass.of(5).name(), STREAM_INVOCATION.getAttachment(PriorityClass.ATTACHMENT));
+        assertEquals(RpcConfig.getApplicationName(), STREAM_INVOCATION.getAttachment(FairScheduler.CALLER_ATTACHMENT));
+        assertEquals(1, budget.getUsed());
+        assertEquals(1, limiter(url).getInFlight());
+        assertEquals("a", iterator.next());
+        iterator.close();
+
+        assertEquals(0, budget.getUsed());
+        assertEquals(0, limiter(url).getInFlight());
+        assertEquals(1, CircuitBreakerManager.getInstance()
+            .getOrCreateCircuitBreaker(url, "com.coldscholor.FeedService.list").getSuccessCount());
+    }
+
+    @Test
+    public void testStreamOverloadRejectionIsNotCountedAsFailure() throws Exception {
+        URL url = startServer(exchange -> {
+            exchange.getResponseHeaders().add(AdmissionController.OVERLOADED_HEADER, "1");
+            respond(exchange, 503, "overloaded");
+        });
+        InFlightBudget budget = ClientBudgetManager.getInstance().getServiceBudget("com.coldscholor.FeedService");
+
+        assertThrows(ProviderOverloadedException.class,
+            () -> AsyncRpcManager.getInstance().openStream(url, STREAM_INVOCATION, 5, 0L));
+
+        // 过载拒绝不计入熔断统计，只作为过载信号收缩并发上限，许可全部归还
+        assertEquals(0, CircuitBreakerManager.getInstance()
+            .getOrCreateCircuitBreaker(url, "com.coldscholor.FeedService.list").getFailureCount());
+        assertEquals(1, limiter(url).getDroppedCount());
+        assertEquals(0, limiter(url).getInFlight());
+        assertEquals(0, budget.getUsed());
+    }
+
+    private static RoutePoolStats routeStats(URL url) {
+        for (RoutePoolStats stats : AsyncHttpConnectionPoolManager.getInstance().getRouteStats()) {
+            if (stats.getRoute().equals("http://" + url.getAddress())) {
+                return stats;
+            }
+        }
+        return null;
+    }
+
+    private URL startServer(HttpHandler handler) throws IOException {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                while (body.read() != -1) {
+                    // 读完请求体
+                }
+            }
+            handler.handle(exchange);
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+        return new URL("127.0.0.1", server.getAddress().getPort());
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static EndpointCircuitBreaker circuitBreaker(URL url) {
+        return CircuitBreakerManager.getInstance().getOrCreateCircuitBreaker(url, "com.coldscholor.EchoService.echo");
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(URL url) {
+        return ConcurrencyLimiterManager.getInstance().getLimiter(url);
+    }
+
+    private static Throwable rootCause(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * 完成统计在回调线程池中执行，轮询等待条件成立
+     */
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,66 @@
+package com.coldscholor.buffer;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 缓冲池测试：复用、扩容和泄漏检测
+ */
+public class BufferPoolTest {
+
+    @Test
+    public void testReleasedBufferIsReused() {
+        BufferPool pool = new BufferPool(4, false);
+        PooledBuffer first = pool.acquire(100);
+        byte[] array = first.array();
+        assertEquals(1024, first.capacity());
+        first.release();
+        first.release();
+
+        PooledBuffer second = pool.acquire(1000);
+        assertSame(array, second.array());
+        second.release();
+        assertEquals(1, pool.getAllocatedCount());
+        assertEquals(2, pool.getReleasedCount());
+        assertEquals(0, pool.getOutstandingCount());
+    }
+
+    @Test
+    public void testStreamGrowsAndEncodesUtf8() {
+        PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(16);
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            value.append("a中😀");
+        }
+        out.writeUtf8(value.toString());
+        try {
+            assertEquals(value.toString().getBytes(StandardCharsets.UTF_8).length, out.size());
+            assertEquals(value.toString(), out.toString(StandardCharsets.UTF_8));
+        } finally {
+            out.release();
+        }
+    }
+
+    @Test
+    public void testUnreleasedBufferIsReportedAsLeak() throws InterruptedException {
+        BufferPool pool = new BufferPool(4, true);
+        pool.acquire(10);
+        pool.acquire(10).release();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        int leaks = 0;
+        while (leaks == 0 && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(20);
+            leaks = pool.reportLeaks();
+        }
+        assertEquals(1, leaks);
+        assertEquals(1, pool.getLeakCount());
+        assertTrue(pool.isLeakDetection());
+    }
+}
@@ -0,0 +1,115 @@
+package com.coldscholor.circuitbreaker;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 端点级熔断器测试
+ */
+public class EndpointCircuitBreakerTest {
+
+    @Test
+    public void testOpensAtFailureRateThreshold() {
+        EndpointCircuitBreaker breaker = new EndpointCircuitBreaker("test", 50.0f, 30, 2, 10, 4);
+
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onError();
+        assertEquals(EndpointCircuitBreaker.State.CLOSED, breaker.getState());
+
+        // 2成功2失败，失败率达到50%
+        breaker.onError();
+        assertEquals(EndpointCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+        assertFalse(breaker.isCallPermitted());
+        assertEquals(1, breaker.getRejectedCount());
+    }
+
+    @Test
+    public void testStaysClosedBelowMinimumCalls() {
+        EndpointCircuitBreaker breaker = new EndpointCircuitBreaker("test", 50.0f, 30, 2, 10, 4);
+
+        breaker.onError();
+        breaker.onError();
+        breaker.onError();
+        assertEquals(EndpointCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(-1f, breaker.getFailureRate());
+    }
+
+    @Test
+    public void testHalfOpenAfterWaitAndClosesOnProbeSuccess() throws Exception {
+        EndpointCircuitBreaker breaker = openBreaker(2);
+
+        Thread.sleep(1100);
+        assertTrue(breaker.isCallPermitted());
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(EndpointCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+        // 探测许可用完后拒绝
+        assertFalse(breaker.tryAcquirePermission());
+
+        breaker.onSuccess();
+        assertEquals(EndpointCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onSuccess();
+        assertEquals(EndpointCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void testReopensOnProbeFailure() throws Exception {
+        EndpointCircuitBreaker breaker = openBreaker(2);
+
+        Thread.sleep(1100);
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        // 一个探测未实际发出，许可被归还
+        breaker.onIgnore();
+        breaker.onSuccess();
+        breaker.onError();
+
+        assertEquals(EndpointCircuitBreaker.State.OPEN, breaker.getState());
+        // 重新打开后等待时间重新计算，归还的探测许可也已作废
+        assertFalse(breaker.tryAcquirePermission());
+        assertFalse(breaker.isCallPermitted());
+    }
+
+    @Test
+    public void testReconfigureDuringHalfOpenKeepsProbeCount() throws Exception {
+        EndpointCircuitBreaker breaker = openBreaker(2);
+
+        Thread.sleep(1100);
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        // 探测中调大探测数，本轮仍按开始时的探测数判断
+        breaker.reconfigure(50.0f, 1, 5, 2);
+        breaker.onSuccess();
+        breaker.onSuccess();
+        assertEquals(EndpointCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testFallbackIsNotCountedAsSuccess() {
+        EndpointCircuitBreaker breaker = new EndpointCircuitBreaker("test", 50.0f, 30, 2, 10, 4);
+
+        breaker.onError();
+        breaker.onFallback();
+        assertEquals(0, breaker.getSuccessCount());
+        assertEquals(1, breaker.getFailureCount());
+        assertEquals(1, breaker.getFallbackCount());
+    }
+
+    /**
+     * 创建一个等待时间为1秒且已打开的熔断器
+     */
+    private static EndpointCircuitBreaker openBreaker(int permittedCallsInHalfOpen) {
+        EndpointCircuitBreaker breaker = new EndpointCircuitBreaker("test", 50.0f, 1, permittedCallsInHalfOpen, 10, 2);
+        breaker.onError();
+        breaker.onError();
+        assertEquals(EndpointCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+        return breaker;
+    }
+}
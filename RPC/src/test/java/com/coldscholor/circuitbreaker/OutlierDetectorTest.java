@@ -0,0 +1,87 @@
+package com.coldscholor.circuitbreaker;
+
+import com.coldscholor.common.URL;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 异常端点检测器测试
+ */
+public class OutlierDetectorTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testEjectsAfterConsecutiveFailures() {
+        OutlierDetector detector = new OutlierDetector(3, TimeUnit.SECONDS.toNanos(10), 100);
+        URL url = new URL("10.0.0.1", 8080);
+
+        detector.recordFailure(url);
+        detector.recordFailure(url);
+        // 成功调用打断连续失败
+        detector.recordSuccess(url);
+        detector.recordFailure(url);
+        detector.recordFailure(url);
+        assertFalse(detector.isEjected(url));
+
+        detector.recordFailure(url);
+        assertTrue(detector.isEjected(url));
+        assertEquals(1, detector.getEjectionCount(url));
+
+        // 摘除期间的失败不会重复摘除
+        for (int i = 0; i < 10; i++) {
+            detector.recordFailure(url);
+        }
+        assertEquals(1, detector.getEjectionCount(url));
+    }
+
+    @Test
+    public void testMaxEjectionPercentCapsFilter() {
+        OutlierDetector detector = new OutlierDetector(1, TimeUnit.SECONDS.toNanos(10), 50);
+        URL a = new URL("10.0.0.1", 8080);
+        URL b = new URL("10.0.0.2", 8080);
+        URL c = new URL("10.0.0.3", 8080);
+        URL d = new URL("10.0.0.4", 8080);
+        List<URL> urls = Arrays.asList(a, b, c, d);
+
+        detector.recordFailure(a);
+        detector.recordFailure(b);
+        assertEquals(Arrays.asList(c, d), detector.filterHealthy(urls));
+
+        // 3个端点被摘除，超过50%上限，放回最早恢复的一个
+        detector.recordFailure(c);
+        List<URL> healthy = detector.filterHealthy(urls);
+        assertEquals(2, healthy.size());
+        assertTrue(healthy.contains(d));
+        assertFalse(healthy.contains(c));
+    }
+
+    @Test
+    public void testEjectionMultiplierDecaysAfterHealthyPeriod() throws Exception {
+        long base = 200 * MS;
+        OutlierDetector detector = new OutlierDetector(1, base, 100);
+        URL url = new URL("10.0.0.1", 8080);
+
+        detector.recordFailure(url);
+        assertEquals(1, detector.getEjectionCount(url));
+
+        // 恢复后很快再次失败，摘除时间翻倍
+        Thread.sleep(210);
+        assertFalse(detector.isEjected(url));
+        detector.recordFailure(url);
+        assertEquals(2, detector.getEjectionCount(url));
+
+        // 恢复后健康超过多个基础摘除时间，倍数衰减回1
+        Thread.sleep(400 + 700);
+        assertFalse(detector.isEjected(url));
+        detector.recordFailure(url);
+        assertEquals(1, detector.getEjectionCount(url));
+    }
+}
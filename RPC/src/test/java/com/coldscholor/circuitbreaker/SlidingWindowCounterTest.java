@@ -0,0 +1,47 @@
+package com.coldscholor.circuitbreaker;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 滑动窗口计数器测试
+ */
+public class SlidingWindowCounterTest {
+
+    @Test
+    public void testFailureRate() {
+        SlidingWindowCounter window = new SlidingWindowCounter(10);
+
+        window.recordSuccess();
+        window.recordFailure();
+        window.recordFailure();
+        window.recordSuccess();
+
+        assertEquals(4, window.getTotalCalls());
+        assertEquals(50.0f, window.getFailureRate(4));
+        // 样本不足时返回-1
+        assertEquals(-1f, window.getFailureRate(5));
+
+        window.reset();
+        assertEquals(0, window.getTotalCalls());
+    }
+
+    @Test
+    public void testBucketsExpire() throws Exception {
+        SlidingWindowCounter window = new SlidingWindowCounter(1);
+
+        window.recordFailure();
+        window.recordFailure();
+        assertEquals(2, window.getTotalCalls());
+
+        Thread.sleep(1100);
+        assertEquals(0, window.getTotalCalls());
+        assertEquals(-1f, window.getFailureRate(1));
+
+        // 过期的桶被复用时重新计数
+        window.recordSuccess();
+        assertEquals(1, window.getTotalCalls());
+        assertEquals(0f, window.getFailureRate(1));
+    }
+}
@@ -0,0 +1,81 @@
+package com.coldscholor.config;
+
+import com.coldscholor.loadbalance.LoadBalance;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 分层配置测试：各层的优先级、环境变量名转换和按服务、方法覆盖的调用配置
+ */
+public class ConfigPropertiesTest {
+
+    @Test
+    public void testLayerPrecedence() {
+        Map<String, String> system = new HashMap<>();
+        system.put("rpc.timeout.read", "100");
+        Map<String, String> environment = new HashMap<>();
+        environment.put("RPC_TIMEOUT_READ", "200");
+        environment.put("RPC_POOL_MAX_CONNECTIONS", "300");
+        Map<String, String> file = new HashMap<>();
+        file.put("rpc.timeout.read", "400");
+        file.put("rpc.pool.maxConnections", "500");
+        file.put("rpc.pool.maxConnectionsPerRoute", " 60 ");
+        ConfigProperties properties = new ConfigProperties(system, environment, file);
+
+        assertEquals(100, properties.getInt("rpc.timeout.read", 0));
+        assertEquals(300, properties.getInt("rpc.pool.maxConnections", 0));
+        assertEquals(60, properties.getInt("rpc.pool.maxConnectionsPerRoute", 0));
+        assertEquals(7, properties.getInt("rpc.pool.warmupConnections", 7));
+        assertNull(properties.get("rpc.unknown"));
+        assertThrows(IllegalArgumentException.class,
+            () -> new ConfigProperties(Collections.singletonMap("rpc.timeout.read", "fast"),
+                Collections.emptyMap(), Collections.emptyMap()).getInt("rpc.timeout.read", 0));
+    }
+
+    @Test
+    public void testEnvironmentNames() {
+        assertEquals("RPC_POOL_MAX_CONNECTIONS", ConfigProperties.toEnvironmentName("rpc.pool.maxConnections"));
+        assertEquals("RPC_CONFIG_FILE", ConfigProperties.toEnvironmentName("rpc.config.file"));
+        assertEquals("RPC_SERVICE_COM_ACME_ORDER_SERVICE_CREATE_TIMEOUT_CALL",
+            ConfigProperties.toEnvironmentName("rpc.service.com.acme.OrderService.create.timeout.call"));
+    }
+
+    @Test
+    public void testMethodOverridesServiceOverridesGlobal() {
+        Map<String, String> file = new HashMap<>();
+        file.put("rpc.timeout.call", "5000");
+        file.put("rpc.loadBalance.strategy", "round_robin");
+        file.put("rpc.service.com.acme.OrderService.timeout.call", "2000");
+        file.put("rpc.service.com.acme.OrderService.circuitBreaker.failureRateThreshold", "20");
+        file.put("rpc.service.com.acme.OrderService.create.timeout.call", "800");
+        file.put("rpc.service.com.acme.OrderService.create.retry.overload", "0");
+        ConfigProperties properties = new ConfigProperties(Collections.emptyMap(), Collections.emptyMap(), file);
+        MethodConfig defaults = new MethodConfig(null, 30000L, 2, LoadBalance.Strategy.ADAPTIVE, 50.0f, 30, 5, 5);
+        MethodConfig global = MethodConfig.resolve(null, properties, defaults);
+
+        MethodConfig create = MethodConfig.resolve("com.acme.OrderService.create", properties, global);
+        assertEquals(800, create.getCallTimeout());
+        assertEquals(0, create.getOverloadRetries());
+        assertEquals(20.0f, create.getFailureRateThreshold());
+        assertEquals(LoadBalance.Strategy.ROUND_ROBIN, create.getLoadBalanceStrategy());
+
+        MethodConfig cancel = MethodConfig.resolve("com.acme.OrderService.cancel", properties, global);
+        assertEquals(2000, cancel.getCallTimeout());
+        assertEquals(2, cancel.getOverloadRetries());
+
+        MethodConfig other = MethodConfig.resolve("com.acme.UserService.get", properties, global);
+        assertEquals(5000, other.getCallTimeout());
+        assertEquals(50.0f, other.getFailureRateThreshold());
+
+        file.put("rpc.service.com.acme.UserService.loadBalance.strategy", "fastest");
+        assertThrows(IllegalArgumentException.class, () -> MethodConfig.resolve("com.acme.UserService.get",
+            new ConfigProperties(Collections.emptyMap(), Collections.emptyMap(), file), global));
+    }
+}
@@ -0,0 +1,91 @@
+package com.coldscholor.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 配置热更新测试：通过系统属性改变配置后重新加载，持有的方法配置原地更新
+ */
+public class RpcConfigTest {
+
+    private static final String SERVICE = "com.coldscholor.config.RpcConfigTest$Echo.ping";
+
+    private static final String TIMEOUT_KEY = MethodConfig.SERVICE_PREFIX + SERVICE + ".timeout.call";
+
+    @AfterEach
+    public void restore() {
+        System.clearProperty(TIMEOUT_KEY);
+        System.clearProperty("rpc.timeout.read");
+        RpcConfig.reload();
+    }
+
+    @Test
+    public void testReloadUpdatesHeldConfig() {
+        MethodConfig config = RpcConfig.getMethodConfig(SERVICE);
+        assertEquals(RpcConfig.getCallTimeout(), config.getCallTimeout());
+        AtomicInteger notified = new AtomicInteger();
+        RpcConfig.addListener(notified::incrementAndGet);
+
+        System.setProperty(TIMEOUT_KEY, "250");
+        System.setProperty("rpc.timeout.read", "1500");
+        assertTrue(RpcConfig.reload());
+
+        assertSame(config, RpcConfig.getMethodConfig(SERVICE));
+        assertEquals(250, config.getCallTimeout());
+        assertEquals(1500, RpcConfig.getReadTimeout());
+        assertEquals(1, notified.get());
+    }
+
+    @Test
+    public void testInvalidReloadKeepsCurrentValues() {
+        MethodConfig config = RpcConfig.getMethodConfig(SERVICE);
+        long timeout = config.getCallTimeout();
+        int readTimeout = RpcConfig.getReadTimeout();
+
+        // 一项不合法时其他项也不生效
+        System.setProperty("rpc.timeout.read", "1500");
+        System.setProperty(TIMEOUT_KEY, "-1");
+        assertFalse(RpcConfig.reload());
+
+        assertEquals(timeout, config.getCallTimeout());
+        assertEquals(readTimeout, RpcConfig.getReadTimeout());
+    }
+
+    @Test
+    public void testWatcherNotifiesOnContentChange() throws Exception {
+        Path directory = Files.createTempDirectory("rpc-config");
+        Path file = directory.resolve("rpc.properties");
+        Files.write(file, "rpc.timeout.read=1000\n".getBytes(StandardCharsets.UTF_8));
+        AtomicInteger changes = new AtomicInteger();
+        ConfigFileWatcher watcher = new ConfigFileWatcher(file, changes::incrementAndGet);
+        watcher.start();
+        try {
+            Files.write(file, "rpc.timeout.read=2000\n".getBytes(StandardCharsets.UTF_8));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (changes.get() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(1, changes.get());
+
+            // 内容没有变化的写入不触发重新加载
+            Files.write(file, "rpc.timeout.read=2000\n".getBytes(StandardCharsets.UTF_8));
+            Thread.sleep(500);
+            assertEquals(1, changes.get());
+        } finally {
+            watcher.stop();
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.coldscholor.jfr;
+
+import com.coldscholor.circuitbreaker.EndpointCircuitBreaker;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JFR事件测试：未录制时不创建事件，录制时按阈值提交
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class RpcEventsTest {
+
+    @Test
+    public void testNoEventWithoutRecording() {
+        assertNull(ClientCallEvent.start());
+        assertNull(ExecutorQueueWaitEvent.start());
+    }
+
+    @Test
+    public void testRecordsEventsAboveThreshold(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("rpc.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(CircuitBreakerTransitionEvent.class);
+            recording.enable(ClientCallEvent.class).withThreshold(Duration.ofMillis(5));
+            recording.start();
+
+            EndpointCircuitBreaker breaker = new EndpointCircuitBreaker("127.0.0.1:8080#Echo.echo", 50.0f, 30, 2, 10, 2);
+            breaker.onError();
+            breaker.onError();
+
+            ClientCallEvent fast = ClientCallEvent.start();
+            fast.finish("Echo.echo", "127.0.0.1:8080", null, null);
+            ClientCallEvent slow = ClientCallEvent.start();
+            Thread.sleep(10);
+            slow.finish("Echo.echo", "127.0.0.1:8080", null, new IllegalStateException("boom"));
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        List<RecordedEvent> transitions = events.stream()
+            .filter(event -> event.getEventType().getName().equals("com.coldscholor.rpc.CircuitBreakerTransition"))
+            .collect(Collectors.toList());
+        assertEquals(1, transitions.size());
+        assertEquals("CLOSED", transitions.get(0).getString("from"));
+        assertEquals("OPEN", transitions.get(0).getString("to"));
+
+        // 低于阈值的调用不提交
+        List<RecordedEvent> calls = events.stream()
+            .filter(event -> event.getEventType().getName().equals("com.coldscholor.rpc.ClientCall"))
+            .collect(Collectors.toList());
+        assertEquals(1, calls.size());
+        assertTrue(calls.get(0).getDuration().toMillis() >= 10);
+        assertEquals("java.lang.IllegalStateException: boom", calls.get(0).getString("error"));
+    }
+}
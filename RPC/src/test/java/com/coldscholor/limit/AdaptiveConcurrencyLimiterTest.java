@@ -0,0 +1,267 @@
+package com.coldscholor.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 自适应并发限制器测试
+ * 离散事件仿真：服务端处理能力在运行中减半，对比有无限制器时的有效吞吐和延迟
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /** 平均服务时间 */
+    private static final long SERVICE_TIME = 10 * MS;
+
+    /** 客户端超时 */
+    private static final long CLIENT_TIMEOUT = SECOND;
+
+    /** 请求到达速率(每秒) */
+    private static final int ARRIVAL_RATE = 600;
+
+    /** 容量减半的时间点 */
+    private static final long CAPACITY_DROP_AT = 20 * SECOND;
+
+    /** 仿真总时长 */
+    private static final long DURATION = 60 * SECOND;
+
+    /** 统计窗口起点：容量减半后留出收敛时间 */
+    private static final long MEASURE_FROM = 30 * SECOND;
+
+    @Test
+    public void testRejectsOverLimitAndReleasesPermits() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, 2.0, 0.2);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejectedCount());
+
+        limiter.onSuccess(SERVICE_TIME);
+        assertTrue(limiter.tryAcquire());
+        limiter.onIgnore();
+        limiter.onIgnore();
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testAsyncWaitForHeadroom() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 10, 2.0, 0.2);
+            assertTrue(limiter.acquireAsync(50, 10, scheduler).join());
+
+            // 超过上限时排队，有请求完成后余量转交给等待者
+            CompletableFuture<Boolean> waiting = limiter.acquireAsync(1000, 10, scheduler);
+            assertFalse(waiting.isDone());
+            assertEquals(1, limiter.getWaiting());
+            limiter.onSuccess(SERVICE_TIME);
+            assertTrue(waiting.get(1, TimeUnit.SECONDS));
+            assertEquals(1, limiter.getInFlight());
+            assertEquals(0, limiter.getWaiting());
+
+            // 排队超时后失败，不占用许可
+            CompletableFuture<Boolean> timedOut = limiter.acquireAsync(20, 10, scheduler);
+            assertFalse(timedOut.get(1, TimeUnit.SECONDS));
+            assertEquals(0, limiter.getWaiting());
+            assertEquals(1, limiter.getRejectedCount());
+
+            // 不允许排队时立即失败
+            assertFalse(limiter.acquireAsync(0, 10, scheduler).join());
+            limiter.onIgnore();
+            assertEquals(0, limiter.getInFlight());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLimitShrinksOnTimeouts() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 100, 1, 200, 2.0, 0.2);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.onDropped();
+        }
+        assertTrue(limiter.getLimit() < 100);
+        assertEquals(10, limiter.getDroppedCount());
+    }
+
+    @Test
+    public void testGoodputHoldsWhenCapacityHalves() {
+        SimulationResult unlimited = simulate(null);
+        SimulationResult limited = simulate(new AdaptiveConcurrencyLimiter("provider", 20, 1, 200, 2.0, 0.2));
+
+        // 容量减半后理论最大吞吐为 4 / 10ms = 400/s
+        double capacity = 4.0 * SECOND / SERVICE_TIME;
+
+        assertTrue(limited.goodput >= capacity * 0.85,
+            "goodput should stay close to the reduced capacity: " + limited);
+        assertTrue(limited.p99 >= 0 && limited.p99 <= 20 * SERVICE_TIME,
+            "latency should stay bounded: " + limited);
+        assertTrue(unlimited.goodput < capacity * 0.5,
+            "without a limiter requests queue until they time out: " + unlimited);
+    }
+
+    /**
+     * 仿真：泊松到达，FIFO多服务台，客户端超时后放弃但服务端仍会处理该请求
+     */
+    private static SimulationResult simulate(AdaptiveConcurrencyLimiter limiter) {
+        Random random = new Random(42);
+        PriorityQueue<Event> events = new PriorityQueue<>();
+        ArrayDeque<Request> serverQueue = new ArrayDeque<>();
+        List<Long> latencies = new ArrayList<>();
+        SimulationResult result = new SimulationResult();
+        long seq = 0;
+        int busyServers = 0;
+        long goodCount = 0;
+
+        events.add(new Event(nextArrival(random, 0), Event.ARRIVAL, null, seq++));
+        while (!events.isEmpty()) {
+            Event event = events.poll();
+            long now = event.time;
+            if (now > DURATION) {
+                break;
+            }
+            int servers = now < CAPACITY_DROP_AT ? 8 : 4;
+            boolean measured = now >= MEASURE_FROM;
+
+            switch (event.type) {
+                case Event.ARRIVAL: {
+                    events.add(new Event(nextArrival(random, now), Event.ARRIVAL, null, seq++));
+                    if (limiter != null && !limiter.tryAcquire()) {
+                        if (measured) {
+                            result.rejected++;
+                        }
+                        break;
+                    }
+                    Request request = new Request(now);
+                    events.add(new Event(now + CLIENT_TIMEOUT, Event.TIMEOUT, request, seq++));
+                    if (busyServers < servers) {
+                        busyServers++;
+                        events.add(new Event(now + serviceTime(random), Event.DONE, request, seq++));
+                    } else {
+                        serverQueue.add(request);
+                    }
+                    break;
+                }
+                case Event.TIMEOUT: {
+                    Request request = event.request;
+                    if (!request.finished) {
+                        request.finished = true;
+                        if (limiter != null) {
+                            limiter.onDropped();
+                        }
+                        if (measured) {
+                            result.timeouts++;
+                        }
+                    }
+                    break;
+                }
+                case Event.DONE: {
+                    Request request = event.request;
+                    if (!request.finished) {
+                        request.finished = true;
+                        long latency = now - request.startTime;
+                        if (limiter != null) {
+                            limiter.onSuccess(latency);
+                        }
+                        if (measured) {
+                            goodCount++;
+                            latencies.add(latency);
+                        }
+                    }
+                    // 处理能力下降时多出的服务台不再接新请求
+                    if (busyServers > servers) {
+                        busyServers--;
+                    } else if (!serverQueue.isEmpty()) {
+                        events.add(new Event(now + serviceTime(random), Event.DONE, serverQueue.poll(), seq++));
+                    } else {
+                        busyServers--;
+                    }
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+
+        result.goodput = goodCount * (double) SECOND / (DURATION - MEASURE_FROM);
+        Collections.sort(latencies);
+        result.p99 = latencies.isEmpty() ? -1L : latencies.get((int) (latencies.size() * 0.99));
+        return result;
+    }
+
+    private static long nextArrival(Random random, long now) {
+        return now + (long) (-Math.log(1 - random.nextDouble()) * SECOND / ARRIVAL_RATE);
+    }
+
+    /**
+     * 服务时间：固定一半 + 指数分布一半，模拟有下限的真实RTT
+     */
+    private static long serviceTime(Random random) {
+        return SERVICE_TIME / 2 + (long) (-Math.log(1 - random.nextDouble()) * SERVICE_TIME / 2);
+    }
+
+    private static class Request {
+        private final long startTime;
+        private boolean finished;
+
+        private Request(long startTime) {
+            this.startTime = startTime;
+        }
+    }
+
+    private static class Event implements Comparable<Event> {
+        private static final int ARRIVAL = 0;
+        private static final int DONE = 1;
+        private static final int TIMEOUT = 2;
+
+        private final long time;
+        private final int type;
+        private final Request request;
+        private final long seq;
+
+        private Event(long time, int type, Request request, long seq) {
+            this.time = time;
+            this.type = type;
+            this.request = request;
+            this.seq = seq;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(seq, other.seq);
+        }
+    }
+
+    private static class SimulationResult {
+        private double goodput;
+        /** p99延迟，没有成功请求时为-1 */
+        private long p99;
+        private long timeouts;
+        private long rejected;
+
+        @Override
+        public String toString() {
+            return String.format("goodput=%.1f/s p99=%s timeouts=%d rejected=%d",
+                goodput, p99 < 0 ? "n/a" : p99 / MS + "ms", timeouts, rejected);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.coldscholor.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 准入控制测试：用给定的时间驱动检测周期
+ */
+public class AdmissionControllerTest {
+
+    private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void testShortBurstIsQueuedNotRejected() {
+        AdmissionController admission = new AdmissionController(TARGET, INTERVAL, 0);
+
+        // 未过载时排队超过目标值但不超过一个周期的请求照常处理
+        assertTrue(admission.admit(TimeUnit.MILLISECONDS.toNanos(50), ms(10)));
+        assertTrue(admission.admit(TimeUnit.MILLISECONDS.toNanos(1), ms(20)));
+        assertFalse(admission.admit(TimeUnit.MILLISECONDS.toNanos(150), ms(30)));
+
+        assertFalse(admission.isOverloaded());
+        assertEquals(2, admission.getAdmittedCount());
+        assertEquals(1, admission.getRejectedCount());
+    }
+
+    @Test
+    public void testStandingQueueSwitchesToTarget() {
+        AdmissionController admission = new AdmissionController(TARGET, INTERVAL, 0);
+
+        // 整个周期内最小排队时间都超过目标值
+        for (int i = 1; i < 10; i++) {
+            assertTrue(admission.admit(TimeUnit.MILLISECONDS.toNanos(20), ms(i * 10)));
+        }
+        assertFalse(admission.admit(TimeUnit.MILLISECONDS.toNanos(20), ms(105)));
+        assertTrue(admission.isOverloaded());
+        // 过载期间排队短的请求仍然准入
+        assertTrue(admission.admit(TimeUnit.MILLISECONDS.toNanos(2), ms(110)));
+
+        // 队列排空后的下一个周期恢复
+        assertTrue(admission.admit(TimeUnit.MILLISECONDS.toNanos(20), ms(210)));
+        assertFalse(admission.isOverloaded());
+    }
+
+    @Test
+    public void testIdleGapClearsOverload() {
+        AdmissionController admission = new AdmissionController(TARGET, INTERVAL, 0);
+        admission.admit(TimeUnit.MILLISECONDS.toNanos(20), ms(50));
+        admission.admit(TimeUnit.MILLISECONDS.toNanos(20), ms(100));
+        assertTrue(admission.isOverloaded());
+
+        // 空闲超过一个周期后不沿用之前的判断
+        assertTrue(admission.admit(TimeUnit.MILLISECONDS.toNanos(20), ms(400)));
+        assertFalse(admission.isOverloaded());
+    }
+
+    @Test
+    public void testInFlightPerMethod() {
+        AdmissionController admission = new AdmissionController(TARGET, INTERVAL, 0);
+        AdmissionController.MethodInFlight inFlight = admission.inFlight("OrderService", "create");
+        inFlight.increment();
+        inFlight.increment();
+        inFlight.decrement();
+
+        assertTrue(inFlight == admission.inFlight("OrderService", "create"));
+        assertEquals(1, inFlight.get());
+        assertEquals(1, admission.getInFlight().size());
+    }
+
+    private static long ms(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
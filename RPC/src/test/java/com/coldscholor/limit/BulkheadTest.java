@@ -0,0 +1,70 @@
+package com.coldscholor.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 隔离舱和令牌桶测试
+ */
+public class BulkheadTest {
+
+    @Test
+    public void testTokenBucketBurstAndRefill() {
+        // 每秒10个令牌，桶容量3
+        TokenBucket bucket = new TokenBucket(10, 3, 0);
+        assertEquals(3, bucket.availableTokens(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(0));
+        assertEquals(0, bucket.availableTokens(0));
+
+        // 100毫秒补充一个令牌
+        assertFalse(bucket.tryAcquire(ms(99)));
+        assertTrue(bucket.tryAcquire(ms(100)));
+        assertFalse(bucket.tryAcquire(ms(100)));
+
+        // 空闲很久后最多攒满桶容量
+        assertEquals(3, bucket.availableTokens(ms(10000)));
+    }
+
+    @Test
+    public void testConcurrencyLimit() {
+        Bulkhead bulkhead = new Bulkhead("ReportService#export", 2, 0, 0);
+        bulkhead.acquire();
+        bulkhead.acquire();
+
+        BulkheadRejectedException e = assertThrows(BulkheadRejectedException.class, bulkhead::acquire);
+        assertEquals(BulkheadRejectedException.Reason.CONCURRENCY, e.getReason());
+        assertEquals("ReportService#export", e.getGroup());
+        assertEquals(1.0, bulkhead.getUtilization());
+
+        bulkhead.release();
+        bulkhead.acquire();
+        assertEquals(3, bulkhead.getPermittedCount());
+        assertEquals(1, bulkhead.getConcurrencyRejectedCount());
+        assertEquals(2, bulkhead.getPeakInUse());
+    }
+
+    @Test
+    public void testRateRejectionReturnsConcurrencyPermit() {
+        Bulkhead bulkhead = new Bulkhead("ReportService", 5, 0.001, 1);
+        bulkhead.acquire();
+        bulkhead.release();
+
+        BulkheadRejectedException e = assertThrows(BulkheadRejectedException.class, bulkhead::acquire);
+        assertEquals(BulkheadRejectedException.Reason.RATE, e.getReason());
+        assertEquals(0, bulkhead.getInUse());
+        assertEquals(1, bulkhead.getRateRejectedCount());
+    }
+
+    private static long ms(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
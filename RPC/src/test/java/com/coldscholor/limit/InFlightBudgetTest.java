@@ -0,0 +1,84 @@
+package com.coldscholor.limit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 在途请求预算测试
+ */
+public class InFlightBudgetTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testFailFastWhenExhausted() {
+        InFlightBudget budget = new InFlightBudget("test", 1, InFlightBudget.OverflowPolicy.FAIL_FAST, 100, 10, scheduler);
+
+        CompletableFuture<InFlightBudget.Permit> first = budget.acquire(5);
+        CompletableFuture<InFlightBudget.Permit> second = budget.acquire(5);
+
+        assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        assertTrue(second.isCompletedExceptionally());
+        assertEquals(1, budget.getRejectedCount());
+
+        first.join().release();
+        first.join().release();
+        assertEquals(0, budget.getUsed());
+    }
+
+    @Test
+    public void testBoundedWaitHandsOverAndTimesOut() throws Exception {
+        InFlightBudget budget = new InFlightBudget("test", 1, InFlightBudget.OverflowPolicy.BOUNDED_WAIT, 50, 10, scheduler);
+
+        InFlightBudget.Permit held = budget.acquire(5).join();
+        CompletableFuture<InFlightBudget.Permit> waiting = budget.acquire(5);
+        assertFalse(waiting.isDone());
+        assertEquals(1, budget.getWaiting());
+
+        held.release();
+        InFlightBudget.Permit handedOver = waiting.get(1, TimeUnit.SECONDS);
+        assertEquals(1, budget.getUsed());
+
+        CompletableFuture<InFlightBudget.Permit> timedOut = budget.acquire(5);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> timedOut.get(1, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof BudgetExhaustedException);
+        assertEquals(1, budget.getTimeoutCount());
+
+        handedOver.release();
+        assertEquals(0, budget.getUsed());
+    }
+
+    @Test
+    public void testShedLowestPriorityWaiter() {
+        InFlightBudget budget = new InFlightBudget("test", 1, InFlightBudget.OverflowPolicy.SHED_LOWEST_PRIORITY, 1000, 1, scheduler);
+
+        InFlightBudget.Permit held = budget.acquire(5).join();
+        CompletableFuture<InFlightBudget.Permit> low = budget.acquire(1);
+        CompletableFuture<InFlightBudget.Permit> high = budget.acquire(9);
+        CompletableFuture<InFlightBudget.Permit> lower = budget.acquire(0);
+
+        assertTrue(low.isCompletedExceptionally());
+        assertTrue(lower.isCompletedExceptionally());
+        assertEquals(1, budget.getShedCount());
+        assertEquals(1, budget.getRejectedCount());
+
+        held.release();
+        assertTrue(high.isDone() && !high.isCompletedExceptionally());
+    }
+}
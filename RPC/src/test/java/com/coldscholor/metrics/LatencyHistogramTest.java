@@ -0,0 +1,53 @@
+package com.coldscholor.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 延迟直方图测试
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsCoverRangeWithBoundedError() {
+        int previous = -1;
+        for (long nanos = 1; nanos < TimeUnit.SECONDS.toNanos(60); nanos += nanos / 7 + 1) {
+            int index = LatencyHistogram.indexOf(nanos);
+            assertTrue(index >= previous, "index must not decrease at " + nanos);
+            previous = index;
+            long upper = LatencyHistogram.upperBoundNanos(index);
+            assertTrue(upper > nanos, "upper bound " + upper + " <= " + nanos);
+            // 16个单位以下为线性桶，绝对误差不超过一个单位；以上相对误差不超过1/16
+            assertTrue(upper - nanos <= Math.max(1024, nanos / 16 + 1), "error too large at " + nanos);
+        }
+        // 超出范围的值计入最后一个桶
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+        assertEquals(0, LatencyHistogram.indexOf(-5));
+    }
+
+    @Test
+    public void testQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertArrayEquals(new long[]{0, 0}, histogram.quantilesNanos(0.5, 0.99));
+
+        // 1~1000微秒各一次
+        for (int micros = 1; micros <= 1000; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(500500), histogram.getTotalNanos());
+
+        long[] quantiles = histogram.quantilesNanos(0.5, 0.99, 1.0);
+        assertEquals(500_000, quantiles[0], 500_000 / 16.0);
+        assertEquals(990_000, quantiles[1], 990_000 / 16.0);
+        assertTrue(quantiles[2] >= 1_000_000);
+    }
+}
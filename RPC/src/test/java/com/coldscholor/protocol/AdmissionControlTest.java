@@ -0,0 +1,110 @@
+package com.coldscholor.protocol;
+
+import com.coldscholor.common.Invocation;
+import com.coldscholor.limit.AdmissionController;
+import com.coldscholor.limit.ProviderOverloadedException;
+import com.coldscholor.register.LocalRegister;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 准入控制测试：只有2个工作线程的服务端被持续压满时，超出的请求快速收到过载响应而不是无限排队
+ */
+public class AdmissionControlTest {
+
+    public interface SlowService {
+        String work(String value);
+    }
+
+    public static class SlowServiceImpl implements SlowService {
+        @Override
+        public String work(String value) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return value;
+        }
+    }
+
+    @Test
+    public void testSaturatedProviderShedsLoad() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        LocalRegister.register(SlowService.class.getName(), "1.0", SlowServiceImpl.class);
+        Thread serverThread = new Thread(() -> new HttpServer(2).start("127.0.0.1", port), "admission-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        awaitPort(port);
+
+        Invocation invocation = new Invocation(SlowService.class.getName(), "work",
+            new Class[]{String.class}, new Object[]{"ok"});
+        AdmissionController admission = AdmissionController.getInstance();
+        long rejectedBefore = admission.getRejectedCount();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger overloaded = new AtomicInteger();
+        AtomicLong maxRejectNanos = new AtomicLong();
+        long endNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1500);
+
+        // 20个并发调用方，服务端每秒最多处理40个请求
+        ExecutorService callers = Executors.newFixedThreadPool(20);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(callers.submit(() -> {
+                while (System.nanoTime() < endNanos) {
+                    long start = System.nanoTime();
+                    try {
+                        assertEquals("ok", ImprovedHttpClient.getInstance()
+                            .sendRequest("http://127.0.0.1:" + port, invocation));
+                        succeeded.incrementAndGet();
+                    } catch (ProviderOverloadedException e) {
+                        overloaded.incrementAndGet();
+                        maxRejectNanos.accumulateAndGet(System.nanoTime() - start, Math::max);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        callers.shutdown();
+
+        assertTrue(succeeded.get() > 0);
+        assertTrue(overloaded.get() > 0, "no call was shed");
+        assertTrue(admission.getRejectedCount() - rejectedBefore >= overloaded.get());
+        // 被拒绝的请求只在队列中等待了约一个检测周期，不会等到所有排在前面的请求执行完
+        assertTrue(maxRejectNanos.get() < TimeUnit.SECONDS.toNanos(1), "rejected after " + maxRejectNanos.get());
+    }
+
+    private static void awaitPort(int port) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline) {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("127.0.0.1", port), 200);
+                return;
+            } catch (IOException e) {
+                Thread.sleep(50);
+            }
+        }
+        throw new IllegalStateException("server did not start on port " + port);
+    }
+}
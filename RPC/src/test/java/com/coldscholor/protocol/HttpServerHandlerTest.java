@@ -0,0 +1,653 @@
+package com.coldscholor.protocol;
+
+import com.coldscholor.annotation.OneWay;
+import com.coldscholor.annotation.RpcBulkhead;
+import com.coldscholor.async.AsyncRpcManager;
+import com.coldscholor.buffer.BufferPool;
+import com.coldscholor.common.Invocation;
+import com.coldscholor.common.MethodDescriptor;
+import com.coldscholor.common.MethodRef;
+import com.coldscholor.common.URL;
+import com.coldscholor.compress.CompressionCodecs;
+import com.coldscholor.deadline.Deadline;
+import com.coldscholor.limit.BulkheadRejectedException;
+import com.coldscholor.metrics.CallMetrics;
+import com.coldscholor.metrics.MetricsRegistry;
+import com.coldscholor.register.ExportedService;
+import com.coldscholor.register.LocalRegister;
+import com.coldscholor.threadpool.InstrumentedThreadPoolExecutor;
+import com.coldscholor.threadpool.ThreadPoolManager;
+import com.coldscholor.trace.Scope;
+import com.coldscholor.trace.Span;
+import com.coldscholor.trace.TraceContext;
+import com.coldscholor.trace.Tracer;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 服务端处理测试：在本地启动Tomcat，验证请求经DispatcherServlet到HttpServerHandler的处理
+ */
+public class HttpServerHandlerTest {
+
+    public interface AuditService {
+        @OneWay
+        void record(String event);
+    }
+
+    /** 方法执行期间阻塞，验证确认先于执行返回 */
+    private static final CountDownLatch RELEASE = new CountDownLatch(1);
+
+    private static final CountDownLatch RECORDED = new CountDownLatch(1);
+
+    public static class AuditServiceImpl implements AuditService {
+        @Override
+        public void record(String event) {
+            try {
+                RELEASE.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            RECORDED.countDown();
+        }
+    }
+
+    public interface ExportService {
+        Iterator<byte[]> export(int count);
+
+        Stream<Integer> numbers(int count);
+
+        Iterator<Integer> failAfter(int count);
+    }
+
+    /** 已生产的元素数，用于验证客户端不读取时服务端停止生产 */
+    private static final AtomicInteger PRODUCED = new AtomicInteger();
+
+    public static class ExportServiceImpl implements ExportService {
+        @Override
+        public Iterator<byte[]> export(int count) {
+            return IntStream.range(0, count).mapToObj(i -> {
+                PRODUCED.incrementAndGet();
+                return new byte[1024];
+            }).iterator();
+        }
+
+        @Override
+        public Stream<Integer> numbers(int count) {
+            return IntStream.range(0, count).boxed();
+        }
+
+        @Override
+        public Iterator<Integer> failAfter(int count) {
+            return IntStream.range(0, count + 1).map(i -> {
+                if (i == count) {
+                    throw new IllegalStateException("export failed");
+                }
+                return i;
+            }).iterator();
+        }
+    }
+
+    public interface UploadService {
+        String upload(String name, InputStream data, ByteBuffer trailer);
+
+        String uploadChannel(ReadableByteChannel data);
+    }
+
+    public static class UploadServiceImpl implements UploadService {
+        @Override
+        public String upload(String name, InputStream data, ByteBuffer trailer) {
+            return name + ":" + checksum(data) + ":" + trailer.remaining();
+        }
+
+        @Override
+        public String uploadChannel(ReadableByteChannel data) {
+            return String.valueOf(checksum(Channels.newInputStream(data)));
+        }
+
+        private static long checksum(InputStream data) {
+            try {
+                long sum = 0;
+                byte[] buffer = new byte[4096];
+                int read;
+                while ((read = data.read(buffer)) != -1) {
+                    for (int i = 0; i < read; i++) {
+                        sum += buffer[i] & 0xff;
+                    }
+                }
+                return sum;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public interface EchoService {
+        String echo(String value);
+    }
+
+    public static class EchoServiceImpl implements EchoService {
+        @Override
+        public String echo(String value) {
+            return value;
+        }
+    }
+
+    public interface TraceService {
+        String current();
+    }
+
+    public static class TraceServiceImpl implements TraceService {
+        @Override
+        public String current() {
+            TraceContext context = TraceContext.current();
+            return context.getTraceId() + "/" + context.getSpanId() + "/" + context.getBaggage("tenant");
+        }
+    }
+
+    public interface DeadlineService {
+        String remaining();
+
+        String relay();
+
+        String slow(long millis);
+    }
+
+    public static class DeadlineServiceImpl implements DeadlineService {
+        @Override
+        public String remaining() {
+            return String.valueOf(Deadline.current().remaining(TimeUnit.MILLISECONDS));
+        }
+
+        @Override
+        public String relay() {
+            String own = remaining();
+            // 下游调用不指定超时，继承本次调用剩余的预算
+            Invocation downstream = new Invocation(DeadlineService.class.getName(), "remaining", new Class[0], new Object[0]);
+            try {
+                return own + "/" + AsyncRpcManager.getInstance().callAsync(url, downstream).get(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public String slow(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Deadline.current().check();
+            return "done";
+        }
+    }
+
+    public interface ReportService {
+        @RpcBulkhead(maxConcurrent = 1)
+        String export();
+
+        String ping();
+    }
+
+    public interface VersionedService {
+        String version(String caller);
+    }
+
+    public static class VersionedServiceV1 implements VersionedService {
+        @Override
+        public String version(String caller) {
+            return caller + "@v1";
+        }
+    }
+
+    /** 多一个公共方法，方法表版本与V1不同 */
+    public static class VersionedServiceV2 implements VersionedService {
+        @Override
+        public String version(String caller) {
+            return caller + "@v2";
+        }
+
+        public String extra() {
+            return "extra";
+        }
+    }
+
+    /** 占住隔离舱唯一名额的调用开始执行 */
+    private static final CountDownLatch EXPORT_STARTED = new CountDownLatch(1);
+
+    private static final CountDownLatch EXPORT_RELEASE = new CountDownLatch(1);
+
+    public static class ReportServiceImpl implements ReportService {
+        @Override
+        public String export() {
+            EXPORT_STARTED.countDown();
+            try {
+                EXPORT_RELEASE.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "exported";
+        }
+
+        @Override
+        public String ping() {
+            return "pong";
+        }
+    }
+
+    private static URL url;
+
+    @BeforeAll
+    public static void startServer() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        LocalRegister.register(AuditService.class.getName(), "1.0", AuditServiceImpl.class);
+        LocalRegister.register(ExportService.class.getName(), "1.0", ExportServiceImpl.class);
+        LocalRegister.register(UploadService.class.getName(), "1.0", UploadServiceImpl.class);
+        LocalRegister.register(EchoService.class.getName(), "1.0", EchoServiceImpl.class);
+        LocalRegister.register(TraceService.class.getName(), "1.0", TraceServiceImpl.class);
+        LocalRegister.register(DeadlineService.class.getName(), "1.0", DeadlineServiceImpl.class);
+        LocalRegister.register(ReportService.class.getName(), "1.0", ReportServiceImpl.class);
+        int serverPort = port;
+        Thread serverThread = new Thread(() -> new HttpServer().start("127.0.0.1", serverPort), "test-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        awaitPort(port);
+        url = new URL("127.0.0.1", port);
+    }
+
+    @Test
+    public void testOneWayIsAcknowledgedBeforeExecution() throws Exception {
+        Invocation invocation = new Invocation(AuditService.class.getName(), "record",
+            new Class[]{String.class}, new Object[]{"login"});
+        AsyncRpcManager asyncRpcManager = AsyncRpcManager.getInstance();
+        long delivered = asyncRpcManager.getOneWayDeliveredCount();
+
+        asyncRpcManager.sendOneWay(url, invocation, 5);
+
+        // 方法还在执行中，服务端已经确认
+        awaitTrue(() -> asyncRpcManager.getOneWayDeliveredCount() == delivered + 1);
+        assertEquals(1, RECORDED.getCount());
+        assertEquals(1, OneWayInvoker.getInstance().getAcceptedCount());
+
+        RELEASE.countDown();
+        assertTrue(RECORDED.await(5, TimeUnit.SECONDS));
+        awaitTrue(() -> OneWayInvoker.getInstance().getCompletedCount() == 1);
+        assertEquals(0, asyncRpcManager.getOneWayDroppedCount());
+    }
+
+    @Test
+    public void testStreamDeliversAllElementsAndReusesConnection() throws Exception {
+        try (RpcStreamIterator<Integer> iterator = openStream("numbers", 100000)) {
+            long sum = 0;
+            int count = 0;
+            while (iterator.hasNext()) {
+                sum += iterator.next();
+                count++;
+            }
+            assertEquals(100000, count);
+            assertEquals(99999L * 100000 / 2, sum);
+        }
+        // 读到结束帧后连接归还连接池
+        RpcStreamIterator<Integer> next = openStream("numbers", 3);
+        assertEquals(3, next.stream().count());
+    }
+
+    @Test
+    public void testSlowReaderBoundsProducer() throws Exception {
+        PRODUCED.set(0);
+        int total = 200000;
+        try (RpcStreamIterator<byte[]> iterator = openStream("export", total)) {
+            assertEquals(1024, iterator.next().length);
+            Thread.sleep(300);
+            // 客户端不再读取，服务端被TCP窗口阻塞，已生产的数据远小于总量(200MB)
+            assertTrue(PRODUCED.get() < total / 10, "produced " + PRODUCED.get());
+        }
+    }
+
+    @Test
+    public void testProviderErrorMidStream() throws Exception {
+        RpcStreamIterator<Integer> iterator = openStream("failAfter", 5);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, iterator.next());
+        }
+        IllegalStateException e = assertThrows(IllegalStateException.class, iterator::hasNext);
+        assertTrue(e.getMessage().contains("export failed"));
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testStreamArgumentsFromFileAndBuffer(@TempDir Path tempDir) throws Exception {
+        byte[] content = new byte[3 * 1024 * 1024 + 17];
+        new Random(7).nextBytes(content);
+        Path file = tempDir.resolve("payload.bin");
+        Files.write(file, content);
+
+        String result;
+        try (FileInputStream data = new FileInputStream(file.toFile())) {
+            Invocation invocation = new Invocation(UploadService.class.getName(), "upload",
+                new Class[]{String.class, InputStream.class, ByteBuffer.class},
+                new Object[]{"payload", data, ByteBuffer.wrap(new byte[100], 10, 50)});
+            result = AsyncRpcManager.getInstance().callAsync(url, invocation).get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals("payload:" + checksum(content) + ":50", result);
+    }
+
+    @Test
+    public void testStreamArgumentFromChannel() throws Exception {
+        byte[] content = new byte[200000];
+        new Random(11).nextBytes(content);
+        Invocation invocation = new Invocation(UploadService.class.getName(), "uploadChannel",
+            new Class[]{ReadableByteChannel.class},
+            new Object[]{Channels.newChannel(new ByteArrayInputStream(content))});
+
+        String result = ImprovedHttpClient.getInstance().sendRequest("http://" + url.getAddress(), invocation);
+
+        assertEquals(String.valueOf(checksum(content)), result);
+    }
+
+    @Test
+    public void testPooledBuffersAreReturnedAfterCalls() throws Exception {
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            large.append("数据").append(i);
+        }
+        for (String value : new String[]{"hello", large.toString()}) {
+            Invocation invocation = new Invocation(EchoService.class.getName(), "echo",
+                new Class[]{String.class}, new Object[]{value});
+            assertEquals(value, AsyncRpcManager.getInstance().callAsync(url, invocation).get(10, TimeUnit.SECONDS));
+            assertEquals(value, ImprovedHttpClient.getInstance().sendRequest("http://" + url.getAddress(), invocation));
+        }
+
+        // 请求、响应和服务端编码用的缓冲区在交换结束后全部归还
+        BufferPool pool = BufferPool.getInstance();
+        assertTrue(pool.isLeakDetection());
+        awaitTrue(() -> pool.getOutstandingCount() == 0);
+        assertEquals(0, pool.getLeakCount());
+    }
+
+    @Test
+    public void testLargeMessagesAreCompressedBothWays() throws Exception {
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            large.append("{\"id\":").append(i).append(",\"status\":\"ACTIVE\"}");
+        }
+        Invocation invocation = new Invocation(EchoService.class.getName(), "echo",
+            new Class[]{String.class}, new Object[]{large.toString()});
+        CompressionCodecs codecs = CompressionCodecs.getInstance();
+        long compressed = codecs.getCompressedCount();
+
+        // 第一次响应被压缩并声明服务端支持的编码，之后的请求也被压缩
+        for (int i = 0; i < 2; i++) {
+            assertEquals(large.toString(), AsyncRpcManager.getInstance().callAsync(url, invocation).get(10, TimeUnit.SECONDS));
+            assertEquals(large.toString(), ImprovedHttpClient.getInstance().sendRequest("http://" + url.getAddress(), invocation));
+        }
+
+        assertTrue(codecs.getCompressedCount() - compressed >= 7, "compressed " + (codecs.getCompressedCount() - compressed));
+        assertTrue(codecs.getCompressedBytes() * 5 < codecs.getUncompressedBytes());
+
+        // 小于阈值的消息不压缩
+        long before = codecs.getCompressedCount();
+        Invocation small = new Invocation(EchoService.class.getName(), "echo",
+            new Class[]{String.class}, new Object[]{"small"});
+        assertEquals("small", AsyncRpcManager.getInstance().callAsync(url, small).get(10, TimeUnit.SECONDS));
+        assertEquals(before, codecs.getCompressedCount());
+    }
+
+    @Test
+    public void testMetricsEndpointExportsCallMetrics() throws Exception {
+        Invocation invocation = new Invocation(EchoService.class.getName(), "echo",
+            new Class[]{String.class}, new Object[]{"metrics"});
+        CallMetrics consumer = MetricsRegistry.getInstance().getConsumerMetrics(url, EchoService.class.getName() + ".echo");
+        CallMetrics provider = MetricsRegistry.getInstance().getProviderMetrics(EchoService.class.getName(), "echo");
+        long consumerBefore = consumer.getSuccessCount();
+        long providerBefore = provider.getSuccessCount();
+
+        assertEquals("metrics", AsyncRpcManager.getInstance().callAsync(url, invocation).get(10, TimeUnit.SECONDS));
+        awaitTrue(() -> consumer.getSuccessCount() == consumerBefore + 1);
+        awaitTrue(() -> provider.getSuccessCount() == providerBefore + 1);
+        assertTrue(consumer.getLatency().quantileNanos(0.5) > 0);
+
+        // 精确路径/metrics优先于DispatcherServlet的/*
+        HttpURLConnection connection = (HttpURLConnection) new java.net.URL("http://" + url.getAddress() + "/metrics").openConnection();
+        assertEquals(200, connection.getResponseCode());
+        assertTrue(connection.getContentType().startsWith("text/plain"));
+        String body = IOUtils.toString(connection.getInputStream(), "UTF-8");
+
+        String service = "service=\"" + EchoService.class.getName() + "\",method=\"echo\"";
+        assertTrue(body.contains("rpc_client_requests_total{" + service + ",endpoint=\"" + url.getAddress()
+            + "\",outcome=\"success\"} " + consumer.getSuccessCount()), body);
+        assertTrue(body.contains("rpc_server_latency_seconds_count{" + service + "}"), body);
+        assertTrue(body.contains("rpc_circuit_breaker_state{name=\""), body);
+        assertTrue(body.contains("# TYPE rpc_limiter_limit gauge"), body);
+        assertTrue(body.contains("rpc_budget_used{budget=\""), body);
+    }
+
+    @Test
+    public void testTraceContextPropagatesToProvider() throws Exception {
+        // 上游已采样的请求：下游沿用采样决定，不受本地采样率影响
+        Map<String, String> upstream = new HashMap<>();
+        upstream.put(TraceContext.TRACE_ID, "0af7651916cd43dd8448eb211c80319c");
+        upstream.put(TraceContext.SPAN_ID, "b7ad6b7169203331");
+        upstream.put(TraceContext.SAMPLED, "1");
+        upstream.put(TraceContext.BAGGAGE_PREFIX + "tenant", "acme");
+        Invocation invocation = new Invocation(TraceService.class.getName(), "current", new Class[0], new Object[0]);
+
+        String result;
+        try (Scope scope = TraceContext.extract(upstream).makeCurrent()) {
+            result = AsyncRpcManager.getInstance().callAsync(url, invocation).get(10, TimeUnit.SECONDS);
+        }
+        String[] parts = result.split("/");
+        assertEquals("0af7651916cd43dd8448eb211c80319c", parts[0]);
+        assertEquals("acme", parts[2]);
+
+        String serverSpanId = parts[1];
+        awaitTrue(() -> Tracer.getInstance().getRecentSpans().stream()
+            .filter(span -> "0af7651916cd43dd8448eb211c80319c".equals(span.getTraceId())).count() == 2);
+        List<Span> spans = Tracer.getInstance().getRecentSpans();
+        Span client = spans.stream().filter(span -> span.getKind() == Span.Kind.CLIENT
+            && "0af7651916cd43dd8448eb211c80319c".equals(span.getTraceId())).findFirst().get();
+        Span server = spans.stream().filter(span -> span.getKind() == Span.Kind.SERVER
+            && serverSpanId.equals(span.getSpanId())).findFirst().get();
+        assertEquals("b7ad6b7169203331", client.getParentSpanId());
+        assertEquals(client.getSpanId(), server.getParentSpanId());
+        assertEquals(url.getAddress(), client.getEndpoint());
+    }
+
+    @Test
+    public void testDeadlinePropagatesToProviderAndDownstream() throws Exception {
+        Invocation invocation = new Invocation(DeadlineService.class.getName(), "relay", new Class[0], new Object[0]);
+        String result = AsyncRpcManager.getInstance()
+            .callAsyncWithTimeout(url, invocation, 2, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+        long own = Long.parseLong(result.split("/")[0]);
+        long downstream = Long.parseLong(result.split("/")[1]);
+        assertTrue(own > 0 && own <= 2000, result);
+        // 下游拿到的是剩余预算，而不是读取超时
+        assertTrue(downstream > 0 && downstream <= own, result);
+    }
+
+    @Test
+    public void testExpiredRequestIsDroppedBeforeDecoding() throws Exception {
+        long dropped = Deadline.getDroppedCount(Deadline.Stage.RECEIVED);
+        HttpURLConnection connection = (HttpURLConnection) new java.net.URL("http://" + url.getAddress() + "/").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty(Deadline.HEADER, String.valueOf(System.currentTimeMillis() - 1000));
+        // 请求体不是合法的Invocation，被解码就会返回500
+        connection.getOutputStream().write(new byte[]{1, 2, 3});
+        assertEquals(504, connection.getResponseCode());
+        assertEquals(dropped + 1, Deadline.getDroppedCount(Deadline.Stage.RECEIVED));
+    }
+
+    @Test
+    public void testProviderAbortsWorkAfterDeadline() throws Exception {
+        long dropped = Deadline.getDroppedCount(Deadline.Stage.INVOKE);
+        Invocation invocation = new Invocation(DeadlineService.class.getName(), "slow",
+            new Class[]{long.class}, new Object[]{300L});
+        ExecutionException e = assertThrows(ExecutionException.class, () -> AsyncRpcManager.getInstance()
+            .callAsyncWithTimeout(url, invocation, 100, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof TimeoutException, String.valueOf(e.getCause()));
+        // 服务方法醒来后通过Deadline.check()中止，不再写出结果
+        awaitTrue(() -> Deadline.getDroppedCount(Deadline.Stage.INVOKE) == dropped + 1);
+    }
+
+    @Test
+    public void testBulkheadRejectsHeavyMethodWithoutStarvingOthers() throws Exception {
+        Invocation export = new Invocation(ReportService.class.getName(), "export", new Class[0], new Object[0]);
+        Invocation ping = new Invocation(ReportService.class.getName(), "ping", new Class[0], new Object[0]);
+        AsyncRpcManager asyncRpcManager = AsyncRpcManager.getInstance();
+        CompletableFuture<String> held = asyncRpcManager.callAsync(url, export);
+        assertTrue(EXPORT_STARTED.await(5, TimeUnit.SECONDS));
+
+        // 名额已被占用，再次调用快速收到类型化的拒绝，同一服务的其他方法不受影响
+        ExecutionException e = assertThrows(ExecutionException.class,
+            () -> asyncRpcManager.callAsync(url, export).get(5, TimeUnit.SECONDS));
+        assertTrue(AsyncRpcManager.isOverloaded(e), String.valueOf(e.getCause()));
+        Throwable cause = e;
+        while (!(cause instanceof BulkheadRejectedException)) {
+            cause = cause.getCause();
+        }
+        assertEquals(ReportService.class.getName() + "#export", ((BulkheadRejectedException) cause).getGroup());
+        assertEquals(BulkheadRejectedException.Reason.CONCURRENCY, ((BulkheadRejectedException) cause).getReason());
+        assertEquals("pong", asyncRpcManager.callAsync(url, ping).get(5, TimeUnit.SECONDS));
+
+        EXPORT_RELEASE.countDown();
+        assertEquals("exported", held.get(5, TimeUnit.SECONDS));
+        String scrape = IOUtils.toString(new java.net.URL("http://" + url.getAddress() + "/metrics").openStream(), "UTF-8");
+        assertTrue(scrape.contains("rpc_bulkhead_calls_total{group=\"" + ReportService.class.getName()
+            + "#export\",decision=\"rejected_concurrency\"} 1"), scrape);
+    }
+
+    @Test
+    public void testThreadPoolAdminEndpointResizesLive() throws Exception {
+        String admin = "http://" + url.getAddress() + "/admin/threadpools";
+        HttpURLConnection list = (HttpURLConnection) new java.net.URL(admin).openConnection();
+        assertEquals(200, list.getResponseCode());
+        String pools = IOUtils.toString(list.getInputStream(), "UTF-8");
+        assertTrue(pools.contains("rpc-client core="), pools);
+        assertTrue(pools.contains("rpc-callback core="), pools);
+
+        assertEquals(200, post(admin + "?name=rpc-oneway&core=2&max=6&queue=500"));
+        InstrumentedThreadPoolExecutor oneWay = ThreadPoolManager.getInstance().getPools().stream()
+            .filter(pool -> pool.getName().equals("rpc-oneway")).findFirst().get();
+        assertEquals(2, oneWay.getCorePoolSize());
+        assertEquals(6, oneWay.getMaximumPoolSize());
+        assertEquals(500, oneWay.getQueueCapacity());
+
+        assertEquals(404, post(admin + "?name=missing&core=1"));
+        assertEquals(400, post(admin + "?name=rpc-oneway&core=8&max=4"));
+        assertEquals(400, post(admin + "?name=rpc-oneway&core=abc"));
+    }
+
+    @Test
+    public void testMethodIdHandshakeFallsBackAfterProviderUpgrade() throws Exception {
+        LocalRegister.register(VersionedService.class.getName(), "1.0", VersionedServiceV1.class);
+        MethodDescriptor descriptor = MethodDescriptor.of(-1, VersionedService.class.getMethod("version", String.class));
+        Invocation invocation = new Invocation(VersionedService.class.getName(), "version",
+            new Class[]{String.class}, new Object[]{"a"});
+        invocation.setMethodDescriptor(descriptor);
+        ImprovedHttpClient client = ImprovedHttpClient.getInstance();
+        String address = "http://" + url.getAddress();
+
+        // 第一次按完整描述调用，提供者在响应中发布方法ID；只带方法ID的紧凑形式同样能调用
+        assertEquals("a@v1", client.sendRequest(address, invocation));
+        ExportedService v1 = LocalRegister.getService(VersionedService.class.getName(), "1.0");
+        MethodDescriptor exported = v1.findMethod("version", new Class<?>[]{String.class});
+        assertEquals(descriptor.getMethodId(), exported.getMethodId());
+        MethodRef methodRef = new MethodRef(v1.getServiceId(), exported.getMethodId(), v1.getTableVersion());
+        assertEquals(methodRef.toWireValue(), MethodRef.fromWireValue(methodRef.toWireValue()).toWireValue());
+        Invocation compact = invocation.compact(methodRef);
+        assertTrue(compact.isCompact());
+        assertEquals("a@v1", client.sendRequest(address, compact));
+        assertEquals("a@v1", client.sendRequest(address, invocation));
+
+        // 提供者升级后方法表版本改变，旧的方法ID不再被接受，客户端自动按完整描述重发
+        LocalRegister.register(VersionedService.class.getName(), "1.0", VersionedServiceV2.class);
+        assertTrue(LocalRegister.getService(VersionedService.class.getName(), "1.0").getTableVersion() != v1.getTableVersion());
+        assertThrows(IOException.class, () -> client.sendRequest(address, compact));
+        assertEquals("a@v2", client.sendRequest(address, invocation));
+        LocalRegister.register(VersionedService.class.getName(), "1.0", VersionedServiceV1.class);
+        assertEquals("a@v1", AsyncRpcManager.getInstance().callAsync(url, invocation).get(10, TimeUnit.SECONDS));
+        assertEquals("a@v1", AsyncRpcManager.getInstance().callAsync(url, invocation).get(10, TimeUnit.SECONDS));
+    }
+
+    private static int post(String target) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new java.net.URL(target).openConnection();
+        connection.setRequestMethod("POST");
+        return connection.getResponseCode();
+    }
+
+    private static long checksum(byte[] content) {
+        long sum = 0;
+        for (byte b : content) {
+            sum += b & 0xff;
+        }
+        return sum;
+    }
+
+    private static <T> RpcStreamIterator<T> openStream(String method, int count) throws Exception {
+        Invocation invocation = new Invocation(ExportService.class.getName(), method,
+            new Class[]{int.class}, new Object[]{count});
+        return ImprovedHttpClient.getInstance().openStream("http://" + url.getAddress(), invocation);
+    }
+
+    private static void awaitPort(int port) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("127.0.0.1", port), 200);
+                return;
+            } catch (Exception e) {
+                Thread.sleep(100);
+            }
+        }
+        throw new IllegalStateException("Server did not start on port " + port);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
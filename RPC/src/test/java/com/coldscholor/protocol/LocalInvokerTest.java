@@ -0,0 +1,30 @@
+package com.coldscholor.protocol;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 进程内调用的参数拷贝测试
+ */
+public class LocalInvokerTest {
+
+    @Test
+    public void testArgumentsAreCopiedOnlyWhenEnabled() {
+        List<String> items = new ArrayList<>();
+        items.add("apple");
+        Object[] arguments = {items, 3};
+
+        Object[] copied = new LocalInvoker(true).copy(arguments);
+        assertNotSame(items, copied[0]);
+        assertEquals(items, copied[0]);
+        assertEquals(3, copied[1]);
+
+        assertSame(arguments, new LocalInvoker(false).copy(arguments));
+    }
+}
@@ -0,0 +1,152 @@
+package com.coldscholor.protocol;
+
+import com.coldscholor.common.Invocation;
+import com.coldscholor.register.LocalRegister;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 传输层对比：阻塞传输（每个在途请求一个线程） vs 事件驱动传输（NIO回调）
+ * 在本地启动Tomcat服务端，以固定并发数发起调用，输出吞吐量和峰值线程数
+ *
+ * 运行方式（RPC目录下）：
+ * mvn -q test-compile
+ * java -cp "target/classes:target/test-classes:lib/*" com.coldscholor.protocol.TransportBenchmark [并发数] [总调用数] [端口]
+ */
+public class TransportBenchmark {
+
+    public interface EchoService {
+        String echo(String message);
+    }
+
+    public static class EchoServiceImpl implements EchoService {
+        @Override
+        public String echo(String message) {
+            return message;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int totalCalls = args.length > 1 ? Integer.parseInt(args[1]) : 50000;
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : 18080;
+
+        LocalRegister.register(EchoService.class.getName(), "1.0", EchoServiceImpl.class);
+        Thread serverThread = new Thread(() -> new HttpServer().start("127.0.0.1", port), "benchmark-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        awaitPort(port);
+
+        String url = "http://127.0.0.1:" + port;
+        Invocation invocation = new Invocation(EchoService.class.getName(), "echo",
+            new Class[]{String.class}, new Object[]{"ping"});
+        ImprovedHttpClient client = ImprovedHttpClient.getInstance();
+
+        // 预热两种传输
+        runAsync(client, url, invocation, 200, 5000);
+        runBlocking(client, url, invocation, 200, 5000);
+
+        System.out.printf("concurrency=%d calls=%d cpus=%d%n",
+            concurrency, totalCalls, Runtime.getRuntime().availableProcessors());
+        print("ASYNC", runAsync(client, url, invocation, concurrency, totalCalls));
+        print("BLOCKING", runBlocking(client, url, invocation, concurrency, totalCalls));
+        System.exit(0);
+    }
+
+    /**
+     * 事件驱动传输：信号量限制在途数，发出请求的线程不等待响应
+     */
+    private static Result runAsync(ImprovedHttpClient client, String url, Invocation invocation,
+                                   int concurrency, int totalCalls) throws InterruptedException {
+        Result result = new Result();
+        Semaphore inFlight = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(totalCalls);
+        resetPeakThreads();
+        long start = System.nanoTime();
+        for (int i = 0; i < totalCalls; i++) {
+            inFlight.acquire();
+            client.sendRequestAsync(url, invocation).whenComplete((response, throwable) -> {
+                if (throwable != null) {
+                    result.errors.incrementAndGet();
+                }
+                inFlight.release();
+                done.countDown();
+            });
+        }
+        done.await();
+        result.finish(start, totalCalls);
+        return result;
+    }
+
+    /**
+     * 阻塞传输：每个在途请求占用一个线程
+     */
+    private static Result runBlocking(ImprovedHttpClient client, String url, Invocation invocation,
+                                      int concurrency, int totalCalls) throws InterruptedException {
+        Result result = new Result();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch done = new CountDownLatch(totalCalls);
+        resetPeakThreads();
+        long start = System.nanoTime();
+        for (int i = 0; i < totalCalls; i++) {
+            executor.execute(() -> {
+                try {
+                    client.sendRequest(url, invocation);
+                } catch (Exception e) {
+                    result.errors.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        result.finish(start, totalCalls);
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        return result;
+    }
+
+    private static void resetPeakThreads() {
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+    }
+
+    private static void print(String mode, Result result) {
+        System.out.printf("%-9s throughput=%8.0f calls/s  elapsed=%6d ms  peakThreads=%5d  errors=%d%n",
+            mode, result.throughput, result.elapsedMillis, result.peakThreads, result.errors.get());
+    }
+
+    private static void awaitPort(int port) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("127.0.0.1", port), 200);
+                return;
+            } catch (Exception e) {
+                Thread.sleep(100);
+            }
+        }
+        throw new IllegalStateException("Server did not start on port " + port);
+    }
+
+    private static class Result {
+        private final AtomicLong errors = new AtomicLong();
+        private long elapsedMillis;
+        private double throughput;
+        private int peakThreads;
+
+        private void finish(long startNanos, int totalCalls) {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            this.peakThreads = ManagementFactory.getThreadMXBean().getPeakThreadCount();
+            this.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+            this.throughput = (totalCalls - errors.get()) * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+    }
+}
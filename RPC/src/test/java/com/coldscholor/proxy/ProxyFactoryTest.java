@@ -0,0 +1,74 @@
+package com.coldscholor.proxy;
+
+import com.coldscholor.circuitbreaker.CircuitBreakerManager;
+import com.coldscholor.circuitbreaker.EndpointCircuitBreaker;
+import com.coldscholor.protocol.LocalInvoker;
+import com.coldscholor.register.LocalRegister;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 代理测试：服务在当前JVM中导出时不经过网络直接调用本地实现
+ */
+public class ProxyFactoryTest {
+
+    public interface InventoryService {
+        String reserve(List<String> items);
+
+        Iterator<String> list();
+
+        String fail();
+    }
+
+    public static class InventoryServiceImpl implements InventoryService {
+        @Override
+        public String reserve(List<String> items) {
+            items.add("reserved");
+            return "reserved " + (items.size() - 1);
+        }
+
+        @Override
+        public Iterator<String> list() {
+            List<String> items = new ArrayList<>();
+            items.add("a");
+            items.add("b");
+            return items.iterator();
+        }
+
+        @Override
+        public String fail() {
+            throw new IllegalStateException("out of stock");
+        }
+    }
+
+    @Test
+    public void testLocallyExportedServiceIsInvokedDirectly() {
+        // 没有注册远程端点，也没有启动服务端，调用只能在进程内完成
+        LocalRegister.register(InventoryService.class.getName(), "1.0", InventoryServiceImpl.class);
+        InventoryService service = ProxyFactory.getProxy(InventoryService.class);
+        LocalInvoker localInvoker = LocalInvoker.getInstance();
+        long calls = localInvoker.getCallCount();
+
+        List<String> items = new ArrayList<>();
+        items.add("apple");
+        assertEquals("reserved 1", service.reserve(items));
+        Iterator<String> iterator = service.list();
+        assertEquals("a", iterator.next());
+
+        // 服务实现抛出异常时和远程调用一样计入熔断器并降级
+        String serviceName = InventoryService.class.getName() + ".fail";
+        assertEquals(CircuitBreakerManager.createFallbackResponse(serviceName), service.fail());
+
+        assertEquals(calls + 3, localInvoker.getCallCount());
+        EndpointCircuitBreaker circuitBreaker = CircuitBreakerManager.getInstance()
+            .getOrCreateCircuitBreaker(LocalInvoker.LOCAL_URL, serviceName);
+        assertEquals(1, circuitBreaker.getFailureCount());
+        assertEquals(1, CircuitBreakerManager.getInstance().getFallbackCount(serviceName));
+    }
+}
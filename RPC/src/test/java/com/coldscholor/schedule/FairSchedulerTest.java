@@ -0,0 +1,141 @@
+package com.coldscholor.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 执行调度测试：占住唯一的名额，让请求按给定顺序排队，归还后观察获得名额的顺序
+ */
+public class FairSchedulerTest {
+
+    private static final long NO_STARVATION = TimeUnit.SECONDS.toNanos(60);
+
+    private final List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    @Test
+    public void testHigherClassFirst() throws Exception {
+        FairScheduler scheduler = new FairScheduler(1, NO_STARVATION, Collections.emptyMap());
+        assertTrue(scheduler.acquire(PriorityClass.NORMAL, "holder", 0L));
+        enqueue(scheduler, PriorityClass.BATCH, "backfill", "batch");
+        enqueue(scheduler, PriorityClass.NORMAL, "app", "normal");
+        enqueue(scheduler, PriorityClass.INTERACTIVE, "web", "interactive");
+
+        scheduler.release(PriorityClass.NORMAL);
+
+        assertEquals(Arrays.asList("interactive", "normal", "batch"), awaitOrder());
+        assertEquals(0, scheduler.getSlotsInUse());
+    }
+
+    @Test
+    public void testCallersShareClassFairly() throws Exception {
+        FairScheduler scheduler = new FairScheduler(1, NO_STARVATION, Collections.emptyMap());
+        assertTrue(scheduler.acquire(PriorityClass.BATCH, "holder", 0L));
+        // 重调用方先排了4个请求，轻调用方后到的请求不排在它们全部之后
+        for (int i = 0; i < 4; i++) {
+            enqueue(scheduler, PriorityClass.BATCH, "heavy", "heavy");
+        }
+        enqueue(scheduler, PriorityClass.BATCH, "light", "light");
+        enqueue(scheduler, PriorityClass.BATCH, "light", "light");
+
+        scheduler.release(PriorityClass.BATCH);
+
+        assertEquals(Arrays.asList("heavy", "light", "heavy", "light", "heavy", "heavy"), awaitOrder());
+    }
+
+    @Test
+    public void testCallerWeights() throws Exception {
+        Map<String, Double> weights = FairScheduler.parseWeights("heavy=2, light=1");
+        FairScheduler scheduler = new FairScheduler(1, NO_STARVATION, weights);
+        assertTrue(scheduler.acquire(PriorityClass.NORMAL, "holder", 0L));
+        for (int i = 0; i < 4; i++) {
+            enqueue(scheduler, PriorityClass.NORMAL, "heavy", "heavy");
+        }
+        enqueue(scheduler, PriorityClass.NORMAL, "light", "light");
+        enqueue(scheduler, PriorityClass.NORMAL, "light", "light");
+
+        scheduler.release(PriorityClass.NORMAL);
+
+        // 权重为2的调用方每轮获得两倍的名额
+        assertEquals(Arrays.asList("heavy", "light", "heavy", "heavy", "light", "heavy"), awaitOrder());
+    }
+
+    @Test
+    public void testStarvingClassIsPromoted() throws Exception {
+        FairScheduler scheduler = new FairScheduler(1, TimeUnit.MILLISECONDS.toNanos(20), Collections.emptyMap());
+        assertTrue(scheduler.acquire(PriorityClass.INTERACTIVE, "holder", 0L));
+        enqueue(scheduler, PriorityClass.BATCH, "backfill", "batch");
+        Thread.sleep(40);
+        enqueue(scheduler, PriorityClass.INTERACTIVE, "web", "interactive");
+
+        scheduler.release(PriorityClass.INTERACTIVE);
+
+        assertEquals(Arrays.asList("batch", "interactive"), awaitOrder());
+        assertEquals(1, scheduler.getQueue(PriorityClass.BATCH).getPromotedCount());
+    }
+
+    @Test
+    public void testWaitEndsAtDeadline() {
+        FairScheduler scheduler = new FairScheduler(1, NO_STARVATION, Collections.emptyMap());
+        assertTrue(scheduler.acquire(PriorityClass.NORMAL, "holder", 0L));
+
+        long start = System.nanoTime();
+        assertFalse(scheduler.acquire(PriorityClass.NORMAL, "late", start + TimeUnit.MILLISECONDS.toNanos(30)));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(30));
+
+        FairScheduler.ClassQueue queue = scheduler.getQueue(PriorityClass.NORMAL);
+        assertEquals(1, queue.getExpiredCount());
+        assertEquals(0, queue.getWaiting());
+        // 撤销的排队不影响后续调度
+        scheduler.release(PriorityClass.NORMAL);
+        assertTrue(scheduler.acquire(PriorityClass.NORMAL, "next", 0L));
+        assertEquals(2, queue.getGrantedCount());
+    }
+
+    /**
+     * 启动一个排队线程，等它进入队列后返回；获得名额后记录标签并立即归还
+     */
+    private void enqueue(FairScheduler scheduler, PriorityClass priorityClass, String caller, String label)
+            throws InterruptedException {
+        int waiting = totalWaiting(scheduler);
+        Thread thread = new Thread(() -> {
+            scheduler.acquire(priorityClass, caller, 0L);
+            order.add(label);
+            scheduler.release(priorityClass);
+        });
+        thread.setDaemon(true);
+        thread.start();
+        threads.add(thread);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (totalWaiting(scheduler) == waiting) {
+            assertTrue(System.currentTimeMillis() < deadline, "thread did not queue");
+            Thread.sleep(1);
+        }
+    }
+
+    private List<String> awaitOrder() throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+        return new ArrayList<>(order);
+    }
+
+    private static int totalWaiting(FairScheduler scheduler) {
+        int waiting = 0;
+        for (PriorityClass priorityClass : PriorityClass.all()) {
+            waiting += scheduler.getQueue(priorityClass).getWaiting();
+        }
+        return waiting;
+    }
+}
@@ -0,0 +1,115 @@
+package com.coldscholor.shm;
+
+import com.coldscholor.common.Invocation;
+import com.coldscholor.common.URL;
+import com.coldscholor.register.LocalRegister;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 共享内存传输测试：提供者和消费者在同一进程内，通过内存映射文件通信
+ */
+public class SharedMemoryTransportTest {
+
+    public interface TextService {
+        String repeat(String value, int times);
+
+        String fail();
+    }
+
+    public static class TextServiceImpl implements TextService {
+        @Override
+        public String repeat(String value, int times) {
+            StringBuilder result = new StringBuilder();
+            for (int i = 0; i < times; i++) {
+                result.append(value);
+            }
+            return result.toString();
+        }
+
+        @Override
+        public String fail() {
+            throw new IllegalArgumentException("bad input");
+        }
+    }
+
+    private static SharedMemoryServer server;
+
+    private static URL url;
+
+    @BeforeAll
+    public static void startServer() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        LocalRegister.register(TextService.class.getName(), "1.0", TextServiceImpl.class);
+        server = SharedMemoryServer.start(port);
+        url = new URL("127.0.0.1", port);
+    }
+
+    @AfterAll
+    public static void stopServer() {
+        SharedMemoryClient.getInstance().shutdown();
+        server.shutdown();
+    }
+
+    @Test
+    public void testCallsOverSharedMemory() throws Exception {
+        SharedMemoryClient client = SharedMemoryClient.getInstance();
+        assertTrue(client.supports(url));
+        assertFalse(client.supports(new URL("127.0.0.1", 1)));
+
+        assertEquals("abab", client.sendRequest(url, repeat("ab", 2), 5000));
+        // 大于环容量的响应分片传输
+        String large = client.sendRequest(url, repeat("0123456789", 100000), 5000);
+        assertEquals(1000000, large.length());
+        assertTrue(large.startsWith("01234567890123"));
+    }
+
+    @Test
+    public void testConcurrentCallersUseSeparateChannels() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String value = String.valueOf(i);
+                results.add(executor.submit(() -> SharedMemoryClient.getInstance().sendRequest(url, repeat(value, 3), 5000)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                String value = String.valueOf(i);
+                assertEquals(value + value + value, results.get(i).get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testProviderErrorIsReported() {
+        Invocation invocation = new Invocation(TextService.class.getName(), "fail", new Class[0], new Object[0]);
+        IOException e = assertThrows(IOException.class,
+            () -> SharedMemoryClient.getInstance().sendRequest(url, invocation, 5000));
+        assertTrue(e.getMessage().contains("bad input"));
+    }
+
+    private static Invocation repeat(String value, int times) {
+        return new Invocation(TextService.class.getName(), "repeat",
+            new Class[]{String.class, int.class}, new Object[]{value, times});
+    }
+}
@@ -0,0 +1,142 @@
+package com.coldscholor.threadpool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 带统计线程池和自动调整测试
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class InstrumentedThreadPoolExecutorTest {
+
+    private InstrumentedThreadPoolExecutor pool;
+
+    @AfterEach
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private InstrumentedThreadPoolExecutor newPool(int core, int max, int queue, ThreadPoolExecutor.AbortPolicy policy) {
+        return new InstrumentedThreadPoolExecutor("test", core, max, 60, queue, Executors.defaultThreadFactory(), policy);
+    }
+
+    @Test
+    public void testRecordsWaitRunAndCallerRuns() throws Exception {
+        pool = new InstrumentedThreadPoolExecutor("test", 1, 1, 60, 1, Executors.defaultThreadFactory(),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        pool.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        // 第一个任务开始执行后再计时，否则线程启动慢时执行时间可能不足20ms
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // 排队的任务等到第一个任务结束才开始
+        pool.execute(() -> { });
+        // 队列已满，退回当前线程执行
+        Thread caller = Thread.currentThread();
+        Thread[] ranOn = new Thread[1];
+        pool.execute(() -> ranOn[0] = Thread.currentThread());
+        assertEquals(caller, ranOn[0]);
+        Thread.sleep(20);
+        release.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+        ThreadPoolStats stats = pool.getStats();
+        assertEquals(1, stats.getCallerRunsCount());
+        assertEquals(0, stats.getRejectedCount());
+        assertEquals(3, pool.getQueueWait().getCount());
+        assertTrue(pool.getQueueWait().quantileNanos(1.0) >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(pool.getRunTime().quantileNanos(1.0) >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    public void testResizeChangesThreadsAndQueueBound() throws Exception {
+        pool = newPool(1, 1, 1, new ThreadPoolExecutor.AbortPolicy());
+        CountDownLatch release = new CountDownLatch(1);
+        pool.execute(() -> await(release));
+        pool.execute(() -> await(release));
+        assertThrows(RejectedExecutionException.class, () -> pool.execute(() -> { }));
+        assertEquals(1, pool.getRejectedCount());
+
+        // 扩容后排队的任务立即有线程执行，队列也能容纳更多任务
+        pool.resize(3, 4, 10);
+        for (int i = 0; i < 5; i++) {
+            pool.execute(() -> await(release));
+        }
+        assertEquals(3, pool.getCorePoolSize());
+        assertEquals(4, pool.getMaximumPoolSize());
+        assertEquals(10, pool.getQueueCapacity());
+        assertTrue(pool.getPoolSize() >= 2);
+
+        // 缩容时先降核心线程数，核心线程数始终不超过最大线程数
+        pool.resize(1, 2, 5);
+        assertEquals(1, pool.getCorePoolSize());
+        assertEquals(2, pool.getMaximumPoolSize());
+        assertThrows(IllegalArgumentException.class, () -> pool.resize(3, 2, 5));
+        assertThrows(IllegalArgumentException.class, () -> pool.resize(1, 2, 0));
+        release.countDown();
+    }
+
+    @Test
+    public void testAutoTunerGrowsUnderQueueingAndShrinksWhenIdle() throws Exception {
+        pool = newPool(1, 2, 100, new ThreadPoolExecutor.AbortPolicy());
+        ThreadPoolAutoTuner tuner = new ThreadPoolAutoTuner(Collections.singletonList(pool),
+            TimeUnit.MILLISECONDS.toNanos(5), 8);
+
+        // 单线程串行执行，排队等待远超目标
+        CountDownLatch done = new CountDownLatch(5);
+        for (int i = 0; i < 5; i++) {
+            pool.execute(() -> {
+                sleep(10);
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        tuner.tune();
+        assertEquals(2, pool.getCorePoolSize());
+        assertEquals(2, pool.getMaximumPoolSize());
+
+        // 连续空闲三个周期后缩回启动时的大小
+        Thread.sleep(20);
+        tuner.tune();
+        tuner.tune();
+        assertEquals(2, pool.getCorePoolSize());
+        tuner.tune();
+        assertEquals(1, pool.getCorePoolSize());
+        assertEquals(2, pool.getMaximumPoolSize());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
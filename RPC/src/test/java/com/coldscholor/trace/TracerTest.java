@@ -0,0 +1,112 @@
+package com.coldscholor.trace;
+
+import com.coldscholor.common.Invocation;
+import com.coldscholor.common.URL;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 追踪上下文传递和Span记录测试
+ *
+ * @author 寒士obj
+ * @date 2026/10/18
+ */
+public class TracerTest {
+
+    private static final URL URL = new URL("127.0.0.1", 8080);
+
+    private static Invocation newInvocation() {
+        return new Invocation("com.example.EchoService", "echo", new Class[]{String.class}, new Object[]{"x"});
+    }
+
+    @Test
+    public void testServerSpanContinuesClientTrace() {
+        Tracer tracer = new Tracer(1.0, 16, 1000L);
+        Invocation invocation = newInvocation();
+        Span client = tracer.startClientSpan(invocation, "com.example.EchoService.echo", URL);
+        assertTrue(client.isRecording());
+        assertEquals("1", invocation.getAttachment(TraceContext.SAMPLED));
+
+        Span server = tracer.startServerSpan(invocation);
+        assertEquals(client.getTraceId(), server.getTraceId());
+        assertEquals(client.getSpanId(), server.getParentSpanId());
+        assertEquals(Span.Kind.SERVER, server.getKind());
+
+        // 提供端在服务Span的上下文中发起的下游调用成为它的子Span
+        try (Scope scope = server.makeCurrent()) {
+            Span downstream = tracer.startClientSpan(newInvocation(), "com.example.Other.call", URL);
+            assertEquals(client.getTraceId(), downstream.getTraceId());
+            assertEquals(server.getSpanId(), downstream.getParentSpanId());
+        }
+        assertNull(TraceContext.current());
+
+        server.end();
+        client.end(new IllegalStateException("boom"));
+        client.end();
+        List<Span> spans = tracer.getRecentSpans();
+        assertEquals(2, spans.size());
+        assertSame(server, spans.get(0));
+        assertTrue(spans.get(1).getError().contains("boom"));
+        assertTrue(spans.get(1).getDurationNanos() >= 0);
+    }
+
+    @Test
+    public void testUnsampledRootUsesSharedSpan() {
+        Tracer tracer = new Tracer(0.0, 16, 1000L);
+        Invocation invocation = newInvocation();
+        Span client = tracer.startClientSpan(invocation, "com.example.EchoService.echo", URL);
+        assertSame(Span.NOOP, client);
+        assertEquals(1, invocation.getAttachments().size());
+        assertEquals("0", invocation.getAttachment(TraceContext.SAMPLED));
+
+        // 下游沿用未采样的决定，即使自己的采样率为1
+        Span server = new Tracer(1.0, 16, 1000L).startServerSpan(invocation);
+        assertSame(Span.NOOP, server);
+        client.end();
+        assertEquals(0, tracer.getRecordedCount());
+    }
+
+    @Test
+    public void testBaggageFlowsAcrossHops() {
+        Tracer tracer = new Tracer(0.0, 16, 1000L);
+        TraceContext root = TraceContext.NOT_SAMPLED.withBaggage("tenant", "acme");
+        Invocation invocation = newInvocation();
+        try (Scope scope = root.makeCurrent()) {
+            tracer.startClientSpan(invocation, "com.example.EchoService.echo", URL);
+        }
+        assertEquals("acme", invocation.getAttachment(TraceContext.BAGGAGE_PREFIX + "tenant"));
+
+        Span server = tracer.startServerSpan(invocation);
+        assertEquals("acme", server.getContext().getBaggage("tenant"));
+        Runnable task = TraceContext.wrap(server.getContext(),
+            () -> assertEquals("acme", TraceContext.current().getBaggage("tenant")));
+        task.run();
+        assertNull(TraceContext.current());
+    }
+
+    @Test
+    public void testRingBufferOverwritesAndCountsDropped() {
+        SpanRingBuffer buffer = new SpanRingBuffer(4);
+        Tracer tracer = new Tracer(1.0, 4, 1000L);
+        for (int i = 0; i < 3; i++) {
+            buffer.add(tracer.startSpan("op" + i));
+        }
+        assertEquals(3, buffer.drain().size());
+        assertEquals(0, buffer.drain().size());
+
+        for (int i = 0; i < 6; i++) {
+            buffer.add(tracer.startSpan("op" + i));
+        }
+        List<Span> drained = buffer.drain();
+        assertEquals(4, drained.size());
+        assertEquals("op2", drained.get(0).getName());
+        assertEquals(2, buffer.getDroppedCount());
+        assertEquals(4, buffer.snapshot().size());
+    }
+}